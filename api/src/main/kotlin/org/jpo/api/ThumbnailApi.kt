@@ -79,6 +79,7 @@ class ThumbnailApi(private val jpoPictureCollection: JpoPictureCollection) {
             val imageBytes = when (userObject) {
                 is PictureInfo -> {
                     JpoCache.getThumbnailImageBytes(
+                        userObject.sha256,
                         userObject.imageFile,
                         userObject.rotation,
                         Dimension(CacheSettings.getThumbnailSize(), CacheSettings.getThumbnailSize())
@@ -7,8 +7,10 @@ import org.springframework.boot.CommandLineRunner
 import org.springframework.core.annotation.Order
 import org.springframework.stereotype.Component
 import java.io.File
+import java.io.FileNotFoundException
 import java.util.logging.Level
 import java.util.logging.Logger
+import kotlin.concurrent.thread
 
 @Component
 @Order(1) // lower number = higher priority
@@ -22,19 +24,29 @@ class CollectionLoader(
         private val LOGGER = Logger.getLogger(CollectionLoader::class.java.name)
     }
 
+    /**
+     * Starts loading the collection on a background thread and returns straight away so that the API is available
+     * while the file is parsed. The top-level groups are attached to the collection as they are completed, so the
+     * endpoints serve the groups which have arrived so far.
+     */
     override fun run(vararg args: String) {
-        LOGGER.log(Level.INFO, "--- Loading Collection ---")
-
         val collectionFile = File(collectionFilePath)
 
         if (collectionFile.exists()) {
-            // Kotlin allows passing empty lambdas {} for Runnable/Consumer functional interfaces
-            jpoPictureCollection.pictureCollection.fileLoad(
-                collectionFile,
-                MyProgressTracker(),
-                { }          // onStart/Success lambda
-            )
-            LOGGER.log(Level.INFO, "Done Loading Collection")
+            LOGGER.log(Level.INFO, "--- Loading Collection in the background ---")
+            thread(name = "CollectionLoader", isDaemon = true) {
+                try {
+                    // Kotlin allows passing empty lambdas {} for Runnable/Consumer functional interfaces
+                    jpoPictureCollection.pictureCollection.fileLoad(
+                        collectionFile,
+                        MyProgressTracker(),
+                        { }          // onStart/Success lambda
+                    )
+                    LOGGER.log(Level.INFO, "Done Loading Collection")
+                } catch (e: FileNotFoundException) {
+                    LOGGER.log(Level.SEVERE, "Could not load collection ${collectionFile.absolutePath}: ${e.message}")
+                }
+            }
         } else {
             LOGGER.log(Level.WARNING, "Collection file NOT FOUND at: ${collectionFile.absolutePath}. Skipping load.")
         }
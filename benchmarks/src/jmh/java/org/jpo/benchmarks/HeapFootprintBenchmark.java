@@ -0,0 +1,102 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.PictureCollection;
+import org.jpo.datamodel.ProgressTracker;
+import org.jpo.datamodel.XmlReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures how much heap a loaded collection takes. The collection is read from XML like a real one so that the
+ * strings come out of the parser and aren't shared by the generator. The interesting number is the
+ * bytesPerPicture counter; the time only shows how long the load took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class HeapFootprintBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int pictures;
+
+    private byte[] xml;
+
+    private static final ProgressTracker NO_PROGRESS = new ProgressTracker() {
+        @Override
+        public void update(final String message) {
+            // the benchmark doesn't show progress
+        }
+
+        @Override
+        public void done() {
+            // the benchmark doesn't show progress
+        }
+    };
+
+    /**
+     * The heap which the loaded collection occupies
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerPicture;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final var xmlFile = Files.createTempFile("HeapFootprintBenchmark", ".xml").toFile();
+        try {
+            SyntheticCollectionGenerator.write(SyntheticCollectionGenerator.generate(pictures), xmlFile);
+            xml = Files.readAllBytes(xmlFile.toPath());
+        } finally {
+            Files.deleteIfExists(xmlFile.toPath());
+        }
+    }
+
+    @Benchmark
+    public PictureCollection loadedCollection(final Footprint footprint) {
+        final var before = usedHeap();
+        final var loadedCollection = new PictureCollection();
+        loadedCollection.setSendModelUpdates(false);
+        XmlReader.read(new ByteArrayInputStream(xml), loadedCollection.getRootNode(), NO_PROGRESS);
+        footprint.bytesPerPicture = (usedHeap() - before) / pictures;
+        return loadedCollection;
+    }
+
+    private static long usedHeap() {
+        final var runtime = Runtime.getRuntime();
+        var used = Long.MAX_VALUE;
+        // a few rounds until the collector has nothing more to free
+        for (var i = 0; i < 5; i++) {
+            System.gc();
+            final var nowUsed = runtime.totalMemory() - runtime.freeMemory();
+            if (nowUsed >= used) {
+                break;
+            }
+            used = nowUsed;
+        }
+        return used;
+    }
+}
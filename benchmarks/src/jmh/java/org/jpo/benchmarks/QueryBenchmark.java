@@ -0,0 +1,69 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures running the queries over the whole collection. Each benchmark creates a new query so that no results
+ * are carried over from the previous call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int pictures;
+
+    private PictureCollection pictureCollection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pictureCollection = SyntheticCollectionGenerator.generate(pictures);
+    }
+
+    @Benchmark
+    public int textQuery() {
+        return new TextQuery(pictureCollection.getRootNode(), "sunset").getNumberOfResults();
+    }
+
+    @Benchmark
+    public int textQueryNoMatch() {
+        return new TextQuery(pictureCollection.getRootNode(), "volcano").getNumberOfResults();
+    }
+
+    @Benchmark
+    public int yearQuery() {
+        final var yearQuery = new YearQuery(Integer.toString(SyntheticCollectionGenerator.FIRST_YEAR + 10));
+        yearQuery.setStartNode(pictureCollection.getRootNode());
+        return yearQuery.getNumberOfResults();
+    }
+
+    @Benchmark
+    public int categoryQuery() {
+        return new CategoryQuery(pictureCollection, 7).getNumberOfResults();
+    }
+
+    @Benchmark
+    public int duplicatesQuery() {
+        return new DuplicatesQuery(pictureCollection).getNumberOfResults();
+    }
+}
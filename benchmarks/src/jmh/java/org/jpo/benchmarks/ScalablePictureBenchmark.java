@@ -0,0 +1,64 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.HashingService;
+import org.jpo.datamodel.ScalablePicture;
+import org.jpo.datamodel.Tools;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures scaling a decoded picture down to thumbnail and screen sizes in fast and in quality mode. The picture
+ * is decoded once per trial so only the scaling is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScalablePictureBenchmark {
+
+    @Param({"fast", "quality"})
+    public String mode;
+
+    @Param({"350", "1920"})
+    public int targetSize;
+
+    private ScalablePicture scalablePicture;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final var file = Tools.copyResourceToTempFile("/exif-test-samsung-s4.jpg");
+        scalablePicture = new ScalablePicture();
+        if ("fast".equals(mode)) {
+            scalablePicture.setFastScale();
+        } else {
+            scalablePicture.setQualityScale();
+        }
+        scalablePicture.setScaleSize(new Dimension(targetSize, targetSize));
+        scalablePicture.loadPictureImd(HashingService.calculateSha256(file), file, 0);
+    }
+
+    @Benchmark
+    public BufferedImage scalePicture() {
+        scalablePicture.scalePicture();
+        return scalablePicture.getScaledPicture();
+    }
+}
@@ -0,0 +1,67 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.FieldCodes;
+import org.jpo.datamodel.PictureCollection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures sorting a big group. All the pictures sit directly under the root node and are shuffled before each
+ * call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortChildrenBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int pictures;
+
+    @Param({"DESCRIPTION", "CREATION_TIME", "PHOTOGRAPHER"})
+    public FieldCodes sortCriteria;
+
+    private PictureCollection pictureCollection;
+
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pictureCollection = SyntheticCollectionGenerator.generateFlat(pictures);
+    }
+
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        final var rootNode = pictureCollection.getRootNode();
+        final var children = rootNode.getChildPictureNodes(false);
+        Collections.shuffle(children, random);
+        pictureCollection.setSendModelUpdates(false);
+        rootNode.removeAllChildren();
+        children.forEach(rootNode::add);
+        pictureCollection.setSendModelUpdates(true);
+    }
+
+    @Benchmark
+    public int sortChildren() {
+        pictureCollection.getRootNode().sortChildren(sortCriteria);
+        return pictureCollection.getRootNode().getChildCount();
+    }
+}
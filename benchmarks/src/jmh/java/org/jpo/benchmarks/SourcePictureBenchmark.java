@@ -0,0 +1,78 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.HashingService;
+import org.jpo.datamodel.JpoImageIO;
+import org.jpo.datamodel.SourcePicture;
+import org.jpo.datamodel.Tools;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures decoding and rotating a picture. The full decode reads the bytes from the highres cache after the
+ * first invocation, so it measures the decode and not the disk. The reduced decode reads a subsampled image or the
+ * embedded preview straight from the file for a thumbnail sized target. The EXIF preview decode measures finding and
+ * decoding the camera's preview on its own; the Samsung picture's 512 x 288 preview covers a thumbnail, the Canon's
+ * 160 x 120 one doesn't.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SourcePictureBenchmark {
+
+    @Param({"/exif-test-samsung-s4.jpg", "/exif-test-canon-eos-350d.jpg"})
+    public String picture;
+
+    @Param({"0", "90", "45"})
+    public double rotation;
+
+    private static final Dimension THUMBNAIL_SIZE = new Dimension(350, 350);
+
+    private File file;
+    private String sha256;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Tools.copyResourceToTempFile(picture);
+        sha256 = HashingService.calculateSha256(file);
+    }
+
+    @Benchmark
+    public BufferedImage fullDecode() {
+        final var sourcePicture = new SourcePicture();
+        sourcePicture.loadPicture(sha256, file, rotation);
+        return sourcePicture.getSourceBufferedImage();
+    }
+
+    @Benchmark
+    public BufferedImage reducedDecode() {
+        final var sourcePicture = new SourcePicture();
+        sourcePicture.loadReducedPicture(sha256, file, rotation, THUMBNAIL_SIZE);
+        return sourcePicture.getSourceBufferedImage();
+    }
+
+    @Benchmark
+    public BufferedImage exifPreviewDecode() throws IOException {
+        return JpoImageIO.readExifPreview(file);
+    }
+}
@@ -0,0 +1,202 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Builds collections of any size which look like the ones people have: a group per year with a group per month
+ * underneath, descriptions made of a small vocabulary, creation dates spread over the years, a few categories per
+ * picture and a small share of duplicate files and duplicate SHA-256 values.
+ * <p>
+ * The pictures point at files which don't exist. That is fine for everything which only works on the data model.
+ * The same size and seed always give the same collection so that runs can be compared.
+ */
+public final class SyntheticCollectionGenerator {
+
+    /**
+     * The first year of the generated collection
+     */
+    public static final int FIRST_YEAR = 2000;
+
+    /**
+     * The number of year groups
+     */
+    public static final int YEARS = 25;
+
+    /**
+     * Every so many pictures reuse the SHA-256 of an earlier picture
+     */
+    private static final int DUPLICATE_SHA256_EVERY = 50;
+
+    /**
+     * Every so many pictures point at the file of an earlier picture
+     */
+    private static final int DUPLICATE_FILE_EVERY = 200;
+
+    /**
+     * The number of categories in the collection
+     */
+    public static final int CATEGORIES = 20;
+
+    /**
+     * Words the descriptions are made of. Benchmarks search for them.
+     */
+    public static final List<String> VOCABULARY = List.of(
+            "beach", "mountain", "lake", "birthday", "wedding", "garden", "snow", "sunset", "harbour", "castle",
+            "forest", "river", "market", "cathedral", "bridge", "picnic", "concert", "train", "island", "village",
+            "grandma", "cousins", "dog", "cat", "horse", "bicycle", "boat", "skiing", "hiking", "dinner");
+
+    private static final List<String> PHOTOGRAPHERS = List.of("Richard", "Anna", "Thomas", "Maria", "Peter");
+
+    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+
+    private SyntheticCollectionGenerator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Generates a collection with the default seed
+     *
+     * @param pictures the number of pictures
+     * @return the new collection
+     */
+    public static PictureCollection generate(final int pictures) {
+        return generate(pictures, 42);
+    }
+
+    /**
+     * Generates a collection
+     *
+     * @param pictures the number of pictures
+     * @param seed     the seed of the random numbers
+     * @return the new collection
+     */
+    public static PictureCollection generate(final int pictures, final long seed) {
+        return generate(pictures, seed, false);
+    }
+
+    /**
+     * Generates a collection with all the pictures directly under the root node as after importing a big
+     * directory
+     *
+     * @param pictures the number of pictures
+     * @return the new collection
+     */
+    public static PictureCollection generateFlat(final int pictures) {
+        return generate(pictures, 42, true);
+    }
+
+    private static PictureCollection generate(final int pictures, final long seed, final boolean flat) {
+        final var random = new Random(seed);
+        final var pictureCollection = new PictureCollection();
+        pictureCollection.setSendModelUpdates(false);
+        for (var i = 0; i < CATEGORIES; i++) {
+            pictureCollection.addCategory(i, "Category " + i);
+        }
+
+        final var rootNode = pictureCollection.getRootNode();
+        final var shas = new ArrayList<String>(pictures);
+        final var files = new ArrayList<File>(pictures);
+        final var picturesPerYear = (pictures + YEARS - 1) / YEARS;
+        var index = 0;
+        for (var year = FIRST_YEAR; year < FIRST_YEAR + YEARS && index < pictures; year++) {
+            final var yearNode = new SortableDefaultMutableTreeNode(new GroupInfo(Integer.toString(year)));
+            final var picturesThisYear = Math.min(picturesPerYear, pictures - index);
+            for (var month = 1; month <= 12; month++) {
+                final var monthNode = new SortableDefaultMutableTreeNode(new GroupInfo(String.format("%d-%02d", year, month)));
+                final var picturesThisMonth = picturesThisYear / 12 + (month <= picturesThisYear % 12 ? 1 : 0);
+                for (var p = 0; p < picturesThisMonth; p++) {
+                    final var pictureInfo = createPictureInfo(random, index, year, month, shas, files);
+                    (flat ? rootNode : monthNode).add(new SortableDefaultMutableTreeNode(pictureInfo));
+                    index++;
+                }
+                if (!flat) {
+                    yearNode.add(monthNode);
+                }
+            }
+            if (!flat) {
+                rootNode.add(yearNode);
+            }
+        }
+
+        pictureCollection.setSendModelUpdates(true);
+        pictureCollection.setUnsavedUpdates(false);
+        return pictureCollection;
+    }
+
+    private static PictureInfo createPictureInfo(final Random random, final int index, final int year, final int month,
+                                                 final List<String> shas, final List<File> files) {
+        final var pictureInfo = new PictureInfo();
+        final File file;
+        if (index > 0 && index % DUPLICATE_FILE_EVERY == 0) {
+            file = files.get(random.nextInt(index));
+        } else {
+            file = new File(String.format("/benchmark/pictures/%d/%02d/IMG_%07d.jpg", year, month, index));
+        }
+        files.add(file);
+        pictureInfo.setImageLocation(file);
+
+        final String sha256;
+        if (index > 0 && index % DUPLICATE_SHA256_EVERY == 0) {
+            sha256 = shas.get(random.nextInt(index));
+        } else {
+            final var bytes = new byte[32];
+            random.nextBytes(bytes);
+            sha256 = HEX_FORMAT.formatHex(bytes);
+        }
+        shas.add(sha256);
+        pictureInfo.setSha256(sha256);
+
+        final var description = new StringBuilder();
+        final var words = 2 + random.nextInt(5);
+        for (var w = 0; w < words; w++) {
+            description.append(VOCABULARY.get(random.nextInt(VOCABULARY.size()))).append(' ');
+        }
+        description.append(index);
+        pictureInfo.setDescription(description.toString());
+        pictureInfo.setComment(random.nextInt(4) == 0 ? "with " + VOCABULARY.get(random.nextInt(VOCABULARY.size())) : "");
+        pictureInfo.setPhotographer(PHOTOGRAPHERS.get(random.nextInt(PHOTOGRAPHERS.size())));
+        pictureInfo.setFilmReference(String.format("Film %d-%02d", year, month));
+        pictureInfo.setCreationTime(String.format("%d:%02d:%02d %02d:%02d:%02d",
+                year, month, 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+
+        final var categories = random.nextInt(4);
+        for (var c = 0; c < categories; c++) {
+            pictureInfo.addCategoryAssignment(random.nextInt(CATEGORIES));
+        }
+        return pictureInfo;
+    }
+
+    /**
+     * Writes the collection to an XML file the way JPO saves it
+     *
+     * @param pictureCollection the collection
+     * @param xmlFile           the file to write
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final PictureCollection pictureCollection, final File xmlFile) throws IOException {
+        JpoWriter.write(xmlFile, pictureCollection.getRootNode(), false);
+    }
+}
@@ -0,0 +1,75 @@
+package org.jpo.benchmarks;
+
+import org.jpo.datamodel.CacheSettings;
+import org.jpo.datamodel.HashingService;
+import org.jpo.datamodel.ImageBytes;
+import org.jpo.datamodel.JpoCache;
+import org.jpo.datamodel.Tools;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures getting a thumbnail from the {@link JpoCache}. The cold case empties the thumbnail caches before each
+ * call so the thumbnail is created from the picture; the warm case is answered from the cache. The cache lives in
+ * its own temporary directory so that the benchmark doesn't touch the thumbnails of a real installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ThumbnailCacheBenchmark {
+
+    private static final Dimension THUMBNAIL_SIZE = new Dimension(350, 350);
+
+    private File file;
+    private String sha256;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CacheSettings.setThumbnailCacheDirectory(Files.createTempDirectory("ThumbnailCacheBenchmark").toString());
+        file = Tools.copyResourceToTempFile("/exif-test-samsung-s4.jpg");
+        sha256 = HashingService.calculateSha256(file);
+        JpoCache.getThumbnailImageBytes(sha256, file, 0, THUMBNAIL_SIZE);
+    }
+
+    /**
+     * Empties the thumbnail caches before every call of the cold benchmark
+     */
+    @State(Scope.Thread)
+    public static class EmptyCache {
+        @Setup(Level.Invocation)
+        public void clear() {
+            JpoCache.clearThumbnailCache();
+        }
+    }
+
+    @Benchmark
+    public ImageBytes cold(final EmptyCache emptyCache) {
+        return JpoCache.getThumbnailImageBytes(sha256, file, 0, THUMBNAIL_SIZE);
+    }
+
+    @Benchmark
+    public ImageBytes warm() {
+        return JpoCache.getThumbnailImageBytes(sha256, file, 0, THUMBNAIL_SIZE);
+    }
+}
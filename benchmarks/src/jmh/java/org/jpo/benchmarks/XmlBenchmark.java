@@ -0,0 +1,88 @@
+package org.jpo.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.jpo.datamodel.JpoWriter;
+import org.jpo.datamodel.PictureCollection;
+import org.jpo.datamodel.ProgressTracker;
+import org.jpo.datamodel.XmlReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Measures loading and saving a collection. The XML is read from memory so that the disk doesn't take part in
+ * the read measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XmlBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int pictures;
+
+    private PictureCollection pictureCollection;
+    private File directory;
+    private File xmlFile;
+    private byte[] xml;
+
+    private static final ProgressTracker NO_PROGRESS = new ProgressTracker() {
+        @Override
+        public void update(final String message) {
+            // the benchmark doesn't show progress
+        }
+
+        @Override
+        public void done() {
+            // the benchmark doesn't show progress
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pictureCollection = SyntheticCollectionGenerator.generate(pictures);
+        directory = Files.createTempDirectory("XmlBenchmark").toFile();
+        xmlFile = new File(directory, "collection.xml");
+        SyntheticCollectionGenerator.write(pictureCollection, xmlFile);
+        xml = Files.readAllBytes(xmlFile.toPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public PictureCollection read() {
+        final var loadedCollection = new PictureCollection();
+        loadedCollection.setSendModelUpdates(false);
+        XmlReader.read(new ByteArrayInputStream(xml), loadedCollection.getRootNode(), NO_PROGRESS);
+        return loadedCollection;
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        JpoWriter.write(xmlFile, pictureCollection.getRootNode(), false);
+        return xmlFile.length();
+    }
+}
@@ -98,5 +98,176 @@ public class CacheSettings {
         dontEnlargeSmallImages = newDontEnlargeSmallImages;
     }
 
+    /**
+     * The number of bytes the highres cache may hold. Zero means the budget is derived from the maximum heap.
+     */
+    private static long highresCacheMaxBytes;
+
+    /**
+     * Returns the number of bytes of original image data the highres cache may hold. Unless set explicitly this is
+     * a quarter of the maximum heap of the JVM.
+     *
+     * @return the budget in bytes
+     */
+    public static long getHighresCacheMaxBytes() {
+        if (highresCacheMaxBytes > 0) {
+            return highresCacheMaxBytes;
+        }
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    /**
+     * Sets the number of bytes the highres cache may hold.
+     *
+     * @param newHighresCacheMaxBytes the budget in bytes or 0 to derive it from the maximum heap
+     */
+    public static void setHighresCacheMaxBytes(final long newHighresCacheMaxBytes) {
+        highresCacheMaxBytes = Math.max(0, newHighresCacheMaxBytes);
+    }
+
+    /**
+     * true when the highres cache should keep the image bytes outside the Java heap
+     */
+    private static boolean highresCacheOffHeap;
+
+    /**
+     * Returns whether the highres cache keeps the image bytes outside the Java heap
+     *
+     * @return true if off-heap storage is used
+     */
+    public static boolean isHighresCacheOffHeap() {
+        return highresCacheOffHeap;
+    }
+
+    /**
+     * Sets whether the highres cache should keep the image bytes outside the Java heap. Only affects images stored
+     * after the change.
+     *
+     * @param newHighresCacheOffHeap true to use off-heap storage
+     */
+    public static void setHighresCacheOffHeap(final boolean newHighresCacheOffHeap) {
+        highresCacheOffHeap = newHighresCacheOffHeap;
+    }
+
+    /**
+     * true when the file type probes should be saved next to the collection file
+     */
+    private static boolean persistFileTypes;
+
+    /**
+     * Returns whether the {@link FileTypeProbe} classifications are saved next to the collection file and read
+     * back when it is loaded
+     *
+     * @return true if they are saved
+     */
+    public static boolean isPersistFileTypes() {
+        return persistFileTypes;
+    }
+
+    /**
+     * Sets whether the {@link FileTypeProbe} classifications are saved next to the collection file
+     *
+     * @param newPersistFileTypes true to save them
+     */
+    public static void setPersistFileTypes(final boolean newPersistFileTypes) {
+        persistFileTypes = newPersistFileTypes;
+    }
+
+    /**
+     * true when a binary copy of the collection is kept next to the collection file
+     */
+    private static boolean binaryCollection = true;
+
+    /**
+     * Returns whether a {@link JpoBinaryCollection} is written next to the collection file when it is saved and
+     * read instead of the XML file when it is current
+     *
+     * @return true if the binary copy is used
+     */
+    public static boolean isBinaryCollection() {
+        return binaryCollection;
+    }
+
+    /**
+     * Sets whether a {@link JpoBinaryCollection} is kept next to the collection file
+     *
+     * @param newBinaryCollection true to use the binary copy
+     */
+    public static void setBinaryCollection(final boolean newBinaryCollection) {
+        binaryCollection = newBinaryCollection;
+    }
+
+    /**
+     * true when the changes are appended to a journal next to the collection file when it is saved
+     */
+    private static boolean changeJournal = true;
+
+    /**
+     * Returns whether saving a collection appends the changes to a {@link ChangeJournal} instead of writing the
+     * whole XML file
+     *
+     * @return true if the journal is used
+     */
+    public static boolean isChangeJournal() {
+        return changeJournal;
+    }
+
+    /**
+     * Sets whether saving a collection appends the changes to a {@link ChangeJournal}
+     *
+     * @param newChangeJournal true to use the journal
+     */
+    public static void setChangeJournal(final boolean newChangeJournal) {
+        changeJournal = newChangeJournal;
+    }
+
+    /**
+     * How many files are hashed at the same time on solid state storage. Zero means one per processor.
+     */
+    private static int hashingThreadsSolidState;
+
+    /**
+     * Returns how many files the {@link HashingService} reads at the same time from solid state storage
+     *
+     * @return the number of threads
+     */
+    public static int getHashingThreadsSolidState() {
+        if (hashingThreadsSolidState > 0) {
+            return hashingThreadsSolidState;
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets how many files are hashed at the same time on solid state storage
+     *
+     * @param newHashingThreadsSolidState the number of threads or 0 for one per processor
+     */
+    public static void setHashingThreadsSolidState(final int newHashingThreadsSolidState) {
+        hashingThreadsSolidState = Math.max(0, newHashingThreadsSolidState);
+    }
+
+    /**
+     * How many files are hashed at the same time on spinning disks. More than one makes the heads seek.
+     */
+    private static int hashingThreadsSpinning = 1;
+
+    /**
+     * Returns how many files the {@link HashingService} reads at the same time from a spinning disk
+     *
+     * @return the number of threads
+     */
+    public static int getHashingThreadsSpinning() {
+        return hashingThreadsSpinning;
+    }
+
+    /**
+     * Sets how many files are hashed at the same time on spinning disks
+     *
+     * @param newHashingThreadsSpinning the number of threads, at least 1
+     */
+    public static void setHashingThreadsSpinning(final int newHashingThreadsSpinning) {
+        hashingThreadsSpinning = Math.max(1, newHashingThreadsSpinning);
+    }
 
 }
@@ -0,0 +1,373 @@
+package org.jpo.datamodel;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * A compressed set of non-negative ints for the {@link CategoryIndex}. The numbers are split into chunks of 65536
+ * by their upper 16 bits. A chunk with few numbers keeps them as a sorted char array; a chunk with more than
+ * {@link #MAX_ARRAY_SIZE} numbers switches to a plain bitmap of 1024 longs. A category which only a few pictures
+ * of a big collection carry therefore costs two bytes per picture instead of a bit for every picture of the
+ * collection.
+ * <p>
+ * The class is not thread safe. The index guards it.
+ */
+final class CategoryBitmap {
+
+    /**
+     * Above this size a sorted array takes more room than a bitmap
+     */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+
+    /**
+     * The numbers of one chunk. Either values or words is in use.
+     */
+    private static final class Chunk {
+        private char[] values;
+        private long[] words;
+        private int cardinality; // default is 0
+
+        private static Chunk empty() {
+            final var chunk = new Chunk();
+            chunk.values = new char[4];
+            return chunk;
+        }
+
+        private Chunk copy() {
+            final var chunk = new Chunk();
+            chunk.values = values == null ? null : values.clone();
+            chunk.words = words == null ? null : words.clone();
+            chunk.cardinality = cardinality;
+            return chunk;
+        }
+
+        private boolean contains(final char low) {
+            if (words != null) {
+                return (words[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        private boolean add(final char low) {
+            if (words != null) {
+                final var before = words[low >>> 6];
+                words[low >>> 6] = before | (1L << low);
+                if (before == words[low >>> 6]) {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            final var position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                words = getWords();
+                values = null;
+                return add(low);
+            }
+            final var insertionPoint = -position - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, cardinality * 2));
+            }
+            System.arraycopy(values, insertionPoint, values, insertionPoint + 1, cardinality - insertionPoint);
+            values[insertionPoint] = low;
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(final char low) {
+            if (words != null) {
+                final var before = words[low >>> 6];
+                words[low >>> 6] = before & ~(1L << low);
+                if (before == words[low >>> 6]) {
+                    return false;
+                }
+                cardinality--;
+                if (cardinality <= MAX_ARRAY_SIZE / 2) {
+                    // a bit below the switching point so that a chunk at the limit doesn't flip back and forth
+                    final var chunk = of(words);
+                    values = chunk.values;
+                    words = chunk.words;
+                }
+                return true;
+            }
+            final var position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+            cardinality--;
+            return true;
+        }
+
+        /**
+         * Returns the chunk as a bitmap. The array of a bitmap chunk is returned as it is.
+         */
+        private long[] getWords() {
+            if (words != null) {
+                return words;
+            }
+            final var bitmap = new long[BITMAP_WORDS];
+            for (var i = 0; i < cardinality; i++) {
+                bitmap[values[i] >>> 6] |= 1L << values[i];
+            }
+            return bitmap;
+        }
+
+        private void forEach(final int high, final IntConsumer consumer) {
+            if (words == null) {
+                for (var i = 0; i < cardinality; i++) {
+                    consumer.accept(high | values[i]);
+                }
+                return;
+            }
+            for (var w = 0; w < BITMAP_WORDS; w++) {
+                var word = words[w];
+                while (word != 0) {
+                    consumer.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        /**
+         * Makes a chunk of the bits in whichever form is smaller
+         *
+         * @return the chunk or null if no bit is set
+         */
+        private static Chunk of(final long[] bitmap) {
+            var cardinality = 0;
+            for (final var word : bitmap) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality == 0) {
+                return null;
+            }
+            final var chunk = new Chunk();
+            chunk.cardinality = cardinality;
+            if (cardinality > MAX_ARRAY_SIZE) {
+                chunk.words = bitmap;
+                return chunk;
+            }
+            chunk.values = new char[cardinality];
+            var i = 0;
+            for (var w = 0; w < BITMAP_WORDS; w++) {
+                var word = bitmap[w];
+                while (word != 0) {
+                    chunk.values[i++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return chunk;
+        }
+    }
+
+    private enum Operation {AND, OR, AND_NOT}
+
+    private char[] keys = new char[0];
+
+    private Chunk[] chunks = new Chunk[0];
+
+    private int size; // default is 0
+
+    /**
+     * Adds a number to the set
+     *
+     * @param value the number
+     * @return true if it wasn't in the set before
+     */
+    boolean add(final int value) {
+        final var high = (char) (value >>> 16);
+        var position = Arrays.binarySearch(keys, 0, size, high);
+        if (position < 0) {
+            position = -position - 1;
+            if (size == keys.length) {
+                final var newLength = Math.max(4, size * 2);
+                keys = Arrays.copyOf(keys, newLength);
+                chunks = Arrays.copyOf(chunks, newLength);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(chunks, position, chunks, position + 1, size - position);
+            keys[position] = high;
+            chunks[position] = Chunk.empty();
+            size++;
+        }
+        return chunks[position].add((char) value);
+    }
+
+    /**
+     * Removes a number from the set
+     *
+     * @param value the number
+     * @return true if it was in the set
+     */
+    boolean remove(final int value) {
+        final var position = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (position < 0 || !chunks[position].remove((char) value)) {
+            return false;
+        }
+        if (chunks[position].cardinality == 0) {
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(chunks, position + 1, chunks, position, size - position - 1);
+            size--;
+            chunks[size] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the number is in the set
+     *
+     * @param value the number
+     * @return true if it is in the set
+     */
+    boolean contains(final int value) {
+        final var position = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return position >= 0 && chunks[position].contains((char) value);
+    }
+
+    /**
+     * Returns the number of numbers in the set
+     *
+     * @return the cardinality
+     */
+    int getCardinality() {
+        var cardinality = 0;
+        for (var i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns whether the set is empty
+     *
+     * @return true if it has no numbers
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Hands the numbers to the consumer in ascending order
+     *
+     * @param consumer the consumer
+     */
+    void forEach(final IntConsumer consumer) {
+        for (var i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Returns a copy of the set
+     *
+     * @return the copy
+     */
+    CategoryBitmap copy() {
+        final var copy = new CategoryBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.chunks = new Chunk[size];
+        for (var i = 0; i < size; i++) {
+            copy.chunks[i] = chunks[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the numbers which are in both sets
+     *
+     * @param a the first set
+     * @param b the second set
+     * @return a new set
+     */
+    static CategoryBitmap and(final CategoryBitmap a, final CategoryBitmap b) {
+        return combine(a, b, Operation.AND);
+    }
+
+    /**
+     * Returns the numbers which are in either set
+     *
+     * @param a the first set
+     * @param b the second set
+     * @return a new set
+     */
+    static CategoryBitmap or(final CategoryBitmap a, final CategoryBitmap b) {
+        return combine(a, b, Operation.OR);
+    }
+
+    /**
+     * Returns the numbers of the first set which are not in the second
+     *
+     * @param a the first set
+     * @param b the numbers to take out
+     * @return a new set
+     */
+    static CategoryBitmap andNot(final CategoryBitmap a, final CategoryBitmap b) {
+        return combine(a, b, Operation.AND_NOT);
+    }
+
+    private static CategoryBitmap combine(final CategoryBitmap a, final CategoryBitmap b, final Operation operation) {
+        final var result = new CategoryBitmap();
+        result.keys = new char[a.size + b.size];
+        result.chunks = new Chunk[a.size + b.size];
+        var i = 0;
+        var j = 0;
+        while (i < a.size || j < b.size) {
+            final var keyA = i < a.size ? a.keys[i] : Integer.MAX_VALUE;
+            final var keyB = j < b.size ? b.keys[j] : Integer.MAX_VALUE;
+            final int key;
+            final Chunk chunk;
+            if (keyA < keyB) {
+                key = keyA;
+                chunk = operation == Operation.AND ? null : a.chunks[i].copy();
+                i++;
+            } else if (keyB < keyA) {
+                key = keyB;
+                chunk = operation == Operation.OR ? b.chunks[j].copy() : null;
+                j++;
+            } else {
+                key = keyA;
+                final var wordsA = a.chunks[i].getWords().clone();
+                final var wordsB = b.chunks[j].getWords();
+                for (var w = 0; w < BITMAP_WORDS; w++) {
+                    wordsA[w] = switch (operation) {
+                        case AND -> wordsA[w] & wordsB[w];
+                        case OR -> wordsA[w] | wordsB[w];
+                        case AND_NOT -> wordsA[w] & ~wordsB[w];
+                    };
+                }
+                chunk = Chunk.of(wordsA);
+                i++;
+                j++;
+            }
+            if (chunk != null) {
+                result.keys[result.size] = (char) key;
+                result.chunks[result.size] = chunk;
+                result.size++;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package org.jpo.datamodel;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * A combination of categories for a {@link CategoryQuery}, for example "Holiday AND (Beach OR Mountains) AND NOT
+ * Work".
+ */
+public sealed interface CategoryExpression {
+
+    /**
+     * The pictures which carry the category
+     *
+     * @param key the key of the category
+     */
+    record Category(int key) implements CategoryExpression {
+    }
+
+    /**
+     * The pictures which match all the operands
+     *
+     * @param operands the operands
+     */
+    record And(List<CategoryExpression> operands) implements CategoryExpression {
+        public And {
+            operands = List.copyOf(operands);
+            if (operands.isEmpty()) {
+                throw new IllegalArgumentException("An AND needs at least one operand");
+            }
+        }
+    }
+
+    /**
+     * The pictures which match any of the operands
+     *
+     * @param operands the operands
+     */
+    record Or(List<CategoryExpression> operands) implements CategoryExpression {
+        public Or {
+            operands = List.copyOf(operands);
+            if (operands.isEmpty()) {
+                throw new IllegalArgumentException("An OR needs at least one operand");
+            }
+        }
+    }
+
+    /**
+     * The pictures which don't match the operand
+     *
+     * @param operand the operand
+     */
+    record Not(CategoryExpression operand) implements CategoryExpression {
+        public Not {
+            Objects.requireNonNull(operand);
+        }
+    }
+
+    /**
+     * Returns the expression for a single category
+     *
+     * @param key the key of the category
+     * @return the expression
+     */
+    static CategoryExpression category(final int key) {
+        return new Category(key);
+    }
+
+    /**
+     * Returns the expression for the pictures which match all the operands
+     *
+     * @param operands the operands
+     * @return the expression
+     */
+    static CategoryExpression and(final CategoryExpression... operands) {
+        return new And(List.of(operands));
+    }
+
+    /**
+     * Returns the expression for the pictures which match any of the operands
+     *
+     * @param operands the operands
+     * @return the expression
+     */
+    static CategoryExpression or(final CategoryExpression... operands) {
+        return new Or(List.of(operands));
+    }
+
+    /**
+     * Returns the expression for the pictures which don't match the operand
+     *
+     * @param operand the operand
+     * @return the expression
+     */
+    static CategoryExpression not(final CategoryExpression operand) {
+        return new Not(operand);
+    }
+
+    /**
+     * Describes the expression with the names of the categories of the collection
+     *
+     * @param pictureCollection the collection which knows the category names
+     * @return the description
+     */
+    default String describe(final PictureCollection pictureCollection) {
+        return switch (this) {
+            case Category(var key) -> Objects.toString(pictureCollection.getCategory(key), Integer.toString(key));
+            case And(var operands) -> describe(operands, " AND ", pictureCollection);
+            case Or(var operands) -> describe(operands, " OR ", pictureCollection);
+            case Not(var operand) -> "NOT " + describeOperand(operand, pictureCollection);
+        };
+    }
+
+    private static String describe(final List<CategoryExpression> operands, final String operator, final PictureCollection pictureCollection) {
+        return operands.stream()
+                .map(operand -> describeOperand(operand, pictureCollection))
+                .collect(Collectors.joining(operator));
+    }
+
+    private static String describeOperand(final CategoryExpression operand, final PictureCollection pictureCollection) {
+        final var description = operand.describe(pictureCollection);
+        return (operand instanceof And || operand instanceof Or) ? "(" + description + ")" : description;
+    }
+}
@@ -0,0 +1,190 @@
+package org.jpo.datamodel;
+
+import java.util.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Knows which pictures of a collection carry which category. Each picture node gets an ordinal and each category
+ * a {@link CategoryBitmap} of the ordinals of its pictures. The {@link PictureCollection} keeps it current as
+ * nodes are attached and detached and as the category assignments of the pictures change.
+ * <p>
+ * The ordinal of a detached node is handed to the next node which is attached. Since the collection detaches and
+ * attaches a node in one go when its picture changes, the node gets its old ordinal back. The ordinals follow the
+ * order in which the nodes were attached which, after a load, is the order of the tree.
+ */
+final class CategoryIndex {
+
+    private final Map<Integer, CategoryBitmap> bitmaps = new HashMap<>();
+
+    /**
+     * The ordinals of all the pictures in the index. A NOT needs them.
+     */
+    private CategoryBitmap allPictures = new CategoryBitmap();
+
+    private SortableDefaultMutableTreeNode[] nodes = new SortableDefaultMutableTreeNode[16];
+
+    private int ordinalCount; // default is 0
+
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    /**
+     * Adds a picture node with its categories
+     *
+     * @param node       the picture node
+     * @param categories the categories of the picture
+     * @return the ordinal of the node
+     */
+    synchronized int add(final SortableDefaultMutableTreeNode node, final int[] categories) {
+        final int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            if (ordinalCount == nodes.length) {
+                nodes = Arrays.copyOf(nodes, ordinalCount * 2);
+            }
+            ordinal = ordinalCount++;
+        } else {
+            ordinal = freeOrdinals.pop();
+        }
+        nodes[ordinal] = node;
+        allPictures.add(ordinal);
+        for (final var category : categories) {
+            bitmaps.computeIfAbsent(category, _ -> new CategoryBitmap()).add(ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Takes a picture node out of the index
+     *
+     * @param ordinal    the ordinal which {@link #add} returned
+     * @param categories the categories with which the node is in the index
+     */
+    synchronized void remove(final int ordinal, final int[] categories) {
+        if (nodes[ordinal] == null) {
+            return;
+        }
+        for (final var category : categories) {
+            removeFromBitmap(category, ordinal);
+        }
+        allPictures.remove(ordinal);
+        nodes[ordinal] = null;
+        freeOrdinals.push(ordinal);
+    }
+
+    /**
+     * Moves a picture to its new categories
+     *
+     * @param ordinal       the ordinal of the picture
+     * @param oldCategories the categories with which the node is in the index
+     * @param newCategories the categories the picture has now
+     */
+    synchronized void update(final int ordinal, final int[] oldCategories, final int[] newCategories) {
+        for (final var category : oldCategories) {
+            if (Arrays.binarySearch(newCategories, category) < 0) {
+                removeFromBitmap(category, ordinal);
+            }
+        }
+        for (final var category : newCategories) {
+            bitmaps.computeIfAbsent(category, _ -> new CategoryBitmap()).add(ordinal);
+        }
+    }
+
+    private void removeFromBitmap(final int category, final int ordinal) {
+        final var bitmap = bitmaps.get(category);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(category);
+            }
+        }
+    }
+
+    /**
+     * Empties the index
+     */
+    synchronized void clear() {
+        bitmaps.clear();
+        Arrays.fill(nodes, 0, ordinalCount, null);
+        ordinalCount = 0;
+        freeOrdinals.clear();
+        allPictures = new CategoryBitmap();
+    }
+
+    /**
+     * Returns how many pictures carry the category
+     *
+     * @param category the category
+     * @return the number of pictures
+     */
+    synchronized int count(final int category) {
+        final var bitmap = bitmaps.get(category);
+        return bitmap == null ? 0 : bitmap.getCardinality();
+    }
+
+    /**
+     * Returns the pictures which match the expression
+     *
+     * @param expression the categories to combine
+     * @return the picture nodes in the order of their ordinals
+     */
+    synchronized List<SortableDefaultMutableTreeNode> getNodes(final CategoryExpression expression) {
+        final var bitmap = evaluate(expression);
+        final var result = new ArrayList<SortableDefaultMutableTreeNode>(bitmap.getCardinality());
+        bitmap.forEach(ordinal -> result.add(nodes[ordinal]));
+        return result;
+    }
+
+    /**
+     * Returns how many pictures match the expression
+     *
+     * @param expression the categories to combine
+     * @return the number of pictures
+     */
+    synchronized int count(final CategoryExpression expression) {
+        return evaluate(expression).getCardinality();
+    }
+
+    private CategoryBitmap evaluate(final CategoryExpression expression) {
+        return switch (expression) {
+            case CategoryExpression.Category(var key) -> {
+                final var bitmap = bitmaps.get(key);
+                yield bitmap == null ? new CategoryBitmap() : bitmap;
+            }
+            case CategoryExpression.And(var operands) -> {
+                final var positives = operands.stream().filter(operand -> !(operand instanceof CategoryExpression.Not)).toList();
+                // an AND which only excludes starts with everything
+                var result = positives.isEmpty() ? allPictures : evaluate(positives.getFirst());
+                for (final var operand : operands) {
+                    if (operand instanceof CategoryExpression.Not(var negated)) {
+                        result = CategoryBitmap.andNot(result, evaluate(negated));
+                    } else if (operand != positives.getFirst()) {
+                        result = CategoryBitmap.and(result, evaluate(operand));
+                    }
+                }
+                yield result;
+            }
+            case CategoryExpression.Or(var operands) -> {
+                var result = new CategoryBitmap();
+                for (final var operand : operands) {
+                    result = CategoryBitmap.or(result, evaluate(operand));
+                }
+                yield result;
+            }
+            case CategoryExpression.Not(var negated) -> CategoryBitmap.andNot(allPictures, evaluate(negated));
+        };
+    }
+}
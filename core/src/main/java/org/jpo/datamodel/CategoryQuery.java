@@ -21,7 +21,8 @@ import java.util.List;
 
 /**
  * This class implements the {@link Query} interface to show all the nodes
- * attached to a category.
+ * attached to a category or to a combination of categories. The pictures come
+ * from the category index of the collection rather than from a walk of the tree.
  */
 public class CategoryQuery implements Query {
 
@@ -32,9 +33,9 @@ public class CategoryQuery implements Query {
     private final PictureCollection pictureCollection;
 
     /**
-     * the category key for the Query
+     * the categories for the Query
      */
-    private final Integer key;
+    private final CategoryExpression expression;
 
     /**
      * A List of the nodes that represent these images
@@ -47,8 +48,19 @@ public class CategoryQuery implements Query {
      * @param key The key for the category
      */
     public CategoryQuery( final PictureCollection pictureCollection, final Integer key ) {
+        this( pictureCollection, CategoryExpression.category( key ) );
+    }
+
+    /**
+     * Constructor for a Query on a combination of categories like
+     * "Holiday AND (Beach OR Mountains) AND NOT Work"
+     *
+     * @param pictureCollection The collection to search
+     * @param expression        The combination of categories
+     */
+    public CategoryQuery( final PictureCollection pictureCollection, final CategoryExpression expression ) {
         this.pictureCollection = pictureCollection;
-        this.key = key;
+        this.expression = expression;
         refresh();
     }
 
@@ -96,32 +108,27 @@ public class CategoryQuery implements Query {
      */
     @Override
     public String toString() {
-        return JpoCoreResources.getResource("CategoryQuery") + pictureCollection.getCategory(key);
+        if ( expression instanceof CategoryExpression.Category( var key ) ) {
+            return JpoCoreResources.getResource("CategoryQuery") + pictureCollection.getCategory(key);
+        }
+        return JpoCoreResources.getResource("CategoryQuery") + expression.describe( pictureCollection );
     }
 
     /**
-     * This method retrieves a new List of nodes that match the category.
+     * This method retrieves a new List of nodes that match the categories.
      */
     @Override
     public void refresh() {
-        resultList.clear();
-        collectMatchingNodes(key, pictureCollection.getRootNode());
+        resultList = pictureCollection.getPicturesWithCategories( expression );
     }
 
     /**
-     * Returns a List of the nodes that match this category
+     * Returns the combination of categories of the query
      *
-     * @param key       The key of the category to find
-     * @param startNode the node at which to start
-     * @return the list of nodes
+     * @return the categories
      */
-    private void collectMatchingNodes(
-            final Integer key,
-            final SortableDefaultMutableTreeNode startNode) {
-        startNode.getChildPictureNodes(true)
-                .stream()
-                .filter( node -> ((PictureInfo) node.getUserObject()).containsCategory( key ))
-                .forEach(resultList::add);
+    public CategoryExpression getExpression() {
+        return expression;
     }
 
     public PictureCollection getPictureCollection() {
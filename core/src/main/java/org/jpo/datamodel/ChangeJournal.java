@@ -0,0 +1,853 @@
+package org.jpo.datamodel;
+
+import javax.swing.tree.TreeNode;
+import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * An append-only journal of the changes to a collection which is kept next to its XML file. Saving a collection
+ * appends the changes since the last save instead of writing the whole XML file again, so the time a save takes
+ * depends on what changed and not on the size of the collection. Loading a collection replays the journal over
+ * the XML file. When the journal gets bigger than {@link #COMPACTION_THRESHOLD} a background thread writes a fresh
+ * XML file with the changes and starts a new journal.
+ * <p>
+ * The changes are captured when they happen: picture and group changes from the code that sends the
+ * {@link PictureInfoChangeEvent} and {@link GroupInfoChangeEvent}, inserted and removed nodes from the code that
+ * notifies the tree model and the category edits from the {@link PictureCollection}. Nodes are addressed by the
+ * path of child indexes from the root, which is the same after a load because the XML file keeps the order of the
+ * nodes. Changes which happen while the collection doesn't send model updates, like sorting or a bulk import, are
+ * not captured. They invalidate the journal and the next save writes the whole XML file.
+ * <p>
+ * The file is UTF-8 text. The first line holds the size and the modification time of the XML file the journal
+ * applies to; a journal which doesn't match its XML file is ignored. Each save appends a batch of tab separated
+ * lines which ends with a line starting with a dot. A batch which was not completed because of a crash is
+ * ignored and cut off on the next save.
+ */
+public final class ChangeJournal {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ChangeJournal.class.getName());
+
+    /**
+     * The suffix of the journal file next to the collection file
+     */
+    public static final String SUFFIX = ".jpoj";
+
+    private static final String MAGIC = "JPOJ";
+
+    /**
+     * Increase it when the format changes so that old journals are ignored
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the journal after which it is compacted into the XML file
+     */
+    static final long COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+
+    private static final String SEPARATOR = "\t";
+
+    private static final String END_OF_BATCH = ".";
+
+    private static final String PICTURE = "P";
+    private static final String GROUP_NAME = "G";
+    private static final String INSERT_PICTURE = "IP";
+    private static final String INSERT_GROUP = "IG";
+    private static final String REMOVE = "R";
+    private static final String CATEGORY = "C";
+    private static final String CATEGORY_REMOVED = "D";
+
+    private final PictureCollection pictureCollection;
+
+    /**
+     * The changes which were captured since the last save
+     */
+    private final List<String> pending = new ArrayList<>();
+
+    /**
+     * The collection file the journal belongs to or null if there is none yet
+     */
+    private File baseFile;
+
+    /**
+     * False if a change could not be captured and the next save must write the whole XML file
+     */
+    private boolean valid;
+
+    /**
+     * True while a collection is being loaded
+     */
+    private boolean loading;
+
+    /**
+     * True if a change was captured while a collection was loading
+     */
+    private boolean changedWhileLoading;
+
+    /**
+     * The length of the journal file up to the end of the last complete batch
+     */
+    private long committedLength;
+
+    /**
+     * Counts the full saves and resets so that a compaction notices that the files changed under it
+     */
+    private int generation;
+
+    private Thread compactionThread;
+
+    /**
+     * Creates the journal of a collection
+     *
+     * @param pictureCollection the collection
+     */
+    ChangeJournal(final PictureCollection pictureCollection) {
+        this.pictureCollection = pictureCollection;
+    }
+
+    /**
+     * Returns the journal file which belongs to the collection file
+     *
+     * @param collectionFile the XML file of the collection
+     * @return the journal file next to it
+     */
+    public static File getJournalFile(final File collectionFile) {
+        return new File(collectionFile.getPath() + SUFFIX);
+    }
+
+    //------------------------------------------- capturing
+
+    /**
+     * Captures the fields of a picture after one of them changed
+     *
+     * @param node                   the node of the picture
+     * @param pictureInfoChangeEvent the event that describes the change
+     */
+    void pictureChanged(final SortableDefaultMutableTreeNode node, final PictureInfoChangeEvent pictureInfoChangeEvent) {
+        if (isDataChange(pictureInfoChangeEvent) && node.getUserObject() instanceof PictureInfo pictureInfo) {
+            capture(PICTURE + SEPARATOR + getPath(node) + SEPARATOR + encode(pictureInfo));
+        }
+    }
+
+    /**
+     * Captures the new name of a group
+     *
+     * @param node the node of the group
+     */
+    void groupRenamed(final SortableDefaultMutableTreeNode node) {
+        if (node.getUserObject() instanceof GroupInfo groupInfo) {
+            capture(GROUP_NAME + SEPARATOR + getPath(node) + SEPARATOR + escape(groupInfo.getGroupName()));
+        }
+    }
+
+    /**
+     * Captures the nodes which were inserted together with their subtrees
+     *
+     * @param parent       the node which got the children
+     * @param childIndices the indexes of the new children
+     */
+    void nodesInserted(final TreeNode parent, final int[] childIndices) {
+        if (!isCapturing()) {
+            return;
+        }
+        final var parentPath = getPath(parent);
+        final var lines = new ArrayList<String>();
+        for (final var childIndex : childIndices) {
+            addInsertLines(parentPath, childIndex, (SortableDefaultMutableTreeNode) parent.getChildAt(childIndex), lines);
+        }
+        capture(lines);
+    }
+
+    /**
+     * Captures the removal of nodes
+     *
+     * @param parent       the node which lost the children
+     * @param childIndices the indexes the children had
+     */
+    void nodesRemoved(final TreeNode parent, final int[] childIndices) {
+        if (!isCapturing()) {
+            return;
+        }
+        final var parentPath = getPath(parent);
+        final var lines = new ArrayList<String>();
+        // from the back so that the indexes stay right when they are replayed one after the other
+        final var sortedIndices = new TreeSet<Integer>();
+        for (final var childIndex : childIndices) {
+            sortedIndices.add(childIndex);
+        }
+        for (final var childIndex : sortedIndices.descendingSet()) {
+            lines.add(REMOVE + SEPARATOR + parentPath + SEPARATOR + childIndex);
+        }
+        capture(lines);
+    }
+
+    /**
+     * Captures a category which was added or renamed
+     *
+     * @param key      the key of the category
+     * @param category the description of the category
+     */
+    void categoryChanged(final Integer key, final String category) {
+        capture(CATEGORY + SEPARATOR + key + SEPARATOR + escape(category));
+    }
+
+    /**
+     * Captures a category which was removed
+     *
+     * @param key the key of the category
+     */
+    void categoryRemoved(final Integer key) {
+        capture(CATEGORY_REMOVED + SEPARATOR + key);
+    }
+
+    /**
+     * Call this when the collection changed in a way that was not captured. The next save writes the whole XML
+     * file.
+     */
+    synchronized void invalidate() {
+        if (valid) {
+            LOGGER.log(Level.FINE, "The change journal of {0} can no longer follow the changes", baseFile);
+        }
+        valid = false;
+        pending.clear();
+    }
+
+    private synchronized boolean isCapturing() {
+        if (loading) {
+            changedWhileLoading = true;
+        }
+        return valid;
+    }
+
+    private void capture(final String line) {
+        capture(List.of(line));
+    }
+
+    private synchronized void capture(final List<String> lines) {
+        if (loading) {
+            changedWhileLoading = true;
+        }
+        if (valid) {
+            pending.addAll(lines);
+        }
+    }
+
+    private static boolean isDataChange(final PictureInfoChangeEvent e) {
+        return e.getDescriptionChanged() || e.getHighresLocationChanged() || e.getSha256Changed()
+                || e.getCreationTimeChanged() || e.getFilmReferenceChanged() || e.getRotationChanged()
+                || e.getCommentChanged() || e.getPhotographerChanged() || e.getCopyrightHolderChanged()
+                || e.getLatLngChanged() || e.getCategoryAssignmentsChanged();
+    }
+
+    private static void addInsertLines(final String parentPath, final int index, final SortableDefaultMutableTreeNode node, final List<String> lines) {
+        final var path = parentPath.isEmpty() ? Integer.toString(index) : parentPath + "/" + index;
+        switch (node.getUserObject()) {
+            case PictureInfo pictureInfo ->
+                    lines.add(INSERT_PICTURE + SEPARATOR + parentPath + SEPARATOR + index + SEPARATOR + encode(pictureInfo));
+            case GroupInfo groupInfo -> {
+                lines.add(INSERT_GROUP + SEPARATOR + parentPath + SEPARATOR + index + SEPARATOR + escape(groupInfo.getGroupName()));
+                for (var i = 0; i < node.getChildCount(); i++) {
+                    addInsertLines(path, i, (SortableDefaultMutableTreeNode) node.getChildAt(i), lines);
+                }
+            }
+            case null, default -> LOGGER.log(Level.WARNING, "Can''t journal the node {0}", node);
+        }
+    }
+
+    /**
+     * Returns the child indexes from the root to the node separated by slashes. The root has the empty path.
+     *
+     * @param node the node
+     * @return the path
+     */
+    static String getPath(final TreeNode node) {
+        final var indexes = new ArrayList<Integer>();
+        var child = node;
+        var parent = node.getParent();
+        while (parent != null) {
+            indexes.addFirst(parent.getIndex(child));
+            child = parent;
+            parent = parent.getParent();
+        }
+        final var path = new StringBuilder();
+        for (final var index : indexes) {
+            if (!path.isEmpty()) {
+                path.append('/');
+            }
+            path.append(index);
+        }
+        return path.toString();
+    }
+
+    private static SortableDefaultMutableTreeNode resolve(final SortableDefaultMutableTreeNode startNode, final String path) {
+        var node = startNode;
+        if (!path.isEmpty()) {
+            for (final var index : path.split("/")) {
+                node = (SortableDefaultMutableTreeNode) node.getChildAt(Integer.parseInt(index));
+            }
+        }
+        return node;
+    }
+
+    private static String encode(final PictureInfo pictureInfo) {
+        final var imageFile = pictureInfo.getImageFile();
+        final var latLng = pictureInfo.getLatLng();
+        final var categories = new StringBuilder();
+        for (final var category : new TreeSet<>(pictureInfo.getCategoryAssignments())) {
+            if (!categories.isEmpty()) {
+                categories.append(',');
+            }
+            categories.append(category);
+        }
+        return String.join(SEPARATOR,
+                escape(pictureInfo.getDescription()),
+                escape(imageFile == null ? "" : imageFile.getPath()),
+                escape(pictureInfo.getFilmReference()),
+                escape(pictureInfo.getCreationTime()),
+                escape(pictureInfo.getComment()),
+                escape(pictureInfo.getPhotographer()),
+                escape(pictureInfo.getCopyrightHolder()),
+                Double.toString(pictureInfo.getRotation()),
+                latLng == null ? "" : latLng.x + "," + latLng.y,
+                escape(pictureInfo.getSha256()),
+                categories.toString());
+    }
+
+    private static void decode(final String[] fields, final int offset, final PictureInfo pictureInfo) {
+        pictureInfo.setDescription(unescape(fields[offset]));
+        final var imageFile = unescape(fields[offset + 1]);
+        if (!imageFile.isEmpty()) {
+            pictureInfo.setImageLocation(new File(imageFile));
+        }
+        pictureInfo.setFilmReference(unescape(fields[offset + 2]));
+        pictureInfo.setCreationTime(unescape(fields[offset + 3]));
+        pictureInfo.setComment(unescape(fields[offset + 4]));
+        pictureInfo.setPhotographer(unescape(fields[offset + 5]));
+        pictureInfo.setCopyrightHolder(unescape(fields[offset + 6]));
+        pictureInfo.setRotation(Double.parseDouble(fields[offset + 7]));
+        if (!fields[offset + 8].isEmpty()) {
+            final var latLng = fields[offset + 8].split(",");
+            pictureInfo.setLatLng(new Point2D.Double(Double.parseDouble(latLng[0]), Double.parseDouble(latLng[1])));
+        }
+        pictureInfo.setSha256(unescape(fields[offset + 9]));
+        final var categories = new ArrayList<Integer>();
+        if (!fields[offset + 10].isEmpty()) {
+            for (final var category : fields[offset + 10].split(",")) {
+                categories.add(Integer.valueOf(category));
+            }
+        }
+        pictureInfo.setCategoryAssignment(categories);
+    }
+
+    static String escape(final String s) {
+        if (s == null) {
+            return "";
+        }
+        final var escaped = new StringBuilder(s.length());
+        for (var i = 0; i < s.length(); i++) {
+            final var c = s.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    static String unescape(final String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        final var unescaped = new StringBuilder(s.length());
+        for (var i = 0; i < s.length(); i++) {
+            final var c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                i++;
+                switch (s.charAt(i)) {
+                    case 't' -> unescaped.append('\t');
+                    case 'n' -> unescaped.append('\n');
+                    case 'r' -> unescaped.append('\r');
+                    default -> unescaped.append(s.charAt(i));
+                }
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    //------------------------------------------- saving
+
+    /**
+     * Forgets the journal. Call this when the collection is cleared.
+     */
+    synchronized void reset() {
+        baseFile = null;
+        valid = false;
+        loading = false;
+        pending.clear();
+        generation++;
+    }
+
+    /**
+     * Call this before a collection file is loaded. Changes made while it loads can't be captured.
+     */
+    synchronized void loadStarted() {
+        reset();
+        loading = true;
+        changedWhileLoading = false;
+    }
+
+    /**
+     * Call this after the collection file and its journal were loaded. New changes are appended to the journal
+     * unless the user changed the collection during the load or the journal doesn't belong to the file.
+     *
+     * @param collectionFile the loaded XML file
+     */
+    synchronized void loaded(final File collectionFile) {
+        loading = false;
+        baseFile = collectionFile;
+        pending.clear();
+        final var journal = read(collectionFile, Long.MAX_VALUE);
+        valid = !changedWhileLoading && journal != null;
+        committedLength = journal == null ? 0 : journal.committedLength();
+    }
+
+    /**
+     * Returns the length of the journal up to the end of its last complete batch as it was when the collection was
+     * loaded or last saved
+     *
+     * @return the length in bytes or 0 if there is no journal
+     */
+    synchronized long getCommittedLength() {
+        return committedLength;
+    }
+
+    /**
+     * Appends the changes since the last save to the journal and forces them to the disk
+     *
+     * @param collectionFile the XML file the collection is saved to
+     * @return false if the journal can't be used and the whole XML file must be written
+     * @throws IOException if the journal can't be written
+     */
+    boolean append(final File collectionFile) throws IOException {
+        synchronized (this) {
+            if (!valid || !collectionFile.equals(baseFile) || !collectionFile.exists()) {
+                return false;
+            }
+            final var journalFile = getJournalFile(collectionFile).toPath();
+            final var batch = new StringBuilder();
+            if (committedLength == 0 || !Files.exists(journalFile)) {
+                batch.append(getHeader(collectionFile)).append('\n');
+                committedLength = 0;
+            } else if (!getHeader(collectionFile).equals(readHeader(collectionFile))) {
+                LOGGER.log(Level.INFO, "{0} doesn''t belong to {1} any more", new Object[]{journalFile, collectionFile});
+                return false;
+            }
+            for (final var line : pending) {
+                batch.append(line).append('\n');
+            }
+            batch.append(END_OF_BATCH).append(SEPARATOR).append(pictureCollection.getAllowEdits() ? "Yes" : "No").append('\n');
+            final var bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+            try (final var channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // cuts off a batch which a crash left incomplete
+                channel.truncate(committedLength);
+                channel.position(committedLength);
+                final var buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            committedLength += bytes.length;
+            LOGGER.log(Level.INFO, "Appended {0} changes to {1}", new Object[]{pending.size(), journalFile});
+            pending.clear();
+            if (committedLength <= COMPACTION_THRESHOLD || (compactionThread != null && compactionThread.isAlive())) {
+                return true;
+            }
+            compactionThread = new Thread(() -> compact(collectionFile), "ChangeJournalCompaction");
+        }
+        compactionThread.start();
+        return true;
+    }
+
+    /**
+     * Call this after the whole XML file was written. The journal is deleted and new changes go into a new one.
+     *
+     * @param collectionFile the XML file which was written
+     */
+    synchronized void fullSaveWritten(final File collectionFile) {
+        try {
+            Files.deleteIfExists(getJournalFile(collectionFile).toPath());
+            baseFile = collectionFile;
+            valid = true;
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete the journal of {0}: {1}", new Object[]{collectionFile, e.getMessage()});
+            baseFile = null;
+            valid = false;
+        }
+        committedLength = 0;
+        pending.clear();
+        generation++;
+    }
+
+    /**
+     * Returns whether a compaction is running
+     *
+     * @return true if a background thread is writing the XML file
+     */
+    synchronized boolean isCompacting() {
+        return compactionThread != null && compactionThread.isAlive();
+    }
+
+    /**
+     * Writes a fresh XML file from the old one and the journal without touching the collection in memory. The
+     * batches which were appended while it ran go into the new journal.
+     *
+     * @param collectionFile the XML file
+     */
+    private void compact(final File collectionFile) {
+        final var temporaryFile = getCompactedFile(collectionFile);
+        try {
+            final var compaction = writeCompactedFile(collectionFile);
+            if (compaction != null) {
+                installCompactedFile(collectionFile, compaction);
+            }
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Could not compact the journal of {0}: {1}", new Object[]{collectionFile, e.getMessage()});
+        } finally {
+            try {
+                Files.deleteIfExists(temporaryFile.toPath());
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete {0}: {1}", new Object[]{temporaryFile, e.getMessage()});
+            }
+        }
+    }
+
+    /**
+     * What a compaction took into the new XML file
+     *
+     * @param compactedLength the length of the journal which was applied
+     * @param generation      the generation when the compaction started
+     */
+    record Compaction(long compactedLength, int generation) {
+    }
+
+    private static File getCompactedFile(final File collectionFile) {
+        return new File(collectionFile.getPath() + ".compact");
+    }
+
+    private static File getCompactedJournalFile(final File collectionFile) {
+        return new File(getJournalFile(collectionFile).getPath() + ".tmp");
+    }
+
+    /**
+     * Writes the XML file with the journal applied next to the collection file. This doesn't hold the lock so
+     * saves can append to the journal in the meantime.
+     *
+     * @param collectionFile the XML file
+     * @return what was compacted or null if the journal changed
+     * @throws IOException if the files can't be read or written
+     */
+    Compaction writeCompactedFile(final File collectionFile) throws IOException {
+        final long compactedLength;
+        final int startGeneration;
+        synchronized (this) {
+            compactedLength = committedLength;
+            startGeneration = generation;
+        }
+        final var compacted = new PictureCollection();
+        compacted.setSendModelUpdates(false);
+        final var journalBytes = readBytes(getJournalFile(collectionFile), compactedLength);
+        try (final var inputStream = new FileInputStream(collectionFile)) {
+            XmlReader.read(inputStream, compacted.getRootNode(), NO_PROGRESS);
+        }
+        final var journal = parse(journalBytes, getHeader(collectionFile), 0);
+        if (journal == null) {
+            LOGGER.log(Level.INFO, "Not compacting as the journal of {0} changed", collectionFile);
+            return null;
+        }
+        apply(journal.lines(), compacted.getRootNode());
+        JpoWriter.write(getCompactedFile(collectionFile), compacted.getRootNode(), false);
+        return new Compaction(compactedLength, startGeneration);
+    }
+
+    /**
+     * Replaces the XML file with the compacted one and moves the batches which were appended in the meantime into
+     * a new journal. The new journal is written before the XML file is replaced and renamed right after. If that
+     * is cut short the next load finishes it, see {@link #recoverCompaction}.
+     *
+     * @param collectionFile the XML file
+     * @param compaction     what {@link #writeCompactedFile} took into the compacted file
+     * @throws IOException if the files can't be written
+     */
+    synchronized void installCompactedFile(final File collectionFile, final Compaction compaction) throws IOException {
+        if (generation != compaction.generation() || !getHeader(collectionFile).equals(readHeader(collectionFile))) {
+            LOGGER.log(Level.INFO, "Not compacting as {0} was saved in the meantime", collectionFile);
+            return;
+        }
+        final var temporaryFile = getCompactedFile(collectionFile);
+        final var journalFile = getJournalFile(collectionFile);
+        final var newJournal = getCompactedJournalFile(collectionFile);
+        final var allBytes = readBytes(journalFile, committedLength);
+        final var tail = allBytes.length - (int) compaction.compactedLength();
+        // the move keeps the size and the modification time so the header already fits the new XML file
+        final var header = (getHeader(temporaryFile) + "\n").getBytes(StandardCharsets.UTF_8);
+        if (tail > 0) {
+            try (final var channel = FileChannel.open(newJournal.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(header));
+                channel.write(ByteBuffer.wrap(allBytes, (int) compaction.compactedLength(), tail));
+                channel.force(true);
+            }
+        }
+        move(temporaryFile, collectionFile);
+        Files.deleteIfExists(JpoBinaryCollection.getBinaryFile(collectionFile).toPath());
+        if (tail == 0) {
+            // a crash before this leaves a journal which doesn't belong to the new XML file and is ignored
+            Files.deleteIfExists(journalFile.toPath());
+            committedLength = 0;
+        } else {
+            move(newJournal, journalFile);
+            committedLength = header.length + (long) tail;
+        }
+        LOGGER.log(Level.INFO, "Compacted the journal into {0}", collectionFile);
+    }
+
+    /**
+     * Finishes a compaction which replaced the XML file but didn't get to rename the new journal. A new journal
+     * which doesn't belong to the XML file is left from a compaction which didn't get as far as replacing it and
+     * is ignored.
+     *
+     * @param collectionFile the XML file
+     */
+    private static void recoverCompaction(final File collectionFile) {
+        final var newJournal = getCompactedJournalFile(collectionFile);
+        if (!newJournal.exists() || !getHeader(collectionFile).equals(readFirstLine(newJournal))) {
+            return;
+        }
+        try {
+            move(newJournal, getJournalFile(collectionFile));
+            LOGGER.log(Level.INFO, "Finished the interrupted compaction of {0}", collectionFile);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not move {0} into place: {1}", new Object[]{newJournal, e.getMessage()});
+        }
+    }
+
+    private static void move(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException _) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final ProgressTracker NO_PROGRESS = new ProgressTracker() {
+        @Override
+        public void update(final String message) {
+            // nobody is watching a compaction
+        }
+
+        @Override
+        public void done() {
+            // nobody is watching a compaction
+        }
+    };
+
+    //------------------------------------------- loading
+
+    /**
+     * The complete batches of a journal
+     *
+     * @param lines           the change lines of all the complete batches and their end lines
+     * @param committedLength the length of the file up to the end of the last complete batch
+     */
+    private record Journal(List<String> lines, long committedLength) {
+    }
+
+    /**
+     * Applies the journal of the collection file to the nodes which were loaded from it
+     *
+     * @param collectionFile the XML file that was loaded
+     * @param startNode      the node it was loaded into
+     * @param fromLength     the length of the journal which the nodes already contain, see
+     *                       {@link JpoBinaryCollection#getJournalLength}. Only the batches after it are applied.
+     * @return the number of changes applied
+     */
+    static int replay(final File collectionFile, final SortableDefaultMutableTreeNode startNode, final long fromLength) {
+        final var journal = read(collectionFile, fromLength);
+        if (journal == null || journal.lines().isEmpty()) {
+            return 0;
+        }
+        final var applied = apply(journal.lines(), startNode);
+        LOGGER.log(Level.INFO, "Replayed {0} changes from the journal of {1}", new Object[]{applied, collectionFile});
+        return applied;
+    }
+
+    /**
+     * Returns the length of the journal of a collection file up to the end of its last complete batch
+     *
+     * @param collectionFile the XML file
+     * @return the length in bytes or 0 if there is no journal or it doesn't belong to the XML file
+     */
+    static long getCommittedLength(final File collectionFile) {
+        final var journal = read(collectionFile, Long.MAX_VALUE);
+        return journal == null ? 0 : journal.committedLength();
+    }
+
+    /**
+     * Reads the complete batches of the journal of a collection file
+     *
+     * @param collectionFile the XML file
+     * @param fromLength     the batches which end at or before this length are left out
+     * @return the journal, an empty journal if there is no file or null if it doesn't belong to the XML file
+     */
+    private static Journal read(final File collectionFile, final long fromLength) {
+        recoverCompaction(collectionFile);
+        final var journalFile = getJournalFile(collectionFile);
+        try {
+            return parse(readBytes(journalFile, Long.MAX_VALUE), getHeader(collectionFile), fromLength);
+        } catch (final NoSuchFileException _) {
+            return new Journal(List.of(), 0);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read {0}: {1}", new Object[]{journalFile, e.getMessage()});
+            return null;
+        }
+    }
+
+    private static Journal parse(final byte[] bytes, final String expectedHeader, final long fromLength) {
+        final var lines = new ArrayList<String>();
+        final var batch = new ArrayList<String>();
+        var committedLength = 0L;
+        var position = 0;
+        var first = true;
+        while (position < bytes.length) {
+            var end = position;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (end == bytes.length) {
+                break; // an incomplete line
+            }
+            final var line = new String(bytes, position, end - position, StandardCharsets.UTF_8);
+            position = end + 1;
+            if (first) {
+                if (!line.equals(expectedHeader)) {
+                    LOGGER.log(Level.INFO, "The journal doesn''t belong to the collection file. Ignoring it.");
+                    return null;
+                }
+                first = false;
+                committedLength = position;
+            } else {
+                batch.add(line);
+                if (line.startsWith(END_OF_BATCH)) {
+                    if (position > fromLength) {
+                        lines.addAll(batch);
+                    }
+                    batch.clear();
+                    committedLength = position;
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            LOGGER.log(Level.WARNING, "Ignoring an incomplete batch of {0} lines at the end of the journal", batch.size());
+        }
+        return new Journal(lines, committedLength);
+    }
+
+    private static int apply(final List<String> lines, final SortableDefaultMutableTreeNode startNode) {
+        final var pictureCollection = startNode.getPictureCollection();
+        var applied = 0;
+        for (final var line : lines) {
+            final var fields = line.split(SEPARATOR, -1);
+            try {
+                switch (fields[0]) {
+                    case PICTURE -> decode(fields, 2, (PictureInfo) resolve(startNode, fields[1]).getUserObject());
+                    case GROUP_NAME -> ((GroupInfo) resolve(startNode, fields[1]).getUserObject()).setGroupName(unescape(fields[2]));
+                    case INSERT_PICTURE -> {
+                        final var pictureInfo = new PictureInfo();
+                        decode(fields, 3, pictureInfo);
+                        resolve(startNode, fields[1]).insert(new SortableDefaultMutableTreeNode(pictureInfo), Integer.parseInt(fields[2]));
+                    }
+                    case INSERT_GROUP -> resolve(startNode, fields[1]).insert(
+                            new SortableDefaultMutableTreeNode(new GroupInfo(unescape(fields[3]))), Integer.parseInt(fields[2]));
+                    case REMOVE -> ((SortableDefaultMutableTreeNode) resolve(startNode, fields[1]).getChildAt(Integer.parseInt(fields[2]))).removeFromParent();
+                    case CATEGORY -> pictureCollection.addCategory(Integer.valueOf(fields[1]), unescape(fields[2]));
+                    case CATEGORY_REMOVED -> pictureCollection.removeCategory(Integer.valueOf(fields[1]), () -> {
+                    });
+                    case END_OF_BATCH -> pictureCollection.setAllowEdits("Yes".equals(fields[1]));
+                    default -> throw new IllegalArgumentException("Unknown change " + fields[0]);
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Could not apply the change \"{0}\": {1}. Stopping the replay.", new Object[]{line, e.getMessage()});
+                return applied;
+            }
+            if (!END_OF_BATCH.equals(fields[0])) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private static String getHeader(final File collectionFile) {
+        return MAGIC + SEPARATOR + VERSION + SEPARATOR + collectionFile.length() + SEPARATOR + collectionFile.lastModified();
+    }
+
+    private static String readHeader(final File collectionFile) {
+        return readFirstLine(getJournalFile(collectionFile));
+    }
+
+    private static String readFirstLine(final File file) {
+        try {
+            final var bytes = readBytes(file, 256);
+            var end = 0;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            return new String(bytes, 0, end, StandardCharsets.UTF_8);
+        } catch (final IOException _) {
+            return "";
+        }
+    }
+
+    private static byte[] readBytes(final File file, final long maxLength) throws IOException {
+        try (final var inputStream = Files.newInputStream(file.toPath())) {
+            return inputStream.readNBytes((int) Math.min(maxLength, Integer.MAX_VALUE - 8));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.jpo.datamodel;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Keeps the dated pictures of a collection sorted by their creation time and counts them by year and month. The
+ * {@link PictureCollection} keeps it current as nodes are attached and detached and as creation times change.
+ * Pictures whose creation time can't be parsed are not in the index.
+ */
+final class DateIndex {
+
+    /**
+     * The nodes by creation time. Several pictures can have the same time; they stay in the order in which they
+     * were added.
+     */
+    private final NavigableMap<Long, List<SortableDefaultMutableTreeNode>> nodesByTime = new TreeMap<>();
+
+    /**
+     * The number of pictures in each month of each year. Index 0 is January.
+     */
+    private final SortedMap<Integer, int[]> monthCounts = new TreeMap<>();
+
+    private int size; // default is 0
+
+    /**
+     * Adds a picture node
+     *
+     * @param node         the picture node
+     * @param creationTime the creation time in milliseconds since the epoch
+     */
+    synchronized void add(final SortableDefaultMutableTreeNode node, final long creationTime) {
+        nodesByTime.computeIfAbsent(creationTime, _ -> new ArrayList<>(1)).add(node);
+        final var dateTime = Instant.ofEpochMilli(creationTime).atZone(ZoneId.systemDefault());
+        monthCounts.computeIfAbsent(dateTime.getYear(), _ -> new int[12])[dateTime.getMonthValue() - 1]++;
+        size++;
+    }
+
+    /**
+     * Takes a picture node out of the index
+     *
+     * @param node         the picture node
+     * @param creationTime the creation time with which the node was added
+     */
+    synchronized void remove(final SortableDefaultMutableTreeNode node, final long creationTime) {
+        final var nodes = nodesByTime.get(creationTime);
+        if (nodes == null || !removeByIdentity(nodes, node)) {
+            return;
+        }
+        if (nodes.isEmpty()) {
+            nodesByTime.remove(creationTime);
+        }
+        final var dateTime = Instant.ofEpochMilli(creationTime).atZone(ZoneId.systemDefault());
+        final var counts = monthCounts.get(dateTime.getYear());
+        if (counts != null) {
+            counts[dateTime.getMonthValue() - 1]--;
+            if (Arrays.stream(counts).allMatch(count -> count == 0)) {
+                monthCounts.remove(dateTime.getYear());
+            }
+        }
+        size--;
+    }
+
+    private static boolean removeByIdentity(final List<SortableDefaultMutableTreeNode> nodes, final SortableDefaultMutableTreeNode node) {
+        for (final var iterator = nodes.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == node) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empties the index
+     */
+    synchronized void clear() {
+        nodesByTime.clear();
+        monthCounts.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the pictures taken between the two times
+     *
+     * @param lower the earliest time in milliseconds since the epoch, inclusive
+     * @param upper the latest time in milliseconds since the epoch, inclusive
+     * @return the picture nodes sorted by creation time
+     */
+    synchronized List<SortableDefaultMutableTreeNode> getNodes(final long lower, final long upper) {
+        final var result = new ArrayList<SortableDefaultMutableTreeNode>();
+        if (lower <= upper) {
+            nodesByTime.subMap(lower, true, upper, true).values().forEach(result::addAll);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of pictures in each year
+     *
+     * @return the counts by year in ascending order of the years
+     */
+    synchronized SortedMap<Integer, Integer> getYearCounts() {
+        final var yearCounts = new TreeMap<Integer, Integer>();
+        monthCounts.forEach((year, counts) -> yearCounts.put(year, Arrays.stream(counts).sum()));
+        return yearCounts;
+    }
+
+    /**
+     * Returns the number of pictures in each month of the year
+     *
+     * @param year the year
+     * @return twelve counts starting with January
+     */
+    synchronized int[] getMonthCounts(final int year) {
+        final var counts = monthCounts.get(year);
+        return counts == null ? new int[12] : counts.clone();
+    }
+
+    /**
+     * Returns the number of pictures in the index
+     *
+     * @return the number of dated pictures
+     */
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,63 @@
+package org.jpo.datamodel;
+
+import java.util.function.BooleanSupplier;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Lets a caller abort the image decodes which run on its thread, for instance when the thumbnail being created has
+ * scrolled out of view. The image readers check {@link #isCancelled()} from their progress listeners and abort the
+ * read. A cancelled decode doesn't produce an image so nothing half-read ends up in a cache.
+ * <p>
+ * We don't interrupt the thread for this because an interrupt closes the FileChannels of the disk caches.
+ */
+public final class DecodeCancellation {
+
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private static final ThreadLocal<BooleanSupplier> CANCELLED = ThreadLocal.withInitial(() -> NEVER);
+
+    private DecodeCancellation() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the task on the current thread. Decodes started by the task are aborted as soon as the supplied
+     * condition becomes true.
+     *
+     * @param cancelled the condition which tells whether the work is no longer wanted
+     * @param task      the task to run
+     */
+    public static void runCancellable(final BooleanSupplier cancelled, final Runnable task) {
+        final var previous = CANCELLED.get();
+        CANCELLED.set(cancelled);
+        try {
+            task.run();
+        } finally {
+            CANCELLED.set(previous);
+        }
+    }
+
+    /**
+     * Returns whether the decodes on the current thread should stop
+     *
+     * @return true if the work on this thread has been cancelled
+     */
+    public static boolean isCancelled() {
+        return CANCELLED.get().getAsBoolean();
+    }
+}
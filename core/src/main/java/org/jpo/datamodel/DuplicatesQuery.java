@@ -1,12 +1,20 @@
 package org.jpo.datamodel;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /*
- Copyright (C) 2010-2024 Richard Eigenmann.
+ Copyright (C) 2010-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -21,7 +29,14 @@ import java.util.logging.Logger;
  See http://www.gnu.org/copyleft/gpl.html for the details.
  */
 /**
- * This class finds duplicates and adds them to a query object
+ * This class finds the pictures of the collection which point at the same file or have the same SHA-256 and
+ * returns them as clusters of duplicates. The pictures of a cluster follow each other in the results in the order
+ * of the collection and the clusters are ordered by their last picture.
+ * <p>
+ * A parallel pass over the collection counts how many pictures share each file and SHA-256. A second pass joins
+ * the pictures in the order of the collection. A cluster is complete when the last picture with one of its keys
+ * has been joined, and it goes into the results at that moment, so a display can start showing the first clusters
+ * while the rest of the collection is still being looked at.
  *
  * @author Richard Eigenmann
  */
@@ -33,13 +48,80 @@ public class DuplicatesQuery
      */
     private static final Logger LOGGER = Logger.getLogger( DuplicatesQuery.class.getName() );
 
+    /**
+     * After how many pictures the progress callback is called
+     */
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * After how many clusters the results listeners are told about new results
+     */
+    private static final int CLUSTERS_PER_NOTIFICATION = 64;
+
+    /**
+     * After how many milliseconds the results listeners are told about new results even if fewer clusters came in
+     */
+    private static final long NOTIFICATION_INTERVAL_MILLIS = 100;
+
+    /**
+     * Receives the progress of the search
+     */
+    @FunctionalInterface
+    public interface ProgressCallback {
+        /**
+         * Called with the progress of the search. It may be called on any thread.
+         *
+         * @param processed the number of pictures that have been looked at
+         * @param total     the number of pictures in the collection
+         */
+        void progress(int processed, int total);
+    }
+
+    /**
+     * A key on which two pictures are duplicates
+     *
+     * @param byFile true if the value is the path of the file, false if it is the SHA-256
+     * @param value  the path or the SHA-256
+     */
+    private record DuplicateKey(boolean byFile, String value) {
+    }
+
+    /**
+     * Creates the query. The search runs when the results are first asked for or when the query is refreshed.
+     *
+     * @param pictureCollection the collection to search
+     */
     public DuplicatesQuery(final PictureCollection pictureCollection) {
+        this(pictureCollection, (processed, total) -> LOGGER.log(Level.FINE, "Processed {0} potential duplicates out of {1}", new Object[]{processed, total}));
+    }
+
+    /**
+     * Creates the query. The search runs when the results are first asked for or when the query is refreshed.
+     *
+     * @param pictureCollection the collection to search
+     * @param progressCallback  receives the progress of the search
+     */
+    public DuplicatesQuery(final PictureCollection pictureCollection, final ProgressCallback progressCallback) {
         this.pictureCollection = pictureCollection;
-        extractSearchResults();
+        this.progressCallback = progressCallback;
     }
 
     private final PictureCollection pictureCollection;
 
+    private final ProgressCallback progressCallback;
+
+    /**
+     * Set while a search is running
+     */
+    private final AtomicBoolean searching = new AtomicBoolean(false);
+
+    /**
+     * Set once a search has been started
+     */
+    private volatile boolean searched;
+
+    private final Set<Runnable> resultsListeners = new CopyOnWriteArraySet<>();
+
     /**
      * The number of entries found
      *
@@ -47,8 +129,8 @@ public class DuplicatesQuery
      */
     @Override
     public int getNumberOfResults() {
-        if ( searchResults == null ) {
-            extractSearchResults();
+        if ( !searched ) {
+            refresh();
         }
         return searchResults.size();
     }
@@ -61,10 +143,29 @@ public class DuplicatesQuery
      */
     @Override
     public SortableDefaultMutableTreeNode getIndex( int index ) {
-        if ( ( index < 0 ) || ( index >= getNumberOfResults() ) ) {
-            return null;
+        if ( !searched ) {
+            refresh();
+        }
+        synchronized ( searchResults ) {
+            if ( ( index < 0 ) || ( index >= searchResults.size() ) ) {
+                return null;
+            }
+            return searchResults.get( index );
+        }
+    }
+
+    /**
+     * Returns the clusters of duplicates found so far. Each cluster holds the nodes which share a file or a SHA-256.
+     *
+     * @return the clusters in a stable order
+     */
+    public List<List<SortableDefaultMutableTreeNode>> getClusters() {
+        if ( !searched ) {
+            refresh();
+        }
+        synchronized ( clusters ) {
+            return List.copyOf( clusters );
         }
-        return searchResults.get( index );
     }
 
     /**
@@ -87,44 +188,200 @@ public class DuplicatesQuery
     }
 
     /**
-     * Refreshes the search results
+     * Refreshes the search results. If a search is already running in the background this returns immediately
+     * and the running search delivers the results.
      */
     @Override
     public void refresh() {
         LOGGER.info( "refresh called" );
-        searchResults.clear();
-        extractSearchResults();
+        if ( !searching.compareAndSet( false, true ) ) {
+            return;
+        }
+        try {
+            extractSearchResults();
+        } finally {
+            searching.set( false );
+        }
+    }
+
+    /**
+     * Runs the search on a background thread. The results listeners are told as the clusters come in.
+     *
+     * @return a future which completes when the search is done
+     */
+    public CompletableFuture<Void> refreshInBackground() {
+        if ( !searching.compareAndSet( false, true ) ) {
+            return CompletableFuture.completedFuture( null );
+        }
+        searched = true;
+        return CompletableFuture.runAsync( () -> {
+            try {
+                extractSearchResults();
+            } finally {
+                searching.set( false );
+            }
+        } );
+    }
+
+    @Override
+    public void addResultsListener(final Runnable resultsListener) {
+        resultsListeners.add(resultsListener);
+    }
+
+    @Override
+    public void removeResultsListener(final Runnable resultsListener) {
+        resultsListeners.remove(resultsListener);
     }
 
     /**
      * ResultSet so that the query is not reexecuted every time a user clicks
      */
-    private List<SortableDefaultMutableTreeNode> searchResults = new ArrayList<>();
+    private final List<SortableDefaultMutableTreeNode> searchResults = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<List<SortableDefaultMutableTreeNode>> clusters = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Finds the duplicates
      */
     private void extractSearchResults() {
-        var nodeList = pictureCollection.getRootNode().getChildPictureNodes(true);
-        int size = nodeList.size();
+        searched = true;
+        searchResults.clear();
+        clusters.clear();
+        final var nodeList = pictureCollection.getRootNode().getChildPictureNodes(true);
+        final int size = nodeList.size();
         LOGGER.log(Level.INFO, "Built a list of {0} picture nodes.", size );
+        progressCallback.progress(0, size);
 
-        for (int i = 0; i < size; i++ ) {
-            final var baseNode = nodeList.get( i );
-            final var baseNodePictureInfo = (PictureInfo) baseNode.getUserObject();
-            if ( i % 250 == 0 ) {
-                LOGGER.log(Level.INFO, "Processed {0} potential duplicates out of {1}]", new Object[]{i, size});
+        // first pass: the keys of each picture and how many pictures have each key
+        final var processed = new AtomicInteger();
+        final var keysOf = new DuplicateKey[size][];
+        final var occurrences = new ConcurrentHashMap<DuplicateKey, Integer>();
+        IntStream.range(0, size).parallel().forEach(i -> {
+            keysOf[i] = getKeys((PictureInfo) nodeList.get(i).getUserObject()).toArray(DuplicateKey[]::new);
+            for (final var key : keysOf[i]) {
+                occurrences.merge(key, 1, Integer::sum);
+            }
+            final var count = processed.incrementAndGet();
+            if (count % PROGRESS_INTERVAL == 0) {
+                progressCallback.progress(count, size);
             }
-            for (int j = i + 1; j < size; j++ ) {
-                final var compareNodePictureInfo = (PictureInfo) nodeList.get( j ).getUserObject();
-                if ((baseNodePictureInfo.getImageFile().equals(compareNodePictureInfo.getImageFile()))
-                        || ((!baseNodePictureInfo.getSha256().equals("")) && (baseNodePictureInfo.getSha256().equals(compareNodePictureInfo.getSha256())))) {
-                    LOGGER.log(Level.INFO, "Found a duplicate: {0} = {1}", new Object[]{baseNode, nodeList.get(j)});
-                    searchResults.add(baseNode);
-                    searchResults.add(nodeList.get(j));
+        });
+
+        // second pass: join the pictures which share a key; a picture can link a file group with a SHA-256 group
+        final var clusterOf = new int[size];
+        Arrays.setAll(clusterOf, i -> i);
+        final var openKeys = new int[size];
+        final var membersByRoot = new HashMap<Integer, List<Integer>>();
+        final var firstWithKey = new HashMap<DuplicateKey, Integer>();
+        final var unseen = new HashMap<DuplicateKey, Integer>();
+        var clusterCount = 0;
+        var unannounced = 0;
+        var lastNotification = System.currentTimeMillis();
+        for (var i = 0; i < size; i++) {
+            final var picture = i;
+            final var duplicateKeys = Arrays.stream(keysOf[i]).filter(key -> occurrences.get(key) > 1).toList();
+            if (duplicateKeys.isEmpty()) {
+                continue;
+            }
+            membersByRoot.put(i, new ArrayList<>(List.of(i)));
+            for (final var key : duplicateKeys) {
+                final var left = unseen.merge(key, occurrences.get(key) - 1, (count, _) -> count - 1);
+                final var first = firstWithKey.putIfAbsent(key, picture);
+                if (first == null) {
+                    // the key stays open until its last picture has been joined
+                    openKeys[find(clusterOf, picture)]++;
+                } else {
+                    join(clusterOf, openKeys, membersByRoot, first, picture);
+                    if (left == 0) {
+                        openKeys[find(clusterOf, picture)]--;
+                    }
+                }
+            }
+
+            final var root = find(clusterOf, picture);
+            if (openKeys[root] == 0) {
+                final var cluster = membersByRoot.remove(root).stream().sorted().map(nodeList::get).toList();
+                LOGGER.log(Level.FINE, "Found duplicates: {0}", cluster);
+                synchronized (searchResults) {
+                    searchResults.addAll(cluster);
+                    clusters.add(cluster);
+                }
+                clusterCount++;
+                unannounced++;
+                if (unannounced >= CLUSTERS_PER_NOTIFICATION
+                        || System.currentTimeMillis() - lastNotification >= NOTIFICATION_INTERVAL_MILLIS) {
+                    notifyResultsListeners();
+                    unannounced = 0;
+                    lastNotification = System.currentTimeMillis();
                 }
             }
         }
+        notifyResultsListeners();
+        progressCallback.progress(size, size);
+        LOGGER.log(Level.INFO, "Found {0} duplicates in {1} clusters", new Object[]{searchResults.size(), clusterCount});
+    }
+
+    /**
+     * Returns the keys on which the picture can be a duplicate of another one
+     *
+     * @param pictureInfo the picture
+     * @return the path of the file and the SHA-256 if it is known
+     */
+    private static Stream<DuplicateKey> getKeys(final PictureInfo pictureInfo) {
+        final var keys = Stream.<DuplicateKey>builder();
+        final var file = pictureInfo.getImageFile();
+        if (file != null) {
+            keys.add(new DuplicateKey(true, canonicalPath(file)));
+        }
+        final var sha256 = pictureInfo.getSha256();
+        if (sha256 != null && !sha256.isEmpty()) {
+            keys.add(new DuplicateKey(false, sha256));
+        }
+        return keys.build();
+    }
+
+    /**
+     * Returns the absolute and normalised path of the file. This doesn't go to the file system.
+     *
+     * @param file the file
+     * @return the path
+     */
+    private static String canonicalPath(final File file) {
+        try {
+            return file.toPath().toAbsolutePath().normalize().toString();
+        } catch (final InvalidPathException _) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static int find(final int[] clusterOf, final int i) {
+        var root = i;
+        while (clusterOf[root] != root) {
+            clusterOf[root] = clusterOf[clusterOf[root]];
+            root = clusterOf[root];
+        }
+        return root;
+    }
+
+    /**
+     * Joins the clusters of the two pictures along with their open keys and members
+     */
+    private static void join(final int[] clusterOf, final int[] openKeys,
+                             final Map<Integer, List<Integer>> membersByRoot, final int a, final int b) {
+        final var rootA = find(clusterOf, a);
+        final var rootB = find(clusterOf, b);
+        if (rootA != rootB) {
+            // the smaller index becomes the root
+            final var root = Math.min(rootA, rootB);
+            final var other = Math.max(rootA, rootB);
+            clusterOf[other] = root;
+            openKeys[root] += openKeys[other];
+            membersByRoot.get(root).addAll(membersByRoot.remove(other));
+        }
+    }
+
+    private void notifyResultsListeners() {
+        resultsListeners.forEach(Runnable::run);
     }
 
     public PictureCollection getPictureCollection() {
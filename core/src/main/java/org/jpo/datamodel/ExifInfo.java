@@ -220,10 +220,20 @@ public class ExifInfo {
             LOGGER.severe( "Can't decode Exif tags on a null File!" );
             return;
         }
-        try {
-            final var imageStream = new FileInputStream(pictureFile);
-            final var metadata = ImageMetadataReader.readMetadata(new BufferedInputStream(imageStream));
+        try (final var imageStream = new BufferedInputStream(new FileInputStream(pictureFile))) {
+            decodeExifTags(ImageMetadataReader.readMetadata(imageStream));
+        } catch (final ImageProcessingException | IOException x) {
+            LOGGER.severe(x.getMessage());
+        }
+    }
 
+    /**
+     * Decodes the Exif tags from metadata which was already read, see {@link FileAnalyzer}
+     *
+     * @param metadata the metadata of the picture file
+     */
+    void decodeExifTags(final Metadata metadata) {
+        try {
             extractDimensions(metadata);
 
             final var exifSubIFDdirectory = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
@@ -283,10 +293,9 @@ public class ExifInfo {
                         -> exifDump.append(tag.getTagTypeHex()).append(" - ").append(tag.getTagName()).append(":\t").append(tag.getDirectoryName()).append(":\t").append(tag.getDescription()).append("\n")
                 );
             }
-        } catch (final ImageProcessingException | NullPointerException | IOException x) {
+        } catch (final NullPointerException x) {
             LOGGER.severe(x.getMessage());
         }
-
     }
 
     private Dimension extractDimensions(final Metadata metadata) {
@@ -0,0 +1,229 @@
+package org.jpo.datamodel;
+
+import com.drew.imaging.ImageMetadataReader;
+import com.drew.imaging.ImageProcessingException;
+
+import java.awt.geom.Point2D;
+import java.io.*;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Works out everything JPO wants to know about a new file from a single read. Every byte goes through the SHA-256
+ * digest exactly once on its way to whoever reads it:
+ * <ol>
+ * <li>The first {@link #HEAD_SIZE} bytes are kept and Tika and the ImageIO readers classify the file from them,
+ * see {@link FileTypeProbe#classify(File, byte[])}.</li>
+ * <li>The metadata-extractor parses the header from the kept bytes followed by the rest of the stream and stops
+ * when it has found what it looks for.</li>
+ * <li>Whatever is left of the file is read into the digest.</li>
+ * </ol>
+ * Asking Tika, ImageIO, the {@link HashingService} and {@link ExifInfo} one after the other opens the file four
+ * times. The answers are handed to the {@link FileTypeProbe} and the {@link PathHashIndex} so that later questions
+ * about the same unchanged file don't read it at all. If the {@link PathHashIndex} already vouches for the file, as
+ * on a reimport, the file is only read as far as the metadata-extractor needs and nothing is hashed.
+ */
+public final class FileAnalyzer {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(FileAnalyzer.class.getName());
+
+    /**
+     * How many leading bytes are kept for the type detection. Tika's magic byte patterns fit into this.
+     */
+    static final int HEAD_SIZE = 64 * 1024;
+
+    /**
+     * The size of the buffer which reads the rest of the file into the digest
+     */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+
+    private FileAnalyzer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * What a read of a file found out
+     *
+     * @param file           the file
+     * @param sha256         the SHA-256 as upper case hex or null if the file isn't media and wasn't read to the end
+     * @param size           the size of the file when it was read
+     * @param lastModified   the modification time of the file when it was read
+     * @param fileType       the classification of the file
+     * @param createDateTime the time the picture was taken according to the Exif tags or an empty String
+     * @param latitude       the latitude according to the Exif tags or 0
+     * @param longitude      the longitude according to the Exif tags or 0
+     * @param rotation       the rotation according to the Exif tags
+     * @param exifWidth      the width according to the Exif tags or an empty String
+     * @param exifHeight     the height according to the Exif tags or an empty String
+     */
+    public record Analysis(File file, String sha256, long size, long lastModified, FileTypeProbe.FileType fileType,
+                           String createDateTime, double latitude, double longitude, int rotation,
+                           String exifWidth, String exifHeight) {
+
+        /**
+         * Returns the latitude and longitude the way {@link ExifInfo#getLatLng()} does
+         *
+         * @return a new point with the latitude in x and the longitude in y
+         */
+        public Point2D.Double getLatLng() {
+            return new Point2D.Double(latitude, longitude);
+        }
+    }
+
+    /**
+     * Reads the file once and returns its hash, classification and Exif tags. A file which isn't media is only read
+     * as far as its leading bytes and has no hash. A file whose SHA-256 the {@link PathHashIndex} has for its current
+     * size and modification time isn't hashed again.
+     *
+     * @param file the file to analyse
+     * @return the analysis
+     * @throws IOException if the file can't be read
+     */
+    public static Analysis analyze(final File file) throws IOException {
+        final var before = HashingService.readFileStats(file);
+        final var pathHashIndex = JpoCache.getPathHashIndex();
+        final var indexedSha256 = pathHashIndex == null ? null : pathHashIndex.getValidatedSha256(file, before);
+        final FileTypeProbe.FileType fileType;
+        final var exifInfo = new ExifInfo(file);
+        final String sha256;
+        try (final var inputStream = indexedSha256 == null
+                ? new DigestingInputStream(Files.newInputStream(file.toPath()), HashingService.newSha256Digest())
+                : Files.newInputStream(file.toPath())) {
+            final var head = inputStream.readNBytes(HEAD_SIZE);
+            fileType = FileTypeProbe.classify(file, head);
+            if (fileType.isMedia()) {
+                if (fileType.mediaKind() != FileTypeProbe.MediaKind.DOCUMENT) {
+                    readMetadata(file, new SequenceInputStream(new ByteArrayInputStream(head), inputStream), exifInfo);
+                }
+                sha256 = inputStream instanceof DigestingInputStream digestingInputStream
+                        ? digestingInputStream.finishDigest()
+                        : indexedSha256;
+            } else {
+                sha256 = null;
+            }
+        }
+
+        if (before.equals(HashingService.readFileStats(file))) {
+            FileTypeProbe.remember(file, before.size(), before.lastModified(), fileType);
+            if (sha256 != null && indexedSha256 == null && pathHashIndex != null) {
+                pathHashIndex.record(file, sha256, before);
+            }
+        } else {
+            LOGGER.log(Level.INFO, "File {0} changed while it was analysed", file);
+        }
+
+        final var latLng = exifInfo.getLatLng();
+        return new Analysis(file, sha256, before.size(), before.lastModified(), fileType,
+                exifInfo.getCreateDateTime(), latLng.x, latLng.y, exifInfo.getRotation(),
+                exifInfo.getExifWidth(), exifInfo.getExifHeight());
+    }
+
+    /**
+     * Lets the metadata-extractor parse the header. A file it doesn't understand is not an error; a genuine read
+     * error will come up again when the rest of the file is read into the digest.
+     */
+    private static void readMetadata(final File file, final InputStream inputStream, final ExifInfo exifInfo) {
+        try {
+            exifInfo.decodeExifTags(ImageMetadataReader.readMetadata(inputStream));
+        } catch (final ImageProcessingException | IOException e) {
+            LOGGER.log(Level.FINE, "No metadata in file {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+    }
+
+    /**
+     * Hands every byte which is read or skipped to the digest. Skipped bytes are read so that the digest sees them.
+     */
+    private static final class DigestingInputStream extends FilterInputStream {
+
+        private final MessageDigest digest;
+
+        private DigestingInputStream(final InputStream inputStream, final MessageDigest digest) {
+            super(inputStream);
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final var b = in.read();
+            if (b != -1) {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final var count = in.read(buffer, offset, length);
+            if (count > 0) {
+                digest.update(buffer, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final var buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(n, 0))];
+            var skipped = 0L;
+            while (skipped < n) {
+                final var count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (count == -1) {
+                    break;
+                }
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(final int readLimit) {
+            // the digest can't go back so there is no mark
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        /**
+         * Reads the rest of the stream into the digest
+         *
+         * @return the SHA-256 of the whole stream as upper case hex
+         */
+        private String finishDigest() throws IOException {
+            final var buffer = new byte[BUFFER_SIZE];
+            while (read(buffer, 0, buffer.length) != -1) {
+                // the digest is updated by read
+            }
+            return HEX_FORMAT.formatHex(digest.digest());
+        }
+    }
+}
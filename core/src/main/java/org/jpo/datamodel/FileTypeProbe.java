@@ -0,0 +1,378 @@
+package org.jpo.datamodel;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Classifies files by their content and remembers the answer for as long as the size and modification time of the
+ * file don't change. Detecting the mime type with Tika and finding an ImageIO reader both open and read the file,
+ * which is slow on network drives, and the same file is asked about several times to create one thumbnail.
+ * <p>
+ * The answers are kept in a memory LRU. They can be saved next to the collection file and read back when the
+ * collection is loaded, see {@link CacheSettings#isPersistFileTypes()}.
+ */
+public class FileTypeProbe {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(FileTypeProbe.class.getName());
+
+    /**
+     * How many files are remembered
+     */
+    private static final int MAX_ENTRIES = 20_000;
+
+    /**
+     * The suffix of the file in which the probes are saved next to the collection file
+     */
+    public static final String PERSISTENCE_SUFFIX = ".filetypes";
+
+    private FileTypeProbe() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * What kind of media a file holds
+     */
+    public enum MediaKind {
+        /**
+         * A picture. Whether JPO can show it depends on {@link FileType#hasImageReader()}.
+         */
+        PICTURE,
+        /**
+         * A movie
+         */
+        MOVIE,
+        /**
+         * A document like a PDF or a word processor file
+         */
+        DOCUMENT,
+        /**
+         * Something JPO doesn't handle
+         */
+        OTHER
+    }
+
+    /**
+     * The classification of a file
+     *
+     * @param mimeType       the mime type or the String "null" if it couldn't be determined
+     * @param mediaKind      what kind of media the file holds
+     * @param readerSpiClass the class name of the {@link ImageReaderSpi} which can read the picture or null if
+     *                       there is none
+     */
+    public record FileType(String mimeType, MediaKind mediaKind, String readerSpiClass) implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1;
+
+        /**
+         * Returns whether ImageIO has a reader for the picture
+         *
+         * @return true if the file is a picture and there is a reader
+         */
+        public boolean hasImageReader() {
+            return readerSpiClass != null;
+        }
+
+        /**
+         * Returns whether JPO can add the file to a collection
+         *
+         * @return true for pictures, movies and documents
+         */
+        public boolean isMedia() {
+            return mediaKind != MediaKind.OTHER;
+        }
+    }
+
+    /**
+     * A remembered classification and the size and modification time of the file it was made for
+     */
+    private record Entry(long size, long lastModified, FileType fileType) implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1;
+    }
+
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static final AtomicLong HIT_COUNT = new AtomicLong();
+    private static final AtomicLong MISS_COUNT = new AtomicLong();
+
+    /**
+     * Returns the classification of the file. If the file hasn't changed since it was last probed only its
+     * attributes are read.
+     *
+     * @param file the file to classify
+     * @return the classification
+     */
+    public static FileType probe(final File file) {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (final NoSuchFileException _) {
+            return classify(file);
+        } catch (final IOException | UnsupportedOperationException e) {
+            LOGGER.log(Level.FINE, "Could not read the attributes of {0}: {1}", new Object[]{file, e.getMessage()});
+            return classify(file);
+        }
+        final var key = file.getAbsolutePath();
+        final var size = attributes.size();
+        final var lastModified = attributes.lastModifiedTime().toMillis();
+        synchronized (ENTRIES) {
+            final var entry = ENTRIES.get(key);
+            if (entry != null && entry.size() == size && entry.lastModified() == lastModified) {
+                HIT_COUNT.incrementAndGet();
+                return entry.fileType();
+            }
+        }
+        MISS_COUNT.incrementAndGet();
+        final var fileType = classify(file);
+        synchronized (ENTRIES) {
+            ENTRIES.put(key, new Entry(size, lastModified, fileType));
+        }
+        return fileType;
+    }
+
+    /**
+     * Classifies the file by reading it
+     *
+     * @param file the file
+     * @return the classification
+     */
+    private static FileType classify(final File file) {
+        final var mimeType = MimeTypes.detectMimeType(file);
+        final var mediaKind = getMediaKind(mimeType, file);
+        final var readerSpiClass = mediaKind == MediaKind.PICTURE ? findReaderSpiClass(file) : null;
+        return new FileType(mimeType, mediaKind, readerSpiClass);
+    }
+
+    /**
+     * Classifies the file from its leading bytes which the caller has already read, see {@link FileAnalyzer}.
+     * The bytes must be the start of the file and long enough for Tika's magic byte patterns.
+     *
+     * @param file the file which supplies the name for the detection
+     * @param head the leading bytes of the file
+     * @return the classification
+     */
+    static FileType classify(final File file, final byte[] head) {
+        final var mimeType = MimeTypes.detectMimeType(head, file.getName());
+        final var mediaKind = getMediaKind(mimeType, file);
+        final var readerSpiClass = mediaKind == MediaKind.PICTURE ? findReaderSpiClass(file, head) : null;
+        return new FileType(mimeType, mediaKind, readerSpiClass);
+    }
+
+    /**
+     * Remembers a classification which was made while the file was being read for something else
+     *
+     * @param file         the file
+     * @param size         the size the file had when it was read
+     * @param lastModified the modification time the file had when it was read
+     * @param fileType     the classification
+     */
+    static void remember(final File file, final long size, final long lastModified, final FileType fileType) {
+        synchronized (ENTRIES) {
+            ENTRIES.put(file.getAbsolutePath(), new Entry(size, lastModified, fileType));
+        }
+    }
+
+    private static MediaKind getMediaKind(final String mimeType, final File file) {
+        final MediaKind mediaKind;
+        if (MimeTypes.isAPictureMimeType(mimeType, file)) {
+            mediaKind = MediaKind.PICTURE;
+        } else if (MimeTypes.isAMovieMimeType(mimeType)) {
+            mediaKind = MediaKind.MOVIE;
+        } else if (MimeTypes.isADocumentMimeType(mimeType)) {
+            mediaKind = MediaKind.DOCUMENT;
+        } else {
+            mediaKind = MediaKind.OTHER;
+        }
+        return mediaKind;
+    }
+
+    private static String findReaderSpiClass(final File file) {
+        try (final var testStream = new FileImageInputStream(file)) {
+            return findReaderSpiClass(file, testStream);
+        } catch (final IOException e) {
+            LOGGER.log(Level.INFO, "IOException testing file {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+        return null;
+    }
+
+    /**
+     * The readers only look at the first few bytes to decide whether they can decode the file so the bytes which
+     * were read for Tika are enough.
+     */
+    private static String findReaderSpiClass(final File file, final byte[] head) {
+        try (final var testStream = new MemoryCacheImageInputStream(new ByteArrayInputStream(head))) {
+            return findReaderSpiClass(file, testStream);
+        } catch (final IOException e) {
+            LOGGER.log(Level.INFO, "IOException testing file {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+        return null;
+    }
+
+    private static String findReaderSpiClass(final File file, final ImageInputStream testStream) {
+        try {
+            final var readers = ImageIO.getImageReaders(testStream);
+            if (readers.hasNext()) {
+                final var reader = readers.next();
+                final var provider = reader.getOriginatingProvider();
+                reader.dispose();
+                if (provider != null) {
+                    return provider.getClass().getName();
+                }
+            } else {
+                LOGGER.log(Level.INFO, "Cant find an ImageIO reader for file {0}", file);
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.log(Level.INFO, "An unexpected error was caught probing {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+        return null;
+    }
+
+    /**
+     * Creates a reader from the SPI recorded in the file type so that ImageIO doesn't have to ask every plugin
+     * whether it can decode the file.
+     *
+     * @param fileType the file type
+     * @return a new reader or null if the file has no reader or the plugin is no longer registered
+     */
+    public static ImageReader createImageReader(final FileType fileType) {
+        if (!fileType.hasImageReader()) {
+            return null;
+        }
+        final var providers = IIORegistry.getDefaultInstance().getServiceProviders(ImageReaderSpi.class, true);
+        while (providers.hasNext()) {
+            final var provider = providers.next();
+            if (provider.getClass().getName().equals(fileType.readerSpiClass())) {
+                try {
+                    return provider.createReaderInstance();
+                } catch (final IOException e) {
+                    LOGGER.log(Level.INFO, "Could not create a reader from {0}: {1}", new Object[]{provider, e.getMessage()});
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets all classifications
+     */
+    public static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+        }
+    }
+
+    /**
+     * Returns the number of remembered classifications
+     *
+     * @return the number of entries
+     */
+    public static int size() {
+        synchronized (ENTRIES) {
+            return ENTRIES.size();
+        }
+    }
+
+    public static long getHitCount() {
+        return HIT_COUNT.get();
+    }
+
+    public static long getMissCount() {
+        return MISS_COUNT.get();
+    }
+
+    /**
+     * Returns the file in which the classifications are kept for the supplied collection file
+     *
+     * @param collectionFile the collection file
+     * @return the file next to it
+     */
+    public static File getPersistenceFile(final File collectionFile) {
+        return new File(collectionFile.getPath() + PERSISTENCE_SUFFIX);
+    }
+
+    /**
+     * Saves the classifications next to the collection file
+     *
+     * @param collectionFile the collection file
+     */
+    public static void save(final File collectionFile) {
+        final HashMap<String, Entry> snapshot;
+        synchronized (ENTRIES) {
+            snapshot = new HashMap<>(ENTRIES);
+        }
+        final var persistenceFile = getPersistenceFile(collectionFile);
+        try (final var out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(persistenceFile)))) {
+            out.writeObject(snapshot);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save the file types to {0}: {1}", new Object[]{persistenceFile, e.getMessage()});
+        }
+    }
+
+    /**
+     * Reads the classifications saved next to the collection file if there are any. Stale entries are harmless
+     * because each entry is checked against the size and modification time of the file when it is used.
+     *
+     * @param collectionFile the collection file
+     */
+    public static void load(final File collectionFile) {
+        final var persistenceFile = getPersistenceFile(collectionFile);
+        if (!persistenceFile.exists()) {
+            return;
+        }
+        try (final var in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(persistenceFile)))) {
+            in.setObjectInputFilter(ObjectInputFilter.Config.createFilter(
+                    "java.util.HashMap;java.lang.String;java.lang.Enum;org.jpo.datamodel.FileTypeProbe$*;!*"));
+            if (in.readObject() instanceof Map<?, ?> map) {
+                synchronized (ENTRIES) {
+                    map.forEach((key, value) -> {
+                        if (key instanceof String path && value instanceof Entry entry) {
+                            ENTRIES.putIfAbsent(path, entry);
+                        }
+                    });
+                }
+            }
+        } catch (final IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.log(Level.WARNING, "Could not read the file types from {0}: {1}", new Object[]{persistenceFile, e.getMessage()});
+        }
+    }
+}
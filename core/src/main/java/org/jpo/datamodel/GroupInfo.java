@@ -114,6 +114,7 @@ public class GroupInfo implements Serializable, GroupOrPicture {
         if ( ( pictureCollection != null ) && ( pictureCollection.getSendModelUpdates() ) ) {
             final var groupInfoChangeEvent = new GroupInfoChangeEvent(this);
             groupInfoChangeEvent.setGroupNameChanged();
+            pictureCollection.getChangeJournal().groupRenamed(owningNode);
             sendGroupInfoChangedEvent(groupInfoChangeEvent);
             LOGGER.log(Level.FINE, "sent description changed event");
             pictureCollection.setUnsavedUpdates();
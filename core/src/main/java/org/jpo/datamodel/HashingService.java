@@ -0,0 +1,329 @@
+package org.jpo.datamodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Calculates the SHA-256 of files. The files are read through a large direct buffer per thread and the results are
+ * remembered in the {@link PathHashIndex} by path, size and modification time so that a file which hasn't changed
+ * is never read again.
+ * <p>
+ * Many files are hashed in parallel with a pool per storage device. A solid state device gets a thread per
+ * processor while a spinning disk gets one thread so that the heads don't seek between files, see
+ * {@link CacheSettings#getHashingThreadsSolidState()} and {@link CacheSettings#getHashingThreadsSpinning()}.
+ */
+public final class HashingService {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(HashingService.class.getName());
+
+    /**
+     * The size of the read buffer of each thread
+     */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+
+    /**
+     * The storage kinds of the devices we have looked at by device name
+     */
+    private static final Map<String, StorageKind> STORAGE_KINDS = new ConcurrentHashMap<>();
+
+    private HashingService() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The kind of device a file is stored on
+     */
+    public enum StorageKind {
+        /**
+         * Flash storage which serves parallel reads well
+         */
+        SOLID_STATE,
+        /**
+         * A spinning disk which should be read one file at a time
+         */
+        SPINNING
+    }
+
+    /**
+     * What a run of {@link #hashFiles} did
+     *
+     * @param files       the number of files which got a SHA-256
+     * @param cachedFiles how many of them were answered from the fingerprint cache without reading the file
+     * @param failedFiles the number of files which could not be read
+     * @param bytes       the number of bytes read
+     * @param nanos       how long the run took
+     */
+    public record HashingStatistics(int files, int cachedFiles, int failedFiles, long bytes, long nanos) {
+
+        /**
+         * Returns the read throughput of the run
+         *
+         * @return megabytes per second
+         */
+        public double getMegabytesPerSecond() {
+            if (nanos <= 0) {
+                return 0;
+            }
+            return (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d files hashed (%d from cache, %d failed), %.1f MB read at %.1f MB/s",
+                    files, cachedFiles, failedFiles, bytes / (1024.0 * 1024.0), getMegabytesPerSecond());
+        }
+    }
+
+    /**
+     * Reads the file and calculates its SHA-256. This doesn't consult or update the fingerprint cache.
+     *
+     * @param file the file
+     * @return the SHA-256 as upper case hex
+     * @throws IOException if the file can't be read
+     */
+    public static String calculateSha256(final File file) throws IOException {
+        final var digest = newSha256Digest();
+        final var buffer = BUFFER.get();
+        try (final var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HEX_FORMAT.formatHex(digest.digest());
+    }
+
+    /**
+     * Returns a new SHA-256 digest
+     *
+     * @return the digest
+     */
+    static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The JVM has no SHA-256", e);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 of the file. If the fingerprint cache has seen the file at its current size and
+     * modification time the file isn't read.
+     *
+     * @param file the file
+     * @return the SHA-256 as upper case hex
+     * @throws IOException if the file can't be read
+     */
+    public static String getSha256(final File file) throws IOException {
+        final var pathHashIndex = JpoCache.getPathHashIndex();
+        if (pathHashIndex == null) {
+            return calculateSha256(file);
+        }
+        final var fileStats = readFileStats(file);
+        final var sha256 = pathHashIndex.getValidatedSha256(file, fileStats);
+        if (sha256 != null) {
+            return sha256;
+        }
+        return hashAndRecord(pathHashIndex, file, fileStats, null);
+    }
+
+    /**
+     * Hashes the files in parallel with a pool per storage device and hands each result to the consumer. The
+     * consumer is called on the pool threads.
+     *
+     * @param files     the files to hash
+     * @param onHashed  receives each file and its SHA-256; may be null if the caller only wants to fill the cache
+     * @param cancelled checked before each file; once it returns true the remaining files are skipped
+     * @return what the run did
+     */
+    public static HashingStatistics hashFiles(final Collection<File> files,
+                                              final BiConsumer<File, String> onHashed,
+                                              final BooleanSupplier cancelled) {
+        final var start = System.nanoTime();
+        final var hashed = new AtomicInteger();
+        final var cached = new AtomicInteger();
+        final var failed = new AtomicInteger();
+        final var bytes = new AtomicLong();
+        final var pathHashIndex = JpoCache.getPathHashIndex();
+
+        final var filesByStore = new LinkedHashMap<Optional<FileStore>, List<File>>();
+        files.forEach(file -> filesByStore.computeIfAbsent(getFileStore(file), _ -> new ArrayList<>()).add(file));
+
+        final var executors = new ArrayList<ExecutorService>();
+        final var futures = new ArrayList<Future<?>>();
+        filesByStore.forEach((store, storeFiles) -> {
+            final var threads = getThreads(store.map(HashingService::getStorageKind).orElse(StorageKind.SOLID_STATE));
+            final var executor = Executors.newFixedThreadPool(Math.min(threads, storeFiles.size()), runnable -> {
+                final var thread = new Thread(runnable, "HashingService");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executors.add(executor);
+            storeFiles.forEach(file -> futures.add(executor.submit(() -> {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                try {
+                    final var fileStats = readFileStats(file);
+                    var sha256 = pathHashIndex == null ? null : pathHashIndex.getValidatedSha256(file, fileStats);
+                    if (sha256 != null) {
+                        cached.incrementAndGet();
+                    } else {
+                        sha256 = hashAndRecord(pathHashIndex, file, fileStats, bytes);
+                    }
+                    hashed.incrementAndGet();
+                    if (onHashed != null) {
+                        onHashed.accept(file, sha256);
+                    }
+                } catch (final IOException e) {
+                    failed.incrementAndGet();
+                    LOGGER.log(Level.INFO, "Could not hash {0}: {1}", new Object[]{file, e.getMessage()});
+                }
+            })));
+        });
+
+        try {
+            for (final var future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException _) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            LOGGER.log(Level.SEVERE, "Hashing failed: {0}", e.getCause().getMessage());
+        } finally {
+            executors.forEach(ExecutorService::shutdownNow);
+        }
+
+        final var statistics = new HashingStatistics(hashed.get(), cached.get(), failed.get(), bytes.get(), System.nanoTime() - start);
+        LOGGER.log(Level.INFO, "{0}", statistics);
+        return statistics;
+    }
+
+    /**
+     * Hashes the file and records the result in the fingerprint cache if the file didn't change while it was read
+     */
+    private static String hashAndRecord(final PathHashIndex pathHashIndex, final File file,
+                                        final PathHashIndex.FileStats before, final AtomicLong bytes) throws IOException {
+        final var sha256 = calculateSha256(file);
+        if (bytes != null) {
+            bytes.addAndGet(before.size());
+        }
+        if (pathHashIndex != null && before.equals(readFileStats(file))) {
+            pathHashIndex.record(file, sha256, before);
+        }
+        return sha256;
+    }
+
+    static PathHashIndex.FileStats readFileStats(final File file) throws IOException {
+        final var attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return new PathHashIndex.FileStats(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    private static Optional<FileStore> getFileStore(final File file) {
+        try {
+            return Optional.of(Files.getFileStore(file.toPath()));
+        } catch (final IOException _) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns how many files should be read at the same time from a device of the supplied kind
+     *
+     * @param storageKind the kind of device
+     * @return the number of threads
+     */
+    public static int getThreads(final StorageKind storageKind) {
+        return storageKind == StorageKind.SPINNING
+                ? CacheSettings.getHashingThreadsSpinning()
+                : CacheSettings.getHashingThreadsSolidState();
+    }
+
+    /**
+     * Returns the kind of device the file is stored on. This is only known on Linux; elsewhere, and for devices
+     * Linux doesn't describe, the device is treated as solid state.
+     *
+     * @param file the file
+     * @return the kind of device
+     */
+    public static StorageKind getStorageKind(final File file) {
+        return getFileStore(file).map(HashingService::getStorageKind).orElse(StorageKind.SOLID_STATE);
+    }
+
+    private static StorageKind getStorageKind(final FileStore fileStore) {
+        return STORAGE_KINDS.computeIfAbsent(fileStore.name(), HashingService::detectStorageKind);
+    }
+
+    /**
+     * Asks Linux whether the block device rotates. A partition like /dev/sda1 has the queue attributes on its
+     * parent device, so we look there too.
+     *
+     * @param deviceName the name of the device as reported by the file store
+     * @return the kind of device
+     */
+    private static StorageKind detectStorageKind(final String deviceName) {
+        final var fileName = Path.of(deviceName).getFileName();
+        if (fileName == null) {
+            return StorageKind.SOLID_STATE;
+        }
+        final var device = Path.of("/sys/class/block", fileName.toString());
+        for (final var rotational : List.of(device.resolve("queue/rotational"), device.resolve("../queue/rotational"))) {
+            try {
+                if (Files.isReadable(rotational)) {
+                    final var storageKind = "1".equals(Files.readString(rotational).trim()) ? StorageKind.SPINNING : StorageKind.SOLID_STATE;
+                    LOGGER.log(Level.FINE, "Device {0} is {1}", new Object[]{deviceName, storageKind});
+                    return storageKind;
+                }
+            } catch (final IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Could not read {0}: {1}", new Object[]{rotational, e.getMessage()});
+            }
+        }
+        return StorageKind.SOLID_STATE;
+    }
+}
@@ -0,0 +1,267 @@
+package org.jpo.datamodel;
+
+import java.nio.ByteBuffer;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * A memory cache for the bytes of highres images which is limited by the number of bytes it holds rather than the
+ * number of objects. The eviction policy is a segmented LRU: new entries go into a probation segment and are
+ * promoted to the protected segment when they are hit again. Victims are taken from the probation segment first so
+ * that a scan through a large group of pictures doesn't flush out the pictures the user keeps coming back to.
+ * <p>
+ * The payload can optionally be kept off-heap in a direct {@link ByteBuffer}. In that case a hit copies the bytes
+ * into a new {@link ImageBytes} object.
+ *
+ * @see CacheSettings#getHighresCacheMaxBytes()
+ */
+public class HighresImageCache {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(HighresImageCache.class.getName());
+
+    /**
+     * The share of the budget which the protected segment may use.
+     */
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long probationBytes;
+    private long protectedBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * A cached image. Exactly one of the two payload fields is set.
+     */
+    private static final class Entry {
+        private final byte[] heapBytes;
+        private final ByteBuffer offHeapBytes;
+        private final FileTime lastModification;
+        private final int weight;
+
+        private Entry(final ImageBytes imageBytes, final boolean offHeap) {
+            final var bytes = imageBytes.getBytes();
+            weight = bytes.length;
+            lastModification = imageBytes.getLastModification();
+            if (offHeap) {
+                offHeapBytes = ByteBuffer.allocateDirect(bytes.length);
+                offHeapBytes.put(bytes).flip();
+                heapBytes = null;
+            } else {
+                heapBytes = bytes;
+                offHeapBytes = null;
+            }
+        }
+
+        private ImageBytes toImageBytes() {
+            final ImageBytes imageBytes;
+            if (heapBytes != null) {
+                imageBytes = new ImageBytes(heapBytes);
+            } else {
+                final var bytes = new byte[weight];
+                offHeapBytes.duplicate().get(bytes);
+                imageBytes = new ImageBytes(bytes);
+            }
+            imageBytes.setLastModification(lastModification);
+            return imageBytes;
+        }
+    }
+
+    /**
+     * Returns the cached image for the key or null if it is not in the cache. A hit promotes the entry to the
+     * protected segment.
+     *
+     * @param key the key of the image, normally the sha256 of the file
+     * @return the image bytes or null
+     */
+    public ImageBytes get(final String key) {
+        final Entry entry;
+        synchronized (this) {
+            var found = protectedSegment.get(key);
+            if (found == null) {
+                found = probation.remove(key);
+                if (found != null) {
+                    probationBytes -= found.weight;
+                    protectedSegment.put(key, found);
+                    protectedBytes += found.weight;
+                    shrinkProtectedSegment();
+                }
+            }
+            entry = found;
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.toImageBytes();
+    }
+
+    /**
+     * Stores the image in the cache. Images larger than the whole budget are not cached.
+     *
+     * @param key        the key of the image, normally the sha256 of the file
+     * @param imageBytes the image
+     */
+    public void put(final String key, final ImageBytes imageBytes) {
+        final var maxBytes = CacheSettings.getHighresCacheMaxBytes();
+        if (imageBytes.getBytes().length > maxBytes) {
+            LOGGER.log(Level.FINE, "Not caching {0} because its {1} bytes exceed the budget of {2} bytes", new Object[]{key, imageBytes.getBytes().length, maxBytes});
+            return;
+        }
+        final var entry = new Entry(imageBytes, CacheSettings.isHighresCacheOffHeap());
+        synchronized (this) {
+            remove(key);
+            probation.put(key, entry);
+            probationBytes += entry.weight;
+            evictToBudget(maxBytes);
+        }
+    }
+
+    /**
+     * Removes the entry for the key if it is in the cache
+     *
+     * @param key the key to remove
+     */
+    public synchronized void remove(final String key) {
+        final var fromProbation = probation.remove(key);
+        if (fromProbation != null) {
+            probationBytes -= fromProbation.weight;
+        }
+        final var fromProtected = protectedSegment.remove(key);
+        if (fromProtected != null) {
+            protectedBytes -= fromProtected.weight;
+        }
+    }
+
+    /**
+     * Empties the cache. The statistics counters are not reset.
+     */
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        probationBytes = 0;
+        protectedBytes = 0;
+    }
+
+    /**
+     * Moves the least recently used entries of the protected segment back to probation when the protected segment
+     * outgrows its share of the budget.
+     */
+    private void shrinkProtectedSegment() {
+        final var protectedBudget = (long) (CacheSettings.getHighresCacheMaxBytes() * PROTECTED_SHARE);
+        final Iterator<Map.Entry<String, Entry>> iterator = protectedSegment.entrySet().iterator();
+        while (protectedBytes > protectedBudget && iterator.hasNext()) {
+            final var eldest = iterator.next();
+            iterator.remove();
+            protectedBytes -= eldest.getValue().weight;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationBytes += eldest.getValue().weight;
+        }
+    }
+
+    /**
+     * Evicts entries until the cache fits the budget, taking victims from probation before protected.
+     *
+     * @param maxBytes the budget
+     */
+    private void evictToBudget(final long maxBytes) {
+        evictFrom(probation, maxBytes, true);
+        evictFrom(protectedSegment, maxBytes, false);
+    }
+
+    private void evictFrom(final LinkedHashMap<String, Entry> segment, final long maxBytes, final boolean isProbation) {
+        final Iterator<Map.Entry<String, Entry>> iterator = segment.entrySet().iterator();
+        while (getWeightedSize() > maxBytes && iterator.hasNext()) {
+            final var eldest = iterator.next();
+            iterator.remove();
+            if (isProbation) {
+                probationBytes -= eldest.getValue().weight;
+            } else {
+                protectedBytes -= eldest.getValue().weight;
+            }
+            evictionCount.incrementAndGet();
+            LOGGER.log(Level.FINE, "Evicted {0} ({1} bytes)", new Object[]{eldest.getKey(), eldest.getValue().weight});
+        }
+    }
+
+    /**
+     * Returns the number of bytes held by the cache
+     *
+     * @return the bytes held
+     */
+    public synchronized long getWeightedSize() {
+        return probationBytes + protectedBytes;
+    }
+
+    /**
+     * Returns the number of images held by the cache
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns a text with statistics on the cache
+     *
+     * @return a text with the statistics
+     */
+    public String getStats() {
+        return String.format("""
+                        Highres cache
+                        Entries: %d
+                        Bytes: %,d of %,d (%s)
+                        Hits: %d
+                        Misses: %d
+                        Evictions: %d""",
+                size(),
+                getWeightedSize(),
+                CacheSettings.getHighresCacheMaxBytes(),
+                CacheSettings.isHighresCacheOffHeap() ? "off-heap" : "on-heap",
+                getHitCount(),
+                getMissCount(),
+                getEvictionCount());
+    }
+}
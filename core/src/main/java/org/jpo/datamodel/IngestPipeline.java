@@ -0,0 +1,369 @@
+package org.jpo.datamodel;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Adds files and directories to a node in three stages which run at the same time:
+ * <ol>
+ * <li>A few threads list the directories. Each directory hands its files to the next stage as soon as it is
+ * listed and its subdirectories to the other walker threads.</li>
+ * <li>A pool of {@link HashingService#getThreads} threads for the storage device reads each file once with the
+ * {@link FileAnalyzer} for its type, hash and Exif tags and makes a {@link PictureInfo} which isn't in the tree
+ * yet.</li>
+ * <li>The thread which calls {@link #run} takes the results in the order of the directory listings and adds them
+ * to the tree. A directory becomes a group when the first picture in it arrives so that no empty groups are left
+ * behind. The tree model hears about the new nodes in batches of {@link #BATCH_SIZE} or every
+ * {@link #BATCH_MILLIS} rather than once per node.</li>
+ * </ol>
+ * The cancel check is consulted by all the stages. The pictures which were added before it fired stay in the tree.
+ */
+public final class IngestPipeline {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(IngestPipeline.class.getName());
+
+    /**
+     * The number of threads which list directories
+     */
+    static final int WALKER_THREADS = 4;
+
+    /**
+     * The number of new nodes after which the tree model is told about them
+     */
+    static final int BATCH_SIZE = 64;
+
+    /**
+     * The time after which the tree model is told about the new nodes even if the batch isn't full
+     */
+    static final long BATCH_MILLIS = 250;
+
+    /**
+     * How the files are added
+     *
+     * @param newOnly            skip files which are already in the collection
+     * @param recurseDirectories add the subdirectories of the directories too
+     * @param retainDirectories  make a group for each directory
+     * @param categories         the categories to assign to the new pictures; may be null
+     */
+    public record Options(boolean newOnly, boolean recurseDirectories, boolean retainDirectories,
+                          Collection<Integer> categories) {
+    }
+
+    /**
+     * A step which runs on the analysis threads before a file is analysed, like copying it off a camera
+     */
+    @FunctionalInterface
+    public interface Preparation {
+        /**
+         * Prepares a file
+         *
+         * @param file the file which was found
+         * @return the file to analyse or null to skip it
+         * @throws IOException if the file can't be prepared; it is skipped
+         */
+        File prepare(File file) throws IOException;
+    }
+
+    /**
+     * Hears about each file the pipeline is finished with
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called on the thread which runs the pipeline after a file was added or skipped
+         *
+         * @param file  the file
+         * @param added true if a picture node was added for it
+         */
+        void fileDone(File file, boolean added);
+    }
+
+    private sealed interface Entry permits FileEntry, DirectoryEntry {
+    }
+
+    private record FileEntry(File file, Future<PictureInfo> pictureInfo) implements Entry {
+    }
+
+    private record DirectoryEntry(File directory, Future<List<Entry>> entries) implements Entry {
+    }
+
+    /**
+     * A directory whose group is only created when a picture is added to it
+     */
+    private final class Group {
+        private final Group parent;
+        private final String name;
+        private SortableDefaultMutableTreeNode node;
+
+        private Group(final SortableDefaultMutableTreeNode node) {
+            this.parent = null;
+            this.name = null;
+            this.node = node;
+        }
+
+        private Group(final Group parent, final String name) {
+            this.parent = parent;
+            this.name = name;
+        }
+
+        private SortableDefaultMutableTreeNode getNode() {
+            if (node == null) {
+                node = new SortableDefaultMutableTreeNode(new GroupInfo(name));
+                attach(parent.getNode(), node);
+            }
+            return node;
+        }
+    }
+
+    private final SortableDefaultMutableTreeNode receivingNode;
+    private final Options options;
+    private final Preparation preparation;
+    private final BooleanSupplier cancelled;
+
+    /**
+     * The new nodes by parent which the tree model hasn't heard about yet
+     */
+    private final Map<SortableDefaultMutableTreeNode, List<Integer>> pendingInserts = new LinkedHashMap<>();
+    private int pendingCount; // default is 0
+    private long lastNotified = System.nanoTime();
+
+    /**
+     * Creates a pipeline which adds to the supplied node
+     *
+     * @param receivingNode the node to add to
+     * @param options       how the files are added
+     * @param preparation   a step to run before each file is analysed; may be null
+     * @param cancelled     checked by all the stages; once it returns true no more files are added
+     */
+    public IngestPipeline(final SortableDefaultMutableTreeNode receivingNode, final Options options,
+                          final Preparation preparation, final BooleanSupplier cancelled) {
+        this.receivingNode = Objects.requireNonNull(receivingNode);
+        this.options = Objects.requireNonNull(options);
+        this.preparation = preparation;
+        this.cancelled = Objects.requireNonNull(cancelled);
+    }
+
+    /**
+     * Adds the files and directories to the receiving node. This returns when all of them have been added or the
+     * pipeline was cancelled.
+     *
+     * @param files    the files and directories to add
+     * @param listener hears about each file; may be null
+     * @return the number of pictures which were added
+     */
+    public int run(final Collection<File> files, final Listener listener) {
+        if (files.isEmpty()) {
+            return 0;
+        }
+        final var storageKind = HashingService.getStorageKind(files.iterator().next());
+        final var walkerPool = newPool(WALKER_THREADS, "IngestWalker");
+        final var analysisPool = newPool(HashingService.getThreads(storageKind), "IngestAnalysis");
+        final var pictureCollection = receivingNode.getPictureCollection();
+        final var sendModelUpdates = pictureCollection != null && pictureCollection.getSendModelUpdates();
+        if (pictureCollection != null) {
+            // the batches tell the tree model about the new nodes
+            pictureCollection.setSendModelUpdates(false);
+        }
+        try {
+            final var entries = files.stream()
+                    .<Entry>map(file -> file.isDirectory()
+                            ? new DirectoryEntry(file, walkerPool.submit(() -> walk(file, walkerPool, analysisPool)))
+                            : toFileEntry(file, analysisPool))
+                    .toList();
+            final var added = add(entries, new Group(receivingNode), listener, new HashSet<>());
+            notifyInserts();
+            if (pictureCollection != null && added > 0) {
+                pictureCollection.setUnsavedUpdates();
+            }
+            LOGGER.log(Level.INFO, "Added {0} pictures to node {1}", new Object[]{added, receivingNode});
+            return added;
+        } finally {
+            walkerPool.shutdownNow();
+            analysisPool.shutdownNow();
+            if (pictureCollection != null) {
+                pictureCollection.setSendModelUpdates(sendModelUpdates);
+            }
+        }
+    }
+
+    private static ExecutorService newPool(final int threads, final String name) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private boolean isCancelled() {
+        return cancelled.getAsBoolean() || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * The first stage: lists a directory and sends its files to the analysis threads
+     */
+    private List<Entry> walk(final File directory, final ExecutorService walkerPool, final ExecutorService analysisPool) {
+        final var files = directory.listFiles();
+        if (files == null || isCancelled()) {
+            return List.of();
+        }
+        final var entries = new ArrayList<Entry>(files.length);
+        for (final var file : files) {
+            if (!file.isDirectory()) {
+                entries.add(toFileEntry(file, analysisPool));
+            } else if (options.recurseDirectories()) {
+                entries.add(new DirectoryEntry(file, walkerPool.submit(() -> walk(file, walkerPool, analysisPool))));
+            }
+        }
+        return entries;
+    }
+
+    private FileEntry toFileEntry(final File file, final ExecutorService analysisPool) {
+        return new FileEntry(file, analysisPool.submit(() -> analyse(file)));
+    }
+
+    /**
+     * The second stage: works out the picture of a file
+     *
+     * @return the picture or null if the file isn't added
+     */
+    private PictureInfo analyse(final File foundFile) {
+        if (isCancelled()) {
+            return null;
+        }
+        var file = foundFile;
+        if (preparation != null) {
+            try {
+                file = preparation.prepare(foundFile);
+            } catch (final IOException e) {
+                LOGGER.log(Level.SEVERE, "Could not prepare file {0}: {1}", new Object[]{foundFile, e.getMessage()});
+                return null;
+            }
+            if (file == null) {
+                return null;
+            }
+        }
+        final var pictureCollection = receivingNode.getPictureCollection();
+        if (options.newOnly() && pictureCollection != null && pictureCollection.isInCollection(file)) {
+            LOGGER.log(Level.INFO, "Rejecting file {0} because it already exists in the collection", file);
+            return null;
+        }
+        final FileAnalyzer.Analysis analysis;
+        try {
+            analysis = FileAnalyzer.analyze(file);
+        } catch (final IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not read file {0}: {1}", new Object[]{file, e.getMessage()});
+            return null;
+        }
+        if (!analysis.fileType().isMedia()) {
+            LOGGER.log(Level.INFO, "Not adding file {0} because the Java Virtual Machine has not got a reader for the file.", file);
+            return null;
+        }
+        return SortableDefaultMutableTreeNode.createPictureInfo(analysis, options.categories());
+    }
+
+    /**
+     * The third stage: adds the pictures in the order of the listings
+     *
+     * @param addedFiles the files added so far so that a file which was chosen twice is only added once
+     * @return the number of pictures added
+     */
+    private int add(final List<Entry> entries, final Group group, final Listener listener, final Set<File> addedFiles) {
+        var added = 0;
+        for (final var entry : entries) {
+            if (isCancelled()) {
+                break;
+            }
+            switch (entry) {
+                case FileEntry(var file, var future) -> {
+                    final var pictureInfo = get(future, file);
+                    final var isAdded = pictureInfo != null
+                            && (!options.newOnly() || addedFiles.add(pictureInfo.getImageFile()));
+                    if (isAdded) {
+                        attach(group.getNode(), new SortableDefaultMutableTreeNode(pictureInfo));
+                        added++;
+                    }
+                    if (listener != null) {
+                        listener.fileDone(file, isAdded);
+                    }
+                }
+                case DirectoryEntry(var directory, var future) -> {
+                    final var subEntries = get(future, directory);
+                    if (subEntries != null) {
+                        final var subGroup = options.retainDirectories() ? new Group(group, directory.getName()) : group;
+                        added += add(subEntries, subGroup, listener, addedFiles);
+                    }
+                }
+            }
+        }
+        return added;
+    }
+
+    private static <T> T get(final Future<T> future, final File file) {
+        try {
+            return future.get();
+        } catch (final InterruptedException _) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            LOGGER.log(Level.SEVERE, "Could not ingest {0}: {1}", new Object[]{file, e.getCause().getMessage()});
+        }
+        return null;
+    }
+
+    /**
+     * Adds a node to the tree and remembers it for the next batch notification
+     */
+    private void attach(final SortableDefaultMutableTreeNode parent, final SortableDefaultMutableTreeNode node) {
+        parent.add(node);
+        pendingInserts.computeIfAbsent(parent, _ -> new ArrayList<>()).add(parent.getChildCount() - 1);
+        pendingCount++;
+        if (pendingCount >= BATCH_SIZE
+                || TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastNotified) >= BATCH_MILLIS) {
+            notifyInserts();
+        }
+    }
+
+    /**
+     * Sends one nodesWereInserted event per parent for the nodes which were added since the last batch
+     */
+    private void notifyInserts() {
+        final var pictureCollection = receivingNode.getPictureCollection();
+        if (pictureCollection != null && !pendingInserts.isEmpty()) {
+            final var batch = new LinkedHashMap<>(pendingInserts);
+            SwingUtilities.invokeLater(() -> batch.forEach((parent, childIndices) ->
+                    pictureCollection.getTreeModel().nodesWereInserted(parent,
+                            childIndices.stream().mapToInt(Integer::intValue).toArray())));
+        }
+        pendingInserts.clear();
+        pendingCount = 0;
+        lastNotified = System.nanoTime();
+    }
+}
@@ -0,0 +1,477 @@
+package org.jpo.datamodel;
+
+import java.awt.geom.Point2D;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Reads and writes a binary copy of a collection next to its XML file so that a big collection opens without
+ * parsing the XML. The XML file stays authoritative: the binary file records the size and modification time of the
+ * XML file it was made from and is ignored when they no longer match.
+ * <p>
+ * The file is read through a memory mapped {@link FileChannel}. It is laid out like this:
+ * <ol>
+ * <li>a header with the offsets and sizes of the sections and the length of the {@link ChangeJournal} which
+ * was already applied to the tree</li>
+ * <li>the groups: the string index of the name and the number of children</li>
+ * <li>the tree in preorder: a picture index or, for a group, the negative group index minus one</li>
+ * <li>the pictures as fixed width records, see {@link #PICTURE_RECORD_SIZE}</li>
+ * <li>the category assignments of all the pictures</li>
+ * <li>the categories: the key and the string index of the description</li>
+ * <li>the string table: every distinct string once as UTF-8, so a photographer or a directory that occurs on
+ * many pictures is stored and loaded only once</li>
+ * </ol>
+ */
+public final class JpoBinaryCollection {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(JpoBinaryCollection.class.getName());
+
+    /**
+     * The suffix of the binary file next to the collection file
+     */
+    public static final String SUFFIX = ".jpob";
+
+    private static final int MAGIC = 0x4A504F42; // "JPOB"
+
+    /**
+     * Increase it when the layout changes so that old files are ignored
+     */
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4 + 4 + 1 + 8 + 8 + 8 + 8 + 8 + 8;
+
+    /**
+     * Where the header keeps the length of the journal that is contained in the tree
+     */
+    private static final int JOURNAL_LENGTH_OFFSET = 24;
+
+    /**
+     * Nine string indexes, a flag byte, the raw SHA-256, rotation, latitude and longitude and the offset and count
+     * of the category assignments
+     */
+    private static final int PICTURE_RECORD_SIZE = 9 * 4 + 1 + 32 + 3 * 8 + 2 * 4;
+
+    private static final byte FLAG_RAW_SHA256 = 1;
+
+    private static final HexFormat SHA256_FORMAT = HexFormat.of().withUpperCase();
+
+    private JpoBinaryCollection() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns the binary file of a collection file
+     *
+     * @param collectionFile the XML file of the collection
+     * @return the file next to it with {@link #SUFFIX} appended
+     */
+    public static File getBinaryFile(final File collectionFile) {
+        return new File(collectionFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Writes the binary file for the collection which was just saved to the XML file.
+     *
+     * @param collectionFile the XML file the collection was saved to
+     * @param startNode      the root node of the collection
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final File collectionFile, final SortableDefaultMutableTreeNode startNode) throws IOException {
+        write(collectionFile, startNode, 0);
+    }
+
+    /**
+     * Writes the binary file for a collection which was loaded from the XML file and the first bytes of its
+     * {@link ChangeJournal}. Only the batches after them are replayed when the binary file is read.
+     *
+     * @param collectionFile the XML file of the collection
+     * @param startNode      the root node of the collection
+     * @param journalLength  the length of the journal which was replayed into the tree
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final File collectionFile, final SortableDefaultMutableTreeNode startNode, final long journalLength) throws IOException {
+        final var xmlAttributes = Files.readAttributes(collectionFile.toPath(), BasicFileAttributes.class);
+        final var binaryFile = getBinaryFile(collectionFile);
+        final var tempFile = new File(binaryFile.getPath() + ".!!!");
+        final var strings = new StringTable();
+        final var groups = new ArrayList<SortableDefaultMutableTreeNode>();
+        final var pictures = new ArrayList<PictureInfo>();
+        final var tree = new ArrayList<Integer>();
+        for (final var enumeration = startNode.preorderEnumeration(); enumeration.hasMoreElements(); ) {
+            final var node = (SortableDefaultMutableTreeNode) enumeration.nextElement();
+            if (node == startNode) {
+                continue;
+            }
+            if (node.getUserObject() instanceof PictureInfo pictureInfo) {
+                tree.add(pictures.size());
+                pictures.add(pictureInfo);
+            } else if (node.getUserObject() instanceof GroupInfo) {
+                tree.add(-groups.size() - 1);
+                groups.add(node);
+            }
+        }
+        final var pictureCollection = startNode.getPictureCollection();
+
+        try (final var channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            final var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            final var groupsOffset = (long) HEADER_SIZE;
+            for (final var group : groups) {
+                out.writeInt(strings.indexOf(((GroupInfo) group.getUserObject()).getGroupName()));
+                out.writeInt(group.getChildCount());
+            }
+            final var treeOffset = groupsOffset + groups.size() * 8L;
+            for (final var entry : tree) {
+                out.writeInt(entry);
+            }
+            final var picturesOffset = treeOffset + tree.size() * 4L;
+            var categoryAssignmentCount = 0;
+            for (final var pictureInfo : pictures) {
+                categoryAssignmentCount = writePicture(out, pictureInfo, strings, categoryAssignmentCount);
+            }
+            final var categoryAssignmentsOffset = picturesOffset + (long) pictures.size() * PICTURE_RECORD_SIZE;
+            for (final var pictureInfo : pictures) {
+                for (final var category : pictureInfo.getCategoryAssignments()) {
+                    out.writeInt(category);
+                }
+            }
+            final var categoriesOffset = categoryAssignmentsOffset + categoryAssignmentCount * 4L;
+            var categoryCount = 0;
+            for (final var iterator = pictureCollection.getCategoryIterator(); iterator.hasNext(); ) {
+                final var key = iterator.next();
+                out.writeInt(key);
+                out.writeInt(strings.indexOf(pictureCollection.getCategory(key)));
+                categoryCount++;
+            }
+            final var stringsOffset = categoriesOffset + categoryCount * 8L;
+            final var collectionNameIndex = strings.indexOf(((GroupInfo) startNode.getUserObject()).getGroupName());
+            strings.write(out);
+            out.flush();
+
+            final var header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(xmlAttributes.size());
+            header.putLong(xmlAttributes.lastModifiedTime().toMillis());
+            header.putLong(journalLength);
+            header.putInt(groups.size());
+            header.putInt(pictures.size());
+            header.putInt(categoryCount);
+            header.putInt(collectionNameIndex);
+            header.put((byte) (pictureCollection.getAllowEdits() ? 1 : 0));
+            header.putLong(groupsOffset);
+            header.putLong(treeOffset);
+            header.putLong(picturesOffset);
+            header.putLong(categoryAssignmentsOffset);
+            header.putLong(categoriesOffset);
+            header.putLong(stringsOffset);
+            header.flip();
+            channel.write(header, 0);
+        } catch (final IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        Files.move(tempFile.toPath(), binaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.log(Level.INFO, "Wrote {0} groups and {1} pictures to {2}", new Object[]{groups.size(), pictures.size(), binaryFile});
+    }
+
+    private static int writePicture(final DataOutputStream out, final PictureInfo pictureInfo, final StringTable strings, final int categoryAssignmentOffset) throws IOException {
+        final var imageFile = pictureInfo.getImageFile();
+        out.writeInt(strings.indexOf(pictureInfo.getDescription()));
+        out.writeInt(imageFile == null || imageFile.getParent() == null ? -1 : strings.indexOf(imageFile.getParent()));
+        out.writeInt(imageFile == null ? -1 : strings.indexOf(imageFile.getName()));
+        out.writeInt(strings.indexOf(pictureInfo.getFilmReference()));
+        out.writeInt(strings.indexOf(pictureInfo.getCreationTime()));
+        out.writeInt(strings.indexOf(pictureInfo.getComment()));
+        out.writeInt(strings.indexOf(pictureInfo.getPhotographer()));
+        out.writeInt(strings.indexOf(pictureInfo.getCopyrightHolder()));
+        final var sha256 = pictureInfo.getSha256();
+        final var rawSha256 = toRawSha256(sha256);
+        out.writeInt(rawSha256 == null ? strings.indexOf(sha256) : -1);
+        out.writeByte(rawSha256 == null ? 0 : FLAG_RAW_SHA256);
+        out.write(rawSha256 == null ? new byte[32] : rawSha256);
+        out.writeDouble(pictureInfo.getRotation());
+        final var latLng = pictureInfo.getLatLng();
+        out.writeDouble(latLng.x);
+        out.writeDouble(latLng.y);
+        final var categoryCount = pictureInfo.getCategoryAssignments().size();
+        out.writeInt(categoryAssignmentOffset);
+        out.writeInt(categoryCount);
+        return categoryAssignmentOffset + categoryCount;
+    }
+
+    /**
+     * Returns the 32 bytes of an upper case hex SHA-256 or null if the string is something else
+     */
+    private static byte[] toRawSha256(final String sha256) {
+        if (sha256 == null || sha256.length() != 64 || !sha256.equals(sha256.toUpperCase(Locale.ROOT))) {
+            return null;
+        }
+        try {
+            return SHA256_FORMAT.parseHex(sha256);
+        } catch (final IllegalArgumentException _) {
+            return null;
+        }
+    }
+
+    /**
+     * Loads the collection from the binary file of the collection file if there is one and it was made from the
+     * XML file as it is now.
+     *
+     * @param collectionFile  the XML file of the collection
+     * @param startNode       the node to load the collection into
+     * @param progressTracker the progress tracker to update
+     * @return true if the collection was loaded, false if the XML file must be read
+     */
+    public static boolean read(final File collectionFile, final SortableDefaultMutableTreeNode startNode, final ProgressTracker progressTracker) {
+        final var binaryFile = getBinaryFile(collectionFile);
+        final var childrenBefore = startNode.getChildCount();
+        try (final var channel = FileChannel.open(binaryFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                LOGGER.log(Level.INFO, "{0} is too big to be mapped. Reading the XML file.", binaryFile);
+                return false;
+            }
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!isCurrent(buffer, collectionFile)) {
+                LOGGER.log(Level.INFO, "{0} is stale. Reading the XML file.", binaryFile);
+                return false;
+            }
+            read(buffer, startNode, progressTracker);
+            progressTracker.done();
+            LOGGER.log(Level.INFO, "Loaded the collection from {0}", binaryFile);
+            return true;
+        } catch (final NoSuchFileException _) {
+            return false;
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not read {0}: {1}. Reading the XML file.", new Object[]{binaryFile, e.getMessage()});
+            while (startNode.getChildCount() > childrenBefore) {
+                ((SortableDefaultMutableTreeNode) startNode.getLastChild()).removeFromParent();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the length of the {@link ChangeJournal} which the binary file of the collection file already contains
+     *
+     * @param collectionFile the XML file of the collection
+     * @return the length or 0 if the binary file contains none of it or can't be read
+     */
+    public static long getJournalLength(final File collectionFile) {
+        try (final var channel = FileChannel.open(getBinaryFile(collectionFile).toPath(), StandardOpenOption.READ)) {
+            final var header = readHeader(channel);
+            return header.limit() < HEADER_SIZE ? 0 : header.getLong(JOURNAL_LENGTH_OFFSET);
+        } catch (final IOException _) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns whether there is a binary file for the collection file which was made from the XML file as it is now
+     * and from the journal as far as it has been written
+     *
+     * @param collectionFile the XML file of the collection
+     * @return true if the binary file is current
+     */
+    public static boolean isCurrent(final File collectionFile) {
+        try (final var channel = FileChannel.open(getBinaryFile(collectionFile).toPath(), StandardOpenOption.READ)) {
+            return isCurrent(readHeader(channel), collectionFile);
+        } catch (final IOException _) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer readHeader(final FileChannel channel) throws IOException {
+        final var header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // keep reading until the header is complete or the file ends
+        }
+        return header.flip();
+    }
+
+    private static boolean isCurrent(final ByteBuffer buffer, final File collectionFile) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return false;
+        }
+        final var xmlAttributes = Files.readAttributes(collectionFile.toPath(), BasicFileAttributes.class);
+        if (buffer.getLong(8) != xmlAttributes.size() || buffer.getLong(16) != xmlAttributes.lastModifiedTime().toMillis()) {
+            return false;
+        }
+        // the tree holds changes from the journal which the journal must still have
+        final var journalLength = buffer.getLong(JOURNAL_LENGTH_OFFSET);
+        return journalLength == 0
+                || (CacheSettings.isChangeJournal() && ChangeJournal.getCommittedLength(collectionFile) >= journalLength);
+    }
+
+    private static void read(final ByteBuffer buffer, final SortableDefaultMutableTreeNode startNode, final ProgressTracker progressTracker) {
+        buffer.position(JOURNAL_LENGTH_OFFSET + 8);
+        final var groupCount = buffer.getInt();
+        final var pictureCount = buffer.getInt();
+        final var categoryCount = buffer.getInt();
+        final var collectionNameIndex = buffer.getInt();
+        final var allowEdits = buffer.get() == 1;
+        final var groupsOffset = toInt(buffer.getLong());
+        final var treeOffset = toInt(buffer.getLong());
+        final var picturesOffset = toInt(buffer.getLong());
+        final var categoryAssignmentsOffset = toInt(buffer.getLong());
+        final var categoriesOffset = toInt(buffer.getLong());
+        final var stringsOffset = toInt(buffer.getLong());
+
+        final var strings = StringTable.read(buffer.position(stringsOffset));
+        final var pictureCollection = startNode.getPictureCollection();
+        startNode.setUserObject(new GroupInfo(strings[collectionNameIndex]));
+        pictureCollection.setAllowEdits(allowEdits);
+
+        buffer.position(categoriesOffset);
+        for (var i = 0; i < categoryCount; i++) {
+            final var key = buffer.getInt();
+            pictureCollection.addCategory(key, strings[buffer.getInt()]);
+        }
+
+        final var parents = new ArrayDeque<SortableDefaultMutableTreeNode>();
+        final var remainingChildren = new ArrayDeque<Integer>();
+        parents.push(startNode);
+        // the children of the start node are not counted, everything that is left over belongs to it
+        remainingChildren.push(Integer.MAX_VALUE);
+        var picturesRead = 0;
+        for (var i = 0; i < groupCount + pictureCount; i++) {
+            while (remainingChildren.peek() == 0) {
+                parents.pop();
+                remainingChildren.pop();
+            }
+            remainingChildren.push(remainingChildren.pop() - 1);
+            final var entry = buffer.getInt(treeOffset + i * 4);
+            if (entry < 0) {
+                final var groupIndex = -entry - 1;
+                final var groupOffset = groupsOffset + groupIndex * 8;
+                final var groupNode = new SortableDefaultMutableTreeNode(new GroupInfo(strings[buffer.getInt(groupOffset)]));
+                parents.peek().add(groupNode);
+                parents.push(groupNode);
+                remainingChildren.push(buffer.getInt(groupOffset + 4));
+            } else {
+                final var pictureInfo = readPicture(buffer, picturesOffset + entry * PICTURE_RECORD_SIZE, categoryAssignmentsOffset, strings);
+                parents.peek().add(new SortableDefaultMutableTreeNode(pictureInfo));
+                picturesRead++;
+                if (picturesRead % 10_000 == 0) {
+                    progressTracker.update(String.format(JpoCoreResources.getResource("org.jpo.dataModel.XmlReader.progressUpdate"), groupCount, picturesRead));
+                }
+            }
+        }
+    }
+
+    private static PictureInfo readPicture(final ByteBuffer buffer, final int offset, final int categoryAssignmentsOffset, final String[] strings) {
+        final var pictureInfo = new PictureInfo();
+        buffer.position(offset);
+        pictureInfo.setDescription(strings[buffer.getInt()]);
+        final var directoryIndex = buffer.getInt();
+        final var nameIndex = buffer.getInt();
+        if (nameIndex >= 0) {
+            pictureInfo.setImageLocation(directoryIndex >= 0 ? new File(strings[directoryIndex], strings[nameIndex]) : new File(strings[nameIndex]));
+        }
+        pictureInfo.setFilmReference(strings[buffer.getInt()]);
+        pictureInfo.setCreationTime(strings[buffer.getInt()]);
+        pictureInfo.setComment(strings[buffer.getInt()]);
+        pictureInfo.setPhotographer(strings[buffer.getInt()]);
+        pictureInfo.setCopyrightHolder(strings[buffer.getInt()]);
+        final var sha256Index = buffer.getInt();
+        final var flags = buffer.get();
+        if ((flags & FLAG_RAW_SHA256) != 0) {
+            final var rawSha256 = new byte[32];
+            buffer.get(rawSha256);
+            pictureInfo.setSha256(SHA256_FORMAT.formatHex(rawSha256));
+        } else {
+            buffer.position(buffer.position() + 32);
+            pictureInfo.setSha256(strings[sha256Index]);
+        }
+        pictureInfo.setRotation(buffer.getDouble());
+        final var latitude = buffer.getDouble();
+        final var longitude = buffer.getDouble();
+        pictureInfo.setLatLng(new Point2D.Double(latitude, longitude));
+        final var categoryOffset = buffer.getInt();
+        final var categoryCount = buffer.getInt();
+        for (var i = 0; i < categoryCount; i++) {
+            pictureInfo.addCategoryAssignment(buffer.getInt(categoryAssignmentsOffset + (categoryOffset + i) * 4));
+        }
+        return pictureInfo;
+    }
+
+    private static int toInt(final long offset) {
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw new BufferUnderflowException();
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Hands out an index for each distinct string. Index 0 is the empty String.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        StringTable() {
+            indexOf("");
+        }
+
+        int indexOf(final String string) {
+            final var value = string == null ? "" : string;
+            return indexes.computeIfAbsent(value, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        void write(final DataOutputStream out) throws IOException {
+            out.writeInt(strings.size());
+            for (final var string : strings) {
+                final var bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        static String[] read(final ByteBuffer buffer) {
+            final var strings = new String[buffer.getInt()];
+            for (var i = 0; i < strings.length; i++) {
+                final var bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return strings;
+        }
+    }
+}
@@ -17,6 +17,8 @@ import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -53,8 +55,9 @@ public class JpoCache {
      */
     private static final Logger LOGGER = Logger.getLogger(JpoCache.class.getName());
 
-    private static final String HIGHRES_CACHE_REGION_NAME = "highresCache";
     private static final String THUMBNAIL_CACHE_REGION_NAME = "thumbnailCache";
+    private static final String PICTURE_THUMBNAIL_CACHE_REGION_NAME = "pictureThumbnailCache";
+    private static final String PATH_HASH_INDEX_REGION_NAME = "pathHashIndex";
     /**
      * The dimension for the group thumbnail i.e. the dimension of the icon_folder_large.jpg image. If there is
      * an ioerror the maximum size of the thumbnails.
@@ -72,8 +75,24 @@ public class JpoCache {
         }
     }
 
-    private static CacheAccess<String, ImageBytes> highresMemoryCache;
+    /**
+     * The highres images are held in a cache that is limited by the number of bytes rather than the number of images
+     */
+    private static final HighresImageCache highresMemoryCache = new HighresImageCache();
     private static CacheAccess<String, ImageBytes> thumbnailMemoryAndDiskCache;
+    private static CacheAccess<ThumbnailKey, ImageBytes> pictureThumbnailCache;
+    private static PathHashIndex pathHashIndex;
+
+    /**
+     * Hashes the files whose thumbnails were filed under the SHA-256 of the collection. One thread so that the
+     * validation doesn't compete with the thumbnail creation for the disk.
+     */
+    private static final ExecutorService SHA256_VALIDATOR = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "ThumbnailSha256Validator");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
 
     static {
         LOGGER.info("Creating JpoCache");
@@ -82,8 +101,9 @@ public class JpoCache {
         ccm.configure(props);
 
         try {
-            highresMemoryCache = JCS.getInstance(HIGHRES_CACHE_REGION_NAME);
             thumbnailMemoryAndDiskCache = JCS.getInstance(THUMBNAIL_CACHE_REGION_NAME);
+            pictureThumbnailCache = JCS.getInstance(PICTURE_THUMBNAIL_CACHE_REGION_NAME);
+            pathHashIndex = new PathHashIndex(JCS.getInstance(PATH_HASH_INDEX_REGION_NAME));
         } catch (final CacheException ex) {
             LOGGER.severe(ex.getLocalizedMessage());
         }
@@ -153,7 +173,7 @@ public class JpoCache {
     public static ImageBytes getHighresImageBytes(String sha256, final File file) throws IOException {
         if ( sha256.length() != 64 ) {
             LOGGER.log(Level.FINE, "Bad hash length: {0} instead of 64 chars. Rebuilding sha256 for file {1}", new Object[]{ sha256.length(), file});
-            sha256 = PictureInfo.calculateSha256(file);
+            sha256 = HashingService.getSha256(file);
         }
         LOGGER.log(Level.FINE, "Hitting cache for sha256: {0}", sha256);
         var imageBytes = highresMemoryCache.get(sha256);
@@ -189,42 +209,104 @@ public class JpoCache {
      * @param imageBytes the ImageBytes object to store
      */
     private static void storeInHighresCache(final String sha256, final ImageBytes imageBytes) {
-        try {
-            highresMemoryCache.put(sha256, imageBytes);
-        } catch (final NullPointerException | CacheException ex) {
-            LOGGER.severe(ex.getLocalizedMessage());
-        }
+        highresMemoryCache.put(sha256, imageBytes);
     }
 
     /**
      * Returns an ImageBytes object with thumbnail image data for the supplied
-     * file
+     * file. The thumbnails are cached by the SHA-256 of the image so that duplicate files share a thumbnail
+     * and moved or renamed files find their thumbnail again. If the {@link PathHashIndex} can vouch for the file
+     * its SHA-256 is the key. Otherwise the SHA-256 of the collection is the key and the file is hashed later on
+     * a background thread; if it turns out not to have that SHA-256 the thumbnail is dropped from the cache.
+     * Only a file for which the collection has no SHA-256 is hashed before its thumbnail is returned.
      *
+     * @param sha256   The SHA-256 the collection has for the file. May be empty.
      * @param file     The file of the highres picture for which a thumbnail is needed
      * @param rotation The rotation in degrees (0..360) for the thumbnail
      * @param maxSize  The maximum size of the thumbnail
-     * @return The ImageBytes of the thumbnail
+     * @return The ImageBytes of the thumbnail or null if it could not be created
      */
-    public static ImageBytes getThumbnailImageBytes(final File file, final double rotation, final Dimension maxSize) {
-        final var key = String.format("%s-%fdeg-w:%dpx-h:%dpx", file, rotation, maxSize.width, maxSize.height);
-        var imageBytes = thumbnailMemoryAndDiskCache.get(key);
+    public static ImageBytes getThumbnailImageBytes(final String sha256, final File file, final double rotation, final Dimension maxSize) {
+        final var indexedSha256 = pathHashIndex.getValidatedSha256(file);
+        final var hasCollectionSha256 = sha256 != null && sha256.length() == 64;
+        if (indexedSha256 != null) {
+            if (hasCollectionSha256 && !sha256.equalsIgnoreCase(indexedSha256)) {
+                LOGGER.log(Level.INFO, "File {0} no longer has the SHA-256 of the collection. Using the new one.", file);
+            }
+            return getThumbnailImageBytes(ThumbnailKey.of(indexedSha256, rotation, maxSize), file, rotation, maxSize);
+        }
+
+        if (hasCollectionSha256) {
+            final var key = ThumbnailKey.of(sha256, rotation, maxSize);
+            final var imageBytes = pictureThumbnailCache.get(key);
+            // the size and modification time come from a listing of the whole folder
+            final var fileStats = pathHashIndex.getFileStats(file);
+            if (imageBytes != null && fileStats != null
+                    && fileStats.lastModified() == imageBytes.getLastModification().toMillis()) {
+                // the same file the thumbnail was made from
+                pathHashIndex.record(file, sha256, fileStats);
+                imageBytes.setRetrievedFromCache(true);
+                return imageBytes;
+            }
+            validateLater(key, file);
+            return getThumbnailImageBytes(key, file, rotation, maxSize);
+        }
+
+        try {
+            return getThumbnailImageBytes(ThumbnailKey.of(pathHashIndex.getOrCalculateSha256(file), rotation, maxSize), file, rotation, maxSize);
+        } catch (final IOException ex) {
+            LOGGER.log(Level.SEVERE, "Hit IOException while hashing {0}: {1}", new Object[]{file, ex.getLocalizedMessage()});
+            return null;
+        }
+    }
+
+    private static ImageBytes getThumbnailImageBytes(final ThumbnailKey key, final File file, final double rotation, final Dimension maxSize) {
+        final var imageBytes = pictureThumbnailCache.get(key);
         if (imageBytes != null) {
             imageBytes.setRetrievedFromCache(true);
-            final var imagePath = Paths.get(file.toURI());
+            return imageBytes;
+        }
+        return createThumbnailAndStoreInCache(key, file, rotation, maxSize);
+    }
+
+    /**
+     * Hashes the file on the validator thread and drops the thumbnail if the file doesn't have the SHA-256 the
+     * thumbnail is filed under. The result goes into the {@link PathHashIndex} so the file isn't hashed again.
+     *
+     * @param key  the key of the thumbnail
+     * @param file the file the thumbnail is made from
+     */
+    private static void validateLater(final ThumbnailKey key, final File file) {
+        SHA256_VALIDATOR.execute(() -> {
             try {
-                final var lastModification = (Files.getLastModifiedTime(imagePath));
-                if (lastModification.compareTo(imageBytes.getLastModification()) > 0) {
-                    imageBytes = createThumbnailAndStoreInCache(key, file, rotation, maxSize);
+                if (!pathHashIndex.getOrCalculateSha256(file).equalsIgnoreCase(key.getSha256())) {
+                    LOGGER.log(Level.INFO, "File {0} doesn''t have the SHA-256 of the collection. Dropping its thumbnail.", file);
+                    pictureThumbnailCache.remove(key);
                 }
             } catch (final IOException ex) {
-                // We might have the image in the cache, but it disappeared from disk
-                LOGGER.log(Level.SEVERE, "Hit IOException: {0}", ex.getLocalizedMessage());
-                imageBytes = null;
+                LOGGER.log(Level.INFO, "Could not validate the SHA-256 of {0}: {1}", new Object[]{file, ex.getLocalizedMessage()});
             }
-        } else {
-            imageBytes = createThumbnailAndStoreInCache(key, file, rotation, maxSize);
-        }
-        return imageBytes;
+        });
+    }
+
+    /**
+     * Returns the index which remembers the SHA-256 of the files by path, size and modification time
+     *
+     * @return the index or null if the cache could not be set up
+     */
+    public static PathHashIndex getPathHashIndex() {
+        return pathHashIndex;
+    }
+
+    /**
+     * Informs the cache that a file was moved or renamed so that it can find the thumbnails for the file
+     * under the new name without hashing it again.
+     *
+     * @param oldFile the old location of the file
+     * @param newFile the new location of the file
+     */
+    public static void fileMoved(final File oldFile, final File newFile) {
+        pathHashIndex.fileMoved(oldFile, newFile);
     }
 
     /**
@@ -236,10 +318,13 @@ public class JpoCache {
      * @param maxSize  the maximum size
      * @return the thumbnail
      */
-    private static ImageBytes createThumbnailAndStoreInCache(final String key, final File imageFile, final double rotation, final Dimension maxSize) {
-        final var imageBytes = createThumbnail(key, imageFile, rotation, maxSize);
+    private static ImageBytes createThumbnailAndStoreInCache(final ThumbnailKey key, final File imageFile, final double rotation, final Dimension maxSize) {
+        final var imageBytes = createThumbnail(key.getSha256(), imageFile, rotation, maxSize);
+        if (imageBytes == null) {
+            return null;
+        }
         try {
-            thumbnailMemoryAndDiskCache.put(key, imageBytes);
+            pictureThumbnailCache.put(key, imageBytes);
         } catch (CacheException ex) {
             LOGGER.severe(ex.getLocalizedMessage());
         }
@@ -247,8 +332,9 @@ public class JpoCache {
     }
 
     /**
-     * Creates a thumbnail
+     * Creates a thumbnail. Only a reduced version of the picture is decoded when the file allows it.
      *
+     * @param sha256    The SHA-256 of the picture file
      * @param file      The picture file
      * @param rotation  the rotation to apply
      * @param maxSize the maximum size
@@ -266,7 +352,7 @@ public class JpoCache {
             scalablePicture.setQualityScale();
         }
         scalablePicture.setScaleSize(maxSize);
-        scalablePicture.loadPictureImd(sha256, file, rotation);
+        scalablePicture.loadReducedPictureImd(sha256, file, rotation);
         if (scalablePicture.getSourcePicture() == null) {
             return null;
         }
@@ -392,9 +478,9 @@ public class JpoCache {
             }
 
             final var scalablePicture = new ScalablePicture();
-            scalablePicture.loadPictureImd(pictureInfo.getSha256(), pictureInfo.getImageFile(), pictureInfo.getRotation());
-
             scalablePicture.setScaleSize(CacheSettings.miniThumbnailSize);
+            scalablePicture.loadReducedPictureImd(pictureInfo.getSha256(), pictureInfo.getImageFile(), pictureInfo.getRotation());
+
             scalablePicture.scalePicture();
             x += (CacheSettings.miniThumbnailSize.width - scalablePicture.getScaledWidth()) / 2;
             y += CacheSettings.miniThumbnailSize.height - scalablePicture.getScaledHeight();
@@ -421,7 +507,7 @@ public class JpoCache {
     }
 
     /**
-     * Returns a text from the JCS with statistics on the cache
+     * Returns a text with statistics on the highres cache
      *
      * @return a test with statistics from the cache
      */
@@ -435,18 +521,23 @@ public class JpoCache {
      * @return a test with statistics from the cache
      */
     public static String getThumbnailCacheStats() {
-        return thumbnailMemoryAndDiskCache.getStats();
+        return pictureThumbnailCache.getStats() + "\n" + thumbnailMemoryAndDiskCache.getStats();
     }
 
     /**
      * Clears the highres image cache
      */
     public static void clearHighresCache() {
-        try {
-            highresMemoryCache.clear();
-        } catch (CacheException ex) {
-            LOGGER.severe(ex.getLocalizedMessage());
-        }
+        highresMemoryCache.clear();
+    }
+
+    /**
+     * Returns the highres cache so that callers can query its counters
+     *
+     * @return the highres cache
+     */
+    public static HighresImageCache getHighresCache() {
+        return highresMemoryCache;
     }
 
     /**
@@ -454,6 +545,7 @@ public class JpoCache {
      */
     public static void clearThumbnailCache() {
         try {
+            pictureThumbnailCache.clear();
             thumbnailMemoryAndDiskCache.clear();
         } catch (CacheException ex) {
             LOGGER.severe(ex.getLocalizedMessage());
@@ -471,6 +563,16 @@ public class JpoCache {
         thumbnailMemoryAndDiskCache.remove(key);
     }
 
+    /**
+     * Accessor to the cache to facilitate unit tests.
+     *
+     * @param key the entry to remove
+     */
+    @TestOnly
+    public static void removeFromThumbnailCache(final ThumbnailKey key) {
+        pictureThumbnailCache.remove(key);
+    }
+
     /**
      * Accessor to the cache to facilitate unit tests.
      *
@@ -711,6 +711,7 @@ public class JpoCoreResources_de extends ListResourceBundle {
 
             {"org.jpo.dataModel.XmlReader.loadProgressGuiTitle", "Lade Datei"},
             {"org.jpo.dataModel.XmlReader.progressUpdate", "%d Gruppen und %d Bilder geladen"},
+            {"org.jpo.dataModel.XmlReader.progressPercent", "%d Gruppen und %d Bilder geladen, %s von %s (%d%%)"},
 
             //CategoryPopupMenu
             {"CategoryPopupMenu", "Add a Category to the Picture"},
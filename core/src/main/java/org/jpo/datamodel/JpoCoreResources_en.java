@@ -697,6 +697,7 @@ public class JpoCoreResources_en extends ListResourceBundle {
 
             {"org.jpo.dataModel.XmlReader.loadProgressGuiTitle", "Loading File"},
             {"org.jpo.dataModel.XmlReader.progressUpdate", "Loaded: %d Groups, %d Pictures"},
+            {"org.jpo.dataModel.XmlReader.progressPercent", "Loaded: %d Groups, %d Pictures, %s of %s (%d%%)"},
 
             //CategoryPopupMenu
             {"CategoryPopupMenu", "Add a Category to the Picture"},
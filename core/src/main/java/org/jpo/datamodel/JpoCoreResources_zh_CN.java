@@ -717,6 +717,7 @@ M: 弹出菜单"""},
 
             {"org.jpo.dataModel.XmlReader.loadProgressGuiTitle", "装载文件"},
             {"org.jpo.dataModel.XmlReader.progressUpdate", "%d 组 %d 图片 负荷"},
+            {"org.jpo.dataModel.XmlReader.progressPercent", "%d 组 %d 图片 负荷 %s / %s (%d%%)"},
 
             //CategoryPopupMenu
             {"CategoryPopupMenu", "Add a Category to the Picture"},
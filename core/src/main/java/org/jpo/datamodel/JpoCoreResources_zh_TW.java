@@ -714,6 +714,7 @@ public class JpoCoreResources_zh_TW extends ListResourceBundle {
 
             {"org.jpo.dataModel.XmlReader.loadProgressGuiTitle", "裝載文件"},
             {"org.jpo.dataModel.XmlReader.progressUpdate", "%d 組 %d 圖片 負荷"},
+            {"org.jpo.dataModel.XmlReader.progressPercent", "%d 組 %d 圖片 負荷 %s / %s (%d%%)"},
 
             //CategoryPopupMenu
             {"CategoryPopupMenu", "Add a Category to the Picture"},
@@ -1,7 +1,7 @@
 package org.jpo.datamodel;
 
 /*
- Copyright (C) 2023-2024 Richard Eigenmann.
+ Copyright (C) 2023-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -16,11 +16,25 @@ package org.jpo.datamodel;
  See http://www.gnu.org/copyleft/gpl.html for the details.
  */
 
+import com.drew.imaging.jpeg.JpegMetadataReader;
+import com.drew.imaging.jpeg.JpegProcessingException;
+import com.drew.metadata.exif.ExifReader;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
+
+import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
 import javax.imageio.stream.FileImageInputStream;
 import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -30,6 +44,17 @@ import static javax.imageio.ImageIO.*;
 
 public class JpoImageIO {
 
+    /**
+     * How far the aspect ratio of an embedded preview may deviate from the main image before we don't trust it.
+     * Some cameras write a 160 x 120 preview with black bars for 3:2 images.
+     */
+    private static final double MAX_PREVIEW_ASPECT_DEVIATION = 0.02;
+
+    /**
+     * The start of the APP1 segment which holds the EXIF data. The TIFF header follows it.
+     */
+    private static final byte[] EXIF_PREAMBLE = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+
     private static final Logger LOGGER = Logger.getLogger(JpoImageIO.class.getName());
     static {
         LOGGER.setLevel(Level.INFO);
@@ -38,38 +63,77 @@ public class JpoImageIO {
         LOGGER.addHandler(consoleHandler);
     }
 
+    /**
+     * Aborts a read when the decodes on the reading thread have been cancelled
+     */
+    private static final IIOReadProgressListener CANCELLATION_LISTENER = new IIOReadProgressListener() {
+        @Override
+        public void sequenceStarted(final ImageReader source, final int minIndex) {
+            // noop
+        }
+
+        @Override
+        public void sequenceComplete(final ImageReader source) {
+            // noop
+        }
+
+        @Override
+        public void imageStarted(final ImageReader source, final int imageIndex) {
+            // noop
+        }
+
+        @Override
+        public void imageProgress(final ImageReader source, final float percentageDone) {
+            if (DecodeCancellation.isCancelled()) {
+                source.abort();
+            }
+        }
+
+        @Override
+        public void imageComplete(final ImageReader source) {
+            // noop
+        }
+
+        @Override
+        public void thumbnailStarted(final ImageReader source, final int imageIndex, final int thumbnailIndex) {
+            // noop
+        }
+
+        @Override
+        public void thumbnailProgress(final ImageReader source, final float percentageDone) {
+            // noop
+        }
+
+        @Override
+        public void thumbnailComplete(final ImageReader source) {
+            // noop
+        }
+
+        @Override
+        public void readAborted(final ImageReader source) {
+            // noop
+        }
+    };
+
     private JpoImageIO() {
         throw new IllegalStateException("Utility class");
     }
 
     /**
      * This method checks whether the JVM has an image reader for the supplied
-     * File.
+     * File. The answer comes from the {@link FileTypeProbe}.
      *
      * @param file The file to be checked
      * @return true if the JVM has a reader false if not.
      */
     public static boolean jvmHasReader(final File file) {
-        LOGGER.log(Level.FINE, "checking jvmHasReader for file {0}", file);
-        if (!MimeTypes.isAPicture(file)) {
-            LOGGER.log(Level.INFO, "File {0} ist not a picture according the MimeType {1}", new Object[]{file, MimeTypes.getMimeType(file)});
+        final var fileType = FileTypeProbe.probe(file);
+        if (fileType.mediaKind() != FileTypeProbe.MediaKind.PICTURE) {
+            LOGGER.log(Level.FINE, "File {0} ist not a picture according the MimeType {1}", new Object[]{file, fileType.mimeType()});
             return false;
         }
-        try (final var testStream = new FileImageInputStream(file)) {
-            final ImageReader reader = getImageReaders(testStream).next();
-            if (reader != null) {
-                LOGGER.log(Level.FINE, "File {0} has a picture mime type and ImageIO has a reader for it. Class is {1}", new Object[]{file, reader.getClass()});
-                return true;
-            } else {
-                LOGGER.log(Level.INFO, "Cant find an ImageIO reader for file {0}", file);
-            }
-        } catch (final IOException x) {
-            LOGGER.log(Level.INFO, "IOException testing file {0}: {1}", new Object[]{file, x.getMessage()});
-        } catch (final Exception e) {
-            LOGGER.log(Level.INFO, "An unexpected error was caught: {0}", e.getMessage());
-            Thread.dumpStack();
-        }
-        return false;
+        LOGGER.log(Level.FINE, "File {0} has a picture mime type. ImageIO reader: {1}", new Object[]{file, fileType.readerSpiClass()});
+        return fileType.hasImageReader();
     }
 
     /**
@@ -80,4 +144,190 @@ public class JpoImageIO {
         final var readerIterator = getImageReaders(iis);
         return readerIterator.next();
     }
+
+    /**
+     * Reads a reduced version of the image which is at least as large as needed to fill the supplied size. If the
+     * file carries an embedded preview (EXIF or JFIF thumbnail) of the same aspect ratio which is big enough, that
+     * preview is returned. Otherwise, the image is decoded with source subsampling so that only every n-th pixel is
+     * read. This avoids decoding a full 24 megapixel raster to make a 350 pixel thumbnail.
+     *
+     * @param file    The file to read
+     * @param minSize The box the image will be scaled to fit into afterwards
+     * @return the reduced image or null if the file has no reader or no reduction is possible, in which case the
+     * caller should decode the full image.
+     * @throws IOException if the file can't be read
+     */
+    public static BufferedImage readReducedImage(final File file, final Dimension minSize) throws IOException {
+        try (final var iis = new FileImageInputStream(file)) {
+            var reader = FileTypeProbe.createImageReader(FileTypeProbe.probe(file));
+            if (reader == null) {
+                final var readers = getImageReaders(iis);
+                if (!readers.hasNext()) {
+                    return null;
+                }
+                reader = readers.next();
+            }
+            try {
+                reader.setInput(iis, false, false);
+                final var width = reader.getWidth(0);
+                final var height = reader.getHeight(0);
+                final var scale = ScalablePicture.calcScaleSourceToTarget(width, height, minSize.width, minSize.height);
+                if (scale >= 1) {
+                    return null;
+                }
+                var preview = "jpeg".equalsIgnoreCase(reader.getFormatName())
+                        ? readExifPreview(file, width, height, minSize)
+                        : null;
+                if (preview == null) {
+                    preview = readEmbeddedPreview(reader, width, height, minSize);
+                }
+                if (preview != null) {
+                    LOGGER.log(Level.FINE, "Using the embedded {0}x{1} preview of {2}", new Object[]{preview.getWidth(), preview.getHeight(), file});
+                    return preview;
+                }
+                final var subsampling = (int) Math.floor(1 / scale);
+                if (subsampling < 2) {
+                    return null;
+                }
+                final var param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                LOGGER.log(Level.FINE, "Reading every {0}th pixel of {1}", new Object[]{subsampling, file});
+                reader.addIIOReadProgressListener(CANCELLATION_LISTENER);
+                final var image = reader.read(0, param);
+                return DecodeCancellation.isCancelled() ? null : image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Returns the EXIF preview of the JPEG if it has the aspect ratio of the main image and covers the supplied size
+     *
+     * @param file    The JPEG file
+     * @param width   The width of the main image
+     * @param height  The height of the main image
+     * @param minSize The box the preview must fill
+     * @return the preview or null if there is no suitable one
+     */
+    private static BufferedImage readExifPreview(final File file, final int width, final int height, final Dimension minSize) {
+        try {
+            final var preview = readExifPreview(file);
+            if (preview != null && isSuitablePreview(preview.getWidth(), preview.getHeight(), width, height, minSize)) {
+                return preview;
+            }
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not read the EXIF preview of {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the preview which cameras write into the IFD1 block of the EXIF segment of a JPEG. The JDK JPEG
+     * reader only offers JFIF thumbnails through {@link ImageReader#readThumbnail}, so the metadata-extractor
+     * finds the offset and length of the preview and only those bytes are decoded.
+     *
+     * @param file The JPEG file
+     * @return the preview or null if the file has none
+     * @throws IOException if the file can't be read
+     */
+    public static BufferedImage readExifPreview(final File file) throws IOException {
+        final ExifThumbnailDirectory directory;
+        try {
+            directory = JpegMetadataReader.readMetadata(file, List.of(new ExifReader()))
+                    .getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+        } catch (final JpegProcessingException e) {
+            return null;
+        }
+        if (directory == null) {
+            return null;
+        }
+        // the offset counts from the TIFF header at the start of the EXIF data
+        final var offset = directory.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_OFFSET);
+        final var length = directory.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH);
+        if (offset == null || length == null || offset < 0 || length <= 0) {
+            return null;
+        }
+        try (final var randomAccessFile = new RandomAccessFile(file, "r")) {
+            final var tiffHeader = findTiffHeader(randomAccessFile);
+            if (tiffHeader < 0 || tiffHeader + offset + length > randomAccessFile.length()) {
+                return null;
+            }
+            final var bytes = new byte[length];
+            randomAccessFile.seek(tiffHeader + offset);
+            randomAccessFile.readFully(bytes);
+            return ImageIO.read(new ByteArrayInputStream(bytes));
+        }
+    }
+
+    /**
+     * Walks the segments of the JPEG up to the image data and returns the file position of the TIFF header in the
+     * EXIF segment
+     *
+     * @return the position or -1 if the file has no EXIF segment
+     */
+    private static long findTiffHeader(final RandomAccessFile randomAccessFile) throws IOException {
+        if (randomAccessFile.readUnsignedShort() != 0xFFD8) {
+            return -1;
+        }
+        while (true) {
+            final var marker = randomAccessFile.readUnsignedShort();
+            if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                return -1;
+            }
+            final var segmentLength = randomAccessFile.readUnsignedShort();
+            final var segmentStart = randomAccessFile.getFilePointer();
+            if (marker == 0xFFE1 && segmentLength >= 2 + EXIF_PREAMBLE.length) {
+                final var preamble = new byte[EXIF_PREAMBLE.length];
+                randomAccessFile.readFully(preamble);
+                if (Arrays.equals(preamble, EXIF_PREAMBLE)) {
+                    return segmentStart + EXIF_PREAMBLE.length;
+                }
+            }
+            randomAccessFile.seek(segmentStart + segmentLength - 2);
+        }
+    }
+
+    /**
+     * Returns whether a preview has the aspect ratio of the main image and covers the supplied size
+     */
+    private static boolean isSuitablePreview(final int previewWidth, final int previewHeight, final int width, final int height, final Dimension minSize) {
+        final var aspectRatio = (double) width / height;
+        final var previewAspectRatio = (double) previewWidth / previewHeight;
+        return Math.abs(previewAspectRatio - aspectRatio) / aspectRatio <= MAX_PREVIEW_ASPECT_DEVIATION
+                && ScalablePicture.calcScaleSourceToTarget(previewWidth, previewHeight, minSize.width, minSize.height) <= 1;
+    }
+
+    /**
+     * Returns the smallest embedded JFIF preview that has the aspect ratio of the main image and covers the supplied
+     * size.
+     *
+     * @param reader  The reader positioned on the image
+     * @param width   The width of the main image
+     * @param height  The height of the main image
+     * @param minSize The box the preview must fill
+     * @return the preview or null if there is no suitable one
+     */
+    private static BufferedImage readEmbeddedPreview(final ImageReader reader, final int width, final int height, final Dimension minSize) {
+        try {
+            if (!reader.readerSupportsThumbnails() || !reader.hasThumbnails(0)) {
+                return null;
+            }
+            var bestIndex = -1;
+            var bestPixels = Long.MAX_VALUE;
+            for (var i = 0; i < reader.getNumThumbnails(0); i++) {
+                final var previewWidth = reader.getThumbnailWidth(0, i);
+                final var previewHeight = reader.getThumbnailHeight(0, i);
+                final var pixels = (long) previewWidth * previewHeight;
+                if (isSuitablePreview(previewWidth, previewHeight, width, height, minSize) && pixels < bestPixels) {
+                    bestIndex = i;
+                    bestPixels = pixels;
+                }
+            }
+            return bestIndex < 0 ? null : reader.readThumbnail(0, bestIndex);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not read the embedded preview: {0}", e.getMessage());
+            return null;
+        }
+    }
 }
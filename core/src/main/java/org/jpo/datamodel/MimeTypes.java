@@ -50,12 +50,23 @@ public class MimeTypes {
     }
 
     /**
-     * Returns the mime type of the supplied file. If something went wrong you get back the string "null" not the object null
+     * Returns the mime type of the supplied file. If something went wrong you get back the string "null" not the object null.
+     * The answer comes from the {@link FileTypeProbe} so the file is only read if it changed since it was last asked about.
      *
      * @param file the file to query
      * @return the mime type as a String or the String "null"
      */
     public static String getMimeType(final File file) {
+        return FileTypeProbe.probe(file).mimeType();
+    }
+
+    /**
+     * Detects the mime type of the file by reading it. Use {@link #getMimeType(File)} which caches the answer.
+     *
+     * @param file the file to query
+     * @return the mime type as a String or the String "null"
+     */
+    static String detectMimeType(final File file) {
         try {
             if (! Files.exists(file.toPath())) {
                 LOGGER.log(Level.SEVERE, "File {0} does not exist!", file);
@@ -75,8 +86,24 @@ public class MimeTypes {
         }
     }
 
+    /**
+     * Detects the mime type from the leading bytes of a file which were already read, see {@link FileAnalyzer}.
+     *
+     * @param head     the leading bytes of the file
+     * @param fileName the name of the file which Tika consults when the bytes are ambiguous
+     * @return the mime type as a String or the String "null"
+     */
+    static String detectMimeType(final byte[] head, final String fileName) {
+        final var mimeType = tika.detect(head, fileName);
+        LOGGER.log(Level.FINE, "File {0} is mime-type: {1}", new Object[]{fileName, mimeType});
+        return mimeType != null ? mimeType : "null";
+    }
+
     public static boolean isADocument(final File file) {
-        var mimeType = getMimeType(file);
+        return FileTypeProbe.probe(file).mediaKind() == FileTypeProbe.MediaKind.DOCUMENT;
+    }
+
+    static boolean isADocumentMimeType(final String mimeType) {
         return "application/msword".equals(mimeType)
                 || "application/vnd.openxmlformats-officedocument.wordprocessingml.document".equals(mimeType)
                 || "application/vnd.oasis.opendocument.text".equals(mimeType)
@@ -84,7 +111,10 @@ public class MimeTypes {
     }
 
     public static boolean isAMovie(final File file) {
-        var mimeType = getMimeType(file);
+        return FileTypeProbe.probe(file).mediaKind() == FileTypeProbe.MediaKind.MOVIE;
+    }
+
+    static boolean isAMovieMimeType(final String mimeType) {
         return mimeType.startsWith("video/")
                 || "application/x-troff-msvideo".equals(mimeType)
                 || "application/x-matroska".equals(mimeType);
@@ -96,7 +126,10 @@ public class MimeTypes {
     static final List<String> OVERRIDE_PICTURE_TYPES = Arrays.asList("iff", "hdr", "pct", "tga", "sgi", "db");
 
     public static boolean isAPicture(final File file) {
-        var mimeType = getMimeType(file);
+        return FileTypeProbe.probe(file).mediaKind() == FileTypeProbe.MediaKind.PICTURE;
+    }
+
+    static boolean isAPictureMimeType(final String mimeType, final File file) {
         if (mimeType.equals("null") && OVERRIDE_PICTURE_TYPES.contains(FilenameUtils.getExtension(file.toPath().toString()).toLowerCase())) {
             LOGGER.log(Level.SEVERE, "The JVM/OS failed to recognize the file {0} as an image. Overriding this because of its filename extension", file);
             return true;
@@ -5,7 +5,6 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
-import java.io.File;
 import java.util.Enumeration;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -85,13 +84,16 @@ public class NodeStatistics {
 
     /**
      * Recursive static method that loops through the child nodes to find the
-     * number of nodes. Returns 0 if the node is null.
+     * number of nodes. A {@link SortableDefaultMutableTreeNode} knows the
+     * count of its subtree so it isn't walked.
      *
      * @param start The node on which to start
-     * @return The number of nodes including the root node or 0 if null is
-     * supplied.
+     * @return The number of nodes including the root node
      */
     public static int countNodes( @NotNull TreeNode start ) {
+        if ( start instanceof SortableDefaultMutableTreeNode node ) {
+            return node.getSubtreeNodeCount();
+        }
         int count = 1;
         TreeNode n;
         final Enumeration<? extends TreeNode> nodes = start.children();
@@ -136,7 +138,10 @@ public class NodeStatistics {
      * @param startNode The node from which to start
      * @return the number of GroupInfo nodes underneath the start node.
      */
-    private static synchronized  int countGroups( TreeNode startNode ) {
+    private static int countGroups( TreeNode startNode ) {
+        if ( startNode instanceof SortableDefaultMutableTreeNode node ) {
+            return node.getSubtreeGroupCount() - ( node.getUserObject() instanceof GroupInfo ? 1 : 0 );
+        }
         int count = 0;
         DefaultMutableTreeNode n;
         final Enumeration<? extends TreeNode> nodes = startNode.children();
@@ -206,7 +211,7 @@ public class NodeStatistics {
      *                         groups should be counted too or not.
      * @return the number of PictureInfo nodes
      */
-    public static synchronized int countPictures(final DefaultMutableTreeNode startNode, boolean recurseSubgroups) {
+    public static int countPictures(final DefaultMutableTreeNode startNode, boolean recurseSubgroups) {
         if (startNode == null) {
             return 0;
         }
@@ -215,6 +220,10 @@ public class NodeStatistics {
             return query.getNumberOfResults();
         }
 
+        if (recurseSubgroups && startNode instanceof SortableDefaultMutableTreeNode node) {
+            return node.getSubtreePictureCount() - (node.getUserObject() instanceof PictureInfo ? 1 : 0);
+        }
+
         int count = 0;
         Object nextElement;
         final Enumeration<? extends TreeNode> nodes = startNode.children();
@@ -269,12 +278,11 @@ public class NodeStatistics {
                     size += sizeOfPictureInfo(pi);
                 }
             }
+        } else if (startNode instanceof SortableDefaultMutableTreeNode node
+                && (startNode.getUserObject() instanceof GroupInfo || startNode.getUserObject() instanceof PictureInfo)) {
+            size = node.getSubtreeBytes();
         } else if (startNode.getUserObject() instanceof PictureInfo pi) {
             size = sizeOfPictureInfo(pi);
-        } else if (startNode instanceof SortableDefaultMutableTreeNode node && startNode.getUserObject() instanceof GroupInfo) {
-            size = node.getChildPictureNodesDFS()
-                    .mapToLong(nde -> sizeOfPictureInfo((PictureInfo) nde.getUserObject()))
-                    .sum();
         }
         return size;
     }
@@ -286,10 +294,6 @@ public class NodeStatistics {
      * @return The number of bytes
      */
     private static long sizeOfPictureInfo(final PictureInfo pictureInfo) {
-        final File testfile = (pictureInfo.getImageFile());
-        if (testfile != null) {
-            return testfile.length();
-        }
-        return 0;
+        return pictureInfo.getFileSize();
     }
 }
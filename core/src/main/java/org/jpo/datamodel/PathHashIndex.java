@@ -0,0 +1,288 @@
+package org.jpo.datamodel;
+
+import org.apache.commons.jcs3.access.CacheAccess;
+import org.apache.commons.jcs3.access.exception.CacheException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Remembers which SHA-256 a file had at a given size and modification time. The thumbnail cache uses this to
+ * confirm that a file still has the content the cached thumbnail was made from without reading the file.
+ * <p>
+ * The sizes and modification times are read for a whole directory at a time and kept for a few seconds so that
+ * the thumbnails of a group of pictures in the same folder are validated with one directory listing instead of a
+ * syscall per picture.
+ */
+public class PathHashIndex {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(PathHashIndex.class.getName());
+
+    /**
+     * How long a directory listing is trusted
+     */
+    private static final long FOLDER_SNAPSHOT_LIFETIME_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * How many directory listings are kept
+     */
+    private static final int MAX_FOLDER_SNAPSHOTS = 64;
+
+    /**
+     * The SHA-256 of a file at a given size and modification time
+     *
+     * @param sha256       the SHA-256 of the file
+     * @param size         the size of the file in bytes
+     * @param lastModified the modification time of the file in milliseconds
+     */
+    public record Fingerprint(String sha256, long size, long lastModified) implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1;
+
+        /**
+         * Returns true if the fingerprint was taken of a file with the supplied size and modification time
+         *
+         * @param fileStats the current size and modification time of the file
+         * @return true if they match
+         */
+        public boolean matches(final FileStats fileStats) {
+            return fileStats != null && size == fileStats.size() && lastModified == fileStats.lastModified();
+        }
+    }
+
+    /**
+     * The size and modification time of a file as seen in a directory listing
+     *
+     * @param size         the size in bytes
+     * @param lastModified the modification time in milliseconds
+     */
+    public record FileStats(long size, long lastModified) {
+    }
+
+    /**
+     * The files of one directory at one point in time
+     */
+    private record FolderSnapshot(Map<String, FileStats> files, long createdNanos) {
+        private boolean isStale() {
+            return System.nanoTime() - createdNanos > FOLDER_SNAPSHOT_LIFETIME_NANOS;
+        }
+    }
+
+    private final CacheAccess<String, Fingerprint> fingerprints;
+
+    private final LinkedHashMap<Path, FolderSnapshot> folderSnapshots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Path, FolderSnapshot> eldest) {
+            return size() > MAX_FOLDER_SNAPSHOTS;
+        }
+    };
+
+    /**
+     * Creates the index on top of a JCS region so that it survives a restart
+     *
+     * @param fingerprints the cache region holding the fingerprints by path
+     */
+    public PathHashIndex(final CacheAccess<String, Fingerprint> fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    private static String keyOf(final File file) {
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * Returns the current size and modification time of the file from a listing of its directory. The directory is
+     * listed again if the listing is older than a few seconds.
+     *
+     * @param file the file
+     * @return the stats or null if the file doesn't exist
+     */
+    public FileStats getFileStats(final File file) {
+        final var absoluteFile = file.getAbsoluteFile();
+        final var folder = absoluteFile.getParentFile();
+        if (folder == null) {
+            return null;
+        }
+        final var folderPath = folder.toPath();
+        FolderSnapshot snapshot;
+        synchronized (folderSnapshots) {
+            snapshot = folderSnapshots.get(folderPath);
+        }
+        if (snapshot == null || snapshot.isStale() || !snapshot.files().containsKey(absoluteFile.getName())) {
+            snapshot = listFolder(folderPath);
+            synchronized (folderSnapshots) {
+                folderSnapshots.put(folderPath, snapshot);
+            }
+        }
+        return snapshot.files().get(absoluteFile.getName());
+    }
+
+    private static FolderSnapshot listFolder(final Path folder) {
+        final var files = new HashMap<String, FileStats>();
+        try {
+            Files.walkFileTree(folder, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        files.put(file.getFileName().toString(), new FileStats(attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException e) {
+            LOGGER.log(Level.INFO, "Could not list folder {0}: {1}", new Object[]{folder, e.getMessage()});
+        }
+        return new FolderSnapshot(files, System.nanoTime());
+    }
+
+    /**
+     * Forgets the listing of the directory so that the next request reads it again
+     *
+     * @param folder the directory
+     */
+    public void invalidateFolder(final File folder) {
+        synchronized (folderSnapshots) {
+            folderSnapshots.remove(folder.getAbsoluteFile().toPath());
+        }
+    }
+
+    /**
+     * Returns the SHA-256 of the file if the index has a fingerprint for it which matches the current size and
+     * modification time of the file.
+     *
+     * @param file the file
+     * @return the SHA-256 or null if it is unknown or the file has changed
+     */
+    public String getValidatedSha256(final File file) {
+        return getValidatedSha256(file, getFileStats(file));
+    }
+
+    /**
+     * Returns the SHA-256 of the file if the index has a fingerprint for it which matches the supplied size and
+     * modification time. Use this when the caller has just read the stats of the file as the directory listing
+     * may be a few seconds old.
+     *
+     * @param file      the file
+     * @param fileStats the current size and modification time of the file
+     * @return the SHA-256 or null if it is unknown or the file has changed
+     */
+    public String getValidatedSha256(final File file, final FileStats fileStats) {
+        final var fingerprint = fingerprints.get(keyOf(file));
+        if (fingerprint != null && fingerprint.matches(fileStats)) {
+            return fingerprint.sha256();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the SHA-256 of the file from the index or calculates it and records it if the index can't vouch for it
+     *
+     * @param file the file
+     * @return the SHA-256
+     * @throws IOException if the file can't be read
+     */
+    public String getOrCalculateSha256(final File file) throws IOException {
+        final var sha256 = getValidatedSha256(file);
+        if (sha256 != null) {
+            return sha256;
+        }
+        final var calculatedSha256 = HashingService.calculateSha256(file);
+        record(file, calculatedSha256);
+        return calculatedSha256;
+    }
+
+    /**
+     * Records that the file currently has the supplied SHA-256
+     *
+     * @param file   the file
+     * @param sha256 its SHA-256
+     */
+    public void record(final File file, final String sha256) {
+        invalidateFolder(file.getAbsoluteFile().getParentFile());
+        final var fileStats = getFileStats(file);
+        if (fileStats == null) {
+            return;
+        }
+        record(file, sha256, fileStats);
+    }
+
+    /**
+     * Records that the file had the supplied SHA-256 at the supplied size and modification time. Unlike
+     * {@link #record(File, String)} this doesn't list the directory again, which matters when a whole directory
+     * is being hashed.
+     *
+     * @param file      the file
+     * @param sha256    its SHA-256
+     * @param fileStats the size and modification time the file had when it was hashed
+     */
+    public void record(final File file, final String sha256, final FileStats fileStats) {
+        try {
+            fingerprints.put(keyOf(file), new Fingerprint(sha256, fileStats.size(), fileStats.lastModified()));
+        } catch (final CacheException ex) {
+            LOGGER.severe(ex.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Carries the fingerprint of a file over to its new location after a move or rename. If the file at the new
+     * location doesn't have the same size and modification time the fingerprint is dropped and the file will be
+     * hashed the next time it is needed.
+     *
+     * @param oldFile the old location
+     * @param newFile the new location
+     */
+    public void fileMoved(final File oldFile, final File newFile) {
+        final var fingerprint = fingerprints.get(keyOf(oldFile));
+        fingerprints.remove(keyOf(oldFile));
+        invalidateFolder(oldFile.getAbsoluteFile().getParentFile());
+        invalidateFolder(newFile.getAbsoluteFile().getParentFile());
+        if (fingerprint != null && fingerprint.matches(getFileStats(newFile))) {
+            fingerprints.put(keyOf(newFile), fingerprint);
+        }
+    }
+
+    /**
+     * Forgets all fingerprints and directory listings
+     */
+    public void clear() {
+        synchronized (folderSnapshots) {
+            folderSnapshots.clear();
+        }
+        fingerprints.clear();
+    }
+}
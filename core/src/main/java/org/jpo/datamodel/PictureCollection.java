@@ -1,5 +1,8 @@
 package org.jpo.datamodel;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
 import javax.swing.*;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
@@ -7,6 +10,7 @@ import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
 import java.io.*;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -106,6 +110,84 @@ public class PictureCollection {
      */
     private File xmlFile = null;
 
+    /**
+     * Captures the changes so that a save only needs to append them to the journal
+     */
+    private final ChangeJournal changeJournal = new ChangeJournal(this);
+
+    /**
+     * The picture nodes of the collection by the absolute file of their picture. Guarded by itself together with
+     * {@link #nodesBySha256}, {@link #indexedKeys} and {@link #nodesById}. The synchronized setters of a
+     * PictureInfo update the indexes while they hold the lock of the PictureInfo, so the lock of a PictureInfo
+     * must always be taken before this one and never while holding it.
+     */
+    private final SetMultimap<File, SortableDefaultMutableTreeNode> nodesByFile = HashMultimap.create();
+
+    /**
+     * The picture nodes of the collection by the SHA-256 of their picture
+     */
+    private final SetMultimap<String, SortableDefaultMutableTreeNode> nodesBySha256 = HashMultimap.create();
+
+    /**
+     * The nodes of the collection by their unique id. The nodes are held weakly so that a subtree which got
+     * detached without telling the collection can still be garbage collected.
+     */
+    private final HashMap<Integer, WeakReference<SortableDefaultMutableTreeNode>> nodesById = new HashMap<>();
+
+    /**
+     * The keys under which each picture node is currently indexed. We need them to take a node out of the maps
+     * after its PictureInfo has already changed.
+     */
+    private final IdentityHashMap<SortableDefaultMutableTreeNode, IndexKeys> indexedKeys = new IdentityHashMap<>();
+
+    /**
+     * The words of the text fields of the pictures for the {@link TextQuery}
+     */
+    private final TextIndex textIndex = new TextIndex();
+
+    /**
+     * The pictures of each category for the {@link CategoryQuery}
+     */
+    private final CategoryIndex categoryIndex = new CategoryIndex();
+
+    /**
+     * The dated pictures by creation time for the {@link YearQuery} and the years of the collection
+     */
+    private final DateIndex dateIndex = new DateIndex();
+
+    /**
+     * The word counts of the descriptions for the tag cloud
+     */
+    private final TagCloudIndex tagCloudIndex = new TagCloudIndex();
+
+    /**
+     * The keys under which a picture node is indexed
+     *
+     * @param file            the absolute file of the picture or null
+     * @param sha256          the SHA-256 of the picture or null if it is not known
+     * @param textDocument    the document number of the picture in the {@link TextIndex}
+     * @param categoryOrdinal the ordinal of the picture in the {@link CategoryIndex}
+     * @param categories      the categories under which the picture is in the {@link CategoryIndex}
+     * @param creationTime    the creation time under which the picture is in the {@link DateIndex} or
+     *                        {@link PictureInfo#NO_CREATION_TIME} if it isn't in it
+     * @param tagCloudWords   the words of the description which the {@link TagCloudIndex} counted
+     */
+    private record IndexKeys(File file, String sha256, int textDocument, int categoryOrdinal, int[] categories,
+                             long creationTime, String[] tagCloudWords) {
+        private static IndexKeys of(final PictureInfo pictureInfo, final int textDocument, final int categoryOrdinal,
+                                    final int[] categories, final long creationTime, final String[] tagCloudWords) {
+            final var file = pictureInfo.getImageFile();
+            final var sha256 = pictureInfo.getSha256();
+            return new IndexKeys(file == null ? null : file.getAbsoluteFile(),
+                    (sha256 == null || sha256.isEmpty()) ? null : sha256,
+                    textDocument, categoryOrdinal, categories, creationTime, tagCloudWords);
+        }
+
+        private IndexKeys withCategories(final int[] newCategories) {
+            return new IndexKeys(file, sha256, textDocument, categoryOrdinal, newCategories, creationTime, tagCloudWords);
+        }
+    }
+
     /**
      * Constructs a new PictureCollection object with a root object
      * Does not send round a Eventbus notification about the LockIcon change
@@ -115,6 +197,7 @@ public class PictureCollection {
         setRootNode(node);
         node.setPictureCollection(this);
 
+        addToIndexes(node);
         treeModel = new DefaultTreeModel(getRootNode());
         treeModel.addTreeModelListener(new PictureCollectionTreeModelListener());
         setAllowEdits(true);
@@ -131,8 +214,75 @@ public class PictureCollection {
      */
     public static void fileLoad(final File fileToLoad, final SortableDefaultMutableTreeNode node, final ProgressTracker progressTracker, final Runnable onFileLoaded) throws FileNotFoundException {
         LOGGER.log(Level.INFO, "Loading file: {0}", fileToLoad);
+        if (CacheSettings.isBinaryCollection()) {
+            final var pictureCollection = node.getPictureCollection();
+            pictureCollection.setSendModelUpdates(false);
+            final var loaded = JpoBinaryCollection.read(fileToLoad, node, progressTracker);
+            pictureCollection.setSendModelUpdates(true);
+            if (loaded) {
+                if (hasChangeJournal(fileToLoad)) {
+                    // the tree model learns about the nodes together with the replay
+                    replayChangeJournal(fileToLoad, node, JpoBinaryCollection.getJournalLength(fileToLoad), List.of());
+                } else {
+                    pictureCollection.sendNodeStructureChanged(node);
+                }
+                onFileLoaded.run();
+                return;
+            }
+        }
         final InputStream is = new FileInputStream(fileToLoad);
-        streamLoad(is, node, progressTracker, onFileLoaded);
+        if (hasChangeJournal(fileToLoad)) {
+            // the journal finds its nodes by their position so the user must not see the nodes before it is replayed
+            final var loadedNodes = new ArrayList<SortableDefaultMutableTreeNode>();
+            XmlReader.read(is, fileToLoad.length(), node, loadedNodes::add, progressTracker);
+            replayChangeJournal(fileToLoad, node, 0, loadedNodes);
+        } else {
+            streamLoad(is, fileToLoad.length(), node, progressTracker);
+        }
+        onFileLoaded.run();
+    }
+
+    private static boolean hasChangeJournal(final File fileToLoad) {
+        return CacheSettings.isChangeJournal() && ChangeJournal.getJournalFile(fileToLoad).exists();
+    }
+
+    /**
+     * Attaches the loaded nodes, applies the {@link ChangeJournal} of the file to them and then tells the tree
+     * model about the node. This happens in one go on the EDT so that the user can't insert or move nodes before
+     * the journal, which addresses the nodes by their position, is replayed.
+     *
+     * @param fileToLoad  the loaded file
+     * @param node        the node it was loaded into
+     * @param fromLength  the length of the journal which the loaded nodes already contain
+     * @param loadedNodes the top level nodes which are not yet attached to the node
+     */
+    private static void replayChangeJournal(final File fileToLoad, final SortableDefaultMutableTreeNode node, final long fromLength,
+                                            final List<SortableDefaultMutableTreeNode> loadedNodes) {
+        final var pictureCollection = node.getPictureCollection();
+        final Runnable runnable = () -> {
+            final var unsavedUpdates = pictureCollection.getUnsavedUpdates();
+            pictureCollection.setSendModelUpdates(false);
+            try {
+                loadedNodes.forEach(node::add);
+                ChangeJournal.replay(fileToLoad, node, fromLength);
+            } finally {
+                pictureCollection.setSendModelUpdates(true);
+            }
+            // the journal is part of the saved state
+            pictureCollection.setUnsavedUpdates(unsavedUpdates);
+            pictureCollection.getTreeModel().nodeStructureChanged(node);
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            runnable.run();
+        } else {
+            try {
+                SwingUtilities.invokeAndWait(runnable);
+            } catch (final InterruptedException _) {
+                Thread.currentThread().interrupt();
+            } catch (final InvocationTargetException e) {
+                LOGGER.log(Level.SEVERE, "Could not replay the journal of {0}: {1}", new Object[]{fileToLoad, e.getCause().getMessage()});
+            }
+        }
     }
 
     /**
@@ -142,21 +292,34 @@ public class PictureCollection {
      * @param node the node to load it into
      */
     public static void streamLoad(final InputStream is, final SortableDefaultMutableTreeNode node, final ProgressTracker progressTracker, final Runnable onFileLoaded) {
-        final var pictureCollection = node.getPictureCollection();
-        pictureCollection.setSendModelUpdates(false); // turn off model notification of each add for performance
-        XmlReader.read(is, node, progressTracker);
-        pictureCollection.setSendModelUpdates(true);
-        pictureCollection.sendNodeStructureChanged(node);
+        streamLoad(is, -1, node, progressTracker);
         onFileLoaded.run();
     }
 
+    /**
+     * Loads the collection from the stream into the node. The stream is parsed on the calling thread and the top
+     * level groups are attached on the EDT in batches as they are completed so that the user can browse them
+     * before the whole file is read. When this method returns all the nodes are attached.
+     *
+     * @param is         The InputStream that is to be loaded.
+     * @param totalBytes The size of the stream or -1 if it is not known
+     * @param node       the node to load it into
+     */
+    private static void streamLoad(final InputStream is, final long totalBytes, final SortableDefaultMutableTreeNode node, final ProgressTracker progressTracker) {
+        final var publisher = new ProgressiveLoadPublisher(node);
+        XmlReader.read(is, totalBytes, node, publisher, progressTracker);
+        publisher.finish();
+    }
+
     /**
      * This method wipes out the data in the picture collection. As it updates
      * the TreeModel it has been made synchronous on the EDT.
      */
     public void clearCollection() {
+        changeJournal.reset();
         final Runnable runnable = () -> {
             getRootNode().removeAllChildren();
+            clearIndexes();
             getRootNode().setUserObject(new GroupInfo(JpoCoreResources.getResource("DefaultRootNodeText")));
             clearQueriesTreeModel();
             categories.clear();
@@ -203,6 +366,19 @@ public class PictureCollection {
      */
     public synchronized void setSendModelUpdates(boolean status) {
         sendModelUpdates = status;
+        if (!status && !fileLoading) {
+            // the changes that follow are not captured
+            changeJournal.invalidate();
+        }
+    }
+
+    /**
+     * Returns the journal which captures the changes to the collection
+     *
+     * @return the change journal
+     */
+    ChangeJournal getChangeJournal() {
+        return changeJournal;
     }
 
     /**
@@ -212,6 +388,9 @@ public class PictureCollection {
      * @param changedNode The node that was changed
      */
     public void sendNodeStructureChanged(final TreeNode changedNode) {
+        if (!fileLoading) {
+            changeJournal.invalidate();
+        }
         final Runnable r = () -> {
             LOGGER.log(Level.FINE, "Sending a node structure change on node: {0}", changedNode);
             getTreeModel().nodeStructureChanged(changedNode);
@@ -242,6 +421,7 @@ public class PictureCollection {
      * @param childIndices The Child indices
      */
     public void sendNodesWereInserted( final TreeNode changedNode,final int[] childIndices) {
+        changeJournal.nodesInserted(changedNode, childIndices);
         final Runnable r = () -> {
             LOGGER.log(Level.FINE, "Sending a node was inserted notification on node: {0}", new Object[]{changedNode});
             getTreeModel().nodesWereInserted(changedNode, childIndices);
@@ -260,6 +440,7 @@ public class PictureCollection {
     public void sendNodesWereRemoved(final TreeNode node,
                                      final int[] childIndices,
                                      final Object[] removedChildren) {
+        changeJournal.nodesRemoved(node, childIndices);
         final Runnable r = () -> {
             LOGGER.log(Level.FINE, "Sending a node was removed change on node: {0}, childIndices: [{1}]",
                     new Object[]{
@@ -500,6 +681,7 @@ public class PictureCollection {
         synchronized (categories) { // I'm worried that concurrent modifications could mess things up
             if (categories.isEmpty()) {
                 addCategory(0, category);
+                changeJournal.categoryChanged(0, category);
                 return 0;
             }
 
@@ -516,6 +698,7 @@ public class PictureCollection {
             final Integer maxKey = Collections.max(categories.keySet());
             final Integer nextKey = maxKey + 1;
             addCategory(nextKey, category);
+            changeJournal.categoryChanged(nextKey, category);
             onCategoryAdded.run();
             return nextKey;
         }
@@ -531,6 +714,7 @@ public class PictureCollection {
     public void renameCategory(final Integer key, final String category, final Runnable onCategoryModified ) {
         removeCategory(key, onCategoryModified);
         addCategory(key, category);
+        changeJournal.categoryChanged(key, category);
         onCategoryModified.run();
     }
 
@@ -580,27 +764,125 @@ public class PictureCollection {
      */
     public void removeCategory(final Integer key, final Runnable onCategoryRemoved ) {
         categories.remove(key);
+        changeJournal.categoryRemoved(key);
         onCategoryRemoved.run();
     }
 
     /**
-     * Removes the category from the nodes using it
+     * Removes the category from the nodes using it. Only the pictures which carry the category are visited.
      *
      * @param key       The category to poll
      * @param startNode The node from which to start
      */
     public void removeCategoryUsage(final Object key,
                                     final SortableDefaultMutableTreeNode startNode) {
-        final Enumeration<TreeNode> nodes = startNode.children();
-        while (nodes.hasMoreElements()) {
-            final SortableDefaultMutableTreeNode n = (SortableDefaultMutableTreeNode) nodes.nextElement();
-            if (n.getUserObject() instanceof PictureInfo pictureInfo) {
-                pictureInfo.removeCategory(key);
+        if (!(key instanceof Integer category)) {
+            return;
+        }
+        final var wholeCollection = startNode == getRootNode();
+        for (final var node : getPicturesWithCategories(CategoryExpression.category(category))) {
+            if (node != startNode && (wholeCollection || startNode.isNodeDescendant(node))
+                    && node.getUserObject() instanceof PictureInfo pictureInfo) {
+                pictureInfo.removeCategory(category);
             }
-            if (n.getChildCount() > 0) {
-                removeCategoryUsage(key, n);
+        }
+    }
+
+    /**
+     * Returns the pictures of the collection which match the combination of categories
+     *
+     * @param expression the categories
+     * @return the picture nodes in the order in which they were added to the collection
+     */
+    public List<SortableDefaultMutableTreeNode> getPicturesWithCategories(final CategoryExpression expression) {
+        return categoryIndex.getNodes(expression);
+    }
+
+    /**
+     * Returns how many pictures of the collection match the combination of categories without building the list
+     *
+     * @param expression the categories
+     * @return the number of pictures
+     */
+    public int countPicturesWithCategories(final CategoryExpression expression) {
+        return categoryIndex.count(expression);
+    }
+
+    /**
+     * Returns the pictures of the collection taken between the two times. Pictures whose creation time can't be
+     * parsed are not returned.
+     *
+     * @param lower the earliest time in milliseconds since the epoch, inclusive
+     * @param upper the latest time in milliseconds since the epoch, inclusive
+     * @return the picture nodes sorted by creation time
+     */
+    public List<SortableDefaultMutableTreeNode> getPicturesBetween(final long lower, final long upper) {
+        return dateIndex.getNodes(lower, upper);
+    }
+
+    /**
+     * Returns how many dated pictures the collection has in each year
+     *
+     * @return the counts by year in ascending order of the years
+     */
+    public SortedMap<Integer, Integer> getYearCounts() {
+        return dateIndex.getYearCounts();
+    }
+
+    /**
+     * Returns how many pictures the collection has in each month of the year
+     *
+     * @param year the year
+     * @return twelve counts starting with January
+     */
+    public int[] getMonthCounts(final int year) {
+        return dateIndex.getMonthCounts(year);
+    }
+
+    /**
+     * Returns the most frequent words of the picture descriptions of the collection for the tag cloud
+     *
+     * @param maxWords the number of words to return
+     * @return the words and how often they are used, the most frequent first
+     */
+    public List<Map.Entry<String, Integer>> getTagCloudWords(final int maxWords) {
+        return tagCloudIndex.getTopWords(maxWords);
+    }
+
+    /**
+     * Returns the most frequent words of the descriptions of some pictures for the tag cloud. The words of the
+     * pictures of the collection were split when the pictures were added so they are only counted here.
+     *
+     * @param nodes    the picture nodes
+     * @param maxWords the number of words to return
+     * @return the words and how often they are used, the most frequent first
+     */
+    public List<Map.Entry<String, Integer>> getTagCloudWords(final Collection<SortableDefaultMutableTreeNode> nodes,
+                                                             final int maxWords) {
+        final var wordLists = new ArrayList<String[]>(nodes.size());
+        final var detachedPictures = new ArrayList<PictureInfo>();
+        synchronized (nodesByFile) {
+            for (final var node : nodes) {
+                final var keys = indexedKeys.get(node);
+                if (keys != null) {
+                    wordLists.add(keys.tagCloudWords());
+                } else if (node.getUserObject() instanceof PictureInfo pictureInfo) {
+                    detachedPictures.add(pictureInfo);
+                }
             }
         }
+        detachedPictures.forEach(pictureInfo -> wordLists.add(TagCloudIndex.tokenize(pictureInfo.getDescription())));
+        return TagCloudIndex.countTopWords(wordLists, maxWords);
+    }
+
+    /**
+     * Returns how many pictures of the collection carry the category
+     *
+     * @param key the category
+     * @return the number of pictures
+     */
+    public int countCategoryUsage(final int key) {
+        return categoryIndex.count(key);
     }
 
     /**
@@ -700,20 +982,9 @@ public class PictureCollection {
      */
     public boolean isInCollection(final File file) {
         LOGGER.log(Level.FINE, "Checking if File {0} exists in the collection", file);
-        final Enumeration<TreeNode> e = getRootNode().preorderEnumeration();
-        while (e.hasMoreElements()) {
-            final SortableDefaultMutableTreeNode node = (SortableDefaultMutableTreeNode) e.nextElement();
-            final Object nodeObject = node.getUserObject();
-            if (nodeObject instanceof PictureInfo pi) {
-                final File highresFile = pi.getImageFile();
-                LOGGER.log(Level.FINE, "Checking: {0}", ((PictureInfo) nodeObject).getImageFile());
-                if ((highresFile != null) && (highresFile.compareTo(file) == 0)) {
-                    LOGGER.log(Level.INFO, "Found a match on: {0}", ((PictureInfo) nodeObject).getDescription());
-                    return true;
-                }
-            }
+        synchronized (nodesByFile) {
+            return nodesByFile.containsKey(file.getAbsoluteFile());
         }
-        return false;
     }
 
     /**
@@ -724,19 +995,208 @@ public class PictureCollection {
      * @return true if found, false if not
      */
     public boolean isInCollection(final String sha256) {
-        final var enumeration = getRootNode().preorderEnumeration();
-        while (enumeration.hasMoreElements()) {
-            final var node = (SortableDefaultMutableTreeNode) enumeration.nextElement();
-            final var nodeObject = node.getUserObject();
-            if (nodeObject instanceof PictureInfo pictureInfo) {
-                LOGGER.log(Level.FINE, "Checking: {0}", ((PictureInfo) nodeObject).getImageFile());
-                if (pictureInfo.getSha256().equals(sha256)) {
-                    LOGGER.log(Level.FINE, "Found a match on: {0}", ((PictureInfo) nodeObject).getDescription());
-                    return true;
+        synchronized (nodesByFile) {
+            return nodesBySha256.containsKey(sha256);
+        }
+    }
+
+    /**
+     * Returns the picture nodes of the collection which point at the supplied file
+     *
+     * @param file the file of the picture
+     * @return the nodes; empty if the file is not in the collection
+     */
+    public Set<SortableDefaultMutableTreeNode> findNodesByFile(final File file) {
+        synchronized (nodesByFile) {
+            return new HashSet<>(nodesByFile.get(file.getAbsoluteFile()));
+        }
+    }
+
+    /**
+     * Returns the picture nodes of the collection whose picture has the supplied SHA-256
+     *
+     * @param sha256 the SHA-256 of the picture
+     * @return the nodes; empty if there is no such picture in the collection
+     */
+    public Set<SortableDefaultMutableTreeNode> findNodesBySha256(final String sha256) {
+        synchronized (nodesByFile) {
+            return new HashSet<>(nodesBySha256.get(sha256));
+        }
+    }
+
+    /**
+     * Returns the node of the collection with the supplied unique id
+     *
+     * @param id the unique id of the node
+     * @return the node or null if the collection has no node with that id
+     * @see SortableDefaultMutableTreeNode#getUniqueId()
+     */
+    public SortableDefaultMutableTreeNode getNodeById(final int id) {
+        synchronized (nodesByFile) {
+            final var reference = nodesById.get(id);
+            if (reference == null) {
+                return null;
+            }
+            final var node = reference.get();
+            if (node == null || node.getRoot() != getRootNode()) {
+                nodesById.remove(id);
+                return null;
+            }
+            return node;
+        }
+    }
+
+    /**
+     * Adds the nodes of the subtree to the id registry and its pictures to the file and SHA-256 indexes. The nodes call this when they are
+     * attached to the tree of this collection.
+     *
+     * @param subtreeRoot the node which was attached
+     */
+    void addToIndexes(final SortableDefaultMutableTreeNode subtreeRoot) {
+        for (final var e = subtreeRoot.preorderEnumeration(); e.hasMoreElements(); ) {
+            final var node = (SortableDefaultMutableTreeNode) e.nextElement();
+            if (node.getUserObject() instanceof PictureInfo pictureInfo) {
+                // a setter on another thread may hold the PictureInfo and wait for the index
+                synchronized (pictureInfo) {
+                    synchronized (nodesByFile) {
+                        unindex(node);
+                        nodesById.put(node.getUniqueId(), new WeakReference<>(node));
+                        index(node, pictureInfo);
+                    }
+                }
+            } else {
+                synchronized (nodesByFile) {
+                    unindex(node);
+                    nodesById.put(node.getUniqueId(), new WeakReference<>(node));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the nodes of the subtree from the id registry and the file and SHA-256 indexes. The nodes call this when they
+     * are detached from the tree of this collection.
+     *
+     * @param subtreeRoot the node which was detached
+     */
+    void removeFromIndexes(final SortableDefaultMutableTreeNode subtreeRoot) {
+        synchronized (nodesByFile) {
+            for (final var e = subtreeRoot.preorderEnumeration(); e.hasMoreElements(); ) {
+                final var node = (SortableDefaultMutableTreeNode) e.nextElement();
+                unindex(node);
+                nodesById.remove(node.getUniqueId());
+            }
+        }
+    }
+
+    /**
+     * Moves the node to the index entries of its current file, SHA-256 and words. This is called when the location,
+     * the SHA-256 or one of the searchable text fields of the PictureInfo of the node changes. Nodes that are not
+     * part of the collection are ignored.
+     *
+     * @param node the node whose PictureInfo changed
+     */
+    void updateIndexes(final SortableDefaultMutableTreeNode node) {
+        if (!(node.getUserObject() instanceof PictureInfo pictureInfo)) {
+            synchronized (nodesByFile) {
+                unindex(node);
+            }
+            return;
+        }
+        synchronized (pictureInfo) {
+            synchronized (nodesByFile) {
+                if (!indexedKeys.containsKey(node)) {
+                    return;
                 }
+                unindex(node);
+                index(node, pictureInfo);
             }
         }
-        return false;
+    }
+
+    /**
+     * Moves the node to the category index entries of the current categories of its PictureInfo. This is called
+     * when the category assignments of the picture change. Nodes that are not part of the collection are ignored.
+     *
+     * @param node the node whose PictureInfo changed
+     */
+    void updateCategoryIndex(final SortableDefaultMutableTreeNode node) {
+        synchronized (nodesByFile) {
+            final var keys = indexedKeys.get(node);
+            if (keys == null || !(node.getUserObject() instanceof PictureInfo pictureInfo)) {
+                return;
+            }
+            final var categories = pictureInfo.getCategoryArray();
+            categoryIndex.update(keys.categoryOrdinal(), keys.categories(), categories);
+            indexedKeys.put(node, keys.withCategories(categories));
+        }
+    }
+
+    /**
+     * Throws away the indexes and builds them again from the tree
+     */
+    public void rebuildIndexes() {
+        clearIndexes();
+        addToIndexes(getRootNode());
+    }
+
+    private void clearIndexes() {
+        synchronized (nodesByFile) {
+            nodesByFile.clear();
+            nodesBySha256.clear();
+            indexedKeys.clear();
+            textIndex.clear();
+            categoryIndex.clear();
+            dateIndex.clear();
+            tagCloudIndex.clear();
+            nodesById.clear();
+            nodesById.put(getRootNode().getUniqueId(), new WeakReference<>(getRootNode()));
+        }
+    }
+
+    private void index(final SortableDefaultMutableTreeNode node, final PictureInfo pictureInfo) {
+        final var categories = pictureInfo.getCategoryArray();
+        final var creationTime = pictureInfo.getCreationTimeMillis();
+        if (creationTime != PictureInfo.NO_CREATION_TIME) {
+            dateIndex.add(node, creationTime);
+        }
+        final var keys = IndexKeys.of(pictureInfo, textIndex.add(node), categoryIndex.add(node, categories), categories,
+                creationTime, tagCloudIndex.add(pictureInfo.getDescription()));
+        indexedKeys.put(node, keys);
+        if (keys.file() != null) {
+            nodesByFile.put(keys.file(), node);
+        }
+        if (keys.sha256() != null) {
+            nodesBySha256.put(keys.sha256(), node);
+        }
+    }
+
+    private void unindex(final SortableDefaultMutableTreeNode node) {
+        final var keys = indexedKeys.remove(node);
+        if (keys == null) {
+            return;
+        }
+        if (keys.file() != null) {
+            nodesByFile.remove(keys.file(), node);
+        }
+        if (keys.sha256() != null) {
+            nodesBySha256.remove(keys.sha256(), node);
+        }
+        textIndex.remove(keys.textDocument());
+        categoryIndex.remove(keys.categoryOrdinal(), keys.categories());
+        if (keys.creationTime() != PictureInfo.NO_CREATION_TIME) {
+            dateIndex.remove(node, keys.creationTime());
+        }
+        tagCloudIndex.remove(keys.tagCloudWords());
+    }
+
+    /**
+     * Returns the word index of the pictures of the collection
+     *
+     * @return the text index
+     */
+    TextIndex getTextIndex() {
+        return textIndex;
     }
 
     /**
@@ -784,7 +1244,11 @@ public class PictureCollection {
         }
         fileLoading = true;
         clearCollection();
+        changeJournal.loadStarted();
         setXmlFile(file);
+        if (CacheSettings.isPersistFileTypes()) {
+            FileTypeProbe.load(file);
+        }
         try {
             fileLoad(
                     getXmlFile(),
@@ -792,33 +1256,41 @@ public class PictureCollection {
                     progressTracker,
                     onFileLoaded
             );
+            changeJournal.loaded(getXmlFile());
+            if (CacheSettings.isBinaryCollection() && !JpoBinaryCollection.isCurrent(getXmlFile())) {
+                // the tree holds the replayed journal so the binary file must not have it replayed again
+                writeBinaryCollection(CacheSettings.isChangeJournal() ? changeJournal.getCommittedLength() : 0);
+            }
             addYearQueries();
             addCategoriesQueries();
+            buildTextIndex();
             fileLoading = false;
         } catch (FileNotFoundException ex) {
+            changeJournal.reset();
             fileLoading = false;
             throw ex;
         }
     }
 
-    private void addYearQueries() {
-        final TreeSet<String> years = new TreeSet<>();
-        for (final Enumeration<TreeNode> e = getRootNode().breadthFirstEnumeration(); e.hasMoreElements(); ) {
-            final DefaultMutableTreeNode testNode = (DefaultMutableTreeNode) e.nextElement();
-            final Object nodeObject = testNode.getUserObject();
-            if (nodeObject instanceof PictureInfo pi) {
-                final Calendar cal = pi.getCreationTimeAsDate();
-                if (cal != null) {
-                    int year = cal.get(Calendar.YEAR);
-                    years.add(Integer.toString(year));
-                }
-            }
+    /**
+     * Reads the words of the loaded pictures into the text index on a background thread so that the first search
+     * doesn't have to.
+     */
+    private void buildTextIndex() {
+        if (textIndex.isPending()) {
+            final var thread = new Thread(textIndex::catchUp, "TextIndexBuilder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
         }
+    }
 
+    private void addYearQueries() {
+        final var years = getYearCounts().keySet();
         SwingUtilities.invokeLater(
                 () -> {
                     getYearsTreeNode().removeAllChildren();
-                    years.forEach(this::addYearQuery);
+                    years.forEach(year -> addYearQuery(Integer.toString(year)));
                 }
         );
     }
@@ -837,7 +1309,8 @@ public class PictureCollection {
     }
 
     /**
-     * method that saves the entire index in XML format.
+     * Saves the collection. If the {@link ChangeJournal} followed all the changes since the last save they are
+     * appended to it; otherwise the entire collection is written in XML format.
      */
     public void fileSave() throws IOException {
         if (xmlFile == null) {
@@ -845,10 +1318,48 @@ public class PictureCollection {
             return;
         }
 
+        if (CacheSettings.isChangeJournal() && changeJournal.append(xmlFile)) {
+            setUnsavedUpdates(false);
+            if (CacheSettings.isPersistFileTypes()) {
+                FileTypeProbe.save(xmlFile);
+            }
+            return;
+        }
+
         final var temporaryFile = new File(xmlFile.getPath() + ".!!!");
         JpoWriter.write(temporaryFile, getRootNode(), false);
         replaceFile(xmlFile, temporaryFile);
         setUnsavedUpdates(false);
+        if (CacheSettings.isPersistFileTypes()) {
+            FileTypeProbe.save(xmlFile);
+        }
+        if (CacheSettings.isBinaryCollection()) {
+            writeBinaryCollection(0);
+        }
+        if (CacheSettings.isChangeJournal()) {
+            changeJournal.fullSaveWritten(xmlFile);
+        } else {
+            Files.deleteIfExists(ChangeJournal.getJournalFile(xmlFile).toPath());
+        }
+    }
+
+    /**
+     * Writes the binary copy of the collection next to the XML file. If that fails the old copy is deleted so that
+     * it isn't read instead of the XML file.
+     *
+     * @param journalLength the length of the {@link ChangeJournal} which was replayed into the tree
+     */
+    private void writeBinaryCollection(final long journalLength) {
+        try {
+            JpoBinaryCollection.write(xmlFile, getRootNode(), journalLength);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write the binary collection for {0}: {1}", new Object[]{xmlFile, e.getMessage()});
+            try {
+                Files.deleteIfExists(JpoBinaryCollection.getBinaryFile(xmlFile).toPath());
+            } catch (final IOException ex) {
+                LOGGER.log(Level.WARNING, "Could not delete the binary collection for {0}: {1}", new Object[]{xmlFile, ex.getMessage()});
+            }
+        }
     }
 
     /**
@@ -899,10 +1410,10 @@ public class PictureCollection {
             if (isNull(comparingFile)) {
                 return linkingGroups;
             }
-            for (final var e = getRootNode().preorderEnumeration(); e.hasMoreElements(); ) {
-                final var testNode = (SortableDefaultMutableTreeNode) e.nextElement();
-                if (testNode.getUserObject() instanceof PictureInfo pi && !isNull(pi.getImageFile()) && pi.getImageFile().equals(comparingFile)) {
-                    linkingGroups.add(testNode.getParent());
+            for (final var testNode : findNodesByFile(comparingFile)) {
+                final var parent = testNode.getParent();
+                if (parent != null) {
+                    linkingGroups.add(parent);
                 }
             }
         }
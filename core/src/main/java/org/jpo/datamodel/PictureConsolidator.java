@@ -0,0 +1,414 @@
+package org.jpo.datamodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Moves the files of a batch of pictures to a target directory. {@link #plan} works out all the moves first and
+ * picks a new name in the target directory for each file, so that two pictures called DSC_0001.jpg don't end up
+ * on the same name. {@link #execute} then renames the files which are on the same file system as the target
+ * directory and copies the others with a few threads to a {@link #PART_SUFFIX} file next to the target, compares
+ * the copy with the original, renames it into place and deletes the original. A file which is already on a target
+ * name is never replaced. At the end the pictures of the collection which point at a moved file are looked up in the file index
+ * of the {@link PictureCollection} and pointed at the new file.
+ * <p>
+ * Each move is written to a journal in the target directory before and after it happens. If a run is interrupted
+ * or some files can't be moved the journal stays behind and the next consolidation into the same directory
+ * picks up from it: files which were moved get their pictures corrected and the half finished copies which the
+ * journal knows about are thrown away. The journal is deleted when a run moves all its files.
+ */
+public final class PictureConsolidator {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(PictureConsolidator.class.getName());
+
+    /**
+     * The name of the journal file in the target directory
+     */
+    public static final String JOURNAL_FILENAME = ".jpo-consolidation";
+
+    /**
+     * The suffix of the file a copy is written to before it is renamed to the target
+     */
+    public static final String PART_SUFFIX = ".part";
+
+    /**
+     * The number of files which are copied at the same time to another file system
+     */
+    static final int COPY_THREADS = 4;
+
+    private static final String SEPARATOR = "\t";
+    private static final String PLANNED = "PLANNED";
+    private static final String MOVED = "MOVED";
+    private static final String FAILED = "FAILED";
+
+    /**
+     * A file to move
+     *
+     * @param source the file where it is now
+     * @param target the file in the target directory
+     * @param moved  true if an earlier run moved the file and only the pictures need to be corrected
+     */
+    public record Move(File source, File target, boolean moved) {
+    }
+
+    /**
+     * What a run achieved
+     *
+     * @param moved  the number of files which are now in the target directory, including the ones an earlier run
+     *               moved
+     * @param failed the files which could not be moved
+     */
+    public record Result(int moved, List<File> failed) {
+        public Result {
+            failed = List.copyOf(failed);
+        }
+    }
+
+    private final PictureCollection pictureCollection;
+    private final File targetDirectory;
+    private final List<Move> moves;
+
+    /**
+     * The pictures which were handed to the plan, by their file. They may not be in the collection.
+     */
+    private final Map<File, List<PictureInfo>> picturesBySource;
+
+    /**
+     * The part files which an interrupted run left behind as incomplete copies
+     */
+    private final Set<File> leftoverParts;
+
+    private PictureConsolidator(final PictureCollection pictureCollection, final File targetDirectory, final List<Move> moves,
+                                final Map<File, List<PictureInfo>> picturesBySource, final Set<File> leftoverParts) {
+        this.pictureCollection = pictureCollection;
+        this.targetDirectory = targetDirectory;
+        this.moves = moves;
+        this.picturesBySource = picturesBySource;
+        this.leftoverParts = leftoverParts;
+    }
+
+    /**
+     * Works out the moves which bring the files of the pictures into the target directory. Pictures whose file is
+     * already there are left alone and a file which several pictures share is moved once. The plan also picks up
+     * the moves of an earlier run into the same directory whose pictures were not corrected.
+     *
+     * @param pictureCollection the collection whose pictures are pointed at the moved files. It may be null.
+     * @param pictures          the pictures to consolidate
+     * @param targetDirectory   the directory to move the files into
+     * @return the plan
+     * @throws NullPointerException if a picture has no file
+     */
+    public static PictureConsolidator plan(final PictureCollection pictureCollection, final Collection<PictureInfo> pictures, final File targetDirectory) {
+        final var directory = targetDirectory.getAbsoluteFile();
+        final var journal = readJournal(directory);
+        final var reservedNames = new HashSet<String>();
+        final var movesBySource = new LinkedHashMap<File, Move>();
+        final var picturesBySource = new HashMap<File, List<PictureInfo>>();
+        final var leftoverParts = new HashSet<File>();
+
+        for (final var pictureInfo : pictures) {
+            final var source = Objects.requireNonNull(pictureInfo.getImageFile()).getAbsoluteFile();
+            if (directory.equals(source.getParentFile())) {
+                continue;
+            }
+            picturesBySource.computeIfAbsent(source, _ -> new ArrayList<>(1)).add(pictureInfo);
+            if (movesBySource.containsKey(source)) {
+                continue;
+            }
+            final var journalled = journal.get(source);
+            if (journalled != null && journalled.isMoved() && !source.exists() && journalled.target().exists()) {
+                movesBySource.put(source, new Move(source, journalled.target(), true));
+                reservedNames.add(journalled.target().getName());
+                continue;
+            }
+            if (journalled != null && PLANNED.equals(journalled.state()) && source.exists()) {
+                // the target itself may have been taken by another file since, only the part file is ours
+                final var part = getPartFile(journalled.target());
+                if (part.exists()) {
+                    leftoverParts.add(part);
+                }
+            }
+            movesBySource.put(source, new Move(source, inventTarget(directory, source.getName(), reservedNames), false));
+        }
+
+        if (pictureCollection != null) {
+            journal.forEach((source, journalled) -> {
+                if (journalled.isMoved() && !movesBySource.containsKey(source) && !source.exists()
+                        && journalled.target().exists() && pictureCollection.isInCollection(source)) {
+                    movesBySource.put(source, new Move(source, journalled.target(), true));
+                }
+            });
+        }
+        return new PictureConsolidator(pictureCollection, directory, List.copyOf(movesBySource.values()), picturesBySource, leftoverParts);
+    }
+
+    /**
+     * Returns the file a copy to the target is written to before it is complete
+     *
+     * @param target the target
+     * @return the part file next to it
+     */
+    static File getPartFile(final File target) {
+        return new File(target.getPath() + PART_SUFFIX);
+    }
+
+    /**
+     * Picks a name in the target directory which is neither on the disk nor taken by another move of the plan.
+     * Some cameras keep reusing names like DSC_01234.jpg which would otherwise overwrite each other.
+     */
+    private static File inventTarget(final File directory, final String name, final Set<String> reservedNames) {
+        final var target = Tools.inventFilename(directory, name, reservedNames);
+        reservedNames.add(target.getName());
+        return target;
+    }
+
+    /**
+     * Returns the moves of the plan
+     *
+     * @return the moves in the order of the pictures
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Moves the files and points the pictures at their new files. The renames happen on the calling thread, the
+     * copies to another file system on {@link #COPY_THREADS} threads. The pictures are corrected on the calling
+     * thread once the files have been moved.
+     *
+     * @param progress receives each move which was completed or failed. It is called from the copying threads too.
+     * @return what was achieved
+     */
+    public Result execute(final Consumer<Move> progress) {
+        if (moves.isEmpty()) {
+            return new Result(0, List.of());
+        }
+        final var journalFile = new File(targetDirectory, JOURNAL_FILENAME);
+        final var completed = new ConcurrentLinkedQueue<Move>();
+        final var failed = new ConcurrentLinkedQueue<File>();
+
+        try (final var journal = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            final var pending = new ArrayList<Move>();
+            for (final var move : moves) {
+                if (move.moved()) {
+                    completed.add(move);
+                    progress.accept(move);
+                } else {
+                    pending.add(move);
+                    writeJournal(journal, PLANNED, move);
+                }
+            }
+            for (final var leftover : leftoverParts) {
+                Files.deleteIfExists(leftover.toPath());
+            }
+
+            final var copies = new ArrayList<Move>();
+            final var targetStore = Files.getFileStore(targetDirectory.toPath());
+            final var storesByDirectory = new HashMap<File, FileStore>();
+            for (final var move : pending) {
+                if (!targetStore.equals(getFileStore(move.source().getParentFile(), storesByDirectory))) {
+                    copies.add(move);
+                    continue;
+                }
+                try {
+                    // without REPLACE_EXISTING, a file which turned up on the target name since the plan stays
+                    Files.move(move.source().toPath(), move.target().toPath());
+                    moved(journal, move, completed, progress);
+                } catch (final IOException ex) {
+                    failed(journal, move, ex, failed, progress);
+                }
+            }
+
+            if (!copies.isEmpty()) {
+                copyInParallel(copies, journal, completed, failed, progress);
+            }
+        } catch (final IOException ex) {
+            LOGGER.log(Level.SEVERE, "Can''t consolidate into {0}: {1}", new Object[]{targetDirectory, ex.getMessage()});
+            moves.stream()
+                    .filter(move -> !completed.contains(move) && !failed.contains(move.source()))
+                    .forEach(move -> failed.add(move.source()));
+        }
+
+        completed.forEach(this::correctReferences);
+        if (failed.isEmpty()) {
+            try {
+                Files.deleteIfExists(journalFile.toPath());
+            } catch (final IOException ex) {
+                LOGGER.log(Level.WARNING, "Can''t delete the consolidation journal {0}: {1}", new Object[]{journalFile, ex.getMessage()});
+            }
+        }
+        return new Result(completed.size(), new ArrayList<>(failed));
+    }
+
+    private static FileStore getFileStore(final File directory, final Map<File, FileStore> storesByDirectory) {
+        return storesByDirectory.computeIfAbsent(directory, _ -> {
+            try {
+                return Files.getFileStore(directory.toPath());
+            } catch (final IOException _) {
+                // the move will find out what is wrong
+                return null;
+            }
+        });
+    }
+
+    private static void copyInParallel(final List<Move> copies, final Writer journal, final Queue<Move> completed,
+                                       final Queue<File> failed, final Consumer<Move> progress) {
+        final var tasks = copies.stream()
+                .map(move -> (Callable<Void>) () -> {
+                    try {
+                        copyVerifyDelete(move);
+                        moved(journal, move, completed, progress);
+                    } catch (final IOException ex) {
+                        failed(journal, move, ex, failed, progress);
+                    }
+                    return null;
+                })
+                .toList();
+        try (final var executor = Executors.newFixedThreadPool(Math.min(COPY_THREADS, copies.size()))) {
+            executor.invokeAll(tasks);
+        } catch (final InterruptedException _) {
+            LOGGER.info("The consolidation was interrupted. The journal allows the next run to continue.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies the file to its part file, checks that the copy has the same bytes as the original, renames it to the
+     * target and deletes the original. If anything goes wrong the files this copy created are deleted and the
+     * original stays where it is. A part file or target which was there before is left alone.
+     */
+    static void copyVerifyDelete(final Move move) throws IOException {
+        final var source = move.source().toPath();
+        final var part = getPartFile(move.target()).toPath();
+        final var target = move.target().toPath();
+        Path created = null;
+        try {
+            Files.copy(source, part, StandardCopyOption.COPY_ATTRIBUTES);
+            created = part;
+            if (Files.mismatch(source, part) != -1) {
+                throw new IOException("The copy " + part + " differs from " + source);
+            }
+            Files.move(part, target);
+            created = target;
+            Files.delete(source);
+        } catch (final IOException ex) {
+            if (created != null) {
+                Files.deleteIfExists(created);
+            }
+            throw ex;
+        }
+    }
+
+    private static void moved(final Writer journal, final Move move, final Queue<Move> completed, final Consumer<Move> progress) {
+        writeJournal(journal, MOVED, move);
+        completed.add(move);
+        progress.accept(move);
+    }
+
+    private static void failed(final Writer journal, final Move move, final IOException ex, final Queue<File> failed, final Consumer<Move> progress) {
+        LOGGER.log(Level.SEVERE, "Failed to move file {0} to {1}.\nException: {2}", new Object[]{move.source(), move.target(), ex.getLocalizedMessage()});
+        writeJournal(journal, FAILED, move);
+        failed.add(move.source());
+        progress.accept(move);
+    }
+
+    /**
+     * Writes a line to the journal. A journal which can't be written only costs the ability to continue after an
+     * interruption, so the moves go on.
+     */
+    private static void writeJournal(final Writer journal, final String state, final Move move) {
+        synchronized (journal) {
+            try {
+                journal.write(state + SEPARATOR + move.source().getPath() + SEPARATOR + move.target().getPath() + "\n");
+                journal.flush();
+            } catch (final IOException ex) {
+                LOGGER.log(Level.WARNING, "Can''t write to the consolidation journal: {0}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The last state of a file in the journal
+     */
+    private record JournalEntry(File target, String state) {
+        private boolean isMoved() {
+            return MOVED.equals(state);
+        }
+    }
+
+    /**
+     * Reads the journal of an earlier run into the directory
+     *
+     * @return the last entry of each source file
+     */
+    private static Map<File, JournalEntry> readJournal(final File directory) {
+        final var journalFile = new File(directory, JOURNAL_FILENAME);
+        final var entries = new LinkedHashMap<File, JournalEntry>();
+        if (!journalFile.exists()) {
+            return entries;
+        }
+        try {
+            for (final var line : Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8)) {
+                final var fields = line.split(SEPARATOR);
+                if (fields.length != 3) {
+                    // the last line of an interrupted run may be incomplete
+                    continue;
+                }
+                entries.put(new File(fields[1]), new JournalEntry(new File(fields[2]), fields[0]));
+            }
+            LOGGER.log(Level.INFO, "Continuing from the consolidation journal {0} with {1} files", new Object[]{journalFile, entries.size()});
+        } catch (final IOException ex) {
+            LOGGER.log(Level.WARNING, "Can''t read the consolidation journal {0}: {1}", new Object[]{journalFile, ex.getMessage()});
+        }
+        return entries;
+    }
+
+    /**
+     * Points the pictures which use the moved file at the new file. The other pictures are found through the file
+     * index of the collection rather than by walking the tree.
+     */
+    private void correctReferences(final Move move) {
+        JpoCache.fileMoved(move.source(), move.target());
+        final var pictures = Collections.newSetFromMap(new IdentityHashMap<PictureInfo, Boolean>());
+        pictures.addAll(picturesBySource.getOrDefault(move.source(), List.of()));
+        if (pictureCollection != null) {
+            for (final var node : pictureCollection.findNodesByFile(move.source())) {
+                if (node.getUserObject() instanceof PictureInfo pictureInfo) {
+                    pictures.add(pictureInfo);
+                }
+            }
+        }
+        pictures.forEach(pictureInfo -> pictureInfo.setImageLocation(move.target()));
+        LOGGER.log(Level.FINE, "{0} pictures now point at {1}", new Object[]{pictures.size(), move.target()});
+    }
+}
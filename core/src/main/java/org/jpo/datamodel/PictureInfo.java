@@ -1,7 +1,7 @@
 package org.jpo.datamodel;
 
-import com.google.common.hash.Hashing;
-import com.google.common.io.Files;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -13,6 +13,9 @@ import java.io.Serializable;
 import java.net.URI;
 import java.nio.file.Path;
 import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -43,6 +46,12 @@ import java.util.logging.Logger;
  * <p>
  * This class must implement the Serializable interface or Drag and Drop will
  * not work.
+ * <p>
+ * A collection can hold hundreds of thousands of these objects so the fields
+ * are kept compact: the SHA-256 is held as four longs, the categories as a
+ * sorted int array, the position as two doubles and the listeners as a small
+ * array. Photographer, copyright holder and film reference repeat across many
+ * pictures and are deduplicated.
  *
  * @see GroupInfo
  */
@@ -58,10 +67,32 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * Defines a LOGGER for this class
      */
     private static final Logger LOGGER = Logger.getLogger(PictureInfo.class.getName());
+
+    /**
+     * The pictures share one copy of the strings that repeat across the collection. The interner holds the
+     * strings weakly so that it doesn't keep values alive which no picture uses anymore.
+     */
+    private static final Interner<String> SHARED_STRINGS = Interners.newWeakInterner();
+
+    private static final HexFormat SHA256_FORMAT = HexFormat.of().withUpperCase();
+
+    private static final int SHA256_LENGTH = 64;
+
+    private static final int[] NO_CATEGORIES = new int[0];
+
+    private static final PictureInfoChangeListener[] NO_LISTENERS = new PictureInfoChangeListener[0];
+
+    /**
+     * Guards the listener arrays of all PictureInfo objects. Adding and removing listeners is rare and quick so
+     * one lock is enough and it saves a lock object per picture.
+     */
+    private static final Object LISTENER_LOCK = new Object();
+
     /**
-     * The listeners to be notified about changes to this PictureInfo object.
+     * The listeners to be notified about changes to this PictureInfo object. The array is replaced on every
+     * change so that the senders can iterate over it without holding a lock. It is null after deserialisation.
      */
-    private final transient Set<PictureInfoChangeListener> pictureInfoListeners = Collections.synchronizedSet(new HashSet<>());
+    private transient volatile PictureInfoChangeListener[] pictureInfoListeners = NO_LISTENERS;
     /**
      * The description of the image.
      */
@@ -69,8 +100,15 @@ public class PictureInfo implements Serializable, GroupOrPicture {
     private File imageFile;
     /**
      * the hash code of the contents of the file. We use SHA-256 here in 2020.
+     * An upper case hex SHA-256 is held in the four sha256Bits fields and this
+     * field is null. Anything else, including the empty String for unknown, is
+     * held here as it was supplied.
      */
     private String sha256 = "";
+    private long sha256Bits0;
+    private long sha256Bits1;
+    private long sha256Bits2;
+    private long sha256Bits3;
 
     /**
      * The film reference of the image.
@@ -81,6 +119,32 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * shutter snapped closed and not the time of scanning etc.
      */
     private String creationTime = "";
+
+    /**
+     * The value of {@link #getCreationTimeMillis} for a creation time that can't be parsed
+     */
+    public static final long NO_CREATION_TIME = Long.MIN_VALUE;
+
+    /**
+     * Marks {@link #creationTimeMillis} as not yet parsed
+     */
+    private static final long CREATION_TIME_NOT_PARSED = Long.MAX_VALUE;
+
+    /**
+     * The {@link #creationTime} parsed to milliseconds since the epoch. It is parsed
+     * on the first request and forgotten when the creation time changes.
+     */
+    private long creationTimeMillis = CREATION_TIME_NOT_PARSED;
+
+    /**
+     * Marks {@link #fileSize} as not yet known
+     */
+    private static final long FILE_SIZE_UNKNOWN = -1;
+
+    /**
+     * The length of the image file in bytes for the statistics
+     */
+    private long fileSize = FILE_SIZE_UNKNOWN;
     /**
      * The time the image was created. This should be the original time when the
      * shutter snapped closed and not the time of scanning etc.
@@ -100,13 +164,20 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     private double rotation;  // default is 0
     /**
-     * The copyright holder of the image.
+     * The latitude of the image.
      */
-    private Point2D.Double latLng;
+    private double latitude;  // default is 0
     /**
-     * The category assignments are held in the categoryAssignments HashSet.
+     * The longitude of the image.
      */
-    private final Set<Integer> categoryAssignments = new HashSet<>();
+    private double longitude;  // default is 0
+    /**
+     * The category assignments in ascending order. The array is replaced on
+     * every change so that {@link #getCategoryAssignments} can hand out a view
+     * of it. It is volatile so that the collection can read it without the lock.
+     */
+    private volatile int[] categoryAssignments = NO_CATEGORIES;
+
     /**
      * Temporary variable to allow appending of characters as the XML file is
      * being read.
@@ -128,10 +199,19 @@ public class PictureInfo implements Serializable, GroupOrPicture {
     public PictureInfo(final File imageFile, final String description) {
         setImageLocation(imageFile);
         this.description = description;
-        this.latLng = new Point2D.Double(0, 0);
         filmReference = "";
     }
 
+    /**
+     * Returns the shared copy of a String which repeats across many pictures
+     *
+     * @param string the string
+     * @return the shared copy or null if the string was null
+     */
+    private static String share(final String string) {
+        return string == null ? null : SHARED_STRINGS.intern(string);
+    }
+
     /**
      * Returns the creationTime as a formatted String. If the dateTime is null a
      * polite "Failed to Parse" string is returned
@@ -227,6 +307,11 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        // the text index must follow even while the notifications are turned off
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -260,9 +345,40 @@ public class PictureInfo implements Serializable, GroupOrPicture {
     public synchronized void setImageLocation(@NotNull final File file) {
         Objects.requireNonNull(file);
         imageFile = file;
+        fileSize = FILE_SIZE_UNKNOWN;
         sendImageLocationChangedEvent();
     }
 
+    /**
+     * Returns the length of the image file. The length is captured when the
+     * SHA-256 is calculated; otherwise the file is asked the first time.
+     *
+     * @return the number of bytes of the image file or 0 if there is no file
+     */
+    public synchronized long getFileSize() {
+        if (fileSize == FILE_SIZE_UNKNOWN) {
+            fileSize = imageFile == null ? 0 : imageFile.length();
+        }
+        return fileSize;
+    }
+
+    /**
+     * Remembers the length of the image file and tells the owning node if it changed
+     *
+     * @param newFileSize the number of bytes of the image file
+     */
+    void setFileSize(final long newFileSize) {
+        final boolean changed;
+        synchronized (this) {
+            changed = fileSize != newFileSize;
+            fileSize = newFileSize;
+        }
+        final var owningNode = getOwningNode();
+        if (changed && owningNode != null) {
+            owningNode.pictureBytesChanged();
+        }
+    }
+
     /**
      * returns the file handle to the highres picture.
      *
@@ -295,7 +411,12 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             // no owning node, no change notification
             return;
         }
+        owningNode.pictureBytesChanged();
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection != null) {
+            // the indexes must follow even while a load or an import has turned off the notifications
+            pictureCollection.updateIndexes(owningNode);
+        }
         if (pictureCollection != null && pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
             pictureInfoChangeEvent.setHighresLocationChanged();
@@ -309,32 +430,71 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @return the SHA-256 of the image file or null if not calculated
      */
     public synchronized String getSha256() {
-        return sha256;
+        if (sha256 != null) {
+            return sha256;
+        }
+        return SHA256_FORMAT.toHexDigits(sha256Bits0)
+                + SHA256_FORMAT.toHexDigits(sha256Bits1)
+                + SHA256_FORMAT.toHexDigits(sha256Bits2)
+                + SHA256_FORMAT.toHexDigits(sha256Bits3);
+    }
+
+    /**
+     * Stores the SHA-256 in the four longs if it is upper case hex or else as a String.
+     *
+     * @param newSha256 the new value
+     */
+    private void storeSha256(final String newSha256) {
+        if (isUpperCaseSha256(newSha256)) {
+            sha256Bits0 = HexFormat.fromHexDigitsToLong(newSha256, 0, 16);
+            sha256Bits1 = HexFormat.fromHexDigitsToLong(newSha256, 16, 32);
+            sha256Bits2 = HexFormat.fromHexDigitsToLong(newSha256, 32, 48);
+            sha256Bits3 = HexFormat.fromHexDigitsToLong(newSha256, 48, SHA256_LENGTH);
+            sha256 = null;
+        } else {
+            sha256 = newSha256;
+        }
+    }
+
+    private static boolean isUpperCaseSha256(final String s) {
+        if (s == null || s.length() != SHA256_LENGTH) {
+            return false;
+        }
+        for (var i = 0; i < SHA256_LENGTH; i++) {
+            final var c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'A' || c > 'F')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * calculates the SHA-256 hash of the picture.
      *
-     * @return returns a HashCode object containing the SHA256 of the Image File
-     * @throws IOException if the underlying library encounters and {@link IOException}
+     * @return returns the SHA-256 of the Image File as upper case hex
+     * @throws IOException if the file can't be read
      */
     public static String calculateSha256(final File file) throws IOException {
         Objects.requireNonNull(file, "Cannot calculate SHA256 for a null file input in PictureInfo.calculateSha256");
-        final var hash = Files.asByteSource(file).hash(Hashing.sha256());
-        LOGGER.log(Level.FINE, "SHA-256 of file {0} is {1}", new Object[]{file, hash.toString().toUpperCase()});
-        return hash.toString().toUpperCase();
+        final var hash = HashingService.calculateSha256(file);
+        LOGGER.log(Level.FINE, "SHA-256 of file {0} is {1}", new Object[]{file, hash});
+        return hash;
     }
 
     /**
      * calculates the SHA-256 hash of the picture and saves it to the sha256 member
-     * variable. If the value changes it sends a PictureInfoChangedEvent
+     * variable. If the value changes it sends a PictureInfoChangedEvent. A file which
+     * the {@link HashingService} has already seen unchanged isn't read again.
      */
     public void setSha256() {
         try {
-            setSha256(calculateSha256(getImageFile()));
+            final var file = Objects.requireNonNull(getImageFile());
+            setSha256(HashingService.getSha256(file));
+            setFileSize(file.length());
         } catch (final IOException e) {
             LOGGER.severe("Could not create SHA-256 code: " + e.getMessage());
-            sha256 = "";
+            storeSha256("");
             sendSha256ChangedEvent();
         }
     }
@@ -344,8 +504,8 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * variable. If the value changes it sends a PictureInfoChangedEvent
      */
     public synchronized void setSha256(final String newSha256) {
-        if ((sha256 == null) || (!sha256.equals(newSha256))) {
-            sha256 = newSha256;
+        if (!Objects.equals(getSha256(), newSha256)) {
+            storeSha256(newSha256);
             sendSha256ChangedEvent();
         }
     }
@@ -361,6 +521,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -377,7 +541,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     public synchronized void appendToSha256(final String s) {
         if (!s.isEmpty()) {
-            sha256 = sha256.concat(s);
+            storeSha256(getSha256().concat(s));
             sendSha256ChangedEvent();
         }
     }
@@ -399,7 +563,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     public synchronized void setFilmReference(final String newFilmReference) {
         if (!filmReference.equals(newFilmReference)) {
-            filmReference = newFilmReference;
+            filmReference = share(newFilmReference);
             sendFilmReferenceChangedEvent();
         }
     }
@@ -415,6 +579,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -442,6 +610,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
     public synchronized void setCreationTime(final String newCreationTime) {
         if ((newCreationTime != null) && (!creationTime.equals(newCreationTime))) {
             creationTime = newCreationTime;
+            creationTimeMillis = CREATION_TIME_NOT_PARSED;
             sendCreationTimeChangedEvent();
         }
     }
@@ -452,7 +621,25 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @return the creation time
      */
     public synchronized Calendar getCreationTimeAsDate() {
-        return Tools.parseDate(creationTime);
+        final var millis = getCreationTimeMillis();
+        if (millis == NO_CREATION_TIME) {
+            return null;
+        }
+        return GregorianCalendar.from(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Returns the creationTime in milliseconds since the epoch. The creation time
+     * is only parsed the first time this is called after it was set.
+     *
+     * @return the creation time or {@link #NO_CREATION_TIME} if the parsing failed
+     */
+    public synchronized long getCreationTimeMillis() {
+        if (creationTimeMillis == CREATION_TIME_NOT_PARSED) {
+            final var calendar = Tools.parseDate(creationTime);
+            creationTimeMillis = calendar == null ? NO_CREATION_TIME : calendar.getTimeInMillis();
+        }
+        return creationTimeMillis;
     }
 
     /**
@@ -478,6 +665,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -519,6 +710,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -544,7 +739,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     public synchronized void setPhotographer(final String newPhotographer) {
         if (!photographer.equals(newPhotographer)) {
-            photographer = newPhotographer;
+            photographer = share(newPhotographer);
             sendPhotographerChangedEvent();
         }
     }
@@ -560,6 +755,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -585,7 +784,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     public synchronized void setCopyrightHolder(final String newCopyrightHolder) {
         if (!this.copyrightHolder.equals(newCopyrightHolder)) {
-            this.copyrightHolder = newCopyrightHolder;
+            this.copyrightHolder = share(newCopyrightHolder);
             sendCopyrightHolderChangedEvent();
         }
     }
@@ -601,6 +800,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateIndexes(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final var pictureInfoChangeEvent = new PictureInfoChangeEvent(this);
@@ -676,10 +879,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @return The Latitude and Longitude
      */
     public synchronized Point2D.Double getLatLng() {
-        if (latLng == null) {
-            setLatLng(new Point2D.Double(0, 0));
-        }
-        return latLng;
+        return new Point2D.Double(latitude, longitude);
     }
 
     /**
@@ -688,8 +888,9 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @param newLatLng The latitude and longitude holder
      */
     public synchronized void setLatLng(final Point2D.Double newLatLng) {
-        if ((latLng == null) || (latLng.x != newLatLng.x) || (latLng.y != newLatLng.y)) {
-            latLng = newLatLng;
+        if ((latitude != newLatLng.x) || (longitude != newLatLng.y)) {
+            latitude = newLatLng.x;
+            longitude = newLatLng.y;
             sendLatLngChangedEvent();
         }
     }
@@ -700,9 +901,8 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @return The latitude and longitude in the format of 2 doubles with an x
      */
     public synchronized String getLatLngString() {
-        final var latLang = getLatLng();
         NumberFormat numberFormatter = NumberFormat.getNumberInstance();
-        return numberFormatter.format(latLang.x) + "x" + numberFormatter.format(latLang.y);
+        return numberFormatter.format(latitude) + "x" + numberFormatter.format(longitude);
 
     }
 
@@ -727,11 +927,22 @@ public class PictureInfo implements Serializable, GroupOrPicture {
     }
 
     /**
-     * Returns a Set of categories that have been applied to this picture
+     * Returns a Set of categories that have been applied to this picture. The
+     * Set can't be modified and doesn't follow later changes to the picture.
      *
      * @return the Set of categories
      */
-    public Set<Integer> getCategoryAssignments() {
+    public synchronized Set<Integer> getCategoryAssignments() {
+        return new CategorySet(categoryAssignments);
+    }
+
+    /**
+     * Returns the categories of the picture in ascending order. The array must
+     * not be modified; it is replaced when the categories change.
+     *
+     * @return the category keys
+     */
+    int[] getCategoryArray() {
         return categoryAssignments;
     }
 
@@ -739,8 +950,8 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * removes all category Assignments
      */
     public synchronized void clearCategoryAssignments() {
+        categoryAssignments = NO_CATEGORIES;
         sendCategoryAssignmentsChangedEvent();
-        categoryAssignments.clear();
     }
 
     /**
@@ -763,7 +974,17 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     public synchronized void addCategoryAssignment(final Integer key) {
         LOGGER.log(Level.FINE, "Adding category key: {0}, to PictureInfo {1}", new Object[]{key, description});
-        if (categoryAssignments.add(key)) {
+        if (key == null) {
+            return;
+        }
+        final var position = Arrays.binarySearch(categoryAssignments, key);
+        if (position < 0) {
+            final var insertionPoint = -position - 1;
+            final var newCategoryAssignments = new int[categoryAssignments.length + 1];
+            System.arraycopy(categoryAssignments, 0, newCategoryAssignments, 0, insertionPoint);
+            newCategoryAssignments[insertionPoint] = key;
+            System.arraycopy(categoryAssignments, insertionPoint, newCategoryAssignments, insertionPoint + 1, categoryAssignments.length - insertionPoint);
+            categoryAssignments = newCategoryAssignments;
             sendCategoryAssignmentsChangedEvent();
         }
     }
@@ -800,7 +1021,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @return true if the key was in the categories
      */
     public synchronized boolean containsCategory(final Integer key) {
-        return categoryAssignments.contains(key);
+        return key != null && Arrays.binarySearch(categoryAssignments, key) >= 0;
     }
 
     /**
@@ -809,11 +1030,45 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      * @param key the key to search for
      */
     public synchronized void removeCategory(final Object key) {
-        if (categoryAssignments.remove(key)) {
+        if (!(key instanceof Integer category)) {
+            return;
+        }
+        final var position = Arrays.binarySearch(categoryAssignments, category);
+        if (position >= 0) {
+            final var newCategoryAssignments = new int[categoryAssignments.length - 1];
+            System.arraycopy(categoryAssignments, 0, newCategoryAssignments, 0, position);
+            System.arraycopy(categoryAssignments, position + 1, newCategoryAssignments, position, newCategoryAssignments.length - position);
+            categoryAssignments = newCategoryAssignments.length == 0 ? NO_CATEGORIES : newCategoryAssignments;
             sendCategoryAssignmentsChangedEvent();
         }
     }
 
+    /**
+     * A read only Set over a sorted array of category keys
+     */
+    private static final class CategorySet extends AbstractSet<Integer> {
+        private final int[] categories;
+
+        private CategorySet(final int[] categories) {
+            this.categories = categories;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof Integer category && Arrays.binarySearch(categories, category) >= 0;
+        }
+
+        @Override
+        public @NotNull Iterator<Integer> iterator() {
+            return Arrays.stream(categories).iterator();
+        }
+
+        @Override
+        public int size() {
+            return categories.length;
+        }
+    }
+
     //-------------------------------------------
 
     /**
@@ -827,6 +1082,10 @@ public class PictureInfo implements Serializable, GroupOrPicture {
             return;
         }
         final var pictureCollection = owningNode.getPictureCollection();
+        if (pictureCollection == null) {
+            return;
+        }
+        pictureCollection.updateCategoryIndex(owningNode);
 
         if (pictureCollection.getSendModelUpdates()) {
             final PictureInfoChangeEvent pce = new PictureInfoChangeEvent(this);
@@ -921,7 +1180,17 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      *                                  notifications.
      */
     public void addPictureInfoChangeListener(final PictureInfoChangeListener pictureInfoChangeListener) {
-        pictureInfoListeners.add(pictureInfoChangeListener);
+        synchronized (LISTENER_LOCK) {
+            final var listeners = getPictureInfoListeners();
+            for (final var listener : listeners) {
+                if (listener.equals(pictureInfoChangeListener)) {
+                    return;
+                }
+            }
+            final var newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+            newListeners[listeners.length] = pictureInfoChangeListener;
+            pictureInfoListeners = newListeners;
+        }
     }
 
     /**
@@ -932,7 +1201,23 @@ public class PictureInfo implements Serializable, GroupOrPicture {
      */
     public void removePictureInfoChangeListener(
             final PictureInfoChangeListener pictureInfoChangeListener) {
-        pictureInfoListeners.remove(pictureInfoChangeListener);
+        synchronized (LISTENER_LOCK) {
+            final var listeners = getPictureInfoListeners();
+            for (var i = 0; i < listeners.length; i++) {
+                if (listeners[i].equals(pictureInfoChangeListener)) {
+                    final var newListeners = new PictureInfoChangeListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, newListeners, 0, i);
+                    System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+                    pictureInfoListeners = newListeners.length == 0 ? NO_LISTENERS : newListeners;
+                    return;
+                }
+            }
+        }
+    }
+
+    private PictureInfoChangeListener[] getPictureInfoListeners() {
+        final var listeners = pictureInfoListeners;
+        return listeners == null ? NO_LISTENERS : listeners;
     }
 
     /**
@@ -949,10 +1234,9 @@ public class PictureInfo implements Serializable, GroupOrPicture {
         final var pictureCollection = owningNode.getPictureCollection();
 
         if (pictureCollection != null && pictureCollection.getSendModelUpdates()) {
-            synchronized (pictureInfoListeners) {
-                pictureInfoListeners.forEach(pictureInfoChangeListener
-                        -> pictureInfoChangeListener.pictureInfoChangeEvent(pictureInfoChangeEvent)
-                );
+            pictureCollection.getChangeJournal().pictureChanged(owningNode, pictureInfoChangeEvent);
+            for (final var pictureInfoChangeListener : getPictureInfoListeners()) {
+                pictureInfoChangeListener.pictureInfoChangeEvent(pictureInfoChangeEvent);
             }
         }
     }
@@ -990,7 +1274,7 @@ public class PictureInfo implements Serializable, GroupOrPicture {
     public int compareTo(final @NotNull PictureInfo otherPictureInfo, final FieldCodes sortField) {
         return switch (sortField) {
             case FILM_REFERENCE -> this.getFilmReference().compareTo(otherPictureInfo.getFilmReference());
-            case CREATION_TIME -> compareDates(this.getCreationTimeAsDate(), otherPictureInfo.getCreationTimeAsDate());
+            case CREATION_TIME -> Long.compare(this.getCreationTimeMillis(), otherPictureInfo.getCreationTimeMillis());
             case COMMENT -> this.getComment().compareTo(otherPictureInfo.getComment());
             case PHOTOGRAPHER -> this.getPhotographer().compareTo(otherPictureInfo.getPhotographer());
             case COPYRIGHT_HOLDER -> this.getCopyrightHolder().compareTo(otherPictureInfo.getCopyrightHolder());
@@ -998,15 +1282,6 @@ public class PictureInfo implements Serializable, GroupOrPicture {
         };
     }
 
-    /**
-     * Becomes 0001-01-01 00:00:00
-     */
-    private int compareDates(final Calendar myCalendar, final Calendar otherCalendar){
-        var myCorrectedCalendar = myCalendar != null ? myCalendar : MinimumCalendar.getInstance().getMinimumCalendar();
-        var otherCorrectedCalendar = otherCalendar != null ? otherCalendar : MinimumCalendar.getInstance().getMinimumCalendar();
-        return myCorrectedCalendar.compareTo(otherCorrectedCalendar);
-    }
-
     private SortableDefaultMutableTreeNode myOwningNode = null;
     @Override
     public void setOwningNode(SortableDefaultMutableTreeNode sortableDefaultMutableTreeNode) {
@@ -0,0 +1,153 @@
+package org.jpo.datamodel;
+
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Receives the completed top level groups and pictures of a collection which is being parsed on a background
+ * thread and attaches them to the start node on the EDT in batches. The user can browse the groups which have
+ * arrived while the rest of the file is still being read. Each batch sends a single nodesWereInserted event
+ * instead of one per node.
+ * <p>
+ * The first node is published straight away so that something shows up quickly. After that a batch goes out when
+ * it has {@link #BATCH_SIZE} nodes or when {@link #BATCH_MILLIS} have passed since the last one.
+ */
+final class ProgressiveLoadPublisher implements Consumer<SortableDefaultMutableTreeNode> {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProgressiveLoadPublisher.class.getName());
+
+    /**
+     * The number of nodes after which a batch is published
+     */
+    static final int BATCH_SIZE = 64;
+
+    /**
+     * The time after which a batch is published even if it isn't full
+     */
+    static final long BATCH_MILLIS = 250;
+
+    private final SortableDefaultMutableTreeNode startNode;
+
+    private final List<SortableDefaultMutableTreeNode> pending = new ArrayList<>();
+
+    private long lastPublished = System.nanoTime();
+
+    private int published; // default is 0
+
+    /**
+     * Creates a publisher which attaches the nodes to the supplied node
+     *
+     * @param startNode the node into which the collection is loaded
+     */
+    ProgressiveLoadPublisher(final SortableDefaultMutableTreeNode startNode) {
+        this.startNode = startNode;
+    }
+
+    /**
+     * Queues a completed top level node. This is called on the parsing thread.
+     *
+     * @param node the group or picture node with its whole subtree
+     */
+    @Override
+    public void accept(final SortableDefaultMutableTreeNode node) {
+        pending.add(node);
+        if (published == 0
+                || pending.size() >= BATCH_SIZE
+                || TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastPublished) >= BATCH_MILLIS) {
+            publish(false);
+        }
+    }
+
+    /**
+     * Publishes the remaining nodes and waits until they are attached so that the whole collection is in the tree
+     * when this method returns.
+     */
+    void finish() {
+        publish(true);
+    }
+
+    /**
+     * Returns the number of nodes which were handed to the EDT
+     *
+     * @return the number of published nodes
+     */
+    int getPublished() {
+        return published;
+    }
+
+    private void publish(final boolean wait) {
+        final var batch = List.copyOf(pending);
+        pending.clear();
+        lastPublished = System.nanoTime();
+        published += batch.size();
+        final Runnable runnable = () -> attach(batch, wait);
+        if (SwingUtilities.isEventDispatchThread()) {
+            runnable.run();
+        } else if (wait) {
+            try {
+                SwingUtilities.invokeAndWait(runnable);
+            } catch (final InterruptedException _) {
+                Thread.currentThread().interrupt();
+            } catch (final InvocationTargetException e) {
+                LOGGER.log(Level.SEVERE, "Could not attach the loaded nodes: {0}", e.getCause().getMessage());
+            }
+        } else {
+            SwingUtilities.invokeLater(runnable);
+        }
+    }
+
+    /**
+     * Adds the nodes to the start node and tells the tree model about them. This runs on the EDT.
+     *
+     * @param batch the nodes to add
+     * @param last  true if this is the last batch
+     */
+    private void attach(final List<SortableDefaultMutableTreeNode> batch, final boolean last) {
+        final var pictureCollection = startNode.getPictureCollection();
+        if (pictureCollection == null) {
+            batch.forEach(startNode::add);
+            return;
+        }
+        final var firstIndex = startNode.getChildCount();
+        final var sendModelUpdates = pictureCollection.getSendModelUpdates();
+        pictureCollection.setSendModelUpdates(false); // one event for the batch instead of one per node
+        try {
+            batch.forEach(startNode::add);
+        } finally {
+            pictureCollection.setSendModelUpdates(sendModelUpdates);
+        }
+        if (!batch.isEmpty()) {
+            pictureCollection.getTreeModel().nodesWereInserted(startNode, IntStream.range(firstIndex, firstIndex + batch.size()).toArray());
+        }
+        if (last) {
+            // the collection element may have renamed the start node
+            pictureCollection.getTreeModel().nodeChanged(startNode);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package org.jpo.datamodel;
 
 /*
-Copyright (C) 2006-2025 Richard Eigenmann.
+Copyright (C) 2006-2026 Richard Eigenmann.
 This program is free software; you can redistribute it and/or
 modify it under the terms of the GNU General Public License
 as published by the Free Software Foundation; either version 2
@@ -62,6 +62,25 @@ public interface Query {
      */
     void refresh();
 
+    /**
+     * Registers a listener which is run when the query has found more results. Queries which deliver all their
+     * results at once don't need to implement this. The listener may be run on any thread.
+     *
+     * @param resultsListener the listener
+     */
+    default void addResultsListener(final Runnable resultsListener) {
+        // the results are complete when refresh returns
+    }
+
+    /**
+     * Removes a listener registered with {@link #addResultsListener(Runnable)}
+     *
+     * @param resultsListener the listener
+     */
+    default void removeResultsListener(final Runnable resultsListener) {
+        // the results are complete when refresh returns
+    }
+
     /**
      * A Query must be able to tell which pictureCollection is belongs to.
      * @return The Pictgure Collection on which the query should work
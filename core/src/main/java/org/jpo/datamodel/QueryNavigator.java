@@ -1,7 +1,9 @@
 package org.jpo.datamodel;
 
+import javax.swing.*;
+
 /*
-Copyright (C) 2006-2025  Richard Eigenmann, Zürich Switzerland
+Copyright (C) 2006-2026  Richard Eigenmann, Zürich Switzerland
 This program is free software; you can redistribute it and/or
 modify it under the terms of the GNU General Public License
 as published by the Free Software Foundation; either version 2
@@ -29,6 +31,11 @@ public class QueryNavigator
     @SuppressWarnings("WeakerAccess")
     protected Query myQuery;
 
+    /**
+     * Tells the listeners of the navigator on the EDT that the query has found more results
+     */
+    private final Runnable resultsListener = () -> SwingUtilities.invokeLater(this::notifyNodeNavigatorListeners);
+
 
     /**
      * Constructs a new Group Browser object
@@ -46,7 +53,11 @@ public class QueryNavigator
      * @param queryToBrowse The {@link Query} which should be browsed.
      */
     public void setQuery(Query queryToBrowse) {
+        if (myQuery != null) {
+            myQuery.removeResultsListener(resultsListener);
+        }
         myQuery = queryToBrowse;
+        myQuery.addResultsListener(resultsListener);
         myQuery.refresh();
     }
 
@@ -1,5 +1,6 @@
 package org.jpo.datamodel;
 
+import org.apache.commons.io.FileUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.helpers.DefaultHandler;
@@ -9,6 +10,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,7 +34,9 @@ import static org.jpo.datamodel.FieldCodes.*;
  */
 
 /**
- * A xml parser to load the collections.
+ * A xml parser to load the collections. The top level groups and pictures are built up without being attached to
+ * the start node and are handed to a consumer once they are complete. This allows the consumer to publish them to
+ * the tree model while the rest of the file is still being parsed.
  */
 public class SaxEventHandler extends DefaultHandler {
 
@@ -60,6 +65,26 @@ public class SaxEventHandler extends DefaultHandler {
 
     private StringBuilder currentString;
 
+    /**
+     * The node that becomes the root node for the nodes being read
+     */
+    private final SortableDefaultMutableTreeNode startNode;
+
+    /**
+     * Receives the completed top level nodes
+     */
+    private final Consumer<SortableDefaultMutableTreeNode> topLevelNodeConsumer;
+
+    /**
+     * Returns how many bytes of the file have been read
+     */
+    private final LongSupplier bytesRead;
+
+    /**
+     * The size of the file or -1 if it is not known
+     */
+    private final long totalBytes;
+
     /**
      * Constructs the Sax XML parser
      *
@@ -67,14 +92,35 @@ public class SaxEventHandler extends DefaultHandler {
      * @param progressTracker the progress GUI to update
      */
     public SaxEventHandler(final SortableDefaultMutableTreeNode startNode, final ProgressTracker progressTracker) {
+        this(startNode, startNode::add, progressTracker, () -> -1, -1);
+    }
+
+    /**
+     * Constructs the Sax XML parser
+     *
+     * @param startNode            The starting node
+     * @param topLevelNodeConsumer receives each top level group or picture once it has been read completely
+     * @param progressTracker      the progress GUI to update
+     * @param bytesRead            returns how many bytes of the file have been read
+     * @param totalBytes           the size of the file or -1 if it is not known
+     */
+    public SaxEventHandler(final SortableDefaultMutableTreeNode startNode,
+                           final Consumer<SortableDefaultMutableTreeNode> topLevelNodeConsumer,
+                           final ProgressTracker progressTracker,
+                           final LongSupplier bytesRead,
+                           final long totalBytes) {
+        this.startNode = startNode;
         currentGroup = startNode;
+        this.topLevelNodeConsumer = topLevelNodeConsumer;
         this.progressTracker = progressTracker;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
     }
 
     /**
-     * temporary reference to the picture node being read
+     * temporary reference to the picture being read. It gets a node when its element ends.
      */
-    private SortableDefaultMutableTreeNode currentPicture;
+    private PictureInfo currentPicture;
 
     private Path baseDir = null;
 
@@ -101,19 +147,19 @@ public class SaxEventHandler extends DefaultHandler {
                 LOGGER.log(Level.INFO, "Collection Base Directory is: {0}", basDirName);
             }
 
-            currentGroup.setUserObject(groupInfo);
-            currentGroup.getPictureCollection().setAllowEdits(attrs.getValue( "collection_protected" ).equals( "No" ));
+            startNode.setUserObject(groupInfo);
+            startNode.getPictureCollection().setAllowEdits(attrs.getValue( "collection_protected" ).equals( "No" ));
         } else if ( "group".equalsIgnoreCase( qName ) && attrs != null ) {
             incrementGroupCount();
             groupInfo = new GroupInfo( attrs.getValue( "group_name" ) != null ? attrs.getValue( "group_name" ) : "" );
-            SortableDefaultMutableTreeNode nextCurrentGroup
-                    = new SortableDefaultMutableTreeNode(groupInfo);
-            currentGroup.add( nextCurrentGroup );
+            final var nextCurrentGroup = new SortableDefaultMutableTreeNode(groupInfo);
+            if (currentGroup != startNode) {
+                currentGroup.add(nextCurrentGroup);
+            }
             currentGroup = nextCurrentGroup;
         } else if ( "picture".equalsIgnoreCase( qName) ) {
             incrementPictureCount();
-            currentPicture = new SortableDefaultMutableTreeNode( new PictureInfo() );
-            currentGroup.add( currentPicture );
+            currentPicture = new PictureInfo();
         } else if ( "description".equalsIgnoreCase( qName ) ) {
             currentField = DESCRIPTION;
         } else if ( "file".equalsIgnoreCase( qName ) ) {
@@ -135,7 +181,7 @@ public class SaxEventHandler extends DefaultHandler {
         } else if ("sha256".equalsIgnoreCase(qName)) {
             currentField = SHA256;
         } else if ("categoryassignment".equalsIgnoreCase(qName) && attrs != null && attrs.getValue(INDEX) != null) {
-            ((PictureInfo) currentPicture.getUserObject()).addCategoryAssignment(attrs.getValue(INDEX));
+            currentPicture.addCategoryAssignment(attrs.getValue(INDEX));
         } else if ("categories".equalsIgnoreCase(qName)) {
             currentField = CATEGORIES;
         } else if ("category".equalsIgnoreCase(qName) && attrs != null && attrs.getValue(INDEX) != null) {
@@ -173,19 +219,20 @@ public class SaxEventHandler extends DefaultHandler {
     ) {
         if ( null != qName ) {
             switch (qName.toLowerCase()) {
-                case "group" -> currentGroup = currentGroup.getParent();
-                case "description" -> ((PictureInfo) currentPicture.getUserObject()).setDescription(currentString.toString());
-                case "file" -> ((PictureInfo) currentPicture.getUserObject()).setImageLocation(new File(baseDir.toFile(), currentString.toString()));
-                case "film_reference" -> ((PictureInfo) currentPicture.getUserObject()).setFilmReference(currentString.toString());
-                case "creation_time" -> ((PictureInfo) currentPicture.getUserObject()).setCreationTime(currentString.toString());
-                case "comment" -> ((PictureInfo) currentPicture.getUserObject()).setComment(currentString.toString());
-                case "photographer" -> ((PictureInfo) currentPicture.getUserObject()).setPhotographer(currentString.toString());
-                case "copyright_holder" -> ((PictureInfo) currentPicture.getUserObject()).setCopyrightHolder(currentString.toString());
-                case "rotation" -> ((PictureInfo) currentPicture.getUserObject()).setRotation(Double.parseDouble(currentString.toString()));
-                case "latlng" -> ((PictureInfo) currentPicture.getUserObject()).setLatLng(parseLatLng(currentString.toString()));
-                case "sha256" -> ((PictureInfo) currentPicture.getUserObject()).setSha256(currentString.toString());
+                case "group" -> endGroup();
+                case "picture" -> endPicture();
+                case "description" -> currentPicture.setDescription(currentString.toString());
+                case "file" -> currentPicture.setImageLocation(new File(baseDir.toFile(), currentString.toString()));
+                case "film_reference" -> currentPicture.setFilmReference(currentString.toString());
+                case "creation_time" -> currentPicture.setCreationTime(currentString.toString());
+                case "comment" -> currentPicture.setComment(currentString.toString());
+                case "photographer" -> currentPicture.setPhotographer(currentString.toString());
+                case "copyright_holder" -> currentPicture.setCopyrightHolder(currentString.toString());
+                case "rotation" -> currentPicture.setRotation(Double.parseDouble(currentString.toString()));
+                case "latlng" -> currentPicture.setLatLng(parseLatLng(currentString.toString()));
+                case "sha256" -> currentPicture.setSha256(currentString.toString());
                 case "categorydescription" -> {
-                    currentGroup.getPictureCollection().addCategory(Integer.parseInt(temporaryCategoryIndex), temporaryCategory);
+                    startNode.getPictureCollection().addCategory(Integer.parseInt(temporaryCategoryIndex), temporaryCategory);
                     temporaryCategory = "";
                 }
                 default -> {
@@ -195,6 +242,31 @@ public class SaxEventHandler extends DefaultHandler {
         }
     }
 
+    /**
+     * Goes back to the parent group. A top level group is handed to the consumer.
+     */
+    private void endGroup() {
+        final var parent = currentGroup.getParent();
+        if (parent == null) {
+            topLevelNodeConsumer.accept(currentGroup);
+            currentGroup = startNode;
+        } else {
+            currentGroup = parent;
+        }
+    }
+
+    /**
+     * Adds the picture which was read to the current group. A top level picture is handed to the consumer.
+     */
+    private void endPicture() {
+        final var pictureNode = new SortableDefaultMutableTreeNode(currentPicture);
+        if (currentGroup == startNode) {
+            topLevelNodeConsumer.accept(pictureNode);
+        } else {
+            currentGroup.add(pictureNode);
+        }
+    }
+
     public static Point2D.Double parseLatLng(String s) {
         try {
             final var latLngArray = s.split("x");
@@ -300,6 +372,14 @@ public class SaxEventHandler extends DefaultHandler {
      * called every hundred pictures or so.
      */
     private void informProgressGui() {
-        progressTracker.update(String.format(JpoCoreResources.getResource("org.jpo.dataModel.XmlReader.progressUpdate"), groupCount, pictureCount));
+        if (totalBytes > 0) {
+            final var read = Math.min(bytesRead.getAsLong(), totalBytes);
+            progressTracker.update(String.format(JpoCoreResources.getResource("org.jpo.dataModel.XmlReader.progressPercent"),
+                    groupCount, pictureCount,
+                    FileUtils.byteCountToDisplaySize(read), FileUtils.byteCountToDisplaySize(totalBytes),
+                    read * 100 / totalBytes));
+        } else {
+            progressTracker.update(String.format(JpoCoreResources.getResource("org.jpo.dataModel.XmlReader.progressUpdate"), groupCount, pictureCount));
+        }
     }
 }
@@ -189,6 +189,28 @@ public class ScalablePicture
         LOGGER.log(Level.FINE, "Finished loading image: {0}", imageFile);
     }
 
+    /**
+     * Loads a reduced version of the image on the current thread which is just large enough for the scale size.
+     * Make sure you invoked setScaleSize before invoking this method. When scaling for quality the image is read
+     * at twice the scale size so that the bicubic scaling has pixels to work with.
+     *
+     * @param sha256    The SHA-256 of the image
+     * @param imageFile The image File to be loaded
+     * @param rotation  The angle by which it is to be rotated upon loading.
+     */
+    public void loadReducedPictureImd(final String sha256, final File imageFile, final double rotation) {
+        if (!scaleToSize) {
+            loadPictureImd(sha256, imageFile, rotation);
+            return;
+        }
+        LOGGER.log(Level.FINE, "About to load a reduced image: {0}", imageFile);
+        scaleAfterLoad = false;
+        final var headroom = fastScale ? 1 : 2;
+        sourcePicture.loadReducedPicture(sha256, imageFile, rotation,
+                new Dimension(targetSize.width * headroom, targetSize.height * headroom));
+        LOGGER.log(Level.FINE, "Finished loading reduced image: {0}", imageFile);
+    }
+
     /**
      * stops all picture loading except if the Url we desire is being loaded
      *
@@ -271,6 +293,23 @@ public class ScalablePicture
         setStatus(SCALABLE_PICTURE_READY, "Scaled Picture is ready.");
     }
 
+    /**
+     * Scales the supplied image to fit into the size with the scaling mode and steps of this picture. This lets
+     * a caller make a cascade of renditions where the small one is scaled from the medium one rather than from
+     * the original. Neither the source picture nor the scaled picture of this object are touched.
+     *
+     * @param image the image to scale
+     * @param size  the size to fit the image into
+     * @return the scaled image
+     */
+    public BufferedImage scaleImage(final BufferedImage image, final Dimension size) {
+        var factor = calcScaleSourceToTarget(image.getWidth(), image.getHeight(), size.width, size.height);
+        if (CacheSettings.isDontEnlargeSmallImages() && factor > 1) {
+            factor = 1;
+        }
+        return getScaledImage(image, factor);
+    }
+
     private BufferedImage getScaledImage(final BufferedImage sourcePicture, final double scaleFactor) {
         var resultImage = sourcePicture;
         double factor = getFactor(scaleFactor);
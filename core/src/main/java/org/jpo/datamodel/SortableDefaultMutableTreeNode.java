@@ -3,9 +3,11 @@ package org.jpo.datamodel;
 import org.apache.commons.io.FilenameUtils;
 
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -86,24 +88,57 @@ public class SortableDefaultMutableTreeNode
 
     /**
      * A utility method that returns the node identified by the supplied id.
-     * Looks at the supplied node and jumps to the root node if the supplied node 
-     * is not already the root node. Then does a DepthFirstSearch through the tree
-     * to find the first node that matches the supplied id and returns it.
-     * @return the node identified by the id.
+     * If the supplied node belongs to a collection the id is looked up in the
+     * registry of the collection, which knows every node of its tree, so an id
+     * it doesn't know is not in the tree. For a detached tree it jumps to the root
+     * node and does a DepthFirstSearch through the tree to find the first node that
+     * matches the supplied id and returns it.
+     * @return the node identified by the id or null if there is none.
      */
     public static SortableDefaultMutableTreeNode getNodeById (final SortableDefaultMutableTreeNode node, final int id) {
-        final var startNode = node.isRoot() ? node : node.getRoot();
+        final var pictureCollection = node.getPictureCollection();
+        if (pictureCollection != null) {
+            return pictureCollection.getNodeById(id);
+        }
 
-        return Collections.list(startNode.depthFirstEnumeration()).stream()
-                .filter(SortableDefaultMutableTreeNode.class::isInstance)
-                .map(SortableDefaultMutableTreeNode.class::cast)
-                .filter(n -> n.getUniqueId() == id)
-                .findFirst()
-                .orElse(null);
+        final var startNode = node.isRoot() ? node : node.getRoot();
+        for (final var e = startNode.depthFirstEnumeration(); e.hasMoreElements(); ) {
+            if (e.nextElement() instanceof SortableDefaultMutableTreeNode n && n.getUniqueId() == id) {
+                return n;
+            }
+        }
+        return null;
     }
 
     private transient PictureCollection myPictureCollection;
 
+    /**
+     * The number of nodes in the subtree of this node, the node itself included. The counts are adjusted along
+     * the path to the root whenever a node is attached or detached.
+     */
+    private int subtreeNodeCount = 1;
+
+    /**
+     * The number of group nodes in the subtree of this node, the node itself included
+     */
+    private int subtreeGroupCount; // default is 0
+
+    /**
+     * The number of picture nodes in the subtree of this node, the node itself included
+     */
+    private int subtreePictureCount; // default is 0
+
+    /**
+     * Marks {@link #subtreeBytes} as out of date
+     */
+    private static final long BYTES_NOT_ADDED_UP = -1;
+
+    /**
+     * The bytes of the picture files in the subtree of this node. A change below the node sets it to
+     * {@link #BYTES_NOT_ADDED_UP} and the next request adds the bytes up again.
+     */
+    private volatile long subtreeBytes = BYTES_NOT_ADDED_UP;
+
     /**
      * Should only be called on the root node
      * @param pictureCollection the picture collection that owns this node
@@ -127,8 +162,10 @@ public class SortableDefaultMutableTreeNode
     public void add(final SortableDefaultMutableTreeNode nodeToAdd) {
         final var priorParent = nodeToAdd.getParent();
         var priorChildIndex = -1;
+        PictureCollection priorPictureCollection = null;
         if (priorParent != null ) {
             priorChildIndex = priorParent.getIndex(nodeToAdd);
+            priorPictureCollection = priorParent.getPictureCollection();
         }
 
         synchronized (this.getRoot()) {
@@ -136,6 +173,7 @@ public class SortableDefaultMutableTreeNode
         }
 
         final var pictureCollection = getPictureCollection();
+        updateIndexesAfterMove(nodeToAdd, priorPictureCollection, pictureCollection);
         if (pictureCollection != null && pictureCollection.getSendModelUpdates()) {
             if (priorParent !=null && priorChildIndex != -1) {
                 pictureCollection.sendNodesWereRemoved(priorParent, new int[] {priorChildIndex}, new Object[] {nodeToAdd});
@@ -148,6 +186,25 @@ public class SortableDefaultMutableTreeNode
         }
     }
 
+    /**
+     * Moves the pictures of the subtree from the file and SHA-256 indexes of the collection they were in to the
+     * indexes of the collection they are in now. Either collection may be null for a detached tree.
+     *
+     * @param subtreeRoot            the node which was attached
+     * @param priorPictureCollection the collection the node belonged to before
+     * @param pictureCollection      the collection the node belongs to now
+     */
+    private static void updateIndexesAfterMove(final SortableDefaultMutableTreeNode subtreeRoot,
+                                               final PictureCollection priorPictureCollection,
+                                               final PictureCollection pictureCollection) {
+        if (priorPictureCollection != null && priorPictureCollection != pictureCollection) {
+            priorPictureCollection.removeFromIndexes(subtreeRoot);
+        }
+        if (pictureCollection != null) {
+            pictureCollection.addToIndexes(subtreeRoot);
+        }
+    }
+
     /**
      * Creates and add a new picture node to the current node from an image
      * file.
@@ -178,22 +235,16 @@ public class SortableDefaultMutableTreeNode
      * @return true if the picture was valid, false if not.
      */
     public boolean addPicture(final File file, final Collection<Integer> categoryAssignments) {
-        if (JpoImageIO.jvmHasReader(file)
-                || MimeTypes.isAPicture(file)
-                || MimeTypes.isADocument(file)
-                || MimeTypes.isAMovie(file)) {
+        final FileAnalyzer.Analysis analysis;
+        try {
+            analysis = FileAnalyzer.analyze(file);
+        } catch (final IOException e) {
+            LOGGER.log(Level.INFO, "Not adding file {0} because it can not be read: {1}", new Object[]{file, e.getMessage()});
+            return false;
+        }
+        if (analysis.fileType().isMedia()) {
             LOGGER.log(Level.INFO, "File {0} has a reader or a picture mime type or is a document or is a movie so it will be added", file);
-            final var newPictureInfo = new PictureInfo();
-            newPictureInfo.setImageLocation(file);
-            newPictureInfo.setDescription(FilenameUtils.getBaseName(file.getName()));
-            newPictureInfo.setSha256();
-            newPictureInfo.setCategoryAssignment(categoryAssignments);
-            ExifInfo exifInfo = new ExifInfo(newPictureInfo.getImageFile());
-            exifInfo.decodeExifTags();
-            newPictureInfo.setCreationTime(exifInfo.getCreateDateTime());
-            newPictureInfo.setLatLng(exifInfo.getLatLng());
-            newPictureInfo.setRotation(exifInfo.getRotation());
-            final SortableDefaultMutableTreeNode newNode = new SortableDefaultMutableTreeNode(newPictureInfo);
+            final SortableDefaultMutableTreeNode newNode = new SortableDefaultMutableTreeNode(createPictureInfo(analysis, categoryAssignments));
 
             this.add(newNode);
             getPictureCollection().setUnsavedUpdates();
@@ -206,6 +257,30 @@ public class SortableDefaultMutableTreeNode
     }
 
 
+    /**
+     * Creates the PictureInfo for a new file from its {@link FileAnalyzer.Analysis}. The Exif tags supply the
+     * creation time, the location and the rotation.
+     *
+     * @param analysis            the analysis of the file of the picture
+     * @param categoryAssignments Can be null
+     * @return the new PictureInfo
+     */
+    static PictureInfo createPictureInfo(final FileAnalyzer.Analysis analysis, final Collection<Integer> categoryAssignments) {
+        final var file = analysis.file();
+        final var newPictureInfo = new PictureInfo();
+        newPictureInfo.setImageLocation(file);
+        newPictureInfo.setDescription(FilenameUtils.getBaseName(file.getName()));
+        newPictureInfo.setSha256(analysis.sha256());
+        newPictureInfo.setFileSize(analysis.size());
+        if (categoryAssignments != null) {
+            newPictureInfo.setCategoryAssignment(categoryAssignments);
+        }
+        newPictureInfo.setCreationTime(analysis.createDateTime());
+        newPictureInfo.setLatLng(analysis.getLatLng());
+        newPictureInfo.setRotation(analysis.rotation());
+        return newPictureInfo;
+    }
+
     /**
      * This method reports if one of the supplied nodes is an ancestor of the current node.
      * @param potentialAncestorNodes The collection of potential ancestor nodes to check
@@ -258,12 +333,45 @@ public class SortableDefaultMutableTreeNode
      */
     public void sortChildren(final FieldCodes sortCriteria) {
         getPictureCollection().setSendModelUpdates(false);
-        this.children.sort(new SortableDefaultMutableTreeNodeComparator(sortCriteria));
+        if (sortCriteria != FieldCodes.CREATION_TIME || !sortPicturesByCreationTime()) {
+            this.children.sort(new SortableDefaultMutableTreeNodeComparator(sortCriteria));
+        }
         getPictureCollection().setUnsavedUpdates();
         getPictureCollection().setSendModelUpdates(true);
         getPictureCollection().sendNodeStructureChanged(this);
     }
 
+    /**
+     * The creation time of a child picture, read once before the sort
+     *
+     * @param creationTime the creation time in milliseconds since the epoch
+     * @param node         the child node
+     */
+    private record CreationTimeSortKey(long creationTime, TreeNode node) {
+    }
+
+    /**
+     * Sorts the children by creation time on keys which are read once per child rather than on every comparison.
+     * Pictures with the same creation time keep their order.
+     *
+     * @return false if not all the children are pictures, in which case nothing was sorted
+     */
+    private boolean sortPicturesByCreationTime() {
+        final var sortKeys = new CreationTimeSortKey[children.size()];
+        for (var i = 0; i < sortKeys.length; i++) {
+            final var child = children.get(i);
+            if (!(((DefaultMutableTreeNode) child).getUserObject() instanceof PictureInfo pictureInfo)) {
+                return false;
+            }
+            sortKeys[i] = new CreationTimeSortKey(pictureInfo.getCreationTimeMillis(), child);
+        }
+        Arrays.sort(sortKeys, Comparator.comparingLong(CreationTimeSortKey::creationTime));
+        for (var i = 0; i < sortKeys.length; i++) {
+            children.set(i, sortKeys[i].node());
+        }
+        return true;
+    }
+
 
     private static class SortableDefaultMutableTreeNodeComparator implements Comparator<TreeNode> {
         SortableDefaultMutableTreeNodeComparator(final FieldCodes sortField) {
@@ -364,7 +472,8 @@ public class SortableDefaultMutableTreeNode
      */
     @Override
     public void setUserObject(final Object userObject) {
-        removeOldListener(getUserObject());
+        final var oldUserObject = getUserObject();
+        removeOldListener(oldUserObject);
         switch (userObject) {
             case String s -> {
                 // this gets called when the JTree is being edited with F2 keystroke
@@ -387,8 +496,15 @@ public class SortableDefaultMutableTreeNode
                 // fall back on the default behaviour
                 super.setUserObject(userObject);
         }
-        if (getPictureCollection() != null && getPictureCollection().getSendModelUpdates()) {
-            getPictureCollection().sendNodeChanged(this);
+        adjustSubtreeCounts(0,
+                (getUserObject() instanceof GroupInfo ? 1 : 0) - (oldUserObject instanceof GroupInfo ? 1 : 0),
+                (getUserObject() instanceof PictureInfo ? 1 : 0) - (oldUserObject instanceof PictureInfo ? 1 : 0));
+        final var pictureCollection = getPictureCollection();
+        if (pictureCollection != null && getParent() != null) {
+            pictureCollection.addToIndexes(this);
+        }
+        if (pictureCollection != null && pictureCollection.getSendModelUpdates()) {
+            pictureCollection.sendNodeChanged(this);
         }
     }
 
@@ -409,6 +525,9 @@ public class SortableDefaultMutableTreeNode
     @Override
     public void pictureInfoChangeEvent(final PictureInfoChangeEvent pictureInfoChangeEvent) {
         if ( this.getParent() != null ) {
+            if (pictureInfoChangeEvent.getHighresLocationChanged() || pictureInfoChangeEvent.getSha256Changed()) {
+                getPictureCollection().updateIndexes(this);
+            }
             getPictureCollection().sendNodeChanged(this);
         }
     }
@@ -421,6 +540,89 @@ public class SortableDefaultMutableTreeNode
     }
 
 
+    /**
+     * Moves the counts of the subtree of this node from the old parent to the new one. The tree calls this
+     * whichever way a node is attached or detached.
+     *
+     * @param newParent the new parent or null if the node is detached
+     */
+    @Override
+    public void setParent(final MutableTreeNode newParent) {
+        if (parent instanceof SortableDefaultMutableTreeNode oldParent) {
+            oldParent.adjustSubtreeCounts(-subtreeNodeCount, -subtreeGroupCount, -subtreePictureCount);
+        }
+        super.setParent(newParent);
+        if (newParent instanceof SortableDefaultMutableTreeNode parentNode) {
+            parentNode.adjustSubtreeCounts(subtreeNodeCount, subtreeGroupCount, subtreePictureCount);
+        }
+    }
+
+    /**
+     * Adds the differences to the counts of this node and of all the nodes above it
+     */
+    private void adjustSubtreeCounts(final int nodes, final int groups, final int pictures) {
+        for (TreeNode node = this; node instanceof SortableDefaultMutableTreeNode sortableNode; node = node.getParent()) {
+            sortableNode.subtreeNodeCount += nodes;
+            sortableNode.subtreeGroupCount += groups;
+            sortableNode.subtreePictureCount += pictures;
+            sortableNode.subtreeBytes = BYTES_NOT_ADDED_UP;
+        }
+    }
+
+    /**
+     * Tells this node and the nodes above it that the bytes of the pictures must be added up again
+     */
+    void pictureBytesChanged() {
+        adjustSubtreeCounts(0, 0, 0);
+    }
+
+    /**
+     * Returns the number of nodes in the subtree of this node without walking it
+     *
+     * @return the number of nodes including this one
+     */
+    public int getSubtreeNodeCount() {
+        return subtreeNodeCount;
+    }
+
+    /**
+     * Returns the number of group nodes in the subtree of this node without walking it
+     *
+     * @return the number of group nodes including this one if it is a group
+     */
+    public int getSubtreeGroupCount() {
+        return subtreeGroupCount;
+    }
+
+    /**
+     * Returns the number of picture nodes in the subtree of this node without walking it
+     *
+     * @return the number of picture nodes including this one if it is a picture
+     */
+    public int getSubtreePictureCount() {
+        return subtreePictureCount;
+    }
+
+    /**
+     * Returns the bytes of the picture files in the subtree of this node. Only the parts of the subtree that
+     * changed since the last call are added up again.
+     *
+     * @return the number of bytes
+     */
+    public long getSubtreeBytes() {
+        var bytes = subtreeBytes;
+        if (bytes == BYTES_NOT_ADDED_UP) {
+            bytes = getUserObject() instanceof PictureInfo pictureInfo ? pictureInfo.getFileSize() : 0;
+            for (var i = 0; i < getChildCount(); i++) {
+                if (getChildAt(i) instanceof SortableDefaultMutableTreeNode child) {
+                    bytes += child.getSubtreeBytes();
+                }
+            }
+            subtreeBytes = bytes;
+        }
+        return bytes;
+    }
+
     /**
      * Removes the node from the parent and sends a nodesWereRemoved notification.
      * Essentially this is the equivalent of deleting the node from the tree.
@@ -437,6 +639,9 @@ public class SortableDefaultMutableTreeNode
         synchronized (this.getRoot()) {
             super.removeFromParent();
         }
+        if (pictureCollection != null) {
+            pictureCollection.removeFromIndexes(this);
+        }
         pictureCollection.setUnsavedUpdates();
 
         if (pictureCollection.getSendModelUpdates() && oldParentIndex != -1) {
@@ -477,11 +682,18 @@ public class SortableDefaultMutableTreeNode
      */
     public void insert(final SortableDefaultMutableTreeNode node, final int index) {
         LOGGER.log(Level.FINE, "insert was called for node: {0}", node);
+        final var priorParent = node.getParent();
+        final var priorChildIndex = priorParent == null ? -1 : priorParent.getIndex(node);
+        final var priorPictureCollection = priorParent == null ? null : priorParent.getPictureCollection();
         synchronized (this.getRoot()) {
             super.insert(node, index);
         }
+        updateIndexesAfterMove(node, priorPictureCollection, getPictureCollection());
         getPictureCollection().setUnsavedUpdates();
         if (getPictureCollection().getSendModelUpdates()) {
+            if (priorPictureCollection != null && priorChildIndex != -1) {
+                priorPictureCollection.sendNodesWereRemoved(priorParent, new int[]{priorChildIndex}, new Object[]{node});
+            }
             getPictureCollection().sendNodesWereInserted(this, new int[]{index});
         }
     }
@@ -22,7 +22,7 @@ import java.util.logging.Logger;
 import static org.jpo.datamodel.SourcePicture.SourcePictureStatus.*;
 
 /*
- Copyright (C) 2002-2025 Richard Eigenmann.
+ Copyright (C) 2002-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -149,6 +149,58 @@ public class SourcePicture {
         loadPicture();
     }
 
+    /**
+     * Loads a version of the picture on the current thread which is only as large as needed to fill the supplied
+     * size after rotation. The embedded preview or a subsampled decode is used when the file allows it; otherwise
+     * the full picture is loaded as with {@link #loadPicture(String, File, double)}. The reduced image is read
+     * straight from the file and doesn't go through the highres cache.
+     *
+     * @param sha256   The SHA-256 of the file
+     * @param file     The file with the image
+     * @param rotation Image rotation
+     * @param minSize  The size the picture will be scaled to afterwards
+     */
+    public void loadReducedPicture(final String sha256, final File file, final double rotation, final Dimension minSize) {
+        Objects.requireNonNull(file, "file parameter must not be null in SourcePicture.loadReducedPicture");
+        if (pictureStatusCode.get() == SOURCE_PICTURE_LOADING) {
+            stopLoadingExcept(file);
+        }
+        this.sha256 = sha256;
+        this.imageFile = file;
+        this.rotation = rotation;
+        if (rotation % 90 != 0) {
+            // the bounding box of an oddly rotated picture is hard to predict, so we decode it fully
+            loadPicture();
+            return;
+        }
+        abortFlag.set(false);
+        setStatus(SOURCE_PICTURE_LOADING, JpoCoreResources.getResource("ScalablePictureLoadingStatus"));
+        final var start = System.currentTimeMillis();
+        final var quarterTurns = (int) Math.round(rotation / 90);
+        final var unrotatedSize = quarterTurns % 2 == 0 ? minSize : new Dimension(minSize.height, minSize.width);
+        BufferedImage reducedImage;
+        try {
+            reducedImage = JpoImageIO.readReducedImage(file, unrotatedSize);
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not read a reduced image of {0}: {1}", new Object[]{file, e.getMessage()});
+            reducedImage = null;
+        }
+        if (DecodeCancellation.isCancelled()) {
+            setCancelledStatus();
+            return;
+        }
+        if (reducedImage == null) {
+            loadPicture();
+            return;
+        }
+        sourcePictureBufferedImage = fixTypeOfImage(reducedImage);
+        if (rotation != 0) {
+            rotateImage();
+        }
+        setStatus(SOURCE_PICTURE_READY, "Loaded: " + imageFile.toString());
+        loadTime = System.currentTimeMillis() - start;
+    }
+
     /**
      * method to invoke with a file of a picture that is to be loaded in
      * a new thread. This is handy to update the screen while the loading chugs
@@ -187,6 +239,10 @@ public class SourcePicture {
         setStatus(SOURCE_PICTURE_LOADING, JpoCoreResources.getResource("ScalablePictureLoadingStatus"));
         final var start = System.currentTimeMillis();
         loadTime = 0;
+        if (DecodeCancellation.isCancelled()) {
+            setCancelledStatus();
+            return;
+        }
         ImageBytes imageBytes;
         try {
             LOGGER.log(Level.FINE, "Asking highres cache for image {0}", imageFile);
@@ -207,6 +263,11 @@ public class SourcePicture {
 
         sourcePictureBufferedImage = convertImageBytesToBufferedImage(imageBytes);
 
+        if (DecodeCancellation.isCancelled()) {
+            setCancelledStatus();
+            return;
+        }
+
         if (sourcePictureBufferedImage == null) {
             LOGGER.log(Level.SEVERE, "There is no image! {0}", imageFile);
             setStatus(SOURCE_PICTURE_ERROR, "Unable to convert image.");
@@ -222,6 +283,15 @@ public class SourcePicture {
         loadTime = end - start;
     }
 
+    /**
+     * Drops whatever was read when the decode was cancelled so that a partial image is never used
+     */
+    private void setCancelledStatus() {
+        LOGGER.log(Level.FINE, "Loading of {0} was cancelled", imageFile);
+        sourcePictureBufferedImage = null;
+        setStatus(SOURCE_PICTURE_ERROR, "Cancelled loading " + imageFile.toString());
+    }
+
     private void rotateImage() {
         setStatus(SOURCE_PICTURE_ROTATING, "Rotating: " + imageFile.toString());
         final var xRot = sourcePictureBufferedImage.getWidth() / 2;
@@ -513,7 +583,7 @@ public class SourcePicture {
 
         @Override
         public void imageProgress(final ImageReader source, final float percentageDone) {
-            if (abortFlag.get()) {
+            if (abortFlag.get() || DecodeCancellation.isCancelled()) {
                 source.abort();
             }
             notifySourceLoadProgressListeners(SOURCE_PICTURE_LOADING_PROGRESS, (Float.valueOf(percentageDone)).intValue());
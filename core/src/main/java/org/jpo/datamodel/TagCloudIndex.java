@@ -0,0 +1,287 @@
+package org.jpo.datamodel;
+
+import java.util.*;
+
+/*
+ Copyright (C) 2009-2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Counts the words of the picture descriptions for the tag cloud. The {@link PictureCollection} hands over the
+ * description of each picture as it is attached or changed and keeps the words that came back with the node so
+ * that they can be taken out again and counted for a part of the collection without splitting the description
+ * again.
+ * <p>
+ * A description is split on white space, underscores and dashes after dropping "'s", punctuation and digits.
+ * Common words like "the" or "und" are left out and a few place names like "New York" are kept together.
+ */
+final class TagCloudIndex {
+
+    /**
+     * Words which don't make a good tag
+     */
+    private static final Set<String> STRIKE_WORDS = Set.of(
+            "als", "Am", "am", "an", "An", "and", "at", "auf", "Auf", "Aufstieg", "aus", "bei", "Bei", "Beim",
+            "beim", "Blick", "by", "das", "Das", "de", "del", "dem", "den", "der", "Der", "des", "Die", "die", "DSC",
+            "dsc", "DSCN", "durch", "Ein", "ein", "eine", "einem", "einen", "einer", "eines", "El", "en", "fuer",
+            "für", "gesehen", "hat", "hinter", "ich", "II", "Il", "im", "Im", "Image", "img", "IMG", "in", "In",
+            "ist", "je", "La", "man", "meine", "MG", "mir", "Mit", "mit", "nach", "neben", "Neuer", "nicht", "noch",
+            "Nähe", "nähert", "ob", "of", "on", "Richtung", "san", "SDC", "sein", "sich", "The", "the", "to", "ueber",
+            "um", "und", "uns", "unter", "Unterwegs", "unterwegs", "van", "vom", "von", "vor", "warum", "was", "wer",
+            "wie", "wir", "wird", "with", "without", "wurde", "während", "zu", "zum", "zur", "zwischen", "über");
+
+    /**
+     * Terms of several words which count as one tag
+     */
+    private static final String[] MULTI_WORD_TERMS = {
+            "Aprés Ski",
+            "Cape Town",
+            "Crans Montana",
+            "Den Haag",
+            "Empire State",
+            "Goldman Sachs",
+            "Groot Marico",
+            "Halfmoon Bay",
+            "Hoch Ybrig",
+            "Lions Head",
+            "Marigot Bay",
+            "Nags Head",
+            "New York",
+            "New Zealand",
+            "Persischer Golf",
+            "Petit Bateau",
+            "Quadra Island",
+            "Red Sea",
+            "Rotes Meer",
+            "Saudi Arabien",
+            "Seleger Moor",
+            "South Africa",
+            "South Georgia",
+            "St Gallen",
+            "St. Petersinsel",
+            "Tel Aviv",
+            "Toten Meer",
+            "Totes Meer",
+            "Vic Falls",
+            "Victoria Falls",
+            "Washington State"
+    };
+
+    private static final char[][] MULTI_WORD_TERM_CHARS = Arrays.stream(MULTI_WORD_TERMS)
+            .map(String::toCharArray)
+            .toArray(char[][]::new);
+
+    /**
+     * The characters which are dropped from a description before it is split
+     */
+    private static final boolean[] DROPPED_CHARACTERS = new boolean[128];
+
+    static {
+        for (final var c : ".:!,'\";?()[]#$*+<>/&=0123456789".toCharArray()) {
+            DROPPED_CHARACTERS[c] = true;
+        }
+    }
+
+    private static final String[] NO_WORDS = new String[0];
+
+    /**
+     * The count of a word. The word of the first count is handed out for all the pictures so that the same word
+     * is only held once.
+     */
+    private static final class WordCount {
+        private final String word;
+        private int count; // default is 0
+
+        private WordCount(final String word) {
+            this.word = word;
+        }
+    }
+
+    private final Map<String, WordCount> wordCounts = new HashMap<>();
+
+    /**
+     * Counts the words of a description
+     *
+     * @param description the description of a picture
+     * @return the words which were counted. Hand them to {@link #remove} to take them out again.
+     */
+    synchronized String[] add(final String description) {
+        final var words = tokenize(description);
+        for (var i = 0; i < words.length; i++) {
+            final var wordCount = wordCounts.computeIfAbsent(words[i], WordCount::new);
+            wordCount.count++;
+            words[i] = wordCount.word;
+        }
+        return words;
+    }
+
+    /**
+     * Takes the words of a description out of the counts
+     *
+     * @param words the words which {@link #add} returned
+     */
+    synchronized void remove(final String[] words) {
+        for (final var word : words) {
+            final var wordCount = wordCounts.get(word);
+            if (wordCount != null && --wordCount.count == 0) {
+                wordCounts.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Forgets all the counts
+     */
+    synchronized void clear() {
+        wordCounts.clear();
+    }
+
+    /**
+     * Returns the most frequent words of all the descriptions
+     *
+     * @param maxWords the number of words to return
+     * @return the words and their counts, the most frequent first
+     */
+    synchronized List<Map.Entry<String, Integer>> getTopWords(final int maxWords) {
+        return topWords(wordCounts.values(), maxWords);
+    }
+
+    /**
+     * Counts the words of some of the descriptions. The lists are counted in parallel.
+     *
+     * @param wordLists the words which {@link #add} or {@link #tokenize} returned for the descriptions
+     * @param maxWords  the number of words to return
+     * @return the words and their counts, the most frequent first
+     */
+    static List<Map.Entry<String, Integer>> countTopWords(final Collection<String[]> wordLists, final int maxWords) {
+        final Map<String, WordCount> counts = wordLists.parallelStream().collect(
+                HashMap::new,
+                (map, words) -> {
+                    for (final var word : words) {
+                        map.computeIfAbsent(word, WordCount::new).count++;
+                    }
+                },
+                (map, otherMap) -> otherMap.forEach((word, otherCount) ->
+                        map.merge(word, otherCount, (wordCount, other) -> {
+                            wordCount.count += other.count;
+                            return wordCount;
+                        })));
+        return topWords(counts.values(), maxWords);
+    }
+
+    /**
+     * Picks the most frequent words with a heap of maxWords entries rather than by sorting all of them
+     */
+    private static List<Map.Entry<String, Integer>> topWords(final Collection<WordCount> wordCounts, final int maxWords) {
+        if (maxWords <= 0) {
+            return List.of();
+        }
+        final var heap = new PriorityQueue<WordCount>(maxWords, Comparator.comparingInt(wordCount -> wordCount.count));
+        for (final var wordCount : wordCounts) {
+            if (heap.size() < maxWords) {
+                heap.add(wordCount);
+            } else if (wordCount.count > heap.element().count) {
+                heap.remove();
+                heap.add(wordCount);
+            }
+        }
+        final var topWords = new ArrayList<Map.Entry<String, Integer>>(heap.size());
+        heap.forEach(wordCount -> topWords.add(Map.entry(wordCount.word, wordCount.count)));
+        topWords.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return topWords;
+    }
+
+    /**
+     * Splits a description into its tags in one pass over the characters
+     *
+     * @param description the description
+     * @return the tags in the order in which they were found. A tag which is there twice is returned twice.
+     */
+    static String[] tokenize(final String description) {
+        if (description == null || description.isEmpty()) {
+            return NO_WORDS;
+        }
+        final var text = new char[description.length()];
+        var length = 0;
+        for (var i = 0; i < description.length(); i++) {
+            final var c = description.charAt(i);
+            if (c == '\'' && i + 1 < description.length() && description.charAt(i + 1) == 's') {
+                i++;
+            } else if (c >= DROPPED_CHARACTERS.length || !DROPPED_CHARACTERS[c]) {
+                text[length++] = c;
+            }
+        }
+
+        final var words = new ArrayList<String>();
+        for (var term = 0; term < MULTI_WORD_TERM_CHARS.length; term++) {
+            final var newLength = removeAll(text, length, MULTI_WORD_TERM_CHARS[term]);
+            if (newLength != length) {
+                words.add(MULTI_WORD_TERMS[term]);
+                length = newLength;
+            }
+        }
+
+        var start = 0;
+        for (var i = 0; i <= length; i++) {
+            if (i == length || isSeparator(text[i])) {
+                if (i > start) {
+                    final var word = new String(text, start, i - start);
+                    if (!STRIKE_WORDS.contains(word)) {
+                        words.add(word);
+                    }
+                }
+                start = i + 1;
+            }
+        }
+        return words.toArray(NO_WORDS);
+    }
+
+    /**
+     * Removes the occurrences of the term from the text in place, the way {@link String#replace} would
+     *
+     * @return the new length of the text
+     */
+    private static int removeAll(final char[] text, final int length, final char[] term) {
+        var newLength = 0;
+        var i = 0;
+        while (i < length) {
+            if (text[i] == term[0] && startsWith(text, i, length, term)) {
+                i += term.length;
+            } else {
+                text[newLength++] = text[i++];
+            }
+        }
+        return newLength;
+    }
+
+    private static boolean startsWith(final char[] text, final int offset, final int length, final char[] term) {
+        if (offset + term.length > length) {
+            return false;
+        }
+        for (var j = 1; j < term.length; j++) {
+            if (text[offset + j] != term[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The characters on which the regular expression [\s_\-]+ splits
+     */
+    private static boolean isSeparator(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r' || c == '_' || c == '-';
+    }
+}
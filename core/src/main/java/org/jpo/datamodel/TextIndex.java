@@ -0,0 +1,523 @@
+package org.jpo.datamodel;
+
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * An inverted index from the words of the text fields of the pictures to the pictures of a collection. It
+ * answers the {@link TextQuery} without looking at every picture.
+ * <p>
+ * The index covers the fields which {@link PictureInfo#anyMatch} searches: description, comment, photographer,
+ * film reference, copyright holder, creation time and the path of the file. A word is a run of letters and digits
+ * after upper casing. The words are kept in a sorted map so that a search term finds the words which start with it
+ * by a range lookup. A search term also matches the words which contain it further in, so "sun" finds "sunset" and
+ * "set" finds it too, which keeps the results the same as those of anyMatch. Those come from a second sorted map
+ * from the inner suffixes of each word to the word, so no search walks the whole vocabulary.
+ * <p>
+ * Each picture node gets a document number. The {@link PictureCollection} hands the nodes over as they are
+ * attached, changed or detached. Adding a node only records it; its words are read later by
+ * {@link #catchUp}, which runs outside of the index lock because reading a PictureInfo takes the lock of the
+ * PictureInfo. Removing a node leaves its entries in the postings lists. They are skipped at search time and
+ * thrown away when they outnumber the live entries.
+ * <p>
+ * The postings of each word are kept in creation time order with the undated pictures first, the way
+ * {@link FieldCodes#CREATION_TIME} sorts them, and the results are merged from them in that order.
+ */
+final class TextIndex {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(TextIndex.class.getName());
+
+    /**
+     * The timestamp of a picture whose creation time can't be parsed
+     */
+    private static final long NO_DATE = PictureInfo.NO_CREATION_TIME;
+
+    /**
+     * The number of stale postings below which we never bother to rebuild
+     */
+    private static final int MINIMUM_STALE_POSTINGS = 100_000;
+
+    /**
+     * The number of documents whose words are read before the results are handed into the index
+     */
+    private static final int CATCH_UP_BATCH = 1_000;
+
+    /**
+     * The document numbers of a word with the creation time of each. The same number can appear more than once
+     * and can belong to a node which has since been removed. The entries are in creation time order up to
+     * {@link #sortedSize}; the ones added after that are put in order by the next search.
+     */
+    private static final class Postings {
+        private int[] documents = new int[2];
+        private long[] times = new long[2];
+        private int size; // default is 0
+        private int sortedSize; // default is 0
+
+        private void add(final int document, final long time) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            documents[size] = document;
+            times[size] = time;
+            if (sortedSize == size && (size == 0 || compare(times[size - 1], documents[size - 1], time, document) <= 0)) {
+                sortedSize++;
+            }
+            size++;
+        }
+
+        /**
+         * Sorts the entries added since the last search and merges them into the sorted ones
+         */
+        private void sort() {
+            if (sortedSize == size) {
+                return;
+            }
+            final var tail = new Integer[size - sortedSize];
+            for (var i = 0; i < tail.length; i++) {
+                tail[i] = sortedSize + i;
+            }
+            Arrays.sort(tail, (a, b) -> compare(times[a], documents[a], times[b], documents[b]));
+            final var mergedDocuments = new int[documents.length];
+            final var mergedTimes = new long[times.length];
+            var head = 0;
+            var next = 0;
+            for (var i = 0; i < size; i++) {
+                if (next == tail.length || (head < sortedSize
+                        && compare(times[head], documents[head], times[tail[next]], documents[tail[next]]) <= 0)) {
+                    mergedDocuments[i] = documents[head];
+                    mergedTimes[i] = times[head++];
+                } else {
+                    mergedDocuments[i] = documents[tail[next]];
+                    mergedTimes[i] = times[tail[next++]];
+                }
+            }
+            documents = mergedDocuments;
+            times = mergedTimes;
+            sortedSize = size;
+        }
+    }
+
+    /**
+     * Orders the entries by creation time and then by document number
+     */
+    private static int compare(final long time1, final int document1, final long time2, final int document2) {
+        final var byTime = Long.compare(time1, time2);
+        return byTime != 0 ? byTime : Integer.compare(document1, document2);
+    }
+
+    /**
+     * Walks one postings list of a search in date order
+     */
+    private static final class Cursor {
+        private final Postings postings;
+        private int position; // default is 0
+
+        private Cursor(final Postings postings) {
+            this.postings = postings;
+        }
+
+        private long time() {
+            return postings.times[position];
+        }
+
+        private int document() {
+            return postings.documents[position];
+        }
+    }
+
+    /**
+     * The words of a document and its creation time as read by {@link #catchUp}
+     */
+    private record IndexedDocument(int document, int version, SortableDefaultMutableTreeNode node,
+                                   Set<String> words, long timestamp) {
+    }
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    /**
+     * The suffixes of the indexed words which start after their first letter, each with the words that end in it.
+     * A search term which is the start of such a suffix is found inside the word.
+     */
+    private final TreeMap<String, List<String>> innerSuffixes = new TreeMap<>();
+
+    private SortableDefaultMutableTreeNode[] nodes = new SortableDefaultMutableTreeNode[16];
+
+    /**
+     * Goes up every time a document number is handed out so that the words read for the old node of a reused
+     * number are not filed under the new one
+     */
+    private int[] versions = new int[16];
+
+    private int[] wordCounts = new int[16];
+
+    private int documentCount; // default is 0
+
+    /**
+     * Document numbers which can be handed out again because no postings refer to them anymore
+     */
+    private int[] freeDocuments = new int[16];
+
+    private int freeDocumentCount; // default is 0
+
+    /**
+     * Document numbers of removed nodes. Their postings are still around so they only become free when the
+     * postings are rebuilt. Otherwise a new node would inherit the words of the old one.
+     */
+    private int[] releasedDocuments = new int[16];
+
+    private int releasedDocumentCount; // default is 0
+
+    private final BitSet pending = new BitSet();
+
+    private long livePostings; // default is 0
+
+    private long stalePostings; // default is 0
+
+    /**
+     * Only one thread at a time reads the pending documents
+     */
+    private final Object catchUpLock = new Object();
+
+    /**
+     * Adds a picture node to the index. Its words are read on the next {@link #catchUp}.
+     *
+     * @param node the picture node
+     * @return the document number of the node
+     */
+    synchronized int add(final SortableDefaultMutableTreeNode node) {
+        final int document;
+        if (freeDocumentCount > 0) {
+            document = freeDocuments[--freeDocumentCount];
+        } else {
+            if (documentCount == nodes.length) {
+                final var newLength = documentCount * 2;
+                nodes = Arrays.copyOf(nodes, newLength);
+                versions = Arrays.copyOf(versions, newLength);
+                wordCounts = Arrays.copyOf(wordCounts, newLength);
+            }
+            document = documentCount++;
+        }
+        nodes[document] = node;
+        versions[document]++;
+        wordCounts[document] = 0;
+        pending.set(document);
+        return document;
+    }
+
+    /**
+     * Removes a document from the index
+     *
+     * @param document the document number which {@link #add} returned
+     */
+    synchronized void remove(final int document) {
+        if (nodes[document] == null) {
+            return;
+        }
+        nodes[document] = null;
+        pending.clear(document);
+        livePostings -= wordCounts[document];
+        stalePostings += wordCounts[document];
+        wordCounts[document] = 0;
+        if (releasedDocumentCount == releasedDocuments.length) {
+            releasedDocuments = Arrays.copyOf(releasedDocuments, releasedDocumentCount * 2);
+        }
+        releasedDocuments[releasedDocumentCount++] = document;
+        if (stalePostings > livePostings && stalePostings > MINIMUM_STALE_POSTINGS) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Throws away the postings and queues all the documents to be read again
+     */
+    private void rebuild() {
+        LOGGER.log(Level.FINE, "Rebuilding the text index because {0} of its entries are stale", stalePostings);
+        postings.clear();
+        innerSuffixes.clear();
+        livePostings = 0;
+        stalePostings = 0;
+        for (var i = 0; i < documentCount; i++) {
+            wordCounts[i] = 0;
+            if (nodes[i] != null) {
+                // words which are being read right now must not be stored
+                versions[i]++;
+                pending.set(i);
+            }
+        }
+        if (freeDocumentCount + releasedDocumentCount > freeDocuments.length) {
+            freeDocuments = Arrays.copyOf(freeDocuments, freeDocumentCount + releasedDocumentCount);
+        }
+        System.arraycopy(releasedDocuments, 0, freeDocuments, freeDocumentCount, releasedDocumentCount);
+        freeDocumentCount += releasedDocumentCount;
+        releasedDocumentCount = 0;
+    }
+
+    /**
+     * Empties the index
+     */
+    synchronized void clear() {
+        postings.clear();
+        innerSuffixes.clear();
+        Arrays.fill(nodes, 0, documentCount, null);
+        documentCount = 0;
+        freeDocumentCount = 0;
+        releasedDocumentCount = 0;
+        pending.clear();
+        livePostings = 0;
+        stalePostings = 0;
+    }
+
+    /**
+     * Returns whether documents are waiting for their words to be read
+     *
+     * @return true if {@link #catchUp} has work to do
+     */
+    synchronized boolean isPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Reads the words of the documents which were added since the last call. A search calls this first.
+     */
+    void catchUp() {
+        synchronized (catchUpLock) {
+            for (var batch = takePendingBatch(); !batch.isEmpty(); batch = takePendingBatch()) {
+                final var indexedDocuments = new ArrayList<IndexedDocument>(batch.size());
+                for (final var waiting : batch) {
+                    if (waiting.node().getUserObject() instanceof PictureInfo pictureInfo) {
+                        indexedDocuments.add(new IndexedDocument(waiting.document(), waiting.version(), waiting.node(),
+                                getWords(pictureInfo), pictureInfo.getCreationTimeMillis()));
+                    }
+                }
+                store(indexedDocuments);
+            }
+        }
+    }
+
+    private synchronized List<IndexedDocument> takePendingBatch() {
+        final var batch = new ArrayList<IndexedDocument>(CATCH_UP_BATCH);
+        for (var document = pending.nextSetBit(0); document >= 0 && batch.size() < CATCH_UP_BATCH; document = pending.nextSetBit(document + 1)) {
+            batch.add(new IndexedDocument(document, versions[document], nodes[document], Set.of(), NO_DATE));
+            pending.clear(document);
+        }
+        return batch;
+    }
+
+    private synchronized void store(final List<IndexedDocument> indexedDocuments) {
+        for (final var indexedDocument : indexedDocuments) {
+            final var document = indexedDocument.document();
+            if (nodes[document] != indexedDocument.node() || versions[document] != indexedDocument.version()) {
+                // removed or added again while we were reading; a later catch up takes care of it
+                continue;
+            }
+            wordCounts[document] += indexedDocument.words().size();
+            livePostings += indexedDocument.words().size();
+            for (final var word : indexedDocument.words()) {
+                postings.computeIfAbsent(word, this::newPostings).add(document, indexedDocument.timestamp());
+            }
+        }
+    }
+
+    private Postings newPostings(final String word) {
+        for (var i = 1; i < word.length(); i++) {
+            innerSuffixes.computeIfAbsent(word.substring(i), _ -> new ArrayList<>(1)).add(word);
+        }
+        return new Postings();
+    }
+
+    /**
+     * Returns the pictures of the index whose words contain all the words of the search string and which fall
+     * into the date range. Pictures whose creation time can't be parsed are in any range.
+     *
+     * @param searchString the text to find
+     * @param lowerDate    the earliest creation time or null
+     * @param upperDate    the latest creation time or null
+     * @return the candidates sorted by creation time or null if the index can't answer the search string
+     */
+    List<SortableDefaultMutableTreeNode> search(final String searchString, final Calendar lowerDate, final Calendar upperDate) {
+        if (!isAscii(searchString)) {
+            return null;
+        }
+        final var searchWords = tokenize(searchString);
+        if (searchWords.isEmpty()) {
+            return null;
+        }
+        catchUp();
+        final var lower = lowerDate == null ? Long.MIN_VALUE : lowerDate.getTimeInMillis();
+        final var upper = upperDate == null ? Long.MAX_VALUE : upperDate.getTimeInMillis();
+        synchronized (this) {
+            final var postingsOfSearchWords = new ArrayList<Set<Postings>>(searchWords.size());
+            for (final var searchWord : searchWords) {
+                final var found = findPostings(searchWord);
+                if (found.isEmpty()) {
+                    return List.of();
+                }
+                postingsOfSearchWords.add(found);
+            }
+            // the search word with the fewest entries drives the merge, the others filter it
+            postingsOfSearchWords.sort(Comparator.comparingLong(TextIndex::countEntries));
+            final var filters = new ArrayList<BitSet>(postingsOfSearchWords.size() - 1);
+            for (final var found : postingsOfSearchWords.subList(1, postingsOfSearchWords.size())) {
+                final var filter = new BitSet(documentCount);
+                for (final var wordPostings : found) {
+                    for (var i = 0; i < wordPostings.size; i++) {
+                        filter.set(wordPostings.documents[i]);
+                    }
+                }
+                filters.add(filter);
+            }
+            return merge(postingsOfSearchWords.getFirst(), filters, lower, upper);
+        }
+    }
+
+    /**
+     * Finds the postings of the words which start with the search word by a range lookup in the sorted words.
+     * The words which contain it further in come from the same lookup in the inner suffixes.
+     */
+    private Set<Postings> findPostings(final String searchWord) {
+        final var found = new LinkedHashSet<>(withPrefix(postings, searchWord).values());
+        for (final var words : withPrefix(innerSuffixes, searchWord).values()) {
+            for (final var word : words) {
+                found.add(postings.get(word));
+            }
+        }
+        return found;
+    }
+
+    private static <V> SortedMap<String, V> withPrefix(final TreeMap<String, V> map, final String prefix) {
+        return map.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private static long countEntries(final Set<Postings> found) {
+        return found.stream().mapToLong(wordPostings -> wordPostings.size).sum();
+    }
+
+    /**
+     * Merges the date ordered postings lists into one list of the live documents which pass the filters and the
+     * date range. Each document comes out once.
+     */
+    private List<SortableDefaultMutableTreeNode> merge(final Set<Postings> found, final List<BitSet> filters,
+                                                       final long lower, final long upper) {
+        final var cursors = new PriorityQueue<Cursor>(found.size(),
+                (a, b) -> compare(a.time(), a.document(), b.time(), b.document()));
+        for (final var wordPostings : found) {
+            wordPostings.sort();
+            cursors.add(new Cursor(wordPostings));
+        }
+        final var seen = new BitSet(documentCount);
+        final var results = new ArrayList<SortableDefaultMutableTreeNode>();
+        while (!cursors.isEmpty()) {
+            final var cursor = cursors.poll();
+            final var document = cursor.document();
+            final var time = cursor.time();
+            if (!seen.get(document)) {
+                seen.set(document);
+                if (nodes[document] != null && !pending.get(document)
+                        && (time == NO_DATE || (time >= lower && time <= upper))
+                        && filters.stream().allMatch(filter -> filter.get(document))) {
+                    results.add(nodes[document]);
+                }
+            }
+            cursor.position++;
+            if (cursor.position < cursor.postings.size) {
+                cursors.add(cursor);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether the search string is a single word so that every candidate which {@link #search} returns
+     * holds it in one of its fields
+     *
+     * @param searchString the search string
+     * @return true if the string consists of letters and digits only
+     */
+    static boolean isSingleWord(final String searchString) {
+        return isAscii(searchString)
+                && !searchString.isEmpty()
+                && searchString.chars().allMatch(Character::isLetterOrDigit);
+    }
+
+    private static boolean isAscii(final String s) {
+        return s.chars().allMatch(c -> c < 128);
+    }
+
+    private static Set<String> getWords(final PictureInfo pictureInfo) {
+        final var words = new HashSet<String>();
+        addWords(pictureInfo.getDescription(), words);
+        addWords(pictureInfo.getComment(), words);
+        addWords(pictureInfo.getPhotographer(), words);
+        addWords(pictureInfo.getFilmReference(), words);
+        addWords(pictureInfo.getCopyrightHolder(), words);
+        addWords(pictureInfo.getCreationTime(), words);
+        final var imageFile = pictureInfo.getImageFile();
+        if (imageFile != null) {
+            addWords(imageFile.toString(), words);
+        }
+        return words;
+    }
+
+    /**
+     * Splits the text into upper case words
+     *
+     * @param text the text
+     * @return the distinct words in the order they appear
+     */
+    static Set<String> tokenize(final String text) {
+        final var words = new LinkedHashSet<String>();
+        addWords(text, words);
+        return words;
+    }
+
+    private static void addWords(final String text, final Set<String> words) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        final var normalized = normalize(text);
+        var start = -1;
+        for (var i = 0; i <= normalized.length(); i++) {
+            final var isWordCharacter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (isWordCharacter && start < 0) {
+                start = i;
+            } else if (!isWordCharacter && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Upper cases the text and folds each character the way {@link String#regionMatches(boolean, int, String, int, int)}
+     * compares them so that the case-insensitive description search doesn't find anything the index misses.
+     */
+    private static String normalize(final String text) {
+        final var upperCase = text.toUpperCase(Locale.ROOT);
+        final var folded = new StringBuilder(upperCase.length());
+        for (var i = 0; i < upperCase.length(); i++) {
+            folded.append(Character.toUpperCase(Character.toLowerCase(upperCase.charAt(i))));
+        }
+        return folded.toString();
+    }
+}
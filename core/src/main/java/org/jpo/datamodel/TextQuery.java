@@ -3,10 +3,7 @@ package org.jpo.datamodel;
 import javax.swing.tree.TreeNode;
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Enumeration;
-import java.util.List;
+import java.util.*;
 
 /*
  Copyright (C) 2002-2026 Richard Eigenmann.
@@ -25,7 +22,8 @@ import java.util.List;
  */
 /**
  * This class stores the parameters for a search and can return a List of the
- * search results.
+ * search results. The results are sorted by creation time. When the start node
+ * belongs to a collection the {@link TextIndex} of the collection finds them.
  */
 public class TextQuery implements Serializable, Query {
 
@@ -177,15 +175,34 @@ public class TextQuery implements Serializable, Query {
      * @return The List of nodes.
      */
     public List<SortableDefaultMutableTreeNode> extractSearchResults() {
-        SortableDefaultMutableTreeNode testNode;
-        searchResults = new ArrayList<>();
+        final var pictureCollection = startNode.getPictureCollection();
+        if (anyField != null && pictureCollection != null) {
+            final var candidates = pictureCollection.getTextIndex().search(anyField, lowerDateRange, upperDateRange);
+            if (candidates != null) {
+                // a single word is found in the index exactly; anything else could span several words
+                final var verify = !TextIndex.isSingleWord(anyField);
+                final var wholeCollection = startNode == pictureCollection.getRootNode();
+                searchResults = new ArrayList<>(candidates.size());
+                for (final var candidate : candidates) {
+                    if ((wholeCollection || startNode.isNodeDescendant(candidate))
+                            && (!verify || isMatch(candidate))) {
+                        searchResults.add(candidate);
+                    }
+                }
+                return searchResults;
+            }
+        }
 
+        final var matches = new ArrayList<Map.Entry<Long, SortableDefaultMutableTreeNode>>();
         for (Enumeration<TreeNode> e = startNode.breadthFirstEnumeration(); e.hasMoreElements(); ) {
-            testNode = (SortableDefaultMutableTreeNode) e.nextElement();
+            final var testNode = (SortableDefaultMutableTreeNode) e.nextElement();
             if ( isMatch( testNode ) ) {
-                searchResults.add( testNode );
+                matches.add(Map.entry(((PictureInfo) testNode.getUserObject()).getCreationTimeMillis(), testNode));
             }
         }
+        matches.sort(Map.Entry.comparingByKey());
+        searchResults = new ArrayList<>(matches.size());
+        matches.forEach(match -> searchResults.add(match.getValue()));
         return searchResults;
     }
 
@@ -216,22 +233,22 @@ public class TextQuery implements Serializable, Query {
             match = pictureInfo.anyMatch( anyField );
         }
 
-        final var testNodeDate = pictureInfo.getCreationTimeAsDate();
+        final var testNodeDate = pictureInfo.getCreationTimeMillis();
         if ( match && ( lowerDateRange != null ) ) {
             // test for the lower date range
-            if ( testNodeDate == null ) {
+            if ( testNodeDate == PictureInfo.NO_CREATION_TIME ) {
                 match = INCLUDE_NULL_DATES;
             } else {
-                match =  testNodeDate.compareTo( lowerDateRange ) >= 0;
+                match =  testNodeDate >= lowerDateRange.getTimeInMillis();
             }
         }
 
         if ( match && ( upperDateRange != null ) ) {
             // test for the lower date range
-            if ( testNodeDate == null ) {
+            if ( testNodeDate == PictureInfo.NO_CREATION_TIME ) {
                 match = INCLUDE_NULL_DATES;
             } else {
-                match = testNodeDate.compareTo( upperDateRange ) <= 0 ;
+                match = testNodeDate <= upperDateRange.getTimeInMillis();
             }
         }
 
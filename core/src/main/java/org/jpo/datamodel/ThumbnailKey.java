@@ -0,0 +1,83 @@
+package org.jpo.datamodel;
+
+import java.awt.*;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.HexFormat;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * The key of a thumbnail in the cache. The thumbnail is identified by the content of the image and not by its
+ * location, so duplicate files share a thumbnail and moving or renaming a file doesn't lose it. The SHA-256 is held
+ * as four longs which keeps the key much smaller than the hex string.
+ *
+ * @param sha256Part0 bytes 0 to 7 of the SHA-256
+ * @param sha256Part1 bytes 8 to 15 of the SHA-256
+ * @param sha256Part2 bytes 16 to 23 of the SHA-256
+ * @param sha256Part3 bytes 24 to 31 of the SHA-256
+ * @param rotation    the rotation in hundredths of a degree
+ * @param width       the maximum width of the thumbnail
+ * @param height      the maximum height of the thumbnail
+ */
+public record ThumbnailKey(long sha256Part0,
+                           long sha256Part1,
+                           long sha256Part2,
+                           long sha256Part3,
+                           int rotation,
+                           int width,
+                           int height) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1;
+
+    /**
+     * Creates a key for the thumbnail of the picture with the supplied SHA-256
+     *
+     * @param sha256   the SHA-256 of the image as a 64 character hex string
+     * @param rotation the rotation in degrees
+     * @param maxSize  the maximum size of the thumbnail
+     * @return the key
+     * @throws IllegalArgumentException if the sha256 is not a 64 character hex string
+     */
+    public static ThumbnailKey of(final String sha256, final double rotation, final Dimension maxSize) {
+        if (sha256 == null || sha256.length() != 64) {
+            throw new IllegalArgumentException("A SHA-256 must have 64 hex characters: " + sha256);
+        }
+        return new ThumbnailKey(
+                HexFormat.fromHexDigitsToLong(sha256, 0, 16),
+                HexFormat.fromHexDigitsToLong(sha256, 16, 32),
+                HexFormat.fromHexDigitsToLong(sha256, 32, 48),
+                HexFormat.fromHexDigitsToLong(sha256, 48, 64),
+                (int) Math.round(rotation * 100),
+                maxSize.width,
+                maxSize.height);
+    }
+
+    /**
+     * Returns the SHA-256 of the key as an uppercase hex string
+     *
+     * @return the SHA-256
+     */
+    public String getSha256() {
+        final var hexFormat = HexFormat.of().withUpperCase();
+        return hexFormat.toHexDigits(sha256Part0)
+                + hexFormat.toHexDigits(sha256Part1)
+                + hexFormat.toHexDigits(sha256Part2)
+                + hexFormat.toHexDigits(sha256Part3);
+    }
+}
@@ -15,8 +15,10 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -111,12 +113,13 @@ public class Tools {
                 if (hasPictures(file)) {
                     return true;
                 }
-            } else if (JpoImageIO.jvmHasReader(file)) {
-                return true;
-            } else if (MimeTypes.isADocument(file)) {
-                return true;
-            } else if (MimeTypes.isAMovie(file)) {
-                return true;
+            } else {
+                final var fileType = FileTypeProbe.probe(file);
+                if (fileType.hasImageReader()
+                        || fileType.mediaKind() == FileTypeProbe.MediaKind.DOCUMENT
+                        || fileType.mediaKind() == FileTypeProbe.MediaKind.MOVIE) {
+                    return true;
+                }
             }
         }
         return false;
@@ -136,27 +139,46 @@ public class Tools {
      */
     @NotNull
     public static File inventFilename(final File targetDir, final String startName) {
+        return inventFilename(targetDir, startName, Set.of());
+    }
+
+    /**
+     * Returns a file in the target directory like {@link #inventFilename(File, String)} which is neither on the
+     * disk nor one of the reserved names. Use it to pick the names of a batch of files before any of them is
+     * written.
+     *
+     * @param targetDir     the directory in which the picture needs to go
+     * @param startName     the name to start trying
+     * @param reservedNames the names which were already handed out. The caller adds the new name.
+     * @return the new filename
+     */
+    @NotNull
+    public static File inventFilename(final File targetDir, final String startName, final Set<String> reservedNames) {
         final File testFile = new File(targetDir, startName);
-        if (!testFile.exists()) {
+        if (isFree(testFile, reservedNames)) {
             return testFile;
         }
 
         for (int i = 1; i < 50; i++) {
             final File newFile = new File(targetDir, FilenameUtils.getBaseName(startName) + "_" + i + "." + FilenameUtils.getExtension(startName));
-            if (!newFile.exists()) {
+            if (isFree(newFile, reservedNames)) {
                 return newFile;
             }
         }
 
         for (int i = 1; i < 50; i++) {
             final File newFile = new File(targetDir, FilenameUtils.getBaseName(startName) + "_" + RandomStringUtils.random(10, true, true) + "." + FilenameUtils.getExtension(startName));
-            if (!newFile.exists()) {
+            if (isFree(newFile, reservedNames)) {
                 return newFile;
             }
         }
         return new File(targetDir, RandomStringUtils.random(50, true, true) + "." + FilenameUtils.getExtension(startName));
     }
 
+    private static boolean isFree(final File file, final Set<String> reservedNames) {
+        return !reservedNames.contains(file.getName()) && !file.exists();
+    }
+
     /**
      * convenience method to log the amount of free memory
      */
@@ -178,6 +200,44 @@ public class Tools {
         return (JpoCoreResources.getResource("freeMemory") + freeMemory + "MB/" + totalMemory + "MB/" + maxMemory + "MB");
     }
 
+    /**
+     * The patterns which {@link #parseDate} tries in this order
+     */
+    private static final String[] DATE_PATTERNS = {
+            "uuuu[:L:dd[ HH:mm[:ss]]]",
+            "uu[:L:dd[ HH:mm[:ss]]]",
+            "[dd.L.]uuuu[ HH:mm[:ss]]",
+            "L/dd/uuuu[ HH:mm[:ss]]",
+            "L/dd/uu[ HH:mm[:ss]]",
+            "L.uuuu",
+            "d.L.uuuu",
+            "dd.L.uu",
+            "L-uuuu",
+            "dd-L-uuuu",
+            "dd LLL uu",
+            "dd LLL uuuu",
+            "dd-L-uu",
+            "uuuu-L-dd[ HH:mm[:ss]]",
+            "uuuu-L-dd[ HH.mm[.ss]]",
+            "uuuu-L-dd[ 'at' HH.mm[.ss]]",
+            "uuuuLLdd"
+    };
+
+    /**
+     * The formatters of the {@link #DATE_PATTERNS}. They are immutable and are built once rather than on every
+     * call.
+     */
+    private static final DateTimeFormatter[] DATE_FORMATTERS = Arrays.stream(DATE_PATTERNS)
+            .map(pattern -> new DateTimeFormatterBuilder()
+                    .appendPattern(pattern)
+                    .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                    .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                    .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                    .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                    .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
+                    .toFormatter())
+            .toArray(DateTimeFormatter[]::new);
+
     /*
      * This method tries its best to parse the supplied date into a Java Date
      * object. If the date can't be parsed it returns null.
@@ -186,37 +246,10 @@ public class Tools {
      * @return the Java Calendar object with the parsed date
      */
     public static Calendar parseDate(final String dateString) {
-        final String[] patterns = {
-                "uuuu[:L:dd[ HH:mm[:ss]]]",
-                "uu[:L:dd[ HH:mm[:ss]]]",
-                "[dd.L.]uuuu[ HH:mm[:ss]]",
-                "L/dd/uuuu[ HH:mm[:ss]]",
-                "L/dd/uu[ HH:mm[:ss]]",
-                "L.uuuu",
-                "d.L.uuuu",
-                "dd.L.uu",
-                "L-uuuu",
-                "dd-L-uuuu",
-                "dd LLL uu",
-                "dd LLL uuuu",
-                "dd-L-uu",
-                "uuuu-L-dd[ HH:mm[:ss]]",
-                "uuuu-L-dd[ HH.mm[.ss]]",
-                "uuuu-L-dd[ 'at' HH.mm[.ss]]",
-                "uuuuLLdd"
-        };
-        for (final String pattern : patterns) {
+        for (var i = 0; i < DATE_FORMATTERS.length; i++) {
             try {
-                final DateTimeFormatter formatter = new DateTimeFormatterBuilder()
-                        .appendPattern(pattern)
-                        .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
-                        .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
-                        .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
-                        .parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
-                        .parseDefaulting(ChronoField.DAY_OF_MONTH, 1)
-                        .toFormatter();
-                final LocalDateTime parsedResult = LocalDateTime.parse(dateString, formatter);
-                LOGGER.log(Level.FINE, "Matched {0} on pattern {1}", new Object[]{dateString, pattern});
+                final LocalDateTime parsedResult = LocalDateTime.parse(dateString, DATE_FORMATTERS[i]);
+                LOGGER.log(Level.FINE, "Matched {0} on pattern {1}", new Object[]{dateString, DATE_PATTERNS[i]});
                 return GregorianCalendar.from(ZonedDateTime.of(parsedResult, ZoneId.systemDefault()));
             } catch (final DateTimeParseException _) {
                 // skip and continue with the next pattern
@@ -1,5 +1,6 @@
 package org.jpo.datamodel;
 
+import com.google.common.io.CountingInputStream;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
@@ -10,6 +11,7 @@ import javax.xml.parsers.SAXParserFactory;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,7 +53,27 @@ public class XmlReader {
      *                    read.
      */
     public static void read(final InputStream inputStream, final SortableDefaultMutableTreeNode startNode, final ProgressTracker progressTracker) {
-        final var bufferedInputStream = new BufferedInputStream(inputStream);
+        read(inputStream, -1, startNode, startNode::add, progressTracker);
+    }
+
+    /**
+     * Parses the stream and hands each top level group or picture to the consumer once it has been read
+     * completely. The progress tracker is told how many bytes have been read.
+     *
+     * @param inputStream          The stream which is to be parsed
+     * @param totalBytes           The size of the stream or -1 if it is not known
+     * @param startNode            The node that becomes the root node for the nodes being read. It gets the
+     *                             name of the collection but the consumer decides when the nodes are added.
+     * @param topLevelNodeConsumer Receives the completed top level nodes
+     * @param progressTracker      The progress GUI to update
+     */
+    public static void read(final InputStream inputStream,
+                            final long totalBytes,
+                            final SortableDefaultMutableTreeNode startNode,
+                            final Consumer<SortableDefaultMutableTreeNode> topLevelNodeConsumer,
+                            final ProgressTracker progressTracker) {
+        final var countingInputStream = new CountingInputStream(inputStream);
+        final var bufferedInputStream = new BufferedInputStream(countingInputStream);
 
         final var factory = SAXParserFactory.newInstance();
         factory.setValidating(false);
@@ -66,7 +88,7 @@ public class XmlReader {
         }
 
         try {
-            saxParser.parse(bufferedInputStream, new SaxEventHandler(startNode, progressTracker));
+            saxParser.parse(bufferedInputStream, new SaxEventHandler(startNode, topLevelNodeConsumer, progressTracker, countingInputStream::getCount, totalBytes));
         } catch (final SAXParseException spe) {
             // Error generated by the parser
             LOGGER.log(Level.INFO, "\n** Parsing error" + ", line {0}, uri {1}", new Object[]{spe.getLineNumber(), spe.getSystemId()});
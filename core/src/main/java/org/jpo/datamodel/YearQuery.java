@@ -7,7 +7,7 @@ import java.util.Calendar;
 import java.util.List;
 
 /*
- Copyright (C) 2014-2025 Richard Eigenmann.
+ Copyright (C) 2014-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -172,6 +172,22 @@ public class YearQuery implements Serializable, Query {
      * @return The List of nodes.
      */
     public List<SortableDefaultMutableTreeNode> extractSearchResults() {
+        final var pictureCollection = startNode.getPictureCollection();
+        if (pictureCollection != null && !includeNullDates && (lowerDateRange != null || upperDateRange != null)) {
+            // the undated pictures don't match so the date index of the collection has all the answers
+            final var candidates = pictureCollection.getPicturesBetween(
+                    lowerDateRange == null ? Long.MIN_VALUE + 1 : lowerDateRange.getTimeInMillis(),
+                    upperDateRange == null ? Long.MAX_VALUE : upperDateRange.getTimeInMillis());
+            final var wholeCollection = startNode == pictureCollection.getRootNode();
+            searchResults = new ArrayList<>(candidates.size());
+            for (final var candidate : candidates) {
+                if (wholeCollection || startNode.isNodeDescendant(candidate)) {
+                    searchResults.add(candidate);
+                }
+            }
+            return searchResults;
+        }
+
         SortableDefaultMutableTreeNode testNode;
         searchResults = new ArrayList<>();
 
@@ -206,22 +222,22 @@ public class YearQuery implements Serializable, Query {
         }
 
         var match = true;
-        final var testNodeDate = pictureInfo.getCreationTimeAsDate();
+        final var testNodeDate = pictureInfo.getCreationTimeMillis();
         if ( lowerDateRange != null ) {
             // test for the lower date range
-            if ( testNodeDate == null ) {
+            if ( testNodeDate == PictureInfo.NO_CREATION_TIME ) {
                 match = includeNullDates;
             } else {
-                match = testNodeDate.compareTo( lowerDateRange ) >= 0 ;
+                match = testNodeDate >= lowerDateRange.getTimeInMillis();
             }
         }
 
         if ( match && ( upperDateRange != null ) ) {
             // test for the lower date range
-            if ( testNodeDate == null ) {
+            if ( testNodeDate == PictureInfo.NO_CREATION_TIME ) {
                 match = includeNullDates;
             } else {
-                match = testNodeDate.compareTo( upperDateRange ) <= 0;
+                match = testNodeDate <= upperDateRange.getTimeInMillis();
             }
         }
 
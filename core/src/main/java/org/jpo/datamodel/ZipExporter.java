@@ -0,0 +1,184 @@
+package org.jpo.datamodel;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Writes files into a zipfile. JPEGs, movies and other files which are already compressed are STORED because
+ * deflating them costs a lot of time and gains nothing. The other files are DEFLATED on all processors with a
+ * {@link ParallelScatterZipCreator}. When appending to an existing zipfile its entries are copied over raw without
+ * decompressing and recompressing them.
+ * <p>
+ * The zipfile is written to a temporary file which replaces the target at the end so that a failure doesn't
+ * damage an existing zipfile.
+ */
+public final class ZipExporter {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ZipExporter.class.getName());
+
+    /**
+     * The suffix of the temporary file next to the target zipfile
+     */
+    private static final String TEMP_SUFFIX = ".org.jpo.temp";
+
+    /**
+     * Mime types of files which are compressed already
+     */
+    private static final Set<String> COMPRESSED_MIME_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/heic", "image/heif", "image/avif",
+            "image/jp2", "application/zip", "application/gzip", "application/x-7z-compressed");
+
+    private ZipExporter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * A file to add to the zipfile
+     *
+     * @param file      the file
+     * @param entryName the name of the entry in the zipfile
+     */
+    public record Member(File file, String entryName) {
+    }
+
+    /**
+     * Returns how the file should go into a zipfile
+     *
+     * @param file the file
+     * @return {@link ZipEntry#STORED} for files which are compressed already or else {@link ZipEntry#DEFLATED}
+     */
+    public static int getMethod(final File file) {
+        final var fileType = FileTypeProbe.probe(file);
+        final var mimeType = fileType.mimeType();
+        if (fileType.mediaKind() == FileTypeProbe.MediaKind.MOVIE
+                || COMPRESSED_MIME_TYPES.contains(mimeType)
+                || mimeType.startsWith("video/")
+                || mimeType.startsWith("audio/")) {
+            return ZipEntry.STORED;
+        }
+        return ZipEntry.DEFLATED;
+    }
+
+    /**
+     * Writes the members to the target zipfile. Members which can't be read and members with the name of a member
+     * that was already added are skipped.
+     *
+     * @param targetZipfile the zipfile to write
+     * @param members       the files to put into the zipfile
+     * @param append        if true and the target exists its entries are kept unless a member replaces them
+     * @return the number of members added
+     * @throws IOException if the zipfile can't be written. The target is left as it was.
+     */
+    public static int export(final File targetZipfile, final Collection<Member> members, final boolean append) throws IOException {
+        final var tempFile = new File(targetZipfile.getAbsolutePath() + TEMP_SUFFIX);
+        final var entryNames = new HashSet<String>();
+        final var executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        var added = 0;
+        try (final var zipArchiveOutputStream = new ZipArchiveOutputStream(tempFile)) {
+            final var scatterZipCreator = new ParallelScatterZipCreator(executorService);
+            for (final var member : members) {
+                if (!member.file().canRead()) {
+                    LOGGER.log(Level.WARNING, "Skipping {0} as it can''t be read", member.file());
+                    continue;
+                }
+                if (!entryNames.add(member.entryName())) {
+                    LOGGER.log(Level.WARNING, "Skipping {0} as there is already an entry {1}", new Object[]{member.file(), member.entryName()});
+                    continue;
+                }
+                final var entry = new ZipArchiveEntry(member.file(), member.entryName());
+                entry.setMethod(getMethod(member.file()));
+                LOGGER.log(Level.FINE, "Adding {0} as {1}", new Object[]{member.file(), entry.getMethod() == ZipEntry.STORED ? "STORED" : "DEFLATED"});
+                if (entry.getMethod() == ZipEntry.STORED) {
+                    zipArchiveOutputStream.putArchiveEntry(entry);
+                    Files.copy(member.file().toPath(), zipArchiveOutputStream);
+                    zipArchiveOutputStream.closeArchiveEntry();
+                } else {
+                    scatterZipCreator.addArchiveEntry(entry, () -> {
+                        try {
+                            return Files.newInputStream(member.file().toPath());
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                added++;
+            }
+            if (append && targetZipfile.exists()) {
+                copyRawEntries(targetZipfile, zipArchiveOutputStream, entryNames);
+            }
+            scatterZipCreator.writeTo(zipArchiveOutputStream);
+            zipArchiveOutputStream.finish();
+        } catch (final IOException | UncheckedIOException | ExecutionException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Files.deleteIfExists(tempFile.toPath());
+            throw new IOException("Could not write the zipfile " + targetZipfile, e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        Files.move(tempFile.toPath(), targetZipfile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.log(Level.INFO, "Added {0} files to {1}", new Object[]{added, targetZipfile});
+        return added;
+    }
+
+    /**
+     * Copies the compressed data of the entries of the old zipfile over
+     *
+     * @param oldZipfile             the zipfile to copy from
+     * @param zipArchiveOutputStream the stream to copy to
+     * @param replacedNames          the names of the entries which were replaced and must not be copied
+     * @throws IOException if something went wrong
+     */
+    private static void copyRawEntries(final File oldZipfile, final ZipArchiveOutputStream zipArchiveOutputStream, final Set<String> replacedNames) throws IOException {
+        try (final var oldZipFile = ZipFile.builder().setFile(oldZipfile).get()) {
+            final var entries = oldZipFile.getEntries();
+            while (entries.hasMoreElements()) {
+                final var entry = entries.nextElement();
+                if (replacedNames.contains(entry.getName())) {
+                    LOGGER.log(Level.INFO, "Replacing entry {0}", entry.getName());
+                    continue;
+                }
+                LOGGER.log(Level.FINE, "Raw copy: {0}", entry.getName());
+                try (final var rawInputStream = oldZipFile.getRawInputStream(entry)) {
+                    zipArchiveOutputStream.addRawArchiveEntry(entry, rawInputStream);
+                }
+            }
+        }
+    }
+}
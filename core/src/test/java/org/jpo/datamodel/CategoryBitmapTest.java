@@ -0,0 +1,96 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class CategoryBitmapTest {
+
+    private static List<Integer> toList(final CategoryBitmap bitmap) {
+        final var list = new ArrayList<Integer>();
+        bitmap.forEach(list::add);
+        return list;
+    }
+
+    @Test
+    void testAddRemoveContains() {
+        final var bitmap = new CategoryBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertTrue(bitmap.add(70000));
+        assertTrue(bitmap.add(3));
+        assertFalse(bitmap.add(3));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(4));
+        assertEquals(List.of(3, 70000), toList(bitmap));
+        assertTrue(bitmap.remove(70000));
+        assertFalse(bitmap.remove(70000));
+        assertEquals(1, bitmap.getCardinality());
+    }
+
+    @Test
+    void testSwitchesToBitmapAndBack() {
+        final var bitmap = new CategoryBitmap();
+        final var expected = new TreeSet<Integer>();
+        for (var i = 0; i < 3 * CategoryBitmap.MAX_ARRAY_SIZE; i += 2) {
+            bitmap.add(i);
+            expected.add(i);
+        }
+        assertEquals(expected.size(), bitmap.getCardinality());
+        assertEquals(List.copyOf(expected), toList(bitmap));
+
+        for (var i = 0; i < 3 * CategoryBitmap.MAX_ARRAY_SIZE; i += 4) {
+            bitmap.remove(i);
+            expected.remove(i);
+        }
+        for (var i = 2; i < 2 * CategoryBitmap.MAX_ARRAY_SIZE; i += 4) {
+            bitmap.remove(i);
+            expected.remove(i);
+        }
+        assertEquals(List.copyOf(expected), toList(bitmap));
+        assertTrue(bitmap.contains(2 * CategoryBitmap.MAX_ARRAY_SIZE + 2));
+        assertFalse(bitmap.contains(2));
+    }
+
+    @Test
+    void testCombine() {
+        final var evens = new CategoryBitmap();
+        final var threes = new CategoryBitmap();
+        for (var i = 0; i < 20000; i++) {
+            if (i % 2 == 0) {
+                evens.add(i);
+            }
+            if (i % 3 == 0) {
+                threes.add(i);
+            }
+        }
+        threes.add(100000);
+        assertEquals(3334, CategoryBitmap.and(evens, threes).getCardinality());
+        assertEquals(10000 + 6667 + 1 - 3334, CategoryBitmap.or(evens, threes).getCardinality());
+        final var andNot = CategoryBitmap.andNot(threes, evens);
+        assertEquals(6667 + 1 - 3334, andNot.getCardinality());
+        assertTrue(andNot.contains(100000));
+        assertFalse(andNot.contains(6));
+        // the operands stay as they were
+        assertEquals(10000, evens.getCardinality());
+    }
+}
@@ -2,11 +2,14 @@ package org.jpo.datamodel;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
+import static org.jpo.datamodel.CategoryExpression.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 /*
- Copyright (C) 2024 Richard Eigenmann.
+ Copyright (C) 2024-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -66,4 +69,83 @@ class CategoryQueryTest {
         assertNull(categoryQuery.getIndex(1));
     }
 
-}
\ No newline at end of file
+    private static SortableDefaultMutableTreeNode addPicture(final PictureCollection pictureCollection, final Integer... categories) {
+        final var pictureInfo = new PictureInfo();
+        for (final var category : categories) {
+            pictureInfo.addCategoryAssignment(category);
+        }
+        final var pictureNode = new SortableDefaultMutableTreeNode(pictureInfo);
+        pictureCollection.getRootNode().add(pictureNode);
+        return pictureNode;
+    }
+
+    @Test
+    void testCombinedCategories() {
+        final var pictureCollection = new PictureCollection();
+        final var holiday = pictureCollection.addCategory("Holiday", () -> {});
+        final var beach = pictureCollection.addCategory("Beach", () -> {});
+        final var mountains = pictureCollection.addCategory("Mountains", () -> {});
+        final var work = pictureCollection.addCategory("Work", () -> {});
+        final var beachHoliday = addPicture(pictureCollection, holiday, beach);
+        final var mountainHoliday = addPicture(pictureCollection, holiday, mountains);
+        final var beachMeeting = addPicture(pictureCollection, holiday, beach, work);
+        final var office = addPicture(pictureCollection, work);
+
+        final var expression = and(category(holiday), or(category(beach), category(mountains)), not(category(work)));
+        final var categoryQuery = new CategoryQuery(pictureCollection, expression);
+        assertEquals(2, categoryQuery.getNumberOfResults());
+        assertEquals(beachHoliday, categoryQuery.getIndex(0));
+        assertEquals(mountainHoliday, categoryQuery.getIndex(1));
+        assertEquals("Category: Holiday AND (Beach OR Mountains) AND NOT Work", categoryQuery.getTitle());
+
+        assertEquals(List.of(mountainHoliday, office), pictureCollection.getPicturesWithCategories(not(category(beach))));
+        // an AND of exclusions starts from all the pictures
+        assertEquals(List.of(office), pictureCollection.getPicturesWithCategories(and(not(category(holiday)), not(category(beach)))));
+        assertEquals(List.of(beachMeeting), pictureCollection.getPicturesWithCategories(and(category(work), category(beach))));
+        assertEquals(3, pictureCollection.countCategoryUsage(holiday));
+        assertEquals(3, pictureCollection.countPicturesWithCategories(or(category(beach), category(work))));
+    }
+
+    @Test
+    void testFollowsChanges() {
+        final var pictureCollection = new PictureCollection();
+        final var beach = pictureCollection.addCategory("Beach", () -> {});
+        final var work = pictureCollection.addCategory("Work", () -> {});
+        final var first = addPicture(pictureCollection, beach);
+        final var second = addPicture(pictureCollection);
+        assertEquals(1, pictureCollection.countCategoryUsage(beach));
+
+        ((PictureInfo) second.getUserObject()).addCategoryAssignment(beach);
+        ((PictureInfo) first.getUserObject()).setDescription("moved to a new description");
+        assertEquals(List.of(first, second), pictureCollection.getPicturesWithCategories(category(beach)));
+
+        ((PictureInfo) first.getUserObject()).removeCategory(beach);
+        ((PictureInfo) first.getUserObject()).addCategoryAssignment(work);
+        assertEquals(List.of(second), pictureCollection.getPicturesWithCategories(category(beach)));
+        assertEquals(List.of(first), pictureCollection.getPicturesWithCategories(category(work)));
+
+        second.removeFromParent();
+        assertEquals(0, pictureCollection.countCategoryUsage(beach));
+        assertEquals(List.of(first), pictureCollection.getPicturesWithCategories(not(category(beach))));
+    }
+
+    @Test
+    void testRemoveCategoryUsage() {
+        final var pictureCollection = new PictureCollection();
+        final var beach = pictureCollection.addCategory("Beach", () -> {});
+        final var group = new SortableDefaultMutableTreeNode(new GroupInfo("Group"));
+        pictureCollection.getRootNode().add(group);
+        final var inGroup = new SortableDefaultMutableTreeNode(new PictureInfo());
+        ((PictureInfo) inGroup.getUserObject()).addCategoryAssignment(beach);
+        group.add(inGroup);
+        final var outside = addPicture(pictureCollection, beach);
+
+        pictureCollection.removeCategoryUsage(beach, group);
+        assertEquals(List.of(outside), pictureCollection.getPicturesWithCategories(category(beach)));
+
+        pictureCollection.removeCategoryUsage(beach, pictureCollection.getRootNode());
+        assertEquals(0, pictureCollection.countCategoryUsage(beach));
+        assertEquals(0, ((PictureInfo) outside.getUserObject()).getCategoryAssignments().size());
+    }
+
+}
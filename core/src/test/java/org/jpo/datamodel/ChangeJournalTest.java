@@ -0,0 +1,308 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class ChangeJournalTest {
+
+    private static final ProgressTracker NO_PROGRESS = new ProgressTracker() {
+        @Override
+        public void update(final String message) {
+            // not interested
+        }
+
+        @Override
+        public void done() {
+            // not interested
+        }
+    };
+
+    private static PictureCollection createSavedCollection(final Path directory) throws IOException {
+        final var pictureCollection = new PictureCollection();
+        pictureCollection.getRootNode().setUserObject(new GroupInfo("Journal Collection"));
+        pictureCollection.addCategory(1, "Holiday");
+        final var holidays = new SortableDefaultMutableTreeNode(new GroupInfo("Holidays"));
+        pictureCollection.getRootNode().add(holidays);
+        holidays.add(new SortableDefaultMutableTreeNode(new PictureInfo(directory.resolve("beach.jpg").toFile(), "At the beach")));
+        holidays.add(new SortableDefaultMutableTreeNode(new PictureInfo(directory.resolve("hotel.jpg").toFile(), "The hotel")));
+        final var home = new SortableDefaultMutableTreeNode(new GroupInfo("Home"));
+        pictureCollection.getRootNode().add(home);
+        home.add(new SortableDefaultMutableTreeNode(new PictureInfo(directory.resolve("house.jpg").toFile(), "Our house")));
+        pictureCollection.setXmlFile(directory.resolve("collection.xml").toFile());
+        pictureCollection.fileSave();
+        return pictureCollection;
+    }
+
+    private static PictureCollection load(final File xmlFile) throws IOException {
+        final var loaded = new PictureCollection();
+        loaded.fileLoad(xmlFile, NO_PROGRESS, () -> {
+        });
+        return loaded;
+    }
+
+    private static PictureInfo getPicture(final SortableDefaultMutableTreeNode node, final int... path) {
+        var current = node;
+        for (final var index : path) {
+            current = (SortableDefaultMutableTreeNode) current.getChildAt(index);
+        }
+        return (PictureInfo) current.getUserObject();
+    }
+
+    @Test
+    void testSaveAppendsToTheJournal(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        final var journalFile = ChangeJournal.getJournalFile(xmlFile);
+        assertFalse(journalFile.exists());
+        final var xmlSize = xmlFile.length();
+        final var xmlLastModified = xmlFile.lastModified();
+
+        final var rootNode = pictureCollection.getRootNode();
+        final var holidays = (SortableDefaultMutableTreeNode) rootNode.getChildAt(0);
+        final var home = (SortableDefaultMutableTreeNode) rootNode.getChildAt(1);
+        getPicture(holidays, 0).setDescription("At the beach\twith a tab");
+        getPicture(holidays, 1).addCategoryAssignment(1);
+        ((GroupInfo) home.getUserObject()).setGroupName("Home sweet home");
+        final var garden = new SortableDefaultMutableTreeNode(new GroupInfo("Garden"));
+        home.add(garden);
+        garden.add(new SortableDefaultMutableTreeNode(new PictureInfo(tempDir.resolve("roses.jpg").toFile(), "Roses")));
+        ((SortableDefaultMutableTreeNode) holidays.getChildAt(1)).moveToLastChild(home);
+        ((SortableDefaultMutableTreeNode) home.getChildAt(0)).removeFromParent();
+        pictureCollection.addCategory("Garden", () -> {
+        });
+        pictureCollection.fileSave();
+
+        assertTrue(journalFile.exists());
+        assertEquals(xmlSize, xmlFile.length());
+        assertEquals(xmlLastModified, xmlFile.lastModified());
+        assertFalse(pictureCollection.getUnsavedUpdates());
+
+        final var loaded = load(xmlFile);
+        final var loadedRoot = loaded.getRootNode();
+        assertEquals(2, loadedRoot.getChildCount());
+        final var loadedHolidays = (SortableDefaultMutableTreeNode) loadedRoot.getChildAt(0);
+        assertEquals(1, loadedHolidays.getChildCount());
+        assertEquals("At the beach\twith a tab", getPicture(loadedHolidays, 0).getDescription());
+        final var loadedHome = (SortableDefaultMutableTreeNode) loadedRoot.getChildAt(1);
+        assertEquals("Home sweet home", loadedHome.toString());
+        assertEquals(2, loadedHome.getChildCount());
+        assertEquals("Garden", loadedHome.getChildAt(0).toString());
+        assertEquals("Roses", getPicture(loadedHome, 0, 0).getDescription());
+        assertEquals("The hotel", getPicture(loadedHome, 1).getDescription());
+        assertTrue(getPicture(loadedHome, 1).containsCategory(1));
+        assertEquals("Garden", loaded.getCategory(2));
+        assertEquals(1, loaded.findNodesByFile(tempDir.resolve("roses.jpg").toFile()).size());
+        assertFalse(loaded.getUnsavedUpdates());
+
+        // a second round appends to the replayed journal
+        getPicture(loadedHome, 1).setPhotographer("Richard");
+        loaded.fileSave();
+        assertEquals(xmlSize, xmlFile.length());
+        assertEquals("Richard", getPicture((SortableDefaultMutableTreeNode) load(xmlFile).getRootNode().getChildAt(1), 1).getPhotographer());
+    }
+
+    @Test
+    void testNodesAreOnlyShownAfterTheReplay(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        final var home = (SortableDefaultMutableTreeNode) pictureCollection.getRootNode().getChildAt(1);
+        home.moveToIndex(pictureCollection.getRootNode(), 0);
+        pictureCollection.fileSave();
+
+        final var loaded = new PictureCollection();
+        final var shown = Collections.synchronizedList(new ArrayList<String>());
+        loaded.getTreeModel().addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(final TreeModelEvent e) {
+                // not interested
+            }
+
+            @Override
+            public void treeNodesInserted(final TreeModelEvent e) {
+                shown.add("inserted");
+            }
+
+            @Override
+            public void treeNodesRemoved(final TreeModelEvent e) {
+                // not interested
+            }
+
+            @Override
+            public void treeStructureChanged(final TreeModelEvent e) {
+                shown.add(loaded.getRootNode().getChildCount() == 0 ? "empty" : loaded.getRootNode().getChildAt(0).toString());
+            }
+        });
+        loaded.fileLoad(xmlFile, NO_PROGRESS, () -> {
+        });
+        assertFalse(shown.contains("inserted"));
+        assertEquals("Home", shown.getLast());
+        assertFalse(shown.contains("Holidays"));
+    }
+
+    @Test
+    void testIncompleteBatchIsIgnored(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        getPicture(pictureCollection.getRootNode(), 0, 0).setComment("Sunny");
+        pictureCollection.fileSave();
+        Files.writeString(ChangeJournal.getJournalFile(xmlFile).toPath(), "G\t0\tHalf written", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        final var loaded = load(xmlFile);
+        assertEquals("Holidays", loaded.getRootNode().getChildAt(0).toString());
+        assertEquals("Sunny", getPicture(loaded.getRootNode(), 0, 0).getComment());
+
+        ((GroupInfo) ((SortableDefaultMutableTreeNode) loaded.getRootNode().getChildAt(1)).getUserObject()).setGroupName("Renamed");
+        loaded.fileSave();
+        final var reloaded = load(xmlFile);
+        assertEquals("Holidays", reloaded.getRootNode().getChildAt(0).toString());
+        assertEquals("Renamed", reloaded.getRootNode().getChildAt(1).toString());
+    }
+
+    @Test
+    void testUncapturedChangesWriteTheWholeFile(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        getPicture(pictureCollection.getRootNode(), 0, 0).setComment("Sunny");
+        pictureCollection.fileSave();
+        assertTrue(ChangeJournal.getJournalFile(xmlFile).exists());
+
+        ((SortableDefaultMutableTreeNode) pictureCollection.getRootNode().getChildAt(0)).sortChildren(FieldCodes.DESCRIPTION);
+        pictureCollection.fileSave();
+        assertFalse(ChangeJournal.getJournalFile(xmlFile).exists());
+        assertEquals("Sunny", getPicture(load(xmlFile).getRootNode(), 0, 0).getComment());
+    }
+
+    @Test
+    void testStaleJournalIsIgnored(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        getPicture(pictureCollection.getRootNode(), 0, 0).setComment("Sunny");
+        pictureCollection.fileSave();
+        assertTrue(xmlFile.setLastModified(xmlFile.lastModified() - 10_000));
+
+        assertEquals("", getPicture(load(xmlFile).getRootNode(), 0, 0).getComment());
+    }
+
+    @Test
+    void testCompactionKeepsTheBatchesAppendedMeanwhile(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        final var journalFile = ChangeJournal.getJournalFile(xmlFile).toPath();
+        final var changeJournal = pictureCollection.getChangeJournal();
+        getPicture(pictureCollection.getRootNode(), 0, 0).setComment("Sunny");
+        pictureCollection.fileSave();
+        final var compaction = changeJournal.writeCompactedFile(xmlFile);
+        assertNotNull(compaction);
+
+        // a save while the compacted file is being written
+        getPicture(pictureCollection.getRootNode(), 1, 0).setComment("Cosy");
+        pictureCollection.fileSave();
+        changeJournal.installCompactedFile(xmlFile, compaction);
+
+        final var journal = Files.readString(journalFile, StandardCharsets.UTF_8);
+        assertFalse(journal.contains("Sunny"));
+        assertTrue(journal.contains("Cosy"));
+        final var loaded = load(xmlFile);
+        assertEquals("Sunny", getPicture(loaded.getRootNode(), 0, 0).getComment());
+        assertEquals("Cosy", getPicture(loaded.getRootNode(), 1, 0).getComment());
+
+        // the journal goes on after the compaction
+        getPicture(pictureCollection.getRootNode(), 0, 1).setComment("Quiet");
+        pictureCollection.fileSave();
+        final var reloaded = load(xmlFile);
+        assertEquals("Cosy", getPicture(reloaded.getRootNode(), 1, 0).getComment());
+        assertEquals("Quiet", getPicture(reloaded.getRootNode(), 0, 1).getComment());
+    }
+
+    @Test
+    void testCrashDuringCompactionLosesNothing(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        final var journalFile = ChangeJournal.getJournalFile(xmlFile).toPath();
+        final var newJournalFile = Path.of(journalFile + ".tmp");
+        final var changeJournal = pictureCollection.getChangeJournal();
+        getPicture(pictureCollection.getRootNode(), 0, 0).setComment("Sunny");
+        pictureCollection.fileSave();
+        final var compaction = changeJournal.writeCompactedFile(xmlFile);
+        getPicture(pictureCollection.getRootNode(), 1, 0).setComment("Cosy");
+        pictureCollection.fileSave();
+        final var oldJournal = Files.readAllBytes(journalFile);
+        changeJournal.installCompactedFile(xmlFile, compaction);
+
+        // how a crash after the XML file was replaced but before the new journal was renamed leaves the files
+        Files.move(journalFile, newJournalFile);
+        Files.write(journalFile, oldJournal);
+
+        final var loaded = load(xmlFile);
+        assertEquals("Sunny", getPicture(loaded.getRootNode(), 0, 0).getComment());
+        assertEquals("Cosy", getPicture(loaded.getRootNode(), 1, 0).getComment());
+        assertFalse(Files.exists(newJournalFile));
+    }
+
+    @Test
+    void testBinaryCollectionIsNotReplayedTwice(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = createSavedCollection(tempDir);
+        final var xmlFile = pictureCollection.getXmlFile();
+        final var holidays = (SortableDefaultMutableTreeNode) pictureCollection.getRootNode().getChildAt(0);
+        holidays.add(new SortableDefaultMutableTreeNode(new PictureInfo(tempDir.resolve("pool.jpg").toFile(), "The pool")));
+        pictureCollection.fileSave();
+        // like after a compaction: the XML file and the journal are there but the binary file is not
+        Files.delete(JpoBinaryCollection.getBinaryFile(xmlFile).toPath());
+
+        // the load replays the journal and writes the binary file from the replayed tree
+        assertEquals(3, load(xmlFile).getRootNode().getChildAt(0).getChildCount());
+        assertTrue(JpoBinaryCollection.isCurrent(xmlFile));
+        assertEquals(ChangeJournal.getCommittedLength(xmlFile), JpoBinaryCollection.getJournalLength(xmlFile));
+
+        final var reloaded = load(xmlFile);
+        final var reloadedHolidays = (SortableDefaultMutableTreeNode) reloaded.getRootNode().getChildAt(0);
+        assertEquals(3, reloadedHolidays.getChildCount());
+        assertEquals(1, reloaded.findNodesByFile(tempDir.resolve("pool.jpg").toFile()).size());
+
+        // a batch appended after the binary file was written is replayed over it once
+        reloadedHolidays.add(new SortableDefaultMutableTreeNode(new PictureInfo(tempDir.resolve("bar.jpg").toFile(), "The bar")));
+        reloaded.fileSave();
+        final var third = load(xmlFile);
+        assertEquals(4, third.getRootNode().getChildAt(0).getChildCount());
+        assertEquals(1, third.findNodesByFile(tempDir.resolve("pool.jpg").toFile()).size());
+        assertEquals(1, third.findNodesByFile(tempDir.resolve("bar.jpg").toFile()).size());
+    }
+
+    @Test
+    void testEscape() {
+        final var s = "a\tb\\c\nd\re";
+        assertFalse(ChangeJournal.escape(s).contains("\t"));
+        assertFalse(ChangeJournal.escape(s).contains("\n"));
+        assertEquals(s, ChangeJournal.unescape(ChangeJournal.escape(s)));
+        assertEquals("", ChangeJournal.escape(null));
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.jpo.datamodel.Tools.copyResourceToTempFile;
 import static org.junit.jupiter.api.Assertions.*;
@@ -78,6 +80,73 @@ class DuplicatesQueryTest {
         assertNull(duplicatesQuery.getIndex(2));
     }
 
+    private static SortableDefaultMutableTreeNode addPicture(final PictureCollection pictureCollection, final String file, final String sha256) {
+        final var pictureInfo = new PictureInfo(new File(file), file);
+        final var node = new SortableDefaultMutableTreeNode(pictureInfo);
+        pictureCollection.getRootNode().add(node);
+        pictureInfo.setSha256(sha256);
+        return node;
+    }
+
+    @Test
+    void testTriplicatesAreListedOnce() {
+        final var pictureCollection = new PictureCollection();
+        final var node1 = addPicture(pictureCollection, "/images/a.jpg", "");
+        final var node2 = addPicture(pictureCollection, "/images/a.jpg", "");
+        final var node3 = addPicture(pictureCollection, "/images/../images/a.jpg", "");
+        final var duplicatesQuery = new DuplicatesQuery(pictureCollection);
+        assertEquals(3, duplicatesQuery.getNumberOfResults());
+        assertEquals(List.of(List.of(node1, node2, node3)), duplicatesQuery.getClusters());
+    }
+
+    @Test
+    void testClustersJoinFileAndSha256() {
+        final var pictureCollection = new PictureCollection();
+        final var unique = addPicture(pictureCollection, "/images/unique.jpg", "AAAA");
+        final var b1 = addPicture(pictureCollection, "/images/b.jpg", "BBBB");
+        final var c1 = addPicture(pictureCollection, "/images/c.jpg", "CCCC");
+        final var b2 = addPicture(pictureCollection, "/copies/b.jpg", "BBBB");
+        final var b3 = addPicture(pictureCollection, "/copies/b.jpg", "");
+        final var c2 = addPicture(pictureCollection, "/copies/c.jpg", "CCCC");
+        final var duplicatesQuery = new DuplicatesQuery(pictureCollection);
+        assertEquals(List.of(List.of(b1, b2, b3), List.of(c1, c2)), duplicatesQuery.getClusters());
+        assertEquals(5, duplicatesQuery.getNumberOfResults());
+        assertEquals(b1, duplicatesQuery.getIndex(0));
+        assertEquals(c1, duplicatesQuery.getIndex(3));
+        assertFalse(duplicatesQuery.getClusters().stream().anyMatch(cluster -> cluster.contains(unique)));
+    }
 
+    @Test
+    void testProgressAndResultsListener() {
+        final var pictureCollection = new PictureCollection();
+        addPicture(pictureCollection, "/images/a.jpg", "AAAA");
+        addPicture(pictureCollection, "/copies/a.jpg", "AAAA");
+        final var lastProcessed = new AtomicInteger(-1);
+        final var notifications = new AtomicInteger();
+        final var duplicatesQuery = new DuplicatesQuery(pictureCollection, (processed, total) -> {
+            assertEquals(2, total);
+            lastProcessed.set(processed);
+        });
+        duplicatesQuery.addResultsListener(notifications::incrementAndGet);
+        duplicatesQuery.refreshInBackground().join();
+        assertEquals(2, lastProcessed.get());
+        assertTrue(notifications.get() > 0);
+        assertEquals(2, duplicatesQuery.getNumberOfResults());
+    }
 
-}
\ No newline at end of file
+    @Test
+    void testClustersArePublishedAsTheyComplete() {
+        final var pictureCollection = new PictureCollection();
+        for (var i = 0; i < 200; i++) {
+            addPicture(pictureCollection, "/images/" + i + ".jpg", "SHA" + i);
+            addPicture(pictureCollection, "/copies/" + i + ".jpg", "SHA" + i);
+        }
+        final var duplicatesQuery = new DuplicatesQuery(pictureCollection);
+        final var clustersAtFirstNotification = new AtomicInteger(-1);
+        duplicatesQuery.addResultsListener(() -> clustersAtFirstNotification.compareAndSet(-1, duplicatesQuery.getClusters().size()));
+        duplicatesQuery.refreshInBackground().join();
+        assertEquals(200, duplicatesQuery.getClusters().size());
+        assertTrue(clustersAtFirstNotification.get() > 0);
+        assertTrue(clustersAtFirstNotification.get() < 200);
+    }
+}
@@ -0,0 +1,111 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.jpo.datamodel.Tools.copyResourceToTempFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class FileAnalyzerTest {
+
+    /**
+     * The single read must come to the same answers as asking each library on its own
+     */
+    @Test
+    void testAnalyzeMatchesSeparateReads() throws IOException {
+        final var file = copyResourceToTempFile("/exif-test-samsung-s4-loc.jpg");
+        FileTypeProbe.clear();
+
+        final var analysis = FileAnalyzer.analyze(file);
+
+        assertEquals(HashingService.calculateSha256(file), analysis.sha256());
+        assertEquals(file.length(), analysis.size());
+        assertEquals("image/jpeg", analysis.fileType().mimeType());
+        assertEquals(FileTypeProbe.MediaKind.PICTURE, analysis.fileType().mediaKind());
+        assertTrue(analysis.fileType().hasImageReader());
+        final var exifInfo = new ExifInfo(file);
+        exifInfo.decodeExifTags();
+        assertEquals("2014:01:15 12:11:46", analysis.createDateTime());
+        assertEquals(exifInfo.getLatLng(), analysis.getLatLng());
+        assertEquals(exifInfo.getRotation(), analysis.rotation());
+        assertEquals("3264 pixels", analysis.exifWidth());
+        assertEquals("1836 pixels", analysis.exifHeight());
+    }
+
+    @Test
+    void testAnalyzeRemembersTheFileType() throws IOException {
+        final var file = copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        FileTypeProbe.clear();
+
+        final var analysis = FileAnalyzer.analyze(file);
+        final var misses = FileTypeProbe.getMissCount();
+
+        assertEquals(analysis.fileType(), FileTypeProbe.probe(file));
+        assertEquals(misses, FileTypeProbe.getMissCount(), "The probe must not read the file again");
+    }
+
+    /**
+     * A file the path index vouches for must not be hashed again. The index is primed with a made-up hash to show
+     * where the answer comes from.
+     */
+    @Test
+    void testAnalyzeTrustsThePathHashIndex() throws IOException {
+        final var file = copyResourceToTempFile("/exif-test-sony-cybershot-1.jpg");
+        final var pathHashIndex = JpoCache.getPathHashIndex();
+        final var sha256 = "0".repeat(64);
+        pathHashIndex.record(file, sha256, HashingService.readFileStats(file));
+
+        final var analysis = FileAnalyzer.analyze(file);
+
+        assertEquals(sha256, analysis.sha256());
+        assertEquals("image/jpeg", analysis.fileType().mimeType());
+        assertEquals("2002:02:20 16:17:37", analysis.createDateTime());
+    }
+
+    @Test
+    void testAnalyzeHashesAFileRewrittenInPlace() throws IOException {
+        final var file = copyResourceToTempFile("/exif-test-sony-cybershot-1.jpg");
+        JpoCache.getPathHashIndex().record(file, "0".repeat(64), HashingService.readFileStats(file));
+        JpoCache.getPathHashIndex().getFileStats(file);
+        // within the lifetime of the directory listing which still has the old size
+        Files.copy(copyResourceToTempFile("/exif-test-canon-eos-350d.jpg").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        final var analysis = FileAnalyzer.analyze(file);
+
+        assertEquals(HashingService.calculateSha256(file), analysis.sha256());
+    }
+
+    @Test
+    void testAnalyzeOther(@TempDir Path tempDir) throws IOException {
+        final var file = tempDir.resolve("notes.txt");
+        Files.writeString(file, "Not a picture", StandardCharsets.UTF_8);
+
+        final var analysis = FileAnalyzer.analyze(file.toFile());
+
+        assertFalse(analysis.fileType().isMedia());
+        assertNull(analysis.sha256());
+        assertEquals("", analysis.createDateTime());
+    }
+}
@@ -0,0 +1,98 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class FileTypeProbeTest {
+
+    @Test
+    void testProbePicture() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        final var fileType = FileTypeProbe.probe(imageFile);
+        assertEquals("image/jpeg", fileType.mimeType());
+        assertEquals(FileTypeProbe.MediaKind.PICTURE, fileType.mediaKind());
+        assertTrue(fileType.hasImageReader());
+        assertTrue(fileType.isMedia());
+        final var reader = FileTypeProbe.createImageReader(fileType);
+        assertNotNull(reader);
+        reader.dispose();
+    }
+
+    @Test
+    void testProbeDocument() throws IOException {
+        final var documentFile = Tools.copyResourceToTempFile("/pdf-document.pdf");
+        final var fileType = FileTypeProbe.probe(documentFile);
+        assertEquals(FileTypeProbe.MediaKind.DOCUMENT, fileType.mediaKind());
+        assertFalse(fileType.hasImageReader());
+        assertNull(FileTypeProbe.createImageReader(fileType));
+    }
+
+    @Test
+    void testProbeIsRemembered() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        FileTypeProbe.probe(imageFile);
+        final var hits = FileTypeProbe.getHitCount();
+        final var misses = FileTypeProbe.getMissCount();
+        FileTypeProbe.probe(imageFile);
+        assertEquals(hits + 1, FileTypeProbe.getHitCount());
+        assertEquals(misses, FileTypeProbe.getMissCount());
+    }
+
+    @Test
+    void testChangedFileIsProbedAgain() throws IOException {
+        final var file = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        assertEquals(FileTypeProbe.MediaKind.PICTURE, FileTypeProbe.probe(file).mediaKind());
+        try (final var pdf = FileTypeProbeTest.class.getResourceAsStream("/pdf-document.pdf")) {
+            Files.write(file.toPath(), pdf.readAllBytes());
+        }
+        assertTrue(file.setLastModified(file.lastModified() + 10_000));
+        assertEquals(FileTypeProbe.MediaKind.DOCUMENT, FileTypeProbe.probe(file).mediaKind());
+    }
+
+    @Test
+    void testMissingFile() {
+        final var fileType = FileTypeProbe.probe(new File("/no/such/file.jpg"));
+        assertEquals("null", fileType.mimeType());
+        assertFalse(fileType.hasImageReader());
+        assertFalse(fileType.isMedia());
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        final var collectionFile = Files.createTempFile("FileTypeProbeTest", ".xml").toFile();
+        collectionFile.deleteOnExit();
+        FileTypeProbe.getPersistenceFile(collectionFile).deleteOnExit();
+        final var expected = FileTypeProbe.probe(imageFile);
+        FileTypeProbe.save(collectionFile);
+        assertTrue(FileTypeProbe.getPersistenceFile(collectionFile).exists());
+        FileTypeProbe.clear();
+        assertEquals(0, FileTypeProbe.size());
+        FileTypeProbe.load(collectionFile);
+        assertTrue(FileTypeProbe.size() > 0);
+        final var hits = FileTypeProbe.getHitCount();
+        assertEquals(expected, FileTypeProbe.probe(imageFile));
+        assertEquals(hits + 1, FileTypeProbe.getHitCount());
+    }
+}
@@ -0,0 +1,88 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class HashingServiceTest {
+
+    private static final String CANON_SHA256 = "E7D7D40A06D1B974F741920A6489FDDA4CA4A05C55ED122C602B360640E9E67C";
+
+    @Test
+    void testCalculateSha256() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        assertEquals(CANON_SHA256, HashingService.calculateSha256(imageFile));
+    }
+
+    @Test
+    void testGetSha256() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        assertEquals(CANON_SHA256, HashingService.getSha256(imageFile));
+        assertEquals(CANON_SHA256, JpoCache.getPathHashIndex().getValidatedSha256(imageFile));
+    }
+
+    @Test
+    void testHashFiles() throws IOException {
+        final var canonFile = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        final var nikonFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        final var missingFile = new File("/no/such/file.jpg");
+        final var results = new ConcurrentHashMap<File, String>();
+        final var statistics = HashingService.hashFiles(List.of(canonFile, nikonFile, missingFile), results::put, () -> false);
+        assertEquals(2, statistics.files());
+        assertEquals(1, statistics.failedFiles());
+        assertEquals(CANON_SHA256, results.get(canonFile));
+        assertEquals(HashingService.calculateSha256(nikonFile), results.get(nikonFile));
+        assertTrue(statistics.getMegabytesPerSecond() >= 0);
+
+        // the second run is answered from the fingerprint cache
+        final var secondRun = HashingService.hashFiles(List.of(canonFile, nikonFile), null, () -> false);
+        assertEquals(2, secondRun.cachedFiles());
+        assertEquals(0, secondRun.bytes());
+    }
+
+    @Test
+    void testFileRewrittenInPlaceIsHashedAgain() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        final var nikonFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        assertEquals(CANON_SHA256, HashingService.getSha256(imageFile));
+        // within the lifetime of the directory listing which still has the old size and modification time
+        Files.copy(nikonFile.toPath(), imageFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final var nikonSha256 = HashingService.calculateSha256(nikonFile);
+        assertEquals(nikonSha256, HashingService.getSha256(imageFile));
+
+        Files.copy(Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg").toPath(), imageFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final var results = new ConcurrentHashMap<File, String>();
+        HashingService.hashFiles(List.of(imageFile), results::put, () -> false);
+        assertEquals(CANON_SHA256, results.get(imageFile));
+    }
+
+    @Test
+    void testHashFilesCancelled() throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        final var statistics = HashingService.hashFiles(List.of(imageFile), (_, _) -> fail("should not hash"), () -> true);
+        assertEquals(0, statistics.files());
+    }
+}
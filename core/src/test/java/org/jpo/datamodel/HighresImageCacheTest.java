@@ -0,0 +1,98 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link HighresImageCache} class.
+ */
+class HighresImageCacheTest {
+
+    private HighresImageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        CacheSettings.setHighresCacheMaxBytes(1000);
+        cache = new HighresImageCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        CacheSettings.setHighresCacheMaxBytes(0);
+        CacheSettings.setHighresCacheOffHeap(false);
+    }
+
+    private static ImageBytes imageBytesOfSize(final int size) {
+        final var imageBytes = new ImageBytes(new byte[size]);
+        imageBytes.setLastModification(FileTime.fromMillis(1234));
+        return imageBytes;
+    }
+
+    @Test
+    void testHitAndMiss() {
+        assertNull(cache.get("A"));
+        cache.put("A", imageBytesOfSize(100));
+        final var imageBytes = cache.get("A");
+        assertNotNull(imageBytes);
+        assertEquals(100, imageBytes.getBytes().length);
+        assertEquals(FileTime.fromMillis(1234), imageBytes.getLastModification());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testBudgetIsRespected() {
+        for (var i = 0; i < 10; i++) {
+            cache.put("Key" + i, imageBytesOfSize(300));
+        }
+        assertTrue(cache.getWeightedSize() <= 1000);
+        assertEquals(3, cache.size());
+        assertEquals(7, cache.getEvictionCount());
+    }
+
+    @Test
+    void testOversizedImageIsNotCached() {
+        cache.put("Big", imageBytesOfSize(1001));
+        assertNull(cache.get("Big"));
+        assertEquals(0, cache.getWeightedSize());
+    }
+
+    @Test
+    void testProtectedEntrySurvivesScan() {
+        cache.put("Favourite", imageBytesOfSize(200));
+        assertNotNull(cache.get("Favourite"));
+        for (var i = 0; i < 10; i++) {
+            cache.put("Scan" + i, imageBytesOfSize(200));
+        }
+        assertNotNull(cache.get("Favourite"));
+    }
+
+    @Test
+    void testOffHeap() {
+        CacheSettings.setHighresCacheOffHeap(true);
+        final var bytes = new byte[]{1, 2, 3, 4};
+        final var imageBytes = new ImageBytes(bytes);
+        imageBytes.setLastModification(FileTime.fromMillis(1234));
+        cache.put("A", imageBytes);
+        final var cachedImageBytes = cache.get("A");
+        assertArrayEquals(bytes, cachedImageBytes.getBytes());
+        assertNotSame(bytes, cachedImageBytes.getBytes());
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        cache.put("A", imageBytesOfSize(100));
+        cache.put("B", imageBytesOfSize(100));
+        cache.remove("A");
+        assertNull(cache.get("A"));
+        assertEquals(100, cache.getWeightedSize());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeightedSize());
+    }
+}
@@ -0,0 +1,138 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class IngestPipelineTest {
+
+    private static final String NIKON_D100_JPG = "/exif-test-nikon-d100-1.jpg";
+
+    private static File copyPicture(final Path directory, final String name) throws IOException {
+        Files.createDirectories(directory);
+        final var file = directory.resolve(name);
+        try (final var inputStream = IngestPipelineTest.class.getResourceAsStream(NIKON_D100_JPG)) {
+            Files.copy(Objects.requireNonNull(inputStream), file);
+        }
+        return file.toFile();
+    }
+
+    private static SortableDefaultMutableTreeNode createReceivingNode() {
+        final var pictureCollection = new PictureCollection();
+        final var receivingNode = new SortableDefaultMutableTreeNode(new GroupInfo("Import"));
+        pictureCollection.getRootNode().add(receivingNode);
+        return receivingNode;
+    }
+
+    private static SortableDefaultMutableTreeNode findGroup(final SortableDefaultMutableTreeNode node, final String name) {
+        for (var i = 0; i < node.getChildCount(); i++) {
+            final var child = (SortableDefaultMutableTreeNode) node.getChildAt(i);
+            if (child.getUserObject() instanceof GroupInfo groupInfo && name.equals(groupInfo.getGroupName())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testRetainedDirectories(@TempDir Path tempDir) throws IOException {
+        final var card = tempDir.resolve("card");
+        copyPicture(card, "one.jpg");
+        copyPicture(card.resolve("day2"), "two.jpg");
+        copyPicture(card.resolve("day2"), "three.jpg");
+        Files.writeString(card.resolve("notes.txt"), "Not a picture", StandardCharsets.UTF_8);
+        Files.createDirectories(card.resolve("empty"));
+        final var receivingNode = createReceivingNode();
+
+        final var done = new ArrayList<File>();
+        final var added = new IngestPipeline(receivingNode, new IngestPipeline.Options(false, true, true, List.of(1)), null, () -> false)
+                .run(List.of(card.toFile()), (file, _) -> done.add(file));
+
+        assertEquals(3, added);
+        assertEquals(4, done.size());
+        assertEquals(1, receivingNode.getChildCount());
+        final var cardGroup = findGroup(receivingNode, "card");
+        assertNotNull(cardGroup);
+        assertNull(findGroup(cardGroup, "empty"), "A directory without pictures must not leave a group behind");
+        final var dayGroup = findGroup(cardGroup, "day2");
+        assertNotNull(dayGroup);
+        assertEquals(2, dayGroup.getChildCount());
+        final var pictureInfo = (PictureInfo) ((SortableDefaultMutableTreeNode) dayGroup.getFirstChild()).getUserObject();
+        assertFalse(pictureInfo.getSha256().isEmpty());
+        assertTrue(pictureInfo.containsCategory(1));
+        assertEquals(3, receivingNode.getPictureCollection().countPicturesWithCategories(CategoryExpression.category(1)));
+    }
+
+    @Test
+    void testNewOnly(@TempDir Path tempDir) throws IOException {
+        final var existing = copyPicture(tempDir, "existing.jpg");
+        final var fresh = copyPicture(tempDir, "fresh.jpg");
+        final var receivingNode = createReceivingNode();
+        receivingNode.addPicture(existing, null);
+
+        final var added = new IngestPipeline(receivingNode, new IngestPipeline.Options(true, false, false, null), null, () -> false)
+                .run(List.of(existing, fresh, fresh), null);
+
+        assertEquals(1, added);
+        assertEquals(2, receivingNode.getChildCount());
+    }
+
+    @Test
+    void testPreparation(@TempDir Path tempDir) throws IOException {
+        final var picture = copyPicture(tempDir.resolve("camera"), "DSC_0001.jpg");
+        final var target = Files.createDirectories(tempDir.resolve("target"));
+        final var receivingNode = createReceivingNode();
+
+        // the preparation copies the files like a camera download does
+        final IngestPipeline.Preparation copy = file -> {
+            final var targetFile = target.resolve(file.getName());
+            Files.copy(file.toPath(), targetFile);
+            return targetFile.toFile();
+        };
+        final var added = new IngestPipeline(receivingNode, new IngestPipeline.Options(false, false, false, null), copy, () -> false)
+                .run(List.of(picture), null);
+
+        assertEquals(1, added);
+        assertTrue(receivingNode.getPictureCollection().isInCollection(target.resolve("DSC_0001.jpg").toFile()));
+        assertFalse(receivingNode.getPictureCollection().isInCollection(picture));
+    }
+
+    @Test
+    void testCancelled(@TempDir Path tempDir) throws IOException {
+        final var picture = copyPicture(tempDir, "picture.jpg");
+        final var receivingNode = createReceivingNode();
+
+        final var added = new IngestPipeline(receivingNode, new IngestPipeline.Options(false, true, true, Set.of()), null, () -> true)
+                .run(List.of(picture), null);
+
+        assertEquals(0, added);
+        assertEquals(0, receivingNode.getChildCount());
+    }
+}
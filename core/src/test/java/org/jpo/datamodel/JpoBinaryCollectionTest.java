@@ -0,0 +1,149 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class JpoBinaryCollectionTest {
+
+    private static final ProgressTracker NO_PROGRESS = new ProgressTracker() {
+        @Override
+        public void update(final String message) {
+            // not interested
+        }
+
+        @Override
+        public void done() {
+            // not interested
+        }
+    };
+
+    private static PictureCollection createCollection(final Path directory) {
+        final var pictureCollection = new PictureCollection();
+        pictureCollection.getRootNode().setUserObject(new GroupInfo("My Collection"));
+        pictureCollection.addCategory(1, "Holiday");
+        pictureCollection.addCategory(2, "Family");
+
+        final var holidays = new SortableDefaultMutableTreeNode(new GroupInfo("Holidays"));
+        pictureCollection.getRootNode().add(holidays);
+        final var beach = new PictureInfo(directory.resolve("beach.jpg").toFile(), "At the beach");
+        beach.setPhotographer("Richard");
+        beach.setCopyrightHolder("Richard Eigenmann");
+        beach.setCreationTime("2024:07:14 10:15:00");
+        beach.setComment("Sunny ünd warm");
+        beach.setFilmReference("Roll 1");
+        beach.setRotation(90.0);
+        beach.setLatLng(new Point2D.Double(46.5, 7.25));
+        beach.setSha256("0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF");
+        beach.addCategoryAssignment(1);
+        beach.addCategoryAssignment(2);
+        holidays.add(new SortableDefaultMutableTreeNode(beach));
+        final var empty = new SortableDefaultMutableTreeNode(new GroupInfo("Empty group"));
+        holidays.add(empty);
+
+        final var house = new PictureInfo(directory.resolve("house.jpg").toFile(), "Our house");
+        house.setPhotographer("Richard");
+        house.setSha256("N/A");
+        pictureCollection.getRootNode().add(new SortableDefaultMutableTreeNode(house));
+        return pictureCollection;
+    }
+
+    private static File save(final PictureCollection pictureCollection, final Path directory) throws IOException {
+        final var xmlFile = directory.resolve("collection.xml").toFile();
+        JpoWriter.write(xmlFile, pictureCollection.getRootNode(), false);
+        JpoBinaryCollection.write(xmlFile, pictureCollection.getRootNode());
+        return xmlFile;
+    }
+
+    @Test
+    void testRoundTrip(@TempDir Path tempDir) throws IOException {
+        final var xmlFile = save(createCollection(tempDir), tempDir);
+        assertTrue(JpoBinaryCollection.isCurrent(xmlFile));
+
+        final var loaded = new PictureCollection();
+        assertTrue(JpoBinaryCollection.read(xmlFile, loaded.getRootNode(), NO_PROGRESS));
+        final var rootNode = loaded.getRootNode();
+        assertEquals("My Collection", rootNode.toString());
+        assertEquals("Holiday", loaded.getCategory(1));
+        assertEquals("Family", loaded.getCategory(2));
+        assertEquals(2, rootNode.getChildCount());
+
+        final var holidays = (SortableDefaultMutableTreeNode) rootNode.getChildAt(0);
+        assertEquals("Holidays", ((GroupInfo) holidays.getUserObject()).getGroupName());
+        assertEquals(2, holidays.getChildCount());
+        final var beach = (PictureInfo) ((SortableDefaultMutableTreeNode) holidays.getChildAt(0)).getUserObject();
+        assertEquals("At the beach", beach.getDescription());
+        assertEquals(tempDir.resolve("beach.jpg").toFile(), beach.getImageFile());
+        assertEquals("Richard", beach.getPhotographer());
+        assertEquals("Richard Eigenmann", beach.getCopyrightHolder());
+        assertEquals("2024:07:14 10:15:00", beach.getCreationTime());
+        assertEquals("Sunny ünd warm", beach.getComment());
+        assertEquals("Roll 1", beach.getFilmReference());
+        assertEquals(90.0, beach.getRotation());
+        assertEquals(new Point2D.Double(46.5, 7.25), beach.getLatLng());
+        assertEquals("0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF", beach.getSha256());
+        assertEquals(Set.of(1, 2), beach.getCategoryAssignments());
+        final var empty = (SortableDefaultMutableTreeNode) holidays.getChildAt(1);
+        assertEquals("Empty group", empty.toString());
+        assertEquals(0, empty.getChildCount());
+
+        final var house = (PictureInfo) ((SortableDefaultMutableTreeNode) rootNode.getChildAt(1)).getUserObject();
+        assertEquals("Our house", house.getDescription());
+        assertEquals("N/A", house.getSha256());
+        assertTrue(house.getCategoryAssignments().isEmpty());
+    }
+
+    @Test
+    void testStaleFileIsIgnored(@TempDir Path tempDir) throws IOException {
+        final var xmlFile = save(createCollection(tempDir), tempDir);
+        Files.setLastModifiedTime(xmlFile.toPath(), FileTime.fromMillis(xmlFile.lastModified() + 5000));
+        assertFalse(JpoBinaryCollection.isCurrent(xmlFile));
+        final var loaded = new PictureCollection();
+        assertFalse(JpoBinaryCollection.read(xmlFile, loaded.getRootNode(), NO_PROGRESS));
+        assertEquals(0, loaded.getRootNode().getChildCount());
+    }
+
+    @Test
+    void testCorruptFileIsIgnored(@TempDir Path tempDir) throws IOException {
+        final var xmlFile = save(createCollection(tempDir), tempDir);
+        final var binaryFile = JpoBinaryCollection.getBinaryFile(xmlFile).toPath();
+        final var bytes = Files.readAllBytes(binaryFile);
+        Files.write(binaryFile, Arrays.copyOf(bytes, bytes.length / 2));
+        final var loaded = new PictureCollection();
+        assertFalse(JpoBinaryCollection.read(xmlFile, loaded.getRootNode(), NO_PROGRESS));
+        assertEquals(0, loaded.getRootNode().getChildCount());
+    }
+
+    @Test
+    void testMissingFile(@TempDir Path tempDir) {
+        final var xmlFile = tempDir.resolve("collection.xml").toFile();
+        assertFalse(JpoBinaryCollection.isCurrent(xmlFile));
+        assertFalse(JpoBinaryCollection.read(xmlFile, new PictureCollection().getRootNode(), NO_PROGRESS));
+    }
+}
@@ -168,15 +168,39 @@ class JpoCacheTest {
 
     @Test
     void testGetThumbnailImageBytes() {
-        final var key = String.format("%s-%fdeg-w:%dpx-h:%dpx", IMAGE_FILE_1, 0.0, 350, 350);
-        JpoCache.removeFromThumbnailCache(key);
-        final var imageBytes = JpoCache.getThumbnailImageBytes(IMAGE_FILE_1, 0.0f, new Dimension(350, 350));
+        final var sha256 = IMAGE_FILE_1_HASH_CODE.toString().toUpperCase();
+        JpoCache.removeFromThumbnailCache(ThumbnailKey.of(sha256, 0.0, new Dimension(350, 350)));
+        final var imageBytes = JpoCache.getThumbnailImageBytes(sha256, IMAGE_FILE_1, 0.0f, new Dimension(350, 350));
         assertEquals(13094, imageBytes.getBytes().length);
         assertFalse(imageBytes.isRetrievedFromCache());
-        final var imageBytes2 = JpoCache.getThumbnailImageBytes(IMAGE_FILE_1, 0.0f, new Dimension(350, 350));
+        final var imageBytes2 = JpoCache.getThumbnailImageBytes(sha256, IMAGE_FILE_1, 0.0f, new Dimension(350, 350));
         assertEquals(13094, imageBytes2.getBytes().length);
         assertTrue(imageBytes2.isRetrievedFromCache());
     }
 
+    @Test
+    void testThumbnailSurvivesRename() {
+        try {
+            final var sha256 = IMAGE_FILE_1_HASH_CODE.toString().toUpperCase();
+            final var directory = Files.createTempDirectory("JpoCacheTest");
+            final var originalFile = directory.resolve("original.jpg").toFile();
+            com.google.common.io.Files.copy(IMAGE_FILE_1, originalFile);
+            final var imageBytes = JpoCache.getThumbnailImageBytes(sha256, originalFile, 0.0f, new Dimension(350, 350));
+            assertEquals(13094, imageBytes.getBytes().length);
+
+            final var renamedFile = directory.resolve("renamed.jpg").toFile();
+            Files.move(originalFile.toPath(), renamedFile.toPath());
+            JpoCache.fileMoved(originalFile, renamedFile);
+            final var imageBytes2 = JpoCache.getThumbnailImageBytes(sha256, renamedFile, 0.0f, new Dimension(350, 350));
+            assertEquals(13094, imageBytes2.getBytes().length);
+            assertTrue(imageBytes2.isRetrievedFromCache());
+
+            Files.delete(renamedFile.toPath());
+            Files.delete(directory);
+        } catch (final IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
 
 }
@@ -76,6 +76,35 @@ class JpoImageIOTest {
         }
     }
 
+    @Test
+    void testReadReducedImage() throws IOException {
+        final var imageFile = copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        final var reducedImage = JpoImageIO.readReducedImage(imageFile, new java.awt.Dimension(350, 350));
+        assertNotNull(reducedImage);
+        assertTrue(reducedImage.getWidth() >= 350);
+        assertTrue(reducedImage.getWidth() < 2496);
+    }
 
+    @Test
+    void testReadExifPreview() throws IOException {
+        final var preview = JpoImageIO.readExifPreview(copyResourceToTempFile("/exif-test-samsung-s4.jpg"));
+        assertNotNull(preview);
+        assertEquals(512, preview.getWidth());
+        assertEquals(288, preview.getHeight());
+        assertNull(JpoImageIO.readExifPreview(copyResourceToTempFile("/png.png")));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void testReadReducedImageUsesTheExifPreview() throws IOException {
+        final var imageFile = copyResourceToTempFile("/exif-test-samsung-s4.jpg");
+        final var reducedImage = JpoImageIO.readReducedImage(imageFile, new java.awt.Dimension(350, 350));
+        assertNotNull(reducedImage);
+        assertEquals(512, reducedImage.getWidth());
+    }
+
+    @Test
+    void testReadReducedImageOfSmallImage() throws IOException {
+        final var imageFile = copyResourceToTempFile("/png.png");
+        assertNull(JpoImageIO.readReducedImage(imageFile, new java.awt.Dimension(350, 350)));
+    }
+}
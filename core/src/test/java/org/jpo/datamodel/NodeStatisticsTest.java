@@ -201,5 +201,49 @@ class NodeStatisticsTest{
         assertEquals(21599 + 2354328, nodeStatistics.getSizeOfPictures());
     }
 
+    @Test
+    void testCountsFollowTreeChanges() {
+        final var group3 = (SortableDefaultMutableTreeNode) group1.getChildAt(2);
+        final var group2 = (SortableDefaultMutableTreeNode) rootNode.getChildAt(1);
+        final var rootStatistics = new NodeStatistics(rootNode);
+        final var group1Statistics = new NodeStatistics(group1);
+
+        // moving a group with its picture
+        group2.add(group3);
+        assertEquals(9, rootStatistics.getNumberOfNodes());
+        assertEquals(3, group1Statistics.getNumberOfNodes());
+        assertEquals(0, group1Statistics.getNumberOfGroups());
+        assertEquals(2, group1Statistics.getNumberOfPictures());
+        assertEquals(3, NodeStatistics.countPictures(group2, true));
+
+        picture1.removeFromParent();
+        assertEquals(8, rootStatistics.getNumberOfNodes());
+        assertEquals(4, rootStatistics.getNumberOfPictures());
+
+        group2.removeAllChildren();
+        assertEquals(4, rootStatistics.getNumberOfNodes());
+        assertEquals(2, rootStatistics.getNumberOfGroups());
+        assertEquals(1, rootStatistics.getNumberOfPictures());
+
+        // a picture node that becomes a group node
+        ((SortableDefaultMutableTreeNode) group1.getChildAt(0)).setUserObject(new GroupInfo("Former picture"));
+        assertEquals(3, rootStatistics.getNumberOfGroups());
+        assertEquals(0, rootStatistics.getNumberOfPictures());
+    }
+
+    @Test
+    void testSizeFollowsTreeChanges() {
+        final var nodeStatistics = new NodeStatistics(group1);
+        final var bothPictures = pi1.getFileSize() + pi2.getFileSize();
+        assertEquals(bothPictures, nodeStatistics.getSizeOfPictures());
 
+        picture1.removeFromParent();
+        assertEquals(pi2.getFileSize(), nodeStatistics.getSizeOfPictures());
+
+        group1.add(picture1);
+        assertEquals(bothPictures, nodeStatistics.getSizeOfPictures());
+
+        pi1.setImageLocation(new File("images/does-not-exist.jpg"));
+        assertEquals(pi2.getFileSize(), nodeStatistics.getSizeOfPictures());
+    }
 }
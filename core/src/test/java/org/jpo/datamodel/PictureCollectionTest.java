@@ -13,6 +13,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
@@ -797,4 +798,133 @@ class PictureCollectionTest {
         assertEquals(Paths.get("/richi"), pictureCollection.getCommonPath());
     }
 
+    @Test
+    void testIsInCollectionByFile() {
+        final var pictureCollection = getSamplePictureCollection();
+        assertTrue(pictureCollection.isInCollection(new File("/images/image5.jpg")));
+        assertFalse(pictureCollection.isInCollection(new File("/images/image7.jpg")));
+        assertEquals(4, pictureCollection.findNodesByFile(new File("/images/image1.jpg")).size());
+    }
+
+    @Test
+    void testIsInCollectionBySha256() {
+        final var pictureCollection = getSamplePictureCollection();
+        final var rootNode = pictureCollection.getRootNode();
+        final var group1 = (SortableDefaultMutableTreeNode) rootNode.getChildAt(0);
+        final var picture1 = (SortableDefaultMutableTreeNode) group1.getChildAt(0);
+        assertFalse(pictureCollection.isInCollection("ABCD"));
+        ((PictureInfo) picture1.getUserObject()).setSha256("ABCD");
+        assertTrue(pictureCollection.isInCollection("ABCD"));
+        assertEquals(Set.of(picture1), pictureCollection.findNodesBySha256("ABCD"));
+        ((PictureInfo) picture1.getUserObject()).setSha256("EF01");
+        assertFalse(pictureCollection.isInCollection("ABCD"));
+        assertTrue(pictureCollection.isInCollection("EF01"));
+    }
+
+    @Test
+    void testIndexFollowsImageLocation() {
+        final var pictureCollection = getSamplePictureCollection();
+        final var rootNode = pictureCollection.getRootNode();
+        final var group1 = (SortableDefaultMutableTreeNode) rootNode.getChildAt(0);
+        final var picture1 = (SortableDefaultMutableTreeNode) group1.getChildAt(0);
+        ((PictureInfo) picture1.getUserObject()).setImageLocation(new File("/images/image7.jpg"));
+        assertTrue(pictureCollection.isInCollection(new File("/images/image7.jpg")));
+        assertEquals(3, pictureCollection.findNodesByFile(new File("/images/image1.jpg")).size());
+    }
+
+    @Test
+    void testIndexFollowsRemovedAndAddedNodes() {
+        final var pictureCollection = getSamplePictureCollection();
+        final var rootNode = pictureCollection.getRootNode();
+        final var group4 = (SortableDefaultMutableTreeNode) rootNode.getChildAt(3);
+        group4.removeFromParent();
+        assertFalse(pictureCollection.isInCollection(new File("/images/image5.jpg")));
+        assertFalse(pictureCollection.isInCollection(new File("/images/image6.jpg")));
+        assertEquals(3, pictureCollection.findNodesByFile(new File("/images/image1.jpg")).size());
+
+        rootNode.add(group4);
+        assertTrue(pictureCollection.isInCollection(new File("/images/image5.jpg")));
+        assertEquals(4, pictureCollection.findNodesByFile(new File("/images/image1.jpg")).size());
+    }
+
+    /**
+     * A setter holds the PictureInfo and then updates the index; attaching a node holds the index and reads the
+     * PictureInfo. The two must not deadlock.
+     */
+    @Test
+    void testSetterRacingAnAttachDoesNotDeadlock() {
+        final var pictureCollection = getSamplePictureCollection();
+        pictureCollection.setSendModelUpdates(false);
+        final var rootNode = pictureCollection.getRootNode();
+        final var group4 = (SortableDefaultMutableTreeNode) rootNode.getChildAt(3);
+        final var pictureInfo = (PictureInfo) ((SortableDefaultMutableTreeNode) group4.getChildAt(0)).getUserObject();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            final var setter = new Thread(() -> {
+                for (var i = 0; i < 20_000; i++) {
+                    pictureInfo.setSha256(i % 2 == 0 ? "ABCD" : "EF01");
+                }
+            });
+            setter.start();
+            for (var i = 0; i < 20_000; i++) {
+                group4.removeFromParent();
+                rootNode.add(group4);
+            }
+            setter.join();
+        });
+        assertTrue(pictureCollection.isInCollection(pictureInfo.getImageFile()));
+    }
+
+    @Test
+    void testIndexMovesBetweenCollections() {
+        final var pictureCollection1 = getSamplePictureCollection();
+        final var pictureCollection2 = new PictureCollection();
+        final var group4 = (SortableDefaultMutableTreeNode) pictureCollection1.getRootNode().getChildAt(3);
+        pictureCollection2.getRootNode().add(group4);
+        assertFalse(pictureCollection1.isInCollection(new File("/images/image6.jpg")));
+        assertTrue(pictureCollection2.isInCollection(new File("/images/image6.jpg")));
+    }
+
+    @Test
+    void testIndexBuiltOnLoad() {
+        final var pictureCollection = new PictureCollection();
+        final var pictureInfo = new PictureInfo();
+        final var node = new SortableDefaultMutableTreeNode(pictureInfo);
+        pictureCollection.setSendModelUpdates(false);
+        pictureCollection.getRootNode().add(node);
+        pictureInfo.setImageLocation(new File("/images/loaded.jpg"));
+        pictureInfo.setSha256("1234");
+        pictureCollection.setSendModelUpdates(true);
+        assertTrue(pictureCollection.isInCollection(new File("/images/loaded.jpg")));
+        assertTrue(pictureCollection.isInCollection("1234"));
+    }
+
+    @Test
+    void testGetNodeById() {
+        final var pictureCollection = getSamplePictureCollection();
+        final var rootNode = pictureCollection.getRootNode();
+        final var group4 = (SortableDefaultMutableTreeNode) rootNode.getChildAt(3);
+        final var group5 = (SortableDefaultMutableTreeNode) group4.getChildAt(1);
+        final var group6 = (SortableDefaultMutableTreeNode) group5.getChildAt(0);
+        final var picture6 = (SortableDefaultMutableTreeNode) group6.getChildAt(1);
+        assertEquals(rootNode, pictureCollection.getNodeById(rootNode.getUniqueId()));
+        assertEquals(picture6, pictureCollection.getNodeById(picture6.getUniqueId()));
+        assertEquals(picture6, SortableDefaultMutableTreeNode.getNodeById(group4, picture6.getUniqueId()));
+
+        group5.removeFromParent();
+        assertNull(pictureCollection.getNodeById(picture6.getUniqueId()));
+        // the detached subtree is searched by walking it
+        assertEquals(picture6, SortableDefaultMutableTreeNode.getNodeById(group5, picture6.getUniqueId()));
+
+        rootNode.add(group5);
+        assertEquals(picture6, pictureCollection.getNodeById(picture6.getUniqueId()));
+
+        // the registry follows the nodes wherever they are attached so a miss means the node isn't in the tree
+        group6.removeFromParent();
+        assertNull(SortableDefaultMutableTreeNode.getNodeById(rootNode, picture6.getUniqueId()));
+        pictureCollection.setSendModelUpdates(false);
+        rootNode.add(group6);
+        pictureCollection.setSendModelUpdates(true);
+        assertEquals(picture6, SortableDefaultMutableTreeNode.getNodeById(rootNode, picture6.getUniqueId()));
+    }
+
 }
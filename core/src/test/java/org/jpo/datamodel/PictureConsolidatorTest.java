@@ -0,0 +1,162 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class PictureConsolidatorTest {
+
+    private static File createFile(final Path directory, final String name) throws IOException {
+        final var file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "Picture " + directory.relativize(file), StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private static SortableDefaultMutableTreeNode addPicture(final PictureCollection pictureCollection, final File file) {
+        final var node = new SortableDefaultMutableTreeNode(new PictureInfo(file, file.getName()));
+        pictureCollection.getRootNode().add(node);
+        return node;
+    }
+
+    @Test
+    void testPlanInventsDistinctNames(@TempDir Path tempDir) throws IOException {
+        final var first = createFile(tempDir, "a/DSC_0001.jpg");
+        final var second = createFile(tempDir, "b/DSC_0001.jpg");
+        final var alreadyThere = createFile(tempDir, "target/DSC_0002.jpg");
+        final var target = alreadyThere.getParentFile();
+
+        final var pictures = List.of(new PictureInfo(first, "First"), new PictureInfo(second, "Second"),
+                new PictureInfo(first, "First again"), new PictureInfo(alreadyThere, "Already there"));
+        final var moves = PictureConsolidator.plan(null, pictures, target).getMoves();
+
+        assertEquals(2, moves.size());
+        assertEquals(new File(target, "DSC_0001.jpg"), moves.get(0).target());
+        assertEquals(new File(target, "DSC_0001_1.jpg"), moves.get(1).target());
+        assertTrue(first.exists(), "Planning must not touch the files");
+    }
+
+    @Test
+    void testExecuteCorrectsAllReferences(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = new PictureCollection();
+        final var source = createFile(tempDir, "source/beach.jpg");
+        final var other = createFile(tempDir, "source/hotel.jpg");
+        final var target = tempDir.resolve("target").toFile();
+        assertTrue(target.mkdir());
+        final var node = addPicture(pictureCollection, source);
+        final var sameFileNode = addPicture(pictureCollection, source);
+        final var otherNode = addPicture(pictureCollection, other);
+
+        final var progress = new ArrayList<PictureConsolidator.Move>();
+        final var result = PictureConsolidator.plan(pictureCollection, List.of((PictureInfo) node.getUserObject()), target)
+                .execute(progress::add);
+
+        assertEquals(1, result.moved());
+        assertTrue(result.failed().isEmpty());
+        assertEquals(1, progress.size());
+        final var newFile = new File(target, "beach.jpg");
+        assertTrue(newFile.exists());
+        assertFalse(source.exists());
+        assertEquals(newFile, ((PictureInfo) node.getUserObject()).getImageFile());
+        assertEquals(newFile, ((PictureInfo) sameFileNode.getUserObject()).getImageFile());
+        assertEquals(other, ((PictureInfo) otherNode.getUserObject()).getImageFile());
+        assertEquals(2, pictureCollection.findNodesByFile(newFile).size());
+        assertFalse(pictureCollection.isInCollection(source));
+        assertFalse(new File(target, PictureConsolidator.JOURNAL_FILENAME).exists(), "A complete run removes its journal");
+    }
+
+    @Test
+    void testResumeFromJournal(@TempDir Path tempDir) throws IOException {
+        final var pictureCollection = new PictureCollection();
+        final var target = tempDir.resolve("target").toFile();
+        // the first file was moved but the run stopped before the pictures were corrected
+        final var moved = createFile(tempDir, "source/moved.jpg");
+        final var movedTarget = new File(target, "moved.jpg");
+        // the second file was half way through a copy
+        final var copying = createFile(tempDir, "source/copying.jpg");
+        final var copyingTarget = new File(target, "copying.jpg");
+        final var copyingPart = createFile(tempDir, "target/copying.jpg" + PictureConsolidator.PART_SUFFIX);
+        Files.writeString(copyingPart.toPath(), "Pict", StandardCharsets.UTF_8);
+        final var movedNode = addPicture(pictureCollection, moved);
+        final var copyingNode = addPicture(pictureCollection, copying);
+        Files.move(moved.toPath(), movedTarget.toPath());
+        Files.write(new File(target, PictureConsolidator.JOURNAL_FILENAME).toPath(), List.of(
+                "PLANNED\t" + moved + "\t" + movedTarget,
+                "PLANNED\t" + copying + "\t" + copyingTarget,
+                "MOVED\t" + moved + "\t" + movedTarget,
+                "MOVED\t" + copying), StandardCharsets.UTF_8);
+
+        // the second run only covers the half copied picture
+        final var consolidator = PictureConsolidator.plan(pictureCollection, List.of((PictureInfo) copyingNode.getUserObject()), target);
+        assertEquals(List.of(new PictureConsolidator.Move(copying, copyingTarget, false),
+                new PictureConsolidator.Move(moved, movedTarget, true)), consolidator.getMoves());
+
+        final var result = consolidator.execute(_ -> {
+        });
+
+        assertEquals(2, result.moved());
+        assertEquals(movedTarget, ((PictureInfo) movedNode.getUserObject()).getImageFile());
+        assertEquals(copyingTarget, ((PictureInfo) copyingNode.getUserObject()).getImageFile());
+        assertEquals("Picture " + tempDir.relativize(copying.toPath()), Files.readString(copyingTarget.toPath(), StandardCharsets.UTF_8));
+        assertFalse(copying.exists());
+        assertFalse(copyingPart.exists());
+        assertFalse(new File(target, PictureConsolidator.JOURNAL_FILENAME).exists());
+    }
+
+    @Test
+    void testJournalledTargetTakenByAnotherFile(@TempDir Path tempDir) throws IOException {
+        final var source = createFile(tempDir, "source/beach.jpg");
+        final var target = tempDir.resolve("target").toFile();
+        // an interrupted run planned beach.jpg but since then another file was saved under that name
+        final var other = createFile(tempDir, "target/beach.jpg");
+        Files.write(new File(target, PictureConsolidator.JOURNAL_FILENAME).toPath(),
+                List.of("PLANNED\t" + source + "\t" + other), StandardCharsets.UTF_8);
+
+        final var result = PictureConsolidator.plan(null, List.of(new PictureInfo(source, "Beach")), target)
+                .execute(_ -> {
+                });
+
+        assertEquals(1, result.moved());
+        assertEquals("Picture target/beach.jpg", Files.readString(other.toPath(), StandardCharsets.UTF_8));
+        assertEquals("Picture source/beach.jpg", Files.readString(new File(target, "beach_1.jpg").toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCopyDoesNotReplaceAnExistingTarget(@TempDir Path tempDir) throws IOException {
+        final var source = createFile(tempDir, "source/beach.jpg");
+        final var existing = createFile(tempDir, "target/beach.jpg");
+        final var move = new PictureConsolidator.Move(source, existing, false);
+
+        assertThrows(FileAlreadyExistsException.class, () -> PictureConsolidator.copyVerifyDelete(move));
+
+        assertTrue(source.exists());
+        assertEquals("Picture target/beach.jpg", Files.readString(existing.toPath(), StandardCharsets.UTF_8));
+        assertFalse(PictureConsolidator.getPartFile(existing).exists());
+    }
+}
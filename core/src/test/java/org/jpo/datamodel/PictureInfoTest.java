@@ -2,12 +2,14 @@ package org.jpo.datamodel;
 
 import org.junit.jupiter.api.Test;
 
+import java.awt.geom.Point2D;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -237,6 +239,36 @@ class PictureInfoTest {
         assertEquals("123456789", pictureInfo.getSha256());
     }
 
+    @Test
+    void testSha256HeldAsNumbers() {
+        final var pictureInfo = new PictureInfo();
+        final var sha256 = "0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF0123456789ABCDEF";
+        pictureInfo.setSha256(sha256);
+        assertEquals(sha256, pictureInfo.getSha256());
+        // lower case isn't what the HashingService produces so it is kept as it was supplied
+        pictureInfo.setSha256(sha256.toLowerCase());
+        assertEquals(sha256.toLowerCase(), pictureInfo.getSha256());
+        pictureInfo.setSha256("");
+        assertEquals("", pictureInfo.getSha256());
+        pictureInfo.appendToSha256(sha256.substring(0, 60));
+        pictureInfo.appendToSha256(sha256.substring(60));
+        assertEquals(sha256, pictureInfo.getSha256());
+    }
+
+    @Test
+    void testSharedStrings() {
+        final var pictureInfo1 = new PictureInfo();
+        final var pictureInfo2 = new PictureInfo();
+        pictureInfo1.setPhotographer(new String("Richard Eigenmann"));
+        pictureInfo2.setPhotographer(new String("Richard Eigenmann"));
+        assertSame(pictureInfo1.getPhotographer(), pictureInfo2.getPhotographer());
+        pictureInfo1.setCopyrightHolder(new String("Richard Eigenmann"));
+        assertSame(pictureInfo1.getPhotographer(), pictureInfo1.getCopyrightHolder());
+        pictureInfo1.setFilmReference(new String("Film 1"));
+        pictureInfo2.setFilmReference(new String("Film 1"));
+        assertSame(pictureInfo1.getFilmReference(), pictureInfo2.getFilmReference());
+    }
+
     @Test
     void calculateSha256() throws IOException {
         final var imageFile = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
@@ -365,6 +397,55 @@ class PictureInfoTest {
         assertEquals(2, listener.events.size());
     }
 
+    @Test
+    void testCategoryAssignments() {
+        final var pictureInfo = new PictureInfo();
+        pictureInfo.addCategoryAssignment(5);
+        pictureInfo.addCategoryAssignment(2);
+        pictureInfo.addCategoryAssignment(9);
+        pictureInfo.addCategoryAssignment(2);
+        final var categories = pictureInfo.getCategoryAssignments();
+        assertEquals(Set.of(2, 5, 9), categories);
+        assertEquals(List.of(2, 5, 9), new ArrayList<>(categories));
+        assertTrue(pictureInfo.containsCategory(5));
+        assertFalse(pictureInfo.containsCategory(3));
+        assertThrows(UnsupportedOperationException.class, () -> categories.add(3));
+
+        pictureInfo.removeCategory(5);
+        assertEquals(Set.of(2, 9), pictureInfo.getCategoryAssignments());
+        // the earlier Set doesn't change
+        assertEquals(Set.of(2, 5, 9), categories);
+        pictureInfo.removeCategory(2);
+        pictureInfo.removeCategory(9);
+        assertTrue(pictureInfo.getCategoryAssignments().isEmpty());
+    }
+
+    @Test
+    void testLatLng() {
+        final var pictureInfo = new PictureInfo();
+        assertEquals(new Point2D.Double(0, 0), pictureInfo.getLatLng());
+        pictureInfo.setLatLng(new Point2D.Double(47.3, 8.5));
+        assertEquals(new Point2D.Double(47.3, 8.5), pictureInfo.getLatLng());
+        // changing the returned point doesn't change the picture
+        pictureInfo.getLatLng().x = 1;
+        assertEquals(47.3, pictureInfo.getLatLng().x);
+    }
+
+    @Test
+    void testListenerAddedTwiceIsNotifiedOnce() {
+        final var pictureInfo = new PictureInfo();
+        final var pictureCollection = new PictureCollection();
+        pictureCollection.getRootNode().add(new SortableDefaultMutableTreeNode(pictureInfo));
+        final var listener = new TestPictureInfoChangeListener();
+        pictureInfo.addPictureInfoChangeListener(listener);
+        pictureInfo.addPictureInfoChangeListener(listener);
+        pictureInfo.setComment("Once");
+        assertEquals(1, listener.events.size());
+        pictureInfo.removePictureInfoChangeListener(listener);
+        pictureInfo.setComment("Twice");
+        assertEquals(1, listener.events.size());
+    }
+
 
     private static class TestPictureInfoChangeListener implements PictureInfoChangeListener {
 
@@ -388,6 +469,25 @@ class PictureInfoTest {
         assertEquals("Parses as: Sat Oct 02 14:43:23 CEST 2021".substring(0, 31), pictureInfo.getFormattedCreationTime().substring(0, 31));
     }
 
+    @Test
+    void testCreationTimeMillis() {
+        final var pictureInfo = new PictureInfo();
+        assertEquals(PictureInfo.NO_CREATION_TIME, pictureInfo.getCreationTimeMillis());
+        assertNull(pictureInfo.getCreationTimeAsDate());
+
+        pictureInfo.setCreationTime("2021:10:02 14:43:23");
+        final var expected = Tools.parseDate("2021:10:02 14:43:23");
+        assertNotNull(expected);
+        assertEquals(expected.getTimeInMillis(), pictureInfo.getCreationTimeMillis());
+        assertEquals(expected, pictureInfo.getCreationTimeAsDate());
+
+        // a new creation time replaces the parsed one
+        pictureInfo.setCreationTime("2019:01:01 00:00:00");
+        assertEquals(Tools.parseDate("2019:01:01 00:00:00"), pictureInfo.getCreationTimeAsDate());
+        pictureInfo.setCreationTime("cant parse this");
+        assertEquals(PictureInfo.NO_CREATION_TIME, pictureInfo.getCreationTimeMillis());
+    }
+
     @Test
     void compareTo() {
         final var pictureInfo1 = new PictureInfo(new File("File1.jpg"), "First PictureInfo");
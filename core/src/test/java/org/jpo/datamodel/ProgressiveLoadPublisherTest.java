@@ -0,0 +1,165 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class ProgressiveLoadPublisherTest {
+
+    private static final int GROUPS = 150;
+
+    private static class RecordingProgressTracker implements ProgressTracker {
+        private final List<String> messages = new ArrayList<>();
+        private boolean done;
+
+        @Override
+        public void update(final String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void done() {
+            done = true;
+        }
+    }
+
+    private static class InsertListener implements TreeModelListener {
+        private final List<TreeModelEvent> insertEvents = new ArrayList<>();
+
+        @Override
+        public void treeNodesChanged(final TreeModelEvent e) {
+            // not interested
+        }
+
+        @Override
+        public void treeNodesInserted(final TreeModelEvent e) {
+            insertEvents.add(e);
+        }
+
+        @Override
+        public void treeNodesRemoved(final TreeModelEvent e) {
+            // not interested
+        }
+
+        @Override
+        public void treeStructureChanged(final TreeModelEvent e) {
+            // not interested
+        }
+    }
+
+    private static File writeCollection(final Path directory) throws IOException {
+        final var pictureCollection = new PictureCollection();
+        pictureCollection.getRootNode().setUserObject(new GroupInfo("Big Collection"));
+        for (var i = 0; i < GROUPS; i++) {
+            final var group = new SortableDefaultMutableTreeNode(new GroupInfo("Group " + i));
+            pictureCollection.getRootNode().add(group);
+            group.add(new SortableDefaultMutableTreeNode(new PictureInfo(directory.resolve("picture" + i + ".jpg").toFile(), "Picture " + i)));
+            final var subGroup = new SortableDefaultMutableTreeNode(new GroupInfo("Subgroup " + i));
+            group.add(subGroup);
+            subGroup.add(new SortableDefaultMutableTreeNode(new PictureInfo(directory.resolve("sub" + i + ".jpg").toFile(), "Sub picture " + i)));
+        }
+        pictureCollection.getRootNode().add(new SortableDefaultMutableTreeNode(new PictureInfo(directory.resolve("top.jpg").toFile(), "Top picture")));
+        final var xmlFile = directory.resolve("collection.xml").toFile();
+        JpoWriter.write(xmlFile, pictureCollection.getRootNode(), false);
+        return xmlFile;
+    }
+
+    @Test
+    void testStreamLoadAttachesEverythingInOrder(@TempDir Path tempDir) throws IOException {
+        final var xmlFile = writeCollection(tempDir);
+        final var loaded = new PictureCollection();
+        final var insertListener = new InsertListener();
+        loaded.getTreeModel().addTreeModelListener(insertListener);
+        final var progressTracker = new RecordingProgressTracker();
+        try (final var inputStream = new FileInputStream(xmlFile)) {
+            PictureCollection.streamLoad(inputStream, loaded.getRootNode(), progressTracker, () -> {
+            });
+        }
+
+        final var rootNode = loaded.getRootNode();
+        assertEquals("Big Collection", rootNode.toString());
+        assertEquals(GROUPS + 1, rootNode.getChildCount());
+        for (var i = 0; i < GROUPS; i++) {
+            final var group = (SortableDefaultMutableTreeNode) rootNode.getChildAt(i);
+            assertEquals("Group " + i, group.toString());
+            assertEquals(2, group.getChildCount());
+            assertEquals("Picture " + i, ((PictureInfo) ((SortableDefaultMutableTreeNode) group.getChildAt(0)).getUserObject()).getDescription());
+            final var subGroup = (SortableDefaultMutableTreeNode) group.getChildAt(1);
+            assertEquals("Subgroup " + i, subGroup.toString());
+            assertEquals(1, subGroup.getChildCount());
+        }
+        assertEquals("Top picture", ((PictureInfo) ((SortableDefaultMutableTreeNode) rootNode.getLastChild()).getUserObject()).getDescription());
+        assertEquals(1, loaded.findNodesByFile(tempDir.resolve("sub7.jpg").toFile()).size());
+        assertTrue(progressTracker.done);
+
+        // the top level nodes arrive in batches and each batch is announced once
+        assertTrue(insertListener.insertEvents.size() < GROUPS);
+        var inserted = 0;
+        for (final var event : insertListener.insertEvents) {
+            assertSame(rootNode, event.getTreePath().getLastPathComponent());
+            for (final var childIndex : event.getChildIndices()) {
+                assertEquals(inserted, childIndex);
+                inserted++;
+            }
+        }
+        assertEquals(GROUPS + 1, inserted);
+    }
+
+    @Test
+    void testProgressReportsPercent(@TempDir Path tempDir) throws IOException {
+        final var xmlFile = writeCollection(tempDir);
+        final var loaded = new PictureCollection();
+        final var progressTracker = new RecordingProgressTracker();
+        final var binaryCollection = CacheSettings.isBinaryCollection();
+        CacheSettings.setBinaryCollection(false);
+        try {
+            PictureCollection.fileLoad(xmlFile, loaded.getRootNode(), progressTracker, () -> {
+            });
+        } finally {
+            CacheSettings.setBinaryCollection(binaryCollection);
+        }
+        assertEquals(GROUPS + 1, loaded.getRootNode().getChildCount());
+        assertFalse(progressTracker.messages.isEmpty());
+        assertTrue(progressTracker.messages.getFirst().contains("%"));
+    }
+
+    @Test
+    void testBatches() {
+        final var pictureCollection = new PictureCollection();
+        final var publisher = new ProgressiveLoadPublisher(pictureCollection.getRootNode());
+        for (var i = 0; i < ProgressiveLoadPublisher.BATCH_SIZE * 2 + 1; i++) {
+            publisher.accept(new SortableDefaultMutableTreeNode(new GroupInfo("Group " + i)));
+        }
+        assertTrue(publisher.getPublished() >= ProgressiveLoadPublisher.BATCH_SIZE + 1);
+        publisher.finish();
+        assertEquals(ProgressiveLoadPublisher.BATCH_SIZE * 2 + 1, publisher.getPublished());
+        assertEquals(ProgressiveLoadPublisher.BATCH_SIZE * 2 + 1, pictureCollection.getRootNode().getChildCount());
+        assertEquals("Group 0", pictureCollection.getRootNode().getFirstChild().toString());
+    }
+}
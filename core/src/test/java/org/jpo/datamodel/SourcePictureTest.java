@@ -166,5 +166,35 @@ import static org.junit.jupiter.api.Assumptions.assumeFalse;
          assertEquals(1664, sourcePicture.getHeight());
      }
 
+     @Test
+     void testLoadReducedPicture() throws IOException {
+         final var sourcePicture = new SourcePicture();
+         final var imageFile = Tools.copyResourceToTempFile("/exif-test-samsung-s4.jpg");
+         final var hash = com.google.common.io.Files.asByteSource(imageFile).hash(Hashing.sha256());
+         sourcePicture.loadReducedPicture(hash.toString(), imageFile, 0.0, new Dimension(350, 350));
+         assertEquals(SourcePicture.SourcePictureStatus.SOURCE_PICTURE_READY, sourcePicture.getStatusCode());
+         assertTrue(sourcePicture.getWidth() >= 350);
+         assertTrue(sourcePicture.getWidth() < 3264);
+     }
+
+     @Test
+     void testLoadReducedPictureWithRotation() throws IOException {
+         final var sourcePicture = new SourcePicture();
+         final var imageFile = Tools.copyResourceToTempFile("/exif-test-samsung-s4.jpg");
+         final var hash = com.google.common.io.Files.asByteSource(imageFile).hash(Hashing.sha256());
+         sourcePicture.loadReducedPicture(hash.toString(), imageFile, 90.0, new Dimension(350, 350));
+         assertTrue(sourcePicture.getHeight() >= 350);
+         assertTrue(sourcePicture.getHeight() < 3264);
+         assertTrue(sourcePicture.getWidth() < sourcePicture.getHeight());
+     }
+
+     @Test
+     void testLoadReducedPictureOfSmallPicture() throws IOException {
+         final var sourcePicture = new SourcePicture();
+         final var imageFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+         final var hash = com.google.common.io.Files.asByteSource(imageFile).hash(Hashing.sha256());
+         sourcePicture.loadReducedPicture(hash.toString(), imageFile, 0.0, new Dimension(350, 350));
+         assertEquals(new Dimension(350, 233), sourcePicture.getSize());
+     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class TagCloudIndexTest {
+
+    @Test
+    void testTokenize() {
+        assertArrayEquals(new String[]{"Hello", "World"}, TagCloudIndex.tokenize("Hello World"));
+    }
+
+    @Test
+    void testTokenizeApostrophe() {
+        assertArrayEquals(new String[]{"Fingal", "Cave"}, TagCloudIndex.tokenize("Fingal's Cave"));
+    }
+
+    @Test
+    void testTokenizeNoNumbers() {
+        assertArrayEquals(new String[]{"Fingal", "Cave", "has", "more", "than", "Basalt", "Columns", "Really"},
+                TagCloudIndex.tokenize("Fingal's Cave, has - more - than 22 Basalt Columns! Really!"));
+    }
+
+    @Test
+    void testTokenizeStrikeWordsAndMultiWordTerms() {
+        assertArrayEquals(new String[]{"New York", "Sunset", "over", "Harbour"},
+                TagCloudIndex.tokenize("Sunset over the New York Harbour_2019"));
+        assertArrayEquals(new String[0], TagCloudIndex.tokenize(""));
+    }
+
+    @Test
+    void testCounts() {
+        final var tagCloudIndex = new TagCloudIndex();
+        final var first = tagCloudIndex.add("Beach at sunset");
+        tagCloudIndex.add("Beach volleyball");
+        tagCloudIndex.add("Mountain beach Beach");
+        assertEquals(List.of(Map.entry("Beach", 3)), tagCloudIndex.getTopWords(1));
+
+        tagCloudIndex.remove(first);
+        assertEquals(List.of(Map.entry("Beach", 2), Map.entry("Mountain", 1), Map.entry("beach", 1), Map.entry("volleyball", 1)),
+                tagCloudIndex.getTopWords(10));
+    }
+
+    @Test
+    void testCollectionFollowsDescriptions() {
+        final var pictureCollection = new PictureCollection();
+        final var group = new SortableDefaultMutableTreeNode(new GroupInfo("Group"));
+        pictureCollection.getRootNode().add(group);
+        final var beach = new SortableDefaultMutableTreeNode(new PictureInfo(new File("/pictures/1.jpg"), "Beach walk"));
+        group.add(beach);
+        final var mountain = new SortableDefaultMutableTreeNode(new PictureInfo(new File("/pictures/2.jpg"), "Mountain walk"));
+        pictureCollection.getRootNode().add(mountain);
+
+        assertEquals(List.of(Map.entry("walk", 2), Map.entry("Beach", 1), Map.entry("Mountain", 1)),
+                pictureCollection.getTagCloudWords(10));
+        assertEquals(List.of(Map.entry("Beach", 1), Map.entry("walk", 1)),
+                pictureCollection.getTagCloudWords(group.getChildPictureNodes(true), 10));
+
+        ((PictureInfo) beach.getUserObject()).setDescription("Mountain hike");
+        assertEquals(List.of(Map.entry("Mountain", 2), Map.entry("hike", 1), Map.entry("walk", 1)),
+                pictureCollection.getTagCloudWords(10));
+
+        mountain.removeFromParent();
+        assertEquals(List.of(Map.entry("Mountain", 1), Map.entry("hike", 1)), pictureCollection.getTagCloudWords(10));
+    }
+}
@@ -0,0 +1,126 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class TextQueryTest {
+
+    private PictureCollection pictureCollection;
+    private SortableDefaultMutableTreeNode holidays;
+    private SortableDefaultMutableTreeNode sunset;
+    private SortableDefaultMutableTreeNode volleyball;
+    private SortableDefaultMutableTreeNode mountain;
+
+    private static SortableDefaultMutableTreeNode createPictureNode(final String file, final String description, final String creationTime) {
+        final var pictureInfo = new PictureInfo(new File("/pictures/" + file), description);
+        pictureInfo.setCreationTime(creationTime);
+        return new SortableDefaultMutableTreeNode(pictureInfo);
+    }
+
+    @BeforeEach
+    void setUp() {
+        pictureCollection = new PictureCollection();
+        holidays = new SortableDefaultMutableTreeNode(new GroupInfo("Holidays"));
+        pictureCollection.getRootNode().add(holidays);
+        sunset = createPictureNode("IMG_0001.jpg", "Sunset at the beach", "2021:07:01 18:00:00");
+        holidays.add(sunset);
+        volleyball = createPictureNode("IMG_0002.jpg", "Beach volleyball", "2019:08:15 10:00:00");
+        holidays.add(volleyball);
+        mountain = createPictureNode("IMG_0003.jpg", "Mountain hike", "");
+        pictureCollection.getRootNode().add(mountain);
+    }
+
+    private List<SortableDefaultMutableTreeNode> search(final String searchString) {
+        return new TextQuery(pictureCollection.getRootNode(), searchString).getSearchResults();
+    }
+
+    @Test
+    void testWordsAndPartsOfWords() {
+        assertEquals(List.of(volleyball, sunset), search("beach"));
+        assertEquals(List.of(volleyball, sunset), search("EACH"));
+        assertEquals(List.of(sunset), search("sun"));
+        assertEquals(List.of(mountain), search("IMG_0003"));
+        assertEquals(List.of(sunset), search("at the"));
+        assertEquals(List.of(mountain, volleyball, sunset), search("pictures"));
+        assertTrue(search("volcano").isEmpty());
+        // both words are there but not next to each other
+        assertTrue(search("sunset beach").isEmpty());
+    }
+
+    @Test
+    void testFollowsChanges() {
+        assertTrue(search("lake").isEmpty());
+        ((PictureInfo) mountain.getUserObject()).setComment("by the lake");
+        assertEquals(List.of(mountain), search("lake"));
+
+        ((PictureInfo) mountain.getUserObject()).setDescription("Beach walk");
+        // the undated picture sorts first
+        assertEquals(List.of(mountain, volleyball, sunset), search("beach"));
+        assertTrue(search("hike").isEmpty());
+
+        volleyball.removeFromParent();
+        assertEquals(List.of(mountain, sunset), search("beach"));
+
+        final var sunrise = createPictureNode("IMG_0004.jpg", "Sunrise at the beach", "2020:01:01 07:00:00");
+        holidays.add(sunrise);
+        assertEquals(List.of(mountain, sunrise, sunset), search("beach"));
+    }
+
+    @Test
+    void testStartNode() {
+        final var textQuery = new TextQuery(holidays, "i");
+        assertEquals(List.of(volleyball, sunset), textQuery.getSearchResults());
+    }
+
+    @Test
+    void testDateRange() {
+        final var textQuery = new TextQuery(pictureCollection.getRootNode(), "jpg");
+        textQuery.setLowerDateRange(new GregorianCalendar(2020, GregorianCalendar.JANUARY, 1));
+        // pictures without a date are in every range
+        assertEquals(List.of(mountain, sunset), textQuery.getSearchResults());
+
+        final var upperQuery = new TextQuery(pictureCollection.getRootNode(), "jpg");
+        upperQuery.setUpperDateRange(new GregorianCalendar(2020, GregorianCalendar.JANUARY, 1));
+        assertEquals(List.of(mountain, volleyball), upperQuery.getSearchResults());
+    }
+
+    @Test
+    void testDetachedNodesAreScanned() {
+        final var group = new SortableDefaultMutableTreeNode(new GroupInfo("Loose"));
+        final var later = createPictureNode("later.jpg", "Beach later", "2022:01:01 00:00:00");
+        final var earlier = createPictureNode("earlier.jpg", "Beach earlier", "2018:01:01 00:00:00");
+        group.add(later);
+        group.add(earlier);
+        assertEquals(List.of(earlier, later), new TextQuery(group, "beach").getSearchResults());
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("SUNSET", "AT", "THE", "BEACH", "2021"), List.copyOf(TextIndex.tokenize("Sunset at the beach, 2021!")));
+        assertTrue(TextIndex.isSingleWord("beach"));
+        assertFalse(TextIndex.isSingleWord("at the"));
+        assertFalse(TextIndex.isSingleWord(""));
+    }
+}
@@ -0,0 +1,46 @@
+package org.jpo.datamodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ThumbnailKey} class.
+ */
+class ThumbnailKeyTest {
+
+    private static final String SHA256 = "0123456789ABCDEF0123456789ABCDEFFEDCBA9876543210FEDCBA9876543210";
+
+    @Test
+    void testRoundTrip() {
+        final var key = ThumbnailKey.of(SHA256, 90.0, new Dimension(350, 300));
+        assertEquals(SHA256, key.getSha256());
+        assertEquals(9000, key.rotation());
+        assertEquals(350, key.width());
+        assertEquals(300, key.height());
+    }
+
+    @Test
+    void testEqualsIgnoresHexCase() {
+        final var upper = ThumbnailKey.of(SHA256, 0.0, new Dimension(350, 350));
+        final var lower = ThumbnailKey.of(SHA256.toLowerCase(), 0.0, new Dimension(350, 350));
+        assertEquals(upper, lower);
+        assertEquals(upper.hashCode(), lower.hashCode());
+    }
+
+    @Test
+    void testDifferentRotationIsDifferentKey() {
+        final var unrotated = ThumbnailKey.of(SHA256, 0.0, new Dimension(350, 350));
+        final var rotated = ThumbnailKey.of(SHA256, 90.0, new Dimension(350, 350));
+        assertNotEquals(unrotated, rotated);
+    }
+
+    @Test
+    void testBadSha256() {
+        final var size = new Dimension(350, 350);
+        assertThrows(IllegalArgumentException.class, () -> ThumbnailKey.of("", 0.0, size));
+        assertThrows(IllegalArgumentException.class, () -> ThumbnailKey.of(null, 0.0, size));
+    }
+}
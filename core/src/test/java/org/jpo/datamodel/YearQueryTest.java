@@ -2,8 +2,11 @@ package org.jpo.datamodel;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class YearQueryTest {
 
@@ -15,5 +18,51 @@ class YearQueryTest {
         assertEquals("2021", yearQuery.toString());
     }
 
+    private static SortableDefaultMutableTreeNode addPicture(final SortableDefaultMutableTreeNode parent, final String creationTime) {
+        final var pictureInfo = new PictureInfo(new File("/pictures/" + creationTime + ".jpg"), creationTime);
+        pictureInfo.setCreationTime(creationTime);
+        final var node = new SortableDefaultMutableTreeNode(pictureInfo);
+        parent.add(node);
+        return node;
+    }
+
+    @Test
+    void testSearchResults() {
+        final var pictureCollection = new PictureCollection();
+        final var rootNode = pictureCollection.getRootNode();
+        final var group = new SortableDefaultMutableTreeNode(new GroupInfo("Group"));
+        rootNode.add(group);
+        final var october = addPicture(group, "2021:10:02 14:43:23");
+        final var march = addPicture(rootNode, "2021:03:01 08:00:00");
+        final var otherYear = addPicture(rootNode, "2020:12:30 23:00:00");
+        addPicture(rootNode, "no date");
+
+        final var yearQuery = new YearQuery("2021");
+        yearQuery.setStartNode(rootNode);
+        assertEquals(List.of(march, october), yearQuery.getSearchResults());
+
+        final var groupQuery = new YearQuery("2021");
+        groupQuery.setStartNode(group);
+        assertEquals(List.of(october), groupQuery.getSearchResults());
 
-}
\ No newline at end of file
+        ((PictureInfo) otherYear.getUserObject()).setCreationTime("2021:06:01 12:00:00");
+        yearQuery.refresh();
+        assertEquals(List.of(march, otherYear, october), yearQuery.getSearchResults());
+    }
+
+    @Test
+    void testYearAndMonthCounts() {
+        final var pictureCollection = new PictureCollection();
+        final var rootNode = pictureCollection.getRootNode();
+        addPicture(rootNode, "2021:10:02 14:43:23");
+        addPicture(rootNode, "2021:03:01 08:00:00");
+        final var node = addPicture(rootNode, "2020:12:30 23:00:00");
+        addPicture(rootNode, "no date");
+        assertEquals(Map.of(2020, 1, 2021, 2), pictureCollection.getYearCounts());
+        assertArrayEquals(new int[]{0, 0, 1, 0, 0, 0, 0, 0, 0, 1, 0, 0}, pictureCollection.getMonthCounts(2021));
+
+        node.removeFromParent();
+        assertEquals(Map.of(2021, 2), pictureCollection.getYearCounts());
+        assertArrayEquals(new int[12], pictureCollection.getMonthCounts(2020));
+    }
+}
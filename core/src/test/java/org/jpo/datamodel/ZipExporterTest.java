@@ -0,0 +1,106 @@
+package org.jpo.datamodel;
+
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class ZipExporterTest {
+
+    private static File writeTextFile(final Path directory) throws IOException {
+        final var textFile = directory.resolve("notes.txt").toFile();
+        Files.writeString(textFile.toPath(), "Some notes about the pictures. ".repeat(200));
+        return textFile;
+    }
+
+    @Test
+    void testGetMethod(@TempDir Path tempDir) throws IOException {
+        assertEquals(ZipEntry.STORED, ZipExporter.getMethod(Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg")));
+        assertEquals(ZipEntry.DEFLATED, ZipExporter.getMethod(writeTextFile(tempDir)));
+    }
+
+    @Test
+    void testExport(@TempDir Path tempDir) throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        final var textFile = writeTextFile(tempDir);
+        final var zipfile = tempDir.resolve("pictures.zip").toFile();
+        final var added = ZipExporter.export(zipfile, List.of(
+                new ZipExporter.Member(imageFile, "picture.jpg"),
+                new ZipExporter.Member(textFile, "notes.txt"),
+                new ZipExporter.Member(imageFile, "picture.jpg"),
+                new ZipExporter.Member(new File(tempDir.toFile(), "missing.jpg"), "missing.jpg")), false);
+        assertEquals(2, added);
+        try (final var zipFile = ZipFile.builder().setFile(zipfile).get()) {
+            final var picture = zipFile.getEntry("picture.jpg");
+            assertEquals(ZipEntry.STORED, picture.getMethod());
+            assertArrayEquals(Files.readAllBytes(imageFile.toPath()), zipFile.getInputStream(picture).readAllBytes());
+            final var notes = zipFile.getEntry("notes.txt");
+            assertEquals(ZipEntry.DEFLATED, notes.getMethod());
+            assertTrue(notes.getCompressedSize() < notes.getSize());
+            assertArrayEquals(Files.readAllBytes(textFile.toPath()), zipFile.getInputStream(notes).readAllBytes());
+        }
+        assertFalse(new File(zipfile.getAbsolutePath() + ".org.jpo.temp").exists());
+    }
+
+    @Test
+    void testAppend(@TempDir Path tempDir) throws IOException {
+        final var firstImage = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        final var secondImage = Tools.copyResourceToTempFile("/exif-test-canon-eos-350d.jpg");
+        final var textFile = writeTextFile(tempDir);
+        final var zipfile = tempDir.resolve("pictures.zip").toFile();
+        ZipExporter.export(zipfile, List.of(
+                new ZipExporter.Member(firstImage, "first.jpg"),
+                new ZipExporter.Member(textFile, "notes.txt")), false);
+
+        assertEquals(1, ZipExporter.export(zipfile, List.of(new ZipExporter.Member(secondImage, "second.jpg")), true));
+        try (final var zipFile = ZipFile.builder().setFile(zipfile).get()) {
+            assertArrayEquals(Files.readAllBytes(firstImage.toPath()), zipFile.getInputStream(zipFile.getEntry("first.jpg")).readAllBytes());
+            assertArrayEquals(Files.readAllBytes(secondImage.toPath()), zipFile.getInputStream(zipFile.getEntry("second.jpg")).readAllBytes());
+            assertArrayEquals(Files.readAllBytes(textFile.toPath()), zipFile.getInputStream(zipFile.getEntry("notes.txt")).readAllBytes());
+        }
+
+        // a member with the name of an old entry replaces it
+        ZipExporter.export(zipfile, List.of(new ZipExporter.Member(secondImage, "first.jpg")), true);
+        try (final var zipFile = ZipFile.builder().setFile(zipfile).get()) {
+            assertEquals(3, Collections.list(zipFile.getEntries()).size());
+            assertArrayEquals(Files.readAllBytes(secondImage.toPath()), zipFile.getInputStream(zipFile.getEntry("first.jpg")).readAllBytes());
+        }
+    }
+
+    @Test
+    void testOverwrite(@TempDir Path tempDir) throws IOException {
+        final var imageFile = Tools.copyResourceToTempFile("/exif-test-nikon-d100-1.jpg");
+        final var zipfile = tempDir.resolve("pictures.zip").toFile();
+        ZipExporter.export(zipfile, List.of(new ZipExporter.Member(imageFile, "first.jpg")), false);
+        ZipExporter.export(zipfile, List.of(new ZipExporter.Member(imageFile, "second.jpg")), false);
+        try (final var zipFile = ZipFile.builder().setFile(zipfile).get()) {
+            assertNull(zipFile.getEntry("first.jpg"));
+            assertNotNull(zipFile.getEntry("second.jpg"));
+        }
+    }
+}
@@ -1,20 +1,14 @@
 package org.jpo.eventbus;
 
 import com.google.common.eventbus.Subscribe;
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
-import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.jpo.datamodel.PictureInfo;
+import org.jpo.datamodel.ZipExporter;
 import org.jpo.gui.Settings;
-import org.jpo.datamodel.SortableDefaultMutableTreeNode;
 import org.jpo.gui.JpoResources;
 
 import javax.swing.*;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,57 +46,30 @@ public class CopyToZipfileHandler {
 
     /**
      * Copies the pictures of the supplied nodes to the target zipfile, creating
-     * it if need be. This method does append to the zipfile by writing to a
-     * temporary file and then copying the old zip file over to this one as the
-     * API doesn't support directly appending to a zip file.
+     * it if need be. The entries of an existing zipfile are copied over raw to
+     * a temporary file which then replaces the old zipfile as the API doesn't
+     * support directly appending to a zip file. See {@link ZipExporter}.
      *
      * @param request The request
      */
     @Subscribe
     public void handleEvent(final CopyToZipfileRequest request) {
-        final var tempFile = new File(request.targetZipfile().getAbsolutePath() + ".org.jpo.temp");
-        var picsCopied = 0;
-        try (final var zipArchiveOutputStream = new ZipArchiveOutputStream(tempFile)) {
-            zipArchiveOutputStream.setLevel(9);
-            picsCopied += addPicturesToZip(zipArchiveOutputStream, request.nodes());
-
-            if (request.targetZipfile().exists()) {
-                // copy the old entries over
-                try (
-                        final var oldZipFile = new ZipFile(request.targetZipfile())) {
-                    final var entries = oldZipFile.getEntries();
-                    while (entries.hasMoreElements()) {
-                        final var entry = entries.nextElement();
-                        LOGGER.log(Level.INFO, "streamCopy: {0}", entry.getName());
-                        zipArchiveOutputStream.putArchiveEntry(entry);
-                        if (!entry.isDirectory()) {
-                            oldZipFile.getInputStream(entry).transferTo(zipArchiveOutputStream);
-                        }
-                        zipArchiveOutputStream.closeArchiveEntry();
-                    }
-                }
-            }
-            zipArchiveOutputStream.finish();
-        } catch (final IOException _) {
-            try {
-                Files.delete(tempFile.toPath());
-            } catch (final IOException e) {
-                LOGGER.log(Level.SEVERE, "Could not delete tempFile: {0} Exception: {1}", new Object[]{tempFile, e.getMessage()});
+        final var members = new ArrayList<ZipExporter.Member>();
+        for (final var node : request.nodes()) {
+            if (node.getUserObject() instanceof PictureInfo pi) {
+                final var sourceFile = pi.getImageFile();
+                LOGGER.log(Level.INFO, "Processing file {0}", sourceFile);
+                members.add(new ZipExporter.Member(sourceFile, sourceFile.getName()));
+            } else {
+                LOGGER.log(Level.INFO, "Skipping non PictureInfo node {0}", node);
             }
         }
 
-        if (request.targetZipfile().exists()) {
-            LOGGER.log(Level.INFO, "Deleting old file {0}", request.targetZipfile().getAbsolutePath());
-            try {
-                Files.delete(request.targetZipfile().toPath());
-            } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "Failed to delete file {0}, Exception: {1}", new Object[]{request.targetZipfile().getAbsolutePath(), e.getMessage()});
-            }
-        }
-        LOGGER.log(Level.INFO, "Renaming temp file {0} to {1}", new Object[]{tempFile.getAbsolutePath(), request.targetZipfile().getAbsolutePath()});
-        boolean ok = tempFile.renameTo(request.targetZipfile());
-        if (!ok) {
-            LOGGER.log(Level.SEVERE, "Failed to rename temp file {0} to {1}", new Object[]{tempFile.getAbsolutePath(), request.targetZipfile().getAbsolutePath()});
+        var picsCopied = 0;
+        try {
+            picsCopied = ZipExporter.export(request.targetZipfile(), members, true);
+        } catch (final IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not write zipfile {0}: {1}", new Object[]{request.targetZipfile(), e.getMessage()});
         }
 
         JOptionPane.showMessageDialog(Settings.getAnchorFrame(),
@@ -112,32 +79,4 @@ public class CopyToZipfileHandler {
 
     }
 
-
-    private int addPicturesToZip(
-            final ZipArchiveOutputStream zipArchiveOutputStream,
-            final Collection<SortableDefaultMutableTreeNode> nodes)
-            throws IOException {
-        var picsCopied = 0;
-        for (final var node : nodes) {
-            if (node.getUserObject() instanceof PictureInfo pi) {
-                final var sourceFile = pi.getImageFile();
-                LOGGER.log(Level.INFO, "Processing file {0}", sourceFile);
-
-                final var entry = new ZipArchiveEntry(sourceFile, sourceFile.getName());
-                zipArchiveOutputStream.putArchiveEntry(entry);
-
-                try (final var fis = new FileInputStream(sourceFile)) {
-                    fis.transferTo(zipArchiveOutputStream);
-                }
-                zipArchiveOutputStream.closeArchiveEntry();
-
-                picsCopied++;
-
-            } else {
-                LOGGER.log(Level.INFO, "Skipping non PictureInfo node {0}", node);
-            }
-        }
-        return picsCopied;
-    }
-
 }
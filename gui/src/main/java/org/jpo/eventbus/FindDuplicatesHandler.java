@@ -1,7 +1,7 @@
 package org.jpo.eventbus;
 
 /*
- Copyright (C) 2023-2024 Richard Eigenmann.
+ Copyright (C) 2023-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -18,6 +18,8 @@ package org.jpo.eventbus;
 
 import com.google.common.eventbus.Subscribe;
 import org.jpo.datamodel.DuplicatesQuery;
+import org.jpo.gui.JpoResources;
+import org.jpo.gui.swing.LabelFrame;
 
 /**
  * Handler for the FindDuplicatesRequest request
@@ -31,8 +33,11 @@ public class FindDuplicatesHandler {
      */
     @Subscribe
     public void handleEvent(final FindDuplicatesRequest request) {
-        final var duplicatesQuery = new DuplicatesQuery(request.pictureCollection());
+        final var progressGui = new LabelFrame(JpoResources.getResource("FindDuplicatesJMenuItem"));
+        final var duplicatesQuery = new DuplicatesQuery(request.pictureCollection(),
+                (processed, total) -> progressGui.update(String.format("%d / %d", processed, total)));
         request.pictureCollection().addQueryToTreeModel(duplicatesQuery);
+        duplicatesQuery.refreshInBackground().whenComplete((_, _) -> progressGui.done());
         JpoEventBus.getInstance().post(new ShowQueryRequest(duplicatesQuery));
     }
 
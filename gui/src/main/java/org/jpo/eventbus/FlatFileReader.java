@@ -1,12 +1,11 @@
 package org.jpo.eventbus;
 
-import org.apache.commons.io.FilenameUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jpo.datamodel.GroupInfo;
-import org.jpo.datamodel.JpoImageIO;
-import org.jpo.datamodel.PictureInfo;
+import org.jpo.datamodel.IngestPipeline;
 import org.jpo.datamodel.SortableDefaultMutableTreeNode;
 import org.jpo.gui.JpoResources;
+import org.jpo.gui.ProgressGui;
 import org.jpo.gui.Settings;
 
 import javax.swing.*;
@@ -14,11 +13,13 @@ import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /*
- * Copyright (C) 2017-2025 Richard Eigenmann, Zurich, Switzerland
+ * Copyright (C) 2017-2026 Richard Eigenmann, Zurich, Switzerland
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -51,14 +52,13 @@ public class FlatFileReader {
     }
 
     /**
-     * Constructs a FlatFileReader and imports the pictures listed in the file
+     * Reads the list of files and imports the pictures in a {@link SwingWorker} so that the EDT stays free and the
+     * import can be cancelled from the progress window.
      *
      * @param request The request
      */
     public static void handleRequest(final AddFlatFileRequest request) {
-        final SortableDefaultMutableTreeNode newNode = new SortableDefaultMutableTreeNode(
-                new GroupInfo(request.flatfile().getName()));
-
+        final var files = new ArrayList<File>();
         try (final BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(request.flatfile()), StandardCharsets.UTF_8))) {
             while (in.ready()) {
                 final var line = in.readLine();
@@ -66,24 +66,74 @@ public class FlatFileReader {
 
                 if (!testFile.canRead()) {
                     LOGGER.log(Level.INFO, "Can''t read file: {0}", line);
-                } else if (JpoImageIO.jvmHasReader(testFile)) {
-
-                    LOGGER.log(Level.INFO, "adding file to node: {0}", line);
-                    final SortableDefaultMutableTreeNode newPictureNode = new SortableDefaultMutableTreeNode(
-                            new PictureInfo(testFile, FilenameUtils.getBaseName(testFile.getName())));
-                    newNode.add(newPictureNode);
+                } else if (!testFile.isDirectory()) {
+                    files.add(testFile);
                 }
             }
-            request.node().add(newNode);
-            request.node().getPictureCollection().sendNodeStructureChanged(request.node());
-            request.node().getPictureCollection().setUnsavedUpdates(false);
-            JpoEventBus.getInstance().post(new ShowGroupRequest(newNode));
         } catch ( final IOException ex ) {
             LOGGER.severe( ex.getLocalizedMessage() );
             JOptionPane.showMessageDialog(Settings.getAnchorFrame(),
                     ex.getLocalizedMessage(),
                     JpoResources.getResource("genericError"),
                     JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        final SortableDefaultMutableTreeNode newNode = new SortableDefaultMutableTreeNode(
+                new GroupInfo(request.flatfile().getName()));
+        request.node().add(newNode);
+        new FlatFileImporter(request, newNode, files).execute();
+    }
+
+    /**
+     * Runs the {@link IngestPipeline} off the EDT and counts the files on a {@link ProgressGui} with a cancel
+     * button, the way the {@link org.jpo.gui.PictureAdder} does.
+     */
+    private static class FlatFileImporter extends SwingWorker<Integer, Integer> {
+
+        private final AddFlatFileRequest request;
+        private final SortableDefaultMutableTreeNode newNode;
+        private final List<File> files;
+        private final ProgressGui progGui;
+
+        private FlatFileImporter(final AddFlatFileRequest request, final SortableDefaultMutableTreeNode newNode, final List<File> files) {
+            this.request = request;
+            this.newNode = newNode;
+            this.files = files;
+            progGui = new ProgressGui(files.size(),
+                    JpoResources.getResource("PictureAdderProgressDialogTitle"),
+                    JpoResources.getResource("picturesAdded"));
+        }
+
+        @Override
+        protected Integer doInBackground() {
+            return new IngestPipeline(newNode, new IngestPipeline.Options(false, false, false, null), null,
+                    progGui.getInterruptSemaphore()::getShouldInterrupt)
+                    .run(files, (file, added) -> {
+                        LOGGER.log(Level.INFO, "{0} file: {1}", new Object[]{added ? "Added" : "Skipped", file});
+                        publish(added ? 1 : -1);
+                    });
+        }
+
+        /**
+         * @param chunks 1 for each picture added, -1 for each file skipped
+         */
+        @Override
+        protected void process(final List<Integer> chunks) {
+            chunks.forEach(i -> {
+                if (i > 0) {
+                    progGui.progressIncrement();
+                } else {
+                    progGui.decrementTotal();
+                }
+            });
+        }
+
+        @Override
+        protected void done() {
+            progGui.switchToDoneMode();
+            request.node().getPictureCollection().setUnsavedUpdates(false);
+            JpoEventBus.getInstance().post(new ShowGroupRequest(newNode));
         }
     }
 
@@ -1,20 +1,22 @@
 package org.jpo.eventbus;
 
 import com.google.common.eventbus.Subscribe;
+import org.jpo.datamodel.PictureConsolidator;
 import org.jpo.datamodel.PictureInfo;
 import org.jpo.datamodel.SortableDefaultMutableTreeNode;
-import org.jpo.gui.ConsolidateGroupWorker;
 import org.jpo.gui.JpoResources;
 import org.jpo.gui.Settings;
 
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.jpo.gui.ApplicationStartupHandler.GENERIC_INFO;
 
 /*
- Copyright (C) 2022-2025 Richard Eigenmann.
+ Copyright (C) 2022-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -63,16 +65,21 @@ public class MoveToDirHandler {
             return;
         }
 
-        var picsMoved = 0;
+        final var pictures = new ArrayList<PictureInfo>();
         for (SortableDefaultMutableTreeNode node : request.nodes()) {
             if (node.getUserObject() instanceof PictureInfo pi) {
-                if (ConsolidateGroupWorker.movePicture(pi, request.targetLocation())) {
-                    picsMoved++;
-                }
+                pictures.add(pi);
             } else {
                 LOGGER.log(Level.INFO, "Node {0} is not a picture. Skipping the move for this node.", node);
             }
         }
+        final var result = PictureConsolidator.plan(Settings.getPictureCollection(), pictures, request.targetLocation())
+                .execute(_ -> {
+                });
+        final var failed = new HashSet<>(result.failed());
+        final var picsMoved = pictures.stream()
+                .filter(pi -> !failed.contains(pi.getImageFile().getAbsoluteFile()))
+                .count();
         JOptionPane.showMessageDialog(Settings.getAnchorFrame(),
                 String.format(JpoResources.getResource("moveToNewLocationSuccess"), picsMoved, request.nodes().size()),
                 GENERIC_INFO,
@@ -46,7 +46,8 @@ public class ShowPictureHandler {
         final var node = request.nodeNavigator().getNode(request.currentIndex());
         final var pictureInfo = (PictureInfo) node.getUserObject();
         final var file = pictureInfo.getImageFile();
-        if ((MimeTypes.isADocument(file)) || (MimeTypes.isAMovie(file))) {
+        final var fileType = FileTypeProbe.probe(file);
+        if (fileType.mediaKind() == FileTypeProbe.MediaKind.DOCUMENT || fileType.mediaKind() == FileTypeProbe.MediaKind.MOVIE) {
             try {
                 Desktop.getDesktop().open(file);
             } catch (final IOException e) {
@@ -54,7 +55,7 @@ public class ShowPictureHandler {
             }
             return;
         }
-        if (!JpoImageIO.jvmHasReader(file)) {
+        if (!fileType.hasImageReader()) {
             LOGGER.log(Level.SEVERE, "Can''t find a JVM reader for file: {0}", file);
             return;
         }
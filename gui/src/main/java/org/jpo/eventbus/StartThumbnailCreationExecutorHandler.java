@@ -1,10 +1,10 @@
 package org.jpo.eventbus;
 
 import com.google.common.eventbus.Subscribe;
-import org.jpo.gui.ThumbnailCreationDaemonWatchDog;
+import org.jpo.gui.ThumbnailCreationExecutor;
 
 /*
- Copyright (C) 2022-2025 Richard Eigenmann.
+ Copyright (C) 2022-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -20,18 +20,18 @@ import org.jpo.gui.ThumbnailCreationDaemonWatchDog;
  */
 
 /**
- * Starts the watchdog
+ * Starts the ThumbnailCreationDaemons
  */
 @EventHandler
-public class StartThumbnailCreationDaemonWatchDogHandler {
+public class StartThumbnailCreationExecutorHandler {
 
     /**
-     * Start a ThumbnailCreationDaemon
+     * Start the ThumbnailCreationDaemons
      *
      * @param request the request
      */
     @Subscribe
-    public void handleEvent(final StartThumbnailCreationDaemonWatchDogRequest request) {
-        (new Thread(new ThumbnailCreationDaemonWatchDog(), "ThumbnailCreationWatchDog")).start();
+    public void handleEvent(final StartThumbnailCreationExecutorRequest request) {
+        ThumbnailCreationExecutor.getInstance().start();
     }
 }
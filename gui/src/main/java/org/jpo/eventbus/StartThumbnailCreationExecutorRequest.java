@@ -1,7 +1,7 @@
 package org.jpo.eventbus;
 
 /*
- Copyright (C) 2017-2025  Richard Eigenmann.
+ Copyright (C) 2017-2026  Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -17,11 +17,11 @@ package org.jpo.eventbus;
  */
 
 /**
- * This request indicates that the application should start the WatchDog process for the
- * ThumbNailCreationDaemons
+ * This request indicates that the application should start the
+ * ThumbnailCreationDaemons
  *
  * @author Richard Eigenmann
- * @see StartThumbnailCreationDaemonWatchDogHandler
+ * @see StartThumbnailCreationExecutorHandler
  */
-public class StartThumbnailCreationDaemonWatchDogRequest {
+public class StartThumbnailCreationExecutorRequest {
 }
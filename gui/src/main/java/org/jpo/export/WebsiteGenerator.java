@@ -19,18 +19,18 @@ import org.jpo.gui.Settings;
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /*
- * Copyright (C) 2002-2025 Richard Eigenmann.
+ * Copyright (C) 2002-2026 Richard Eigenmann.
  * This program is free software; you can redistribute it
  * and/or modify it under the terms of the GNU General Public License as
  * published by the Free Software Foundation; either version 2 of the License,
@@ -124,6 +124,16 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
      */
     private boolean folderIconRequired;
 
+    /**
+     * Creates the picture files in parallel ahead of the pages which show them
+     */
+    private WebsiteRenditionPipeline renditionPipeline;
+
+    /**
+     * Knows which files of the previous run are still up to date
+     */
+    private WebsiteManifest manifest;
+
     /**
      * Creates and starts a Swing Worker that renders the web page files to the
      * target directory. Must be called on the EDT
@@ -292,39 +302,22 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         }
         LOGGER.log(Level.INFO, "Generating Zipfile for node {0}, sequentialStartNumber: {1}",
                 new Object[]{request.getCellspacing(), request.getSequentialStartNumber()});
-        try (
-                final var fileOutputStream
-                        = new FileOutputStream(new File(request.getTargetDirectory(), request.getDownloadZipFileName()));
-                final var bufferedOutputStream = new BufferedOutputStream(fileOutputStream);
-                final var zipOutputStream = new ZipOutputStream(bufferedOutputStream)) {
-            var picWroteCounter = request.getSequentialStartNumber();
-            for (final var sortableDefaultMutableTreeNode : request.getStartNode().getChildPictureNodes(true)) {
-                final var pictureInfo = (PictureInfo) sortableDefaultMutableTreeNode.getUserObject();
-                addZipFileEntry(request, zipOutputStream, picWroteCounter, sortableDefaultMutableTreeNode, pictureInfo);
-                picWroteCounter++;
-            }
+        final var members = new ArrayList<ZipExporter.Member>();
+        var picWroteCounter = request.getSequentialStartNumber();
+        for (final var sortableDefaultMutableTreeNode : request.getStartNode().getChildPictureNodes(true)) {
+            final var pictureInfo = (PictureInfo) sortableDefaultMutableTreeNode.getUserObject();
+            final var outputImageFile = getOutputImageFile(request, pictureInfo, "_h.", picWroteCounter, true);
+            members.add(new ZipExporter.Member(pictureInfo.getImageFile(), outputImageFile.getName()));
+            picWroteCounter++;
+        }
+        try {
+            ZipExporter.export(new File(request.getTargetDirectory(), request.getDownloadZipFileName()), members, false);
         } catch (final IOException x) {
             LOGGER.log(Level.SEVERE, "Error creating Zipfile. Continuing without Zip\n{0}", x.toString());
             request.setGenerateZipfile(false);
         }
     }
 
-    private static void addZipFileEntry(final GenerateWebsiteRequest request, final ZipOutputStream zipFile, final int picWroteCounter, final SortableDefaultMutableTreeNode p, final PictureInfo pictureInfo) {
-        try (
-                final var fileInputStream = new FileInputStream(pictureInfo.getImageFile());
-                final var bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-
-            final var outputImageFile = getOutputImageFile(request, pictureInfo, "_h.", picWroteCounter, true);
-            final var zipEntry = new ZipEntry(outputImageFile.getName());
-            LOGGER.log(Level.INFO, "Adding to zipfile: {0}", outputImageFile);
-            zipFile.putNextEntry(zipEntry);
-            bufferedInputStream.transferTo(zipFile);
-        } catch (final IOException e) {
-            LOGGER.log(Level.SEVERE, "Could not create zipfile entry for {0}\n{1}", new Object[]{p, e});
-        }
-    }
-
-
     /**
      * Entry point for the SwingWorker when execute() is called.
      *
@@ -334,8 +327,9 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
     @Override
     protected Integer doInBackground() throws Exception {
         LOGGER.info("Hitting doInBackground");
+        manifest = WebsiteManifest.load(request.getTargetDirectory());
 
-        generateZipfile(request);
+        writeZipfileIfChanged();
 
         writeCss(request.getTargetDirectory(), websiteMemberFiles);
         if (request.isWriteRobotsTxt()) {
@@ -348,20 +342,125 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
 
         picsWroteCounter = request.getSequentialStartNumber();
         assignFilenames(request);
-        writeLowresGroup(request.getStartNode());
+        try (final var pipeline = new WebsiteRenditionPipeline(request, manifest, getPictureNodesInPageOrder(request.getStartNode()),
+                node -> new WebsiteRenditionPipeline.Targets(lowresFiles.get(node.hashCode()), midresFiles.get(node.hashCode()), highresFiles.get(node.hashCode())),
+                () -> progressGui.getInterruptSemaphore().getShouldInterrupt(),
+                Runtime.getRuntime().availableProcessors())) {
+            renditionPipeline = pipeline;
+            writeLowresGroup(request.getStartNode());
+        }
 
         if (folderIconRequired) {
             writeFolderIcon(request, websiteMemberFiles);
         }
+
+        final var memberFiles = new LinkedHashSet<>(websiteMemberFiles);
+        memberFiles.stream()
+                .filter(file -> !manifest.isRecorded(file))
+                .forEach(file -> manifest.record(file, WebsiteManifest.fingerprintContents(file), null));
+        final var changedFiles = memberFiles.stream().filter(manifest::isChanged).toList();
+        LOGGER.log(Level.INFO, "{0} of {1} files of the website changed", new Object[]{changedFiles.size(), memberFiles.size()});
+
+        // an interrupted run didn't visit all the files so it can't tell which ones are orphans
+        final var complete = !progressGui.getInterruptSemaphore().getShouldInterrupt();
+        final List<String> orphans = complete ? manifest.deleteOrphans() : List.of();
+
+        // the manifest is saved after the upload so that it only marks the files the server confirmed as uploaded
         if (request.getOutputTarget() == GenerateWebsiteRequest.OutputTarget.OUTPUT_SSH_LOCATION) {
-            sshCopyToServer(websiteMemberFiles);
+            final var destination = String.format("ssh://%s@%s:%d/%s", request.getSshUser(), request.getSshServer(), request.getSshPort(), request.getSshTargetDir());
+            sshCopyToServer(getFilesToUpload(memberFiles, destination), orphans, destination);
         } else if (request.getOutputTarget() == GenerateWebsiteRequest.OutputTarget.OUTPUT_FTP_LOCATION) {
-            ftpCopyToServer(websiteMemberFiles);
+            final var destination = String.format("ftp://%s@%s:%d/%s", request.getFtpUser(), request.getFtpServer(), request.getFtpPort(), request.getFtpTargetDir());
+            ftpCopyToServer(getFilesToUpload(memberFiles, destination), orphans, destination);
         }
+        manifest.save(complete);
 
         return Integer.MAX_VALUE;
     }
 
+    /**
+     * Returns the files of the website which the server doesn't have in their current version yet
+     *
+     * @param memberFiles the files of the website
+     * @param destination identifies the server and the directory on it
+     * @return the files to upload
+     */
+    private List<File> getFilesToUpload(final Collection<File> memberFiles, final String destination) {
+        final var files = memberFiles.stream().filter(file -> !manifest.isUploaded(file, destination)).toList();
+        LOGGER.log(Level.INFO, "{0} of {1} files of the website need to be uploaded to {2}", new Object[]{files.size(), memberFiles.size(), destination});
+        return files;
+    }
+
+    /**
+     * Writes the zipfile unless the manifest shows that the previous run wrote it from the same pictures
+     */
+    private void writeZipfileIfChanged() {
+        if (!request.isGenerateZipfile()) {
+            return;
+        }
+        final var zipFile = new File(request.getTargetDirectory(), request.getDownloadZipFileName());
+        final var fingerprint = getZipfileFingerprint();
+        if (!manifest.isUpToDate(zipFile, fingerprint)) {
+            generateZipfile(request);
+        }
+        manifest.record(zipFile, fingerprint, null);
+        websiteMemberFiles.add(zipFile);
+    }
+
+    /**
+     * Builds the fingerprint of the zipfile from the names of the entries and the SHA-256 of the pictures. The
+     * SHA-256 which the collection knows is used; the pictures without one are hashed in parallel.
+     *
+     * @return the fingerprint
+     */
+    private String getZipfileFingerprint() {
+        final var pictureInfos = request.getStartNode().getChildPictureNodes(true).stream()
+                .map(node -> (PictureInfo) node.getUserObject())
+                .toList();
+        final var sha256ByFile = new ConcurrentHashMap<File, String>();
+        final var filesToHash = new ArrayList<File>();
+        for (final var pictureInfo : pictureInfos) {
+            final var sha256 = pictureInfo.getSha256();
+            if (sha256 == null || sha256.isEmpty()) {
+                filesToHash.add(pictureInfo.getImageFile());
+            } else {
+                sha256ByFile.put(pictureInfo.getImageFile(), sha256);
+            }
+        }
+        if (!filesToHash.isEmpty()) {
+            HashingService.hashFiles(filesToHash, sha256ByFile::put, () -> progressGui.getInterruptSemaphore().getShouldInterrupt());
+        }
+
+        final var inputs = new ArrayList<>();
+        var picWroteCounter = request.getSequentialStartNumber();
+        for (final var pictureInfo : pictureInfos) {
+            final var sha256 = sha256ByFile.get(pictureInfo.getImageFile());
+            if (sha256 == null) {
+                return WebsiteManifest.UNKNOWN;
+            }
+            inputs.add(getOutputImageFile(request, pictureInfo, "_h.", picWroteCounter, true).getName());
+            inputs.add(sha256);
+            picWroteCounter++;
+        }
+        return WebsiteManifest.fingerprint(inputs.toArray());
+    }
+
+    /**
+     * Writes a page unless the file already has the same content so that unchanged pages are not uploaded again.
+     *
+     * @param file    the file of the page
+     * @param content the content of the page
+     * @throws IOException if the file can't be written
+     */
+    private void writePage(final File file, final String content) throws IOException {
+        final var fingerprint = WebsiteManifest.fingerprint(content);
+        if (!manifest.isUpToDate(file, fingerprint)) {
+            Files.writeString(file.toPath(), content, Charset.defaultCharset());
+        }
+        manifest.record(file, fingerprint, null);
+        websiteMemberFiles.add(file);
+    }
+
 
     final Map<Integer, File> highresFiles = new HashMap<>();
     final Map<Integer, File> midresFiles = new HashMap<>();
@@ -371,27 +470,33 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
 
     /**
      * The sequential counting of files gets complicated in tree structures, so I will
-     * pre-allocate the filenames in a first pass and then look them up.
+     * pre-allocate the filenames in a first pass and then look them up. The names must come out the same on
+     * the next run so that the {@link WebsiteManifest} can tell which files are still up to date. If two nodes
+     * would get the same name the second one gets a number appended.
      *
      * @param request The request
      */
     private void assignFilenames(final GenerateWebsiteRequest request) {
+        final var usedNames = new HashSet<String>();
         final var treeNodeEnumeration = request.getStartNode().breadthFirstEnumeration();
         while (treeNodeEnumeration.hasMoreElements()) {
             final var sortableDefaultMutableTreeNode = (SortableDefaultMutableTreeNode) treeNodeEnumeration.nextElement();
             if (sortableDefaultMutableTreeNode.getUserObject() instanceof PictureInfo pictureInfo) {
-                lowresFiles.put(sortableDefaultMutableTreeNode.hashCode(), getOutputImageFile(request, pictureInfo, "_l.", picsWroteCounter, true));
-                midresFiles.put(sortableDefaultMutableTreeNode.hashCode(), getOutputImageFile(request, pictureInfo, "_m.", picsWroteCounter, true));
-                highresFiles.put(sortableDefaultMutableTreeNode.hashCode(), getOutputImageFile(request, pictureInfo, "_h.", picsWroteCounter, true));
-                midresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), getOutputImageFile(request, pictureInfo, ".htm", picsWroteCounter, false));
+                final var rootName = getUniqueName(getOutputRootName(request, pictureInfo, picsWroteCounter), usedNames);
+                final var extension = FilenameUtils.getExtension(pictureInfo.getImageFile().getName());
+                lowresFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), rootName + "_l." + extension));
+                midresFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), rootName + "_m." + extension));
+                highresFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), rootName + "_h." + extension));
+                midresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), rootName + ".htm"));
                 picsWroteCounter++;
             } else {
                 if (sortableDefaultMutableTreeNode == request.getStartNode()) {
                     lowresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), INDEX_PAGE));
                     midresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), INDEX_PAGE));
                 } else {
-                    lowresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), "jpo_" + sortableDefaultMutableTreeNode.hashCode() + ".htm"));
-                    midresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), "jpo_" + sortableDefaultMutableTreeNode.hashCode() + ".htm"));
+                    final var groupPage = new File(request.getTargetDirectory(), getUniqueName("jpo_" + getStableHash(getGroupPath(sortableDefaultMutableTreeNode, request.getStartNode())), usedNames) + ".htm");
+                    lowresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), groupPage);
+                    midresHtmlFiles.put(sortableDefaultMutableTreeNode.hashCode(), groupPage);
                 }
                 lowresFiles.put(sortableDefaultMutableTreeNode.hashCode(), new File(request.getTargetDirectory(), FOLDER_ICON));
             }
@@ -400,25 +505,77 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
 
     private static File getOutputImageFile(final GenerateWebsiteRequest request, final PictureInfo pictureInfo, final String suffix, final int picsWroteCounter, final boolean keepExtension) {
         final var extension = keepExtension ? FilenameUtils.getExtension(pictureInfo.getImageFile().getName()) : "";
+        return new File(request.getTargetDirectory(), getOutputRootName(request, pictureInfo, picsWroteCounter) + suffix + extension);
+    }
+
+    private static String getOutputRootName(final GenerateWebsiteRequest request, final PictureInfo pictureInfo, final int picsWroteCounter) {
         switch (request.getPictureNaming()) {
             case PICTURE_NAMING_BY_ORIGINAL_NAME -> {
-                final var rootName = cleanupFilename(FilenameUtils.getBaseName(pictureInfo.getImageFile().getName()));
-                return new File(request.getTargetDirectory(), rootName + suffix + extension);
+                return cleanupFilename(FilenameUtils.getBaseName(pictureInfo.getImageFile().getName()));
             }
             case PICTURE_NAMING_BY_SEQUENTIAL_NUMBER -> {
                 final var convertedNumber = Integer.toString(picsWroteCounter);
                 final var padding = "00000";
                 final var formattedNumber = padding.substring(convertedNumber.length()) + convertedNumber;
-                final var root = "jpo_" + formattedNumber;
-                return new File(request.getTargetDirectory(), root + suffix + extension);
+                return "jpo_" + formattedNumber;
             }
             default -> {
-                final String fn = "jpo_" + pictureInfo.hashCode();
-                return new File(request.getTargetDirectory(), fn + suffix + extension);
+                return "jpo_" + getStableHash(pictureInfo.getImageFile().getAbsolutePath());
             }
         }
     }
 
+    /**
+     * Returns a hash code which comes out the same on every run
+     *
+     * @param string the string to hash
+     * @return the hash code as a positive number
+     */
+    private static String getStableHash(final String string) {
+        return Integer.toUnsignedString(string.hashCode());
+    }
+
+    /**
+     * Returns the names of the groups from the start node down to the group node
+     *
+     * @param groupNode the group node
+     * @param startNode the node at which the website starts
+     * @return the path of group names separated by slashes
+     */
+    private static String getGroupPath(final SortableDefaultMutableTreeNode groupNode, final SortableDefaultMutableTreeNode startNode) {
+        final var path = new StringBuilder();
+        for (var node = groupNode; node != null && node != startNode; node = node.getParent()) {
+            path.insert(0, "/" + node.getUserObject());
+        }
+        return path.toString();
+    }
+
+    private static String getUniqueName(final String name, final Set<String> usedNames) {
+        var uniqueName = name;
+        for (var i = 2; !usedNames.add(uniqueName); i++) {
+            uniqueName = name + "_" + i;
+        }
+        return uniqueName;
+    }
+
+    /**
+     * Returns the picture nodes in the order in which {@link #writeLowresGroup} writes them: the pictures of a
+     * sub group come before the pictures which follow the sub group in its parent.
+     *
+     * @param startNode the node at which the website starts
+     * @return the picture nodes
+     */
+    private static List<SortableDefaultMutableTreeNode> getPictureNodesInPageOrder(final SortableDefaultMutableTreeNode startNode) {
+        final var pictureNodes = new ArrayList<SortableDefaultMutableTreeNode>();
+        for (final var enumeration = startNode.preorderEnumeration(); enumeration.hasMoreElements(); ) {
+            final var node = (SortableDefaultMutableTreeNode) enumeration.nextElement();
+            if (node.getUserObject() instanceof PictureInfo) {
+                pictureNodes.add(node);
+            }
+        }
+        return pictureNodes;
+    }
+
     /**
      * This method is called by SwingWorker when the background process sends a
      * publish event.
@@ -451,8 +608,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
      * This method writes out an HTML page with the small images aligned next to
      * each other. Each Group and picture is created in an html file called
      * jpo_1234.htm except for the first one that gets named index.htm. 1234 is
-     * the internal hashCode of the node so that we can translate parents and
-     * children to each other.
+     * the hash of the names of the groups leading to the node so that the name
+     * stays the same from one run to the next.
      *
      * @param groupNode The node at which the extraction is to start.
      */
@@ -461,9 +618,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
             publish(String.format("Processing Group: %s", groupNode.toString()));
 
             final var lowresGroupFile = lowresHtmlFiles.get(groupNode.hashCode());
-            websiteMemberFiles.add(lowresGroupFile);
-
-            final var lowresGroupWriter = new BufferedWriter(new FileWriter(lowresGroupFile));
+            final var lowresGroupPage = new StringWriter();
+            final var lowresGroupWriter = new BufferedWriter(lowresGroupPage);
             final var title = ((GroupInfo) groupNode.getUserObject()).getGroupName();
             final var titleHtml = StringEscapeUtils.escapeHtml4(title);
 
@@ -477,6 +633,9 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
 
             final List<String> rowDescriptions = new ArrayList<>();
             for (var i = 0; i < groupNode.getChildCount(); i++) {
+                if (progressGui.getInterruptSemaphore().getShouldInterrupt()) {
+                    break;
+                }
                 final var node = (SortableDefaultMutableTreeNode) groupNode.getChildAt(i);
                 rowDescriptions.add(writeLowresCell(lowresGroupWriter, node, i));
                 if ((rowDescriptions.size() % request.getPicsPerRow() == 0) || (i == groupNode.getChildCount() - 1)) {
@@ -487,6 +646,7 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
 
             writeGroupCellFooter(lowresGroupWriter);
             lowresGroupWriter.close();
+            writePage(lowresGroupFile, lowresGroupPage.toString());
 
             if (progressGui.getInterruptSemaphore().getShouldInterrupt()) {
                 progressGui.setDoneString(JpoResources.getResource("htmlDistillerInterrupt"));
@@ -508,20 +668,35 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         } else {
             final var pictureInfo = (PictureInfo) node.getUserObject();
             publish(String.format("Processing picture node: %s", pictureInfo.toString()));
-            LOGGER.log(Level.INFO, "Loading: {0}", pictureInfo.getImageFile());
-            final var scalablePicture = loadScalablePicture(pictureInfo);
-
-            writeLowres(lowresGroupWriter, node, scalablePicture, websiteMemberFiles);
-            final var midresDimension = writeScaledPicture(midresFiles.get(node.hashCode()), request.getMidresDimension(), request.getMidresJpgQuality(), scalablePicture, websiteMemberFiles);
-            writeHighresPicture(request, node, scalablePicture, websiteMemberFiles);
+            final var renditions = takeRenditions(node);
+            websiteMemberFiles.addAll(renditions.files());
 
+            writeLowres(lowresGroupWriter, node, renditions.lowresDimension());
             if (request.isGenerateMidresHtml()) {
-                writeMidres(node, childNumber, midresDimension);
+                writeMidres(node, childNumber, renditions.midresDimension());
             }
             return ((PictureInfo) node.getUserObject()).getDescription();
         }
     }
 
+    /**
+     * Waits for the pipeline to write the picture files of the node. If that failed the page still gets written
+     * with the requested sizes.
+     *
+     * @param node the picture node
+     * @return what was written for the node
+     */
+    private WebsiteRenditionPipeline.Renditions takeRenditions(final SortableDefaultMutableTreeNode node) {
+        try {
+            return renditionPipeline.take(node);
+        } catch (final ExecutionException | CancellationException e) {
+            LOGGER.log(Level.SEVERE, "Could not write the pictures for {0}: {1}", new Object[]{node, e.getMessage()});
+        } catch (final InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+        return new WebsiteRenditionPipeline.Renditions(request.getThumbnailDimension(), request.getMidresDimension(), List.of());
+    }
+
     private void writeLowresGroupCell(final BufferedWriter out, final SortableDefaultMutableTreeNode node) throws IOException {
         out.write("<td class=\"groupThumbnailCell\" valign=\"bottom\" align=\"left\">");
 
@@ -566,10 +741,7 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         if (!groupNode.equals(request.getStartNode())) {
             //link to parent
             final var parentNode = groupNode.getParent();
-            var parentLink = "jpo_" + parentNode.hashCode() + ".htm";
-            if (parentNode.equals(request.getStartNode())) {
-                parentLink = INDEX_PAGE;
-            }
+            final var parentLink = lowresHtmlFiles.get(parentNode.hashCode()).getName();
 
             out.write(String.format("<p>Up to: <a href=\"%s\">%s</a>", parentLink, parentNode));
             out.newLine();
@@ -617,8 +789,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
     private void writeMidres(final SortableDefaultMutableTreeNode pictureNode, final int childNumber, final Dimension midresDimension) throws IOException {
         final var highresFile = highresFiles.get(pictureNode.hashCode());
         final var midresHtmlFile = midresHtmlFiles.get(pictureNode.hashCode());
-        websiteMemberFiles.add(midresHtmlFile);
-        try ( final var midresHtmlWriter = new BufferedWriter(new FileWriter(midresHtmlFile)) ) {
+        final var midresHtmlPage = new StringWriter();
+        try ( final var midresHtmlWriter = new BufferedWriter(midresHtmlPage) ) {
             final var groupDescriptionHtml
                     = StringEscapeUtils.escapeHtml4(pictureNode.getParent().getUserObject().toString());
 
@@ -658,6 +830,7 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
             midresHtmlWriter.write("</body></html>");
             midresHtmlWriter.flush();
         }
+        writePage(midresHtmlFile, midresHtmlPage.toString());
     }
 
     private static void writeMidresPageHeader(final BufferedWriter midresHtmlWriter, final String pageTitle) throws IOException {
@@ -768,7 +941,7 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         if (sortableDefaultMutableTreeNode.getUserObject() instanceof PictureInfo) {
             writePictureTableHyperlink(midresHtmlWriter, sortableDefaultMutableTreeNode, matrixWidth, dhtmlArray, i);
         } else if (sortableDefaultMutableTreeNode.getUserObject() instanceof GroupInfo) {
-            midresHtmlWriter.write(A_HREF + "jpo_" + sortableDefaultMutableTreeNode.hashCode() + ".htm\">");
+            midresHtmlWriter.write(A_HREF + lowresHtmlFiles.get(sortableDefaultMutableTreeNode.hashCode()).getName() + "\">");
         }
         midresHtmlWriter.write(Integer.toString(i));
         midresHtmlWriter.write("</a>");
@@ -850,26 +1023,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
     }
 
 
-    @NotNull
-    private static Dimension writeScaledPicture(final File targetFile, final Dimension targetDimension, final float targetQuality, final ScalablePicture scp, final List<File> websiteMemberFiles) {
-        scp.setScaleSize(targetDimension);
-        scp.scalePicture();
-        scp.setJpgQuality(targetQuality);
-        scp.writeScaledJpg(targetFile);
-
-        websiteMemberFiles.add(targetFile);
-
-        final var scaledDimension = new Dimension();
-        scaledDimension.width = scp.getScaledWidth();
-        scaledDimension.height = scp.getScaledHeight();
-        LOGGER.log(Level.INFO, "Wrote image to file {0}, scaled to {1}x{2}", new Object[]{targetFile, scaledDimension.width, scaledDimension.height});
-        return scaledDimension;
-    }
-
-
-    private void writeLowres(final BufferedWriter out, final SortableDefaultMutableTreeNode node, final ScalablePicture scp, final List<File> websiteMemberFiles) throws IOException {
+    private void writeLowres(final BufferedWriter out, final SortableDefaultMutableTreeNode node, final Dimension lowresDimension) throws IOException {
         final var lowresFile = lowresFiles.get(node.hashCode());
-        final var lowresDimension = writeScaledPicture(lowresFile, request.getThumbnailDimension(), request.getLowresJpgQuality(), scp, websiteMemberFiles);
 
         out.write("<td class=\"pictureThumbnailCell\" id=\"" + StringEscapeUtils.escapeHtml4(lowresFile.getName()) + "\">");
 
@@ -897,39 +1052,6 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         out.newLine();
     }
 
-    private void writeHighresPicture(final GenerateWebsiteRequest request, final SortableDefaultMutableTreeNode node, final ScalablePicture scp, final List<File> websiteMemberFiles) throws IOException {
-        // copy the picture to the target directory
-        if (request.isExportHighres()) {
-            final var highresFile = highresFiles.get(node.hashCode());
-            final var pictureInfo = (PictureInfo) node.getUserObject();
-            if (request.isRotateHighres() && (pictureInfo.getRotation() != 0)) {
-                LOGGER.log(Level.FINE, "Copying and rotating picture {0} to {1}", new Object[]{pictureInfo.getImageLocation(), highresFile});
-                scp.setScaleFactor(1);
-                scp.scalePicture();
-                scp.setJpgQuality(request.getMidresJpgQuality());
-                scp.writeScaledJpg(highresFile);
-                websiteMemberFiles.add(highresFile);
-            } else {
-                Files.copy(pictureInfo.getImageFile().toPath(), highresFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            }
-        }
-    }
-
-    @NotNull
-    private ScalablePicture loadScalablePicture(final PictureInfo pictureInfo) throws IOException {
-        final var scalablePicture = new ScalablePicture();
-        scalablePicture.setQualityScale();
-        scalablePicture.setScaleSteps(request.getScalingSteps());
-        scalablePicture.loadPictureImd(pictureInfo.getSha256(), pictureInfo.getImageFile(), pictureInfo.getRotation());
-
-        LOGGER.log(Level.INFO, "Done Loading: {0}", pictureInfo.getImageLocation());
-        if (scalablePicture.getOriginalImage() == null) {
-            LOGGER.log(Level.SEVERE, "Problem reading image {0} using BrokenThumbnailImage instead", pictureInfo.getImageLocation());
-            BrokenThumbnailImage.getImage(scalablePicture);
-        }
-        return scalablePicture;
-    }
-
     @NotNull
     private StringBuilder startDhtmlArray(final int childNumber, final int childCount, final PictureInfo pictureInfo, final String htmlFriendlyDescription) {
         final var dhtmlArray = new StringBuilder(String.format("content[0]='" + "<p><strong>Picture</strong> %d of %d:</p><p><b>Description:</b><br>%s</p>", childNumber, childCount, htmlFriendlyDescription));
@@ -983,21 +1105,40 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         midresHtmlWriter.write("</p>");
     }
 
-    private void sshCopyToServer(final List<File> files) {
+    /**
+     * Copies the files to the server and deletes the orphans there. The manifest records each file the server
+     * confirmed and keeps the orphans it didn't delete so that the next run tries again.
+     *
+     * @param files       the files which the server doesn't have yet
+     * @param orphans     the names of the files which no longer belong to the website
+     * @param destination identifies the server and the directory on it
+     */
+    private void sshCopyToServer(final List<File> files, final List<String> orphans, final String destination) {
         LOGGER.info("Setting up ssh connection:");
         final var jsch = new JSch();
+        var orphansDeleted = orphans.isEmpty();
         try {
             final Session session = getSshSession(jsch, request);
 
             for (final File file : files) {
                 publish(String.format("scp %s", file.getName()));
-                scp(session, file);
+                if (scp(session, file)) {
+                    manifest.recordUpload(file, destination);
+                } else {
+                    LOGGER.log(Level.WARNING, "The server didn''t confirm {0}. It will be uploaded on the next run.", file.getName());
+                }
+            }
+            if (!orphans.isEmpty()) {
+                orphansDeleted = sshDelete(session, orphans);
             }
 
             session.disconnect();
         } catch (final JSchException | IOException ex) {
             LOGGER.severe(ex.getMessage());
         }
+        if (!orphansDeleted) {
+            orphans.forEach(manifest::keepOrphan);
+        }
     }
 
     @NotNull
@@ -1016,7 +1157,35 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
         return session;
     }
 
-    private void scp(final Session session, final File file) throws JSchException, IOException {
+    private boolean sshDelete(final Session session, final List<String> orphans) throws JSchException {
+        final var command = new StringBuilder("cd " + request.getSshTargetDir() + "; rm -f --");
+        orphans.forEach(orphan -> command.append(" '").append(orphan.replace("'", "'\\''")).append("'"));
+        LOGGER.log(Level.INFO, "Deleting {0} orphaned files on the server", orphans.size());
+        final var channel = (ChannelExec) session.openChannel("exec");
+        channel.setCommand(command.toString());
+        channel.connect();
+        try {
+            while (!channel.isClosed()) {
+                Thread.sleep(100);
+            }
+        } catch (final InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+        final var deleted = channel.isClosed() && channel.getExitStatus() == 0;
+        channel.disconnect();
+        return deleted;
+    }
+
+    /**
+     * Copies a file to the server
+     *
+     * @param session the session
+     * @param file    the file
+     * @return true if the server acknowledged every step of the transfer
+     * @throws JSchException if the channel can't be opened
+     * @throws IOException   if the connection fails
+     */
+    private boolean scp(final Session session, final File file) throws JSchException, IOException {
         // exec 'scp -t rfile' remotely
         String command = "cd " + request.getSshTargetDir() + "; scp -p -t " + file.getName();
 
@@ -1034,6 +1203,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
 
             if (checkAck(inputStream) != 0) {
                 LOGGER.info("No Ack 1");
+                channel.disconnect();
+                return false;
             }
 
             command = "T " + (file.lastModified() / 1000) + " 0";
@@ -1045,6 +1216,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
             outputStream.flush();
             if (checkAck(inputStream) != 0) {
                 LOGGER.info("No Ack 2");
+                channel.disconnect();
+                return false;
             }
 
             // send "C0644 filesize filename", where filename should not include '/'
@@ -1057,6 +1230,8 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
             outputStream.flush();
             if (checkAck(inputStream) != 0) {
                 LOGGER.info("No Ack 3");
+                channel.disconnect();
+                return false;
             }
 
             // send a content of lfile
@@ -1078,12 +1253,14 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
                 outputStream.write(buf, 0, 1);
                 outputStream.flush();
             }
-            if (checkAck(inputStream) != 0) {
+            final var acknowledged = checkAck(inputStream) == 0;
+            if (!acknowledged) {
                 LOGGER.info("No Ack 4");
             }
 
             LOGGER.info(command);
             channel.disconnect();
+            return acknowledged;
         }
     }
 
@@ -1093,9 +1270,10 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
      * username = user
      * password = password
      */
-    private void ftpCopyToServer(final Collection<File> files) {
+    private void ftpCopyToServer(final Collection<File> files, final List<String> orphans, final String destination) {
         LOGGER.info("Setting up ftp connection:");
         final var ftp = new FTPClient();
+        final var remainingOrphans = new ArrayList<>(orphans);
         try {
             ftp.connect(request.getFtpServer(), request.getFtpPort());
             int reply = ftp.getReplyCode();
@@ -1132,11 +1310,22 @@ public class WebsiteGenerator extends SwingWorker<Integer, String> {
                     LOGGER.log(Level.INFO, "Putting file {0} to {1}:{2}", new Object[]{file, request.getFtpServer(), remote});
                     boolean done = ftp.storeFile(remote, bufferedInputStream);
                     LOGGER.log(Level.INFO, "stored file successfully: {0}", done);
+                    if (done) {
+                        manifest.recordUpload(file, destination);
+                    }
+                }
+            }
+            for (final var orphan : orphans) {
+                final var deleted = ftp.deleteFile(request.getFtpTargetDir() + orphan);
+                LOGGER.log(Level.INFO, "Deleted orphan {0}: {1}", new Object[]{orphan, deleted});
+                if (deleted) {
+                    remainingOrphans.remove(orphan);
                 }
             }
         } catch (final IOException ex) {
             Logger.getLogger(WebsiteGenerator.class.getName()).log(Level.SEVERE, null, ex);
         } finally {
+            remainingOrphans.forEach(manifest::keepOrphan);
             try {
                 if (ftp.isConnected()) {
                     ftp.logout();
@@ -0,0 +1,327 @@
+package org.jpo.export;
+
+import java.awt.Dimension;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Remembers what each file of a generated website was made from so that the next run only writes the files whose
+ * inputs changed. The fingerprint of a picture file covers the SHA-256 of the original, the rotation, the size,
+ * the JPEG quality, the scaling steps and {@link #TEMPLATE_VERSION}; the fingerprint of a page is the hash of
+ * its content. The manifest is kept in the target directory.
+ * <p>
+ * Files which the previous run wrote and this run no longer needs are orphans and get deleted.
+ * <p>
+ * When the website goes to a server the manifest also remembers which version of each file was confirmed there,
+ * so that a file whose transfer failed, or a website which moves to another server, gets uploaded on the next run.
+ */
+final class WebsiteManifest {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(WebsiteManifest.class.getName());
+
+    /**
+     * The name of the manifest file in the target directory
+     */
+    static final String MANIFEST_FILENAME = ".jpo-website-manifest";
+
+    /**
+     * Goes into every picture fingerprint. Increase it when the pictures come out differently for the same inputs
+     * so that the next run renders them all again.
+     */
+    static final int TEMPLATE_VERSION = 1;
+
+    /**
+     * The fingerprint of a file whose inputs could not be determined. Such a file is never up to date.
+     */
+    static final String UNKNOWN = "";
+
+    private static final String SEPARATOR = "\t";
+
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+    /**
+     * What a file was made from
+     *
+     * @param fingerprint the fingerprint of the inputs
+     * @param width       the width of a picture or 0
+     * @param height      the height of a picture or 0
+     * @param uploaded    the fingerprint of the version on the server and the server or {@link #UNKNOWN}
+     */
+    record Entry(String fingerprint, int width, int height, String uploaded) {
+        Dimension getDimension() {
+            return new Dimension(width, height);
+        }
+    }
+
+    private final File targetDirectory;
+
+    /**
+     * The entries of the previous run by file name
+     */
+    private final Map<String, Entry> previous;
+
+    /**
+     * The entries of this run by file name
+     */
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    /**
+     * The names of the files which this run found up to date
+     */
+    private final Set<String> unchanged = ConcurrentHashMap.newKeySet();
+
+    private WebsiteManifest(final File targetDirectory, final Map<String, Entry> previous) {
+        this.targetDirectory = targetDirectory;
+        this.previous = previous;
+    }
+
+    /**
+     * Reads the manifest of the previous run from the target directory. If there is none every file counts as
+     * changed.
+     *
+     * @param targetDirectory the directory of the website
+     * @return the manifest
+     */
+    static WebsiteManifest load(final File targetDirectory) {
+        final var previous = new HashMap<String, Entry>();
+        final var manifestFile = new File(targetDirectory, MANIFEST_FILENAME);
+        try (final BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final var fields = line.split(SEPARATOR);
+                if (fields.length == 4 || fields.length == 5) {
+                    previous.put(fields[0], new Entry(fields[1], Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                            fields.length == 5 ? fields[4] : UNKNOWN));
+                }
+            }
+        } catch (final NoSuchFileException _) {
+            LOGGER.log(Level.INFO, "No manifest in {0}. Generating all files.", targetDirectory);
+        } catch (final IOException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Could not read {0}: {1}. Generating all files.", new Object[]{manifestFile, e.getMessage()});
+            previous.clear();
+        }
+        return new WebsiteManifest(targetDirectory, previous);
+    }
+
+    /**
+     * Builds the fingerprint of the inputs of a file
+     *
+     * @param inputs the inputs
+     * @return the SHA-256 of the inputs as hex
+     */
+    static String fingerprint(final Object... inputs) {
+        final var joined = new StringJoiner("|");
+        for (final var input : inputs) {
+            joined.add(String.valueOf(input));
+        }
+        try {
+            return HEX_FORMAT.formatHex(MessageDigest.getInstance("SHA-256").digest(joined.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The JVM has no SHA-256", e);
+        }
+    }
+
+    /**
+     * Builds the fingerprint of a file from its contents
+     *
+     * @param file the file
+     * @return the SHA-256 of the contents as hex or {@link #UNKNOWN} if it can't be read
+     */
+    static String fingerprintContents(final File file) {
+        try (final var inputStream = new DigestInputStream(Files.newInputStream(file.toPath()), MessageDigest.getInstance("SHA-256"))) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+            return HEX_FORMAT.formatHex(inputStream.getMessageDigest().digest());
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read {0}: {1}", new Object[]{file, e.getMessage()});
+            return UNKNOWN;
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The JVM has no SHA-256", e);
+        }
+    }
+
+    /**
+     * Returns the entry of the previous run if the file still exists and was made from the same inputs
+     *
+     * @param file        the file in the target directory
+     * @param fingerprint the fingerprint of the inputs of this run
+     * @return the entry or null if the file must be written
+     */
+    Entry getUpToDateEntry(final File file, final String fingerprint) {
+        final var entry = previous.get(file.getName());
+        if (entry != null && !UNKNOWN.equals(fingerprint) && entry.fingerprint().equals(fingerprint) && file.exists()) {
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the file still exists and was made from the same inputs
+     *
+     * @param file        the file in the target directory
+     * @param fingerprint the fingerprint of the inputs of this run
+     * @return true if the file doesn't need to be written
+     */
+    boolean isUpToDate(final File file, final String fingerprint) {
+        return getUpToDateEntry(file, fingerprint) != null;
+    }
+
+    /**
+     * Records that the file belongs to the website of this run
+     *
+     * @param file        the file
+     * @param fingerprint the fingerprint of its inputs
+     * @param dimension   the size of a picture or null
+     */
+    void record(final File file, final String fingerprint, final Dimension dimension) {
+        final var previousEntry = previous.get(file.getName());
+        final var same = previousEntry != null && !UNKNOWN.equals(fingerprint) && previousEntry.fingerprint().equals(fingerprint);
+        final var uploaded = same ? previousEntry.uploaded() : UNKNOWN;
+        final var entry = dimension == null
+                ? new Entry(fingerprint, 0, 0, uploaded)
+                : new Entry(fingerprint, dimension.width, dimension.height, uploaded);
+        current.put(file.getName(), entry);
+        if (same) {
+            unchanged.add(file.getName());
+        } else {
+            unchanged.remove(file.getName());
+        }
+    }
+
+    /**
+     * Returns whether the version of the file which this run recorded was confirmed on the server by a
+     * previous run
+     *
+     * @param file        the file
+     * @param destination identifies the server and the directory on it
+     * @return true if the file doesn't need to be uploaded
+     */
+    boolean isUploaded(final File file, final String destination) {
+        final var entry = current.get(file.getName());
+        return entry != null && !UNKNOWN.equals(entry.fingerprint())
+                && entry.uploaded().equals(fingerprint(entry.fingerprint(), destination));
+    }
+
+    /**
+     * Records that the server confirmed the transfer of the version of the file which this run recorded
+     *
+     * @param file        the file
+     * @param destination identifies the server and the directory on it
+     */
+    void recordUpload(final File file, final String destination) {
+        current.computeIfPresent(file.getName(), (_, entry) -> new Entry(entry.fingerprint(), entry.width(), entry.height(),
+                fingerprint(entry.fingerprint(), destination)));
+    }
+
+    /**
+     * Keeps the entry of an orphan which could not be deleted on the server so that the next run tries again
+     *
+     * @param name the name of the orphan
+     */
+    void keepOrphan(final String name) {
+        final var entry = previous.get(name);
+        if (entry != null) {
+            current.putIfAbsent(name, entry);
+        }
+    }
+
+    /**
+     * Returns whether this run recorded the file
+     *
+     * @param file the file
+     * @return true if it is recorded
+     */
+    boolean isRecorded(final File file) {
+        return current.containsKey(file.getName());
+    }
+
+    /**
+     * Returns whether the file was written or changed by this run and needs to be uploaded
+     *
+     * @param file the file
+     * @return false if the file is the same as after the previous run
+     */
+    boolean isChanged(final File file) {
+        return !unchanged.contains(file.getName());
+    }
+
+    /**
+     * Deletes the files which the previous run wrote and this run didn't record
+     *
+     * @return the names of the deleted files
+     */
+    List<String> deleteOrphans() {
+        final var orphans = new ArrayList<String>();
+        for (final var name : previous.keySet()) {
+            if (!current.containsKey(name)) {
+                orphans.add(name);
+                try {
+                    Files.deleteIfExists(new File(targetDirectory, name).toPath());
+                } catch (final IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not delete the orphan {0}: {1}", new Object[]{name, e.getMessage()});
+                }
+            }
+        }
+        Collections.sort(orphans);
+        LOGGER.log(Level.INFO, "Deleted {0} orphaned files", orphans.size());
+        return orphans;
+    }
+
+    /**
+     * Writes the manifest of this run to the target directory. After an interrupted run the entries of the files
+     * which the run didn't get to are kept from the previous run.
+     *
+     * @param complete true if the run visited all the files of the website
+     * @throws IOException if it can't be written
+     */
+    void save(final boolean complete) throws IOException {
+        final var entries = new TreeMap<String, Entry>();
+        if (!complete) {
+            entries.putAll(previous);
+        }
+        entries.putAll(current);
+        final var manifestFile = new File(targetDirectory, MANIFEST_FILENAME);
+        final var tempFile = new File(targetDirectory, MANIFEST_FILENAME + ".tmp");
+        try (final BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            for (final var entry : entries.entrySet()) {
+                writer.write(entry.getKey() + SEPARATOR + entry.getValue().fingerprint()
+                        + SEPARATOR + entry.getValue().width() + SEPARATOR + entry.getValue().height()
+                        + SEPARATOR + entry.getValue().uploaded());
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,369 @@
+package org.jpo.export;
+
+import org.jpo.datamodel.BrokenThumbnailImage;
+import org.jpo.datamodel.HashingService;
+import org.jpo.datamodel.PictureInfo;
+import org.jpo.datamodel.ScalablePicture;
+import org.jpo.datamodel.SortableDefaultMutableTreeNode;
+import org.jpo.eventbus.GenerateWebsiteRequest;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * Creates the picture files of a website ahead of the {@link WebsiteGenerator} which writes the HTML pages. The
+ * work runs in stages:
+ * <ol>
+ * <li>A feeder thread hands the pictures to the decode pool in the order in which the pages will need them.</li>
+ * <li>The decode pool works out the fingerprints of the files of each picture. It uses the SHA-256 which the
+ * collection knows and only hashes the original if there is none. Pictures whose files the
+ * {@link WebsiteManifest} shows to be up to date are done at this point.</li>
+ * <li>The decode pool reads the other pictures and scales the midres picture from each and the lowres picture
+ * from the midres picture.</li>
+ * <li>The encode pool writes the JPEG files and copies the highres pictures.</li>
+ * <li>The HTML writer takes the results with {@link #take} in the order of the pages.</li>
+ * </ol>
+ * Only a limited number of pictures may be between planning and the end of encoding at any time so that the
+ * decoded images don't fill the memory. The file names come from the generator, so the output doesn't depend on
+ * the order in which the threads finish.
+ */
+final class WebsiteRenditionPipeline implements AutoCloseable {
+
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(WebsiteRenditionPipeline.class.getName());
+
+    /**
+     * The files a picture is rendered to
+     *
+     * @param lowres  the thumbnail
+     * @param midres  the picture on the midres page
+     * @param highres the copy of the original
+     */
+    record Targets(File lowres, File midres, File highres) {
+    }
+
+    /**
+     * The picture files of a node
+     *
+     * @param lowresDimension the size of the thumbnail
+     * @param midresDimension the size of the midres picture
+     * @param files           the files of the website for the picture whether they were written by this run or not
+     */
+    record Renditions(Dimension lowresDimension, Dimension midresDimension, List<File> files) {
+    }
+
+    private final GenerateWebsiteRequest request;
+    private final WebsiteManifest manifest;
+    private final Function<SortableDefaultMutableTreeNode, Targets> targets;
+    private final BooleanSupplier interrupted;
+    private final List<SortableDefaultMutableTreeNode> pictureNodes;
+    private final Map<SortableDefaultMutableTreeNode, CompletableFuture<Renditions>> results = new IdentityHashMap<>();
+    private final Semaphore picturesInMemory;
+    private final ExecutorService decodePool;
+    private final ExecutorService encodePool;
+    private final Thread feeder;
+
+    /**
+     * Starts rendering the pictures
+     *
+     * @param request      the request with the sizes and qualities
+     * @param manifest     knows which files are up to date and records the files that belong to the website
+     * @param pictureNodes the picture nodes in the order in which the pages will ask for them
+     * @param targets      tells which files to write for a node
+     * @param interrupted  once this returns true no further pictures are started
+     * @param threads      the number of threads of the decode and of the encode pool
+     */
+    WebsiteRenditionPipeline(final GenerateWebsiteRequest request,
+                             final WebsiteManifest manifest,
+                             final List<SortableDefaultMutableTreeNode> pictureNodes,
+                             final Function<SortableDefaultMutableTreeNode, Targets> targets,
+                             final BooleanSupplier interrupted,
+                             final int threads) {
+        this.request = request;
+        this.manifest = manifest;
+        this.pictureNodes = pictureNodes;
+        this.targets = targets;
+        this.interrupted = interrupted;
+        pictureNodes.forEach(node -> results.put(node, new CompletableFuture<>()));
+        picturesInMemory = new Semaphore(threads * 2);
+        decodePool = Executors.newFixedThreadPool(threads, daemonThreadFactory("WebsiteGenerator-decode"));
+        encodePool = Executors.newFixedThreadPool(threads, daemonThreadFactory("WebsiteGenerator-encode"));
+        feeder = new Thread(this::feed, "WebsiteGenerator-feeder");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String name) {
+        return runnable -> {
+            final var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void feed() {
+        for (final var node : pictureNodes) {
+            final var result = results.get(node);
+            if (interrupted.getAsBoolean()) {
+                result.cancel(false);
+                continue;
+            }
+            try {
+                picturesInMemory.acquire();
+            } catch (final InterruptedException _) {
+                Thread.currentThread().interrupt();
+                result.cancel(false);
+                continue;
+            }
+            CompletableFuture.supplyAsync(() -> plan(node), decodePool)
+                    .thenComposeAsync(this::render, decodePool)
+                    .whenComplete((renditions, throwable) -> {
+                        picturesInMemory.release();
+                        if (throwable != null) {
+                            result.completeExceptionally(throwable);
+                        } else {
+                            result.complete(renditions);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * What has to be done for a node. The entries are those of the previous run if the file is up to date or
+     * null if it has to be written.
+     */
+    private record Plan(PictureInfo pictureInfo, Targets files,
+                        String lowresFingerprint, WebsiteManifest.Entry lowres,
+                        String midresFingerprint, WebsiteManifest.Entry midres,
+                        String highresFingerprint, WebsiteManifest.Entry highres,
+                        boolean rotatedHighres) {
+
+        boolean isScalingNeeded() {
+            return lowres == null || midres == null;
+        }
+
+        boolean isHighresNeeded() {
+            return highresFingerprint != null && highres == null;
+        }
+
+        boolean isDecodeNeeded() {
+            return isScalingNeeded() || (isHighresNeeded() && rotatedHighres);
+        }
+
+        boolean isHighresCopyNeeded() {
+            return isHighresNeeded() && !rotatedHighres;
+        }
+    }
+
+    /**
+     * Works out the fingerprints of the files of the node and which of them the manifest shows to be up to date.
+     * The lowres picture is scaled from the midres picture so its fingerprint includes the midres size.
+     *
+     * @param node the picture node
+     * @return the plan
+     */
+    private Plan plan(final SortableDefaultMutableTreeNode node) {
+        final var pictureInfo = (PictureInfo) node.getUserObject();
+        final var files = targets.apply(node);
+        final var sha256 = getSha256(pictureInfo);
+        final var rotation = pictureInfo.getRotation();
+        final var rotatedHighres = isRotatedHighresNeeded(pictureInfo);
+        final var lowresFingerprint = sha256 == null ? WebsiteManifest.UNKNOWN : WebsiteManifest.fingerprint(sha256, rotation,
+                request.getMidresDimension(), request.getThumbnailDimension(), request.getLowresJpgQuality(),
+                request.getScalingSteps(), WebsiteManifest.TEMPLATE_VERSION);
+        final var midresFingerprint = sha256 == null ? WebsiteManifest.UNKNOWN : WebsiteManifest.fingerprint(sha256, rotation,
+                request.getMidresDimension(), request.getMidresJpgQuality(),
+                request.getScalingSteps(), WebsiteManifest.TEMPLATE_VERSION);
+        String highresFingerprint = null;
+        if (request.isExportHighres()) {
+            if (sha256 == null) {
+                highresFingerprint = WebsiteManifest.UNKNOWN;
+            } else if (rotatedHighres) {
+                highresFingerprint = WebsiteManifest.fingerprint(sha256, rotation, request.getMidresJpgQuality(), WebsiteManifest.TEMPLATE_VERSION);
+            } else {
+                highresFingerprint = WebsiteManifest.fingerprint(sha256, "copy");
+            }
+        }
+        final var lowres = manifest.getUpToDateEntry(files.lowres(), lowresFingerprint);
+        final var midres = manifest.getUpToDateEntry(files.midres(), midresFingerprint);
+        final var highres = highresFingerprint == null ? null : manifest.getUpToDateEntry(files.highres(), highresFingerprint);
+        if (lowres == null || midres == null) {
+            // the two are scaled together so both get written
+            return new Plan(pictureInfo, files, lowresFingerprint, null, midresFingerprint, null, highresFingerprint, highres, rotatedHighres);
+        }
+        return new Plan(pictureInfo, files, lowresFingerprint, lowres, midresFingerprint, midres, highresFingerprint, highres, rotatedHighres);
+    }
+
+    /**
+     * Writes the files of the plan which are not up to date
+     *
+     * @param plan the plan of the node
+     * @return the renditions once the files are written
+     */
+    private CompletableFuture<Renditions> render(final Plan plan) {
+        if (!plan.isDecodeNeeded() && !plan.isHighresCopyNeeded()) {
+            return CompletableFuture.completedFuture(finish(plan, null));
+        }
+        return encode(plan, decodeAndScale(plan));
+    }
+
+    private static String getSha256(final PictureInfo pictureInfo) {
+        final var sha256 = pictureInfo.getSha256();
+        if (sha256 != null && !sha256.isEmpty()) {
+            return sha256;
+        }
+        try {
+            return HashingService.getSha256(pictureInfo.getImageFile());
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Could not hash {0}: {1}", new Object[]{pictureInfo.getImageFile(), e.getMessage()});
+            return null;
+        }
+    }
+
+    /**
+     * The decoded pictures of a node
+     */
+    private record Scaled(BufferedImage highres, BufferedImage midres, BufferedImage lowres) {
+    }
+
+    private Scaled decodeAndScale(final Plan plan) {
+        if (!plan.isDecodeNeeded()) {
+            return new Scaled(null, null, null);
+        }
+        final var pictureInfo = plan.pictureInfo();
+        final var scalablePicture = new ScalablePicture();
+        scalablePicture.setQualityScale();
+        scalablePicture.setScaleSteps(request.getScalingSteps());
+        final var rotatedHighresNeeded = plan.isHighresNeeded() && plan.rotatedHighres();
+        LOGGER.log(Level.FINE, "Loading: {0}", pictureInfo.getImageFile());
+        if (rotatedHighresNeeded) {
+            scalablePicture.loadPictureImd(pictureInfo.getSha256(), pictureInfo.getImageFile(), pictureInfo.getRotation());
+        } else {
+            // the midres picture is the largest rendition we scale so we don't need more pixels than that
+            scalablePicture.setScaleSize(request.getMidresDimension());
+            scalablePicture.loadReducedPictureImd(pictureInfo.getSha256(), pictureInfo.getImageFile(), pictureInfo.getRotation());
+        }
+        if (scalablePicture.getOriginalImage() == null) {
+            LOGGER.log(Level.SEVERE, "Problem reading image {0} using BrokenThumbnailImage instead", pictureInfo.getImageLocation());
+            try {
+                BrokenThumbnailImage.getImage(scalablePicture);
+            } catch (final IOException e) {
+                throw new CompletionException(e);
+            }
+        }
+        final var original = scalablePicture.getOriginalImage();
+        if (!plan.isScalingNeeded()) {
+            return new Scaled(original, null, null);
+        }
+        final var midres = scalablePicture.scaleImage(original, request.getMidresDimension());
+        final var lowres = scalablePicture.scaleImage(midres, request.getThumbnailDimension());
+        return new Scaled(rotatedHighresNeeded ? original : null, midres, lowres);
+    }
+
+    private boolean isRotatedHighresNeeded(final PictureInfo pictureInfo) {
+        return request.isExportHighres() && request.isRotateHighres() && pictureInfo.getRotation() != 0;
+    }
+
+    private CompletableFuture<Renditions> encode(final Plan plan, final Scaled scaled) {
+        final var files = plan.files();
+        final var lowres = scaled.lowres() == null ? CompletableFuture.completedFuture(null) : CompletableFuture.runAsync(() ->
+                ScalablePicture.writeJpg(files.lowres(), scaled.lowres(), request.getLowresJpgQuality()), encodePool);
+        final var midres = scaled.midres() == null ? CompletableFuture.completedFuture(null) : CompletableFuture.runAsync(() ->
+                ScalablePicture.writeJpg(files.midres(), scaled.midres(), request.getMidresJpgQuality()), encodePool);
+        final var highres = plan.isHighresNeeded()
+                ? CompletableFuture.runAsync(() -> writeHighres(plan.pictureInfo(), files.highres(), scaled.highres()), encodePool)
+                : CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(lowres, midres, highres).thenApply(_ -> finish(plan, scaled));
+    }
+
+    /**
+     * Records the files of the node in the manifest
+     *
+     * @param plan   the plan of the node
+     * @param scaled the scaled pictures if they were written or null
+     * @return the renditions
+     */
+    private Renditions finish(final Plan plan, final Scaled scaled) {
+        final var files = plan.files();
+        final var lowresDimension = scaled == null || scaled.lowres() == null
+                ? plan.lowres().getDimension()
+                : new Dimension(scaled.lowres().getWidth(), scaled.lowres().getHeight());
+        final var midresDimension = scaled == null || scaled.midres() == null
+                ? plan.midres().getDimension()
+                : new Dimension(scaled.midres().getWidth(), scaled.midres().getHeight());
+        manifest.record(files.lowres(), plan.lowresFingerprint(), lowresDimension);
+        manifest.record(files.midres(), plan.midresFingerprint(), midresDimension);
+        final var pictureFiles = new ArrayList<File>();
+        pictureFiles.add(files.lowres());
+        pictureFiles.add(files.midres());
+        if (plan.highresFingerprint() != null) {
+            manifest.record(files.highres(), plan.highresFingerprint(), null);
+            pictureFiles.add(files.highres());
+        }
+        return new Renditions(lowresDimension, midresDimension, pictureFiles);
+    }
+
+    private void writeHighres(final PictureInfo pictureInfo, final File highresFile, final BufferedImage rotatedHighres) {
+        if (rotatedHighres != null) {
+            LOGGER.log(Level.FINE, "Writing rotated picture {0} to {1}", new Object[]{pictureInfo.getImageLocation(), highresFile});
+            ScalablePicture.writeJpg(highresFile, rotatedHighres, request.getMidresJpgQuality());
+        } else {
+            try {
+                Files.copy(pictureInfo.getImageFile().toPath(), highresFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (final IOException e) {
+                throw new CompletionException(e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the picture files of the node to be written
+     *
+     * @param node the picture node
+     * @return the picture files of the node
+     * @throws CancellationException if the generation was interrupted before the picture was started
+     * @throws ExecutionException    if the picture could not be rendered
+     * @throws InterruptedException  if the thread was interrupted while waiting
+     */
+    Renditions take(final SortableDefaultMutableTreeNode node) throws ExecutionException, InterruptedException {
+        return results.get(node).get();
+    }
+
+    @Override
+    public void close() {
+        feeder.interrupt();
+        decodePool.shutdownNow();
+        encodePool.shutdownNow();
+    }
+}
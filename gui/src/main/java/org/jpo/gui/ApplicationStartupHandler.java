@@ -45,13 +45,13 @@ public class ApplicationStartupHandler {
     /**
      * Handles the application startup by posting an {@link OpenMainWindowRequest},
      * starting the {@link StartCameraWatchDaemonRequest}, starting the
-     * {@link StartThumbnailCreationDaemonRequest}. If an autoLoad is defined in the Settings it
+     * {@link StartThumbnailCreationExecutorRequest}. If an autoLoad is defined in the Settings it
      * will load that or start a new collection with {@link StartNewCollectionRequest}.
      *
      * @param request the startup request
      * @see OpenMainWindowRequest
      * @see StartCameraWatchDaemonRequest
-     * @see StartThumbnailCreationDaemonRequest
+     * @see StartThumbnailCreationExecutorRequest
      * @see FileLoadRequest
      * @see StartNewCollectionRequest
      */
@@ -68,7 +68,7 @@ public class ApplicationStartupHandler {
         JpoEventBus.getInstance().post(new OpenMainWindowRequest());
         JpoEventBus.getInstance().post(new StartCameraWatchDaemonRequest());
 
-        JpoEventBus.getInstance().post(new StartThumbnailCreationDaemonWatchDogRequest());
+        JpoEventBus.getInstance().post(new StartThumbnailCreationExecutorRequest());
 
         if ((Settings.getAutoLoad() != null) && (! Settings.getAutoLoad().isEmpty())) {
             final var xmlFile = new File(Settings.getAutoLoad());
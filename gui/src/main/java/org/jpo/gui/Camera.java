@@ -1,8 +1,6 @@
 package org.jpo.gui;
 
-import com.google.common.hash.HashCode;
-import com.google.common.hash.Hashing;
-import com.google.common.io.Files;
+import org.jpo.datamodel.HashingService;
 import org.jpo.datamodel.JpoImageIO;
 
 import java.io.File;
@@ -209,14 +207,10 @@ public class Camera implements Serializable {
      * @param f the file
      */
     public void copyToNewImage(final File f) {
-        HashCode hash;
         try {
-            hash = Files.asByteSource(f).hash(Hashing.sha256());
+            storePictureNewImage(f, HashingService.getSha256(f));
         } catch (IOException _) {
-            hash = null;
-        }
-        if (hash != null) {
-            storePictureNewImage(f, hash.toString().toUpperCase());
+            // a file we can't read doesn't go into the new image
         }
     }
 
@@ -296,7 +290,9 @@ public class Camera implements Serializable {
 
     /**
      * this method recursively goes through the directories to identify the
-     * checksums of the pictures in the camera directory.
+     * checksums of the pictures in the camera directory. The files are hashed
+     * in parallel by the {@link HashingService} which remembers the checksums
+     * of files that haven't changed since the camera was last looked at.
      *
      * @param files The files to add to the old image
      * @param progressListener an object that would like to get
@@ -304,25 +300,29 @@ public class Camera implements Serializable {
      * @param interrupter an object that signals to abort the thread.
      */
     private void buildOldImage(File[] files, ProgressListener progressListener, InterruptSemaphore interrupter) {
+        final var filesToHash = new ArrayList<File>();
+        collectFiles(files, filesToHash, interrupter);
+        final var statistics = HashingService.hashFiles(filesToHash, (f, sha256) -> {
+            synchronized (getOldImage()) {
+                storePicture(getOldImage(), f, sha256);
+            }
+            if (progressListener != null) {
+                progressListener.progressIncrement();
+            }
+        }, interrupter::getShouldInterrupt);
+        LOGGER.log(Level.INFO, "Camera {0}: {1}", new Object[]{description, statistics});
+    }
+
+    private static void collectFiles(final File[] files, final List<File> filesToHash, final InterruptSemaphore interrupter) {
         for ( File f : files ) {
             if ( interrupter.getShouldInterrupt() ) {
                 break;
             }
             if ( !f.isDirectory()) {
-                HashCode hash = null;
-                try {
-                    hash = Files.asByteSource(f).hash(Hashing.sha256());
-                } catch (IOException _) {
-                    //
-                }
-                storePicture(
-                        getOldImage(), f, Objects.requireNonNull(hash).toString().toUpperCase());
-                if (progressListener != null) {
-                    progressListener.progressIncrement();
-                }
+                filesToHash.add(f);
             } else {
                 if ( org.jpo.datamodel.Tools.hasPictures( f ) ) {
-                    buildOldImage(Objects.requireNonNull(f.listFiles()), progressListener, interrupter );
+                    collectFiles(Objects.requireNonNull(f.listFiles()), filesToHash, interrupter );
                 }
 
             }
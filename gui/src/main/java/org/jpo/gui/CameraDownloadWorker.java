@@ -2,6 +2,7 @@ package org.jpo.gui;
 
 import org.apache.commons.io.FileUtils;
 import org.jpo.datamodel.GroupInfo;
+import org.jpo.datamodel.IngestPipeline;
 import org.jpo.datamodel.SortableDefaultMutableTreeNode;
 import org.jpo.datamodel.Tools;
 import org.jpo.eventbus.*;
@@ -11,12 +12,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /*
- Copyright (C) 2002-2025 Richard Eigenmann.
+ Copyright (C) 2002-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -65,6 +68,11 @@ public class CameraDownloadWorker
 
     private final CameraDownloadWizardStep7 step7;
 
+    /**
+     * Stops the download at the next file
+     */
+    private final InterruptSemaphore interruptSemaphore = new InterruptSemaphore();
+
     @Override
     protected String doInBackground() {
         Settings.memorizeCopyLocation(dataModel.getTargetDir().toString());
@@ -91,15 +99,17 @@ public class CameraDownloadWorker
         dataModel.getTargetNode().sortChildren(dataModel.getSortCode());
         JpoEventBus.getInstance().post(new RefreshThumbnailRequest(List.of(dataModel.getTargetNode()), true, QUEUE_PRIORITY.LOWEST_PRIORITY));
 
-        final InterruptSemaphore interrupter = new InterruptSemaphore();
-        dataModel.getCamera().buildOldImage(this, interrupter);
+        dataModel.getCamera().buildOldImage(this, interruptSemaphore);
         Settings.writeCameraSettings();
         return "Done";
     }
 
     /**
-     * Copies the pictures from the source File collection into the target node while updating a supplied progress bar
+     * Copies the pictures from the source File collection into the target node while updating a supplied progress
+     * bar. The names in the target directory are picked up front; the copies, hashes and Exif reads then run in
+     * parallel in the {@link IngestPipeline} and the pictures are added in the order of the collection.
      *
+     * @param targetNode     The node to add the pictures to
      * @param fileCollection A Collection framework of the new picture Files
      * @param targetDir      The target directory for the copy operation
      * @param copyMode       Set to true if you want to copy, false if you want to
@@ -111,28 +121,38 @@ public class CameraDownloadWorker
             final Collection<File> fileCollection, final File targetDir,
                                 boolean copyMode, final JProgressBar progressBar) {
         LOGGER.log(Level.FINE, "Copy/Moving {0} pictures to target directory {1}", new Object[]{fileCollection.size(), targetDir});
-        targetNode.getPictureCollection().setSendModelUpdates(false);
+        final var reservedNames = new HashSet<String>();
+        final var targetFiles = new HashMap<File, File>();
         for (final File file : fileCollection) {
-            LOGGER.log(Level.FINE, "Processing file {}", file);
-            if (progressBar != null) {
-                SwingUtilities.invokeLater(
-                        () -> progressBar.setValue(progressBar.getValue() + 1)
-                );
-            }
-            final File targetFile = Tools.inventFilename(targetDir, file.getName());
-            LOGGER.log(Level.FINE, "Target file name chosen as: {0}", new Object[]{targetFile});
-            copyPicture(file, targetFile);
+            final File targetFile = Tools.inventFilename(targetDir, file.getName(), reservedNames);
+            reservedNames.add(targetFile.getName());
+            targetFiles.put(file, targetFile);
+            LOGGER.log(Level.FINE, "Target file name for {0} chosen as: {1}", new Object[]{file, targetFile});
+        }
 
+        final IngestPipeline.Preparation copy = file -> {
+            final File targetFile = targetFiles.get(file);
+            if (!copyPicture(file, targetFile)) {
+                return null;
+            }
             if (!copyMode) {
                 try {
                     Files.delete(file.toPath());
                 } catch (final IOException _) {
-                    LOGGER.log(Level.SEVERE, "File {} could not be deleted!", file);
+                    LOGGER.log(Level.SEVERE, "File {0} could not be deleted!", file);
                 }
             }
-            targetNode.addPicture(targetFile, null);
-        }
-        targetNode.getPictureCollection().setSendModelUpdates(true);
+            return targetFile;
+        };
+        new IngestPipeline(targetNode, new IngestPipeline.Options(false, false, false, null), copy,
+                () -> interruptSemaphore.getShouldInterrupt() || isCancelled())
+                .run(fileCollection, (_, _) -> {
+                    if (progressBar != null) {
+                        SwingUtilities.invokeLater(
+                                () -> progressBar.setValue(progressBar.getValue() + 1)
+                        );
+                    }
+                });
     }
 
     /**
@@ -141,11 +161,13 @@ public class CameraDownloadWorker
      *
      * @param sourceFile the source file location
      * @param targetFile the target file location
+     * @return true if the file was copied
      */
-    public static void copyPicture(final File sourceFile, final File targetFile) {
+    public static boolean copyPicture(final File sourceFile, final File targetFile) {
         LOGGER.log(Level.FINE, "Copying file {0} to file {1}", new Object[]{sourceFile, targetFile});
         try {
             FileUtils.copyFile(sourceFile, targetFile);
+            return true;
         } catch (IOException e) {
             JOptionPane.showMessageDialog(
                     Settings.getAnchorFrame(),
@@ -157,6 +179,7 @@ public class CameraDownloadWorker
                             + e.getMessage(),
                     JpoResources.getResource("genericError"),
                     JOptionPane.ERROR_MESSAGE);
+            return false;
         }
     }
 
@@ -191,6 +214,6 @@ public class CameraDownloadWorker
 
     @Override
     public InterruptSemaphore getInterruptSemaphore() {
-        return new InterruptSemaphore();
+        return interruptSemaphore;
     }
 }
@@ -1,24 +1,20 @@
 package org.jpo.gui;
 
-import org.jetbrains.annotations.NotNull;
+import org.jpo.datamodel.PictureConsolidator;
 import org.jpo.datamodel.PictureInfo;
 import org.jpo.datamodel.SortableDefaultMutableTreeNode;
-import org.jpo.datamodel.Tools;
 import org.jspecify.annotations.NonNull;
 
 import javax.swing.*;
 import java.io.File;
-import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static org.apache.commons.io.FileUtils.moveFile;
-
 /*
- Copyright (C) 2002-2025 Richard Eigenmann.
+ Copyright (C) 2002-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -132,30 +128,28 @@ public class ConsolidateGroupWorker extends SwingWorker<String, String> {
     private int consolidatedCount;
 
     /**
-     * This method consolidates all the nodes of the supplied group.
+     * This method consolidates all the nodes of the supplied group. The moves are planned for all the pictures
+     * first so that each file is moved once and the other pictures using it are corrected in one go.
      *
      * @param groupNode the Group whose nodes are to be consolidated.
      */
     private void consolidateGroup(final SortableDefaultMutableTreeNode groupNode) {
         final var nodes = groupNode.getChildPictureNodes(recurseGroups);
         LOGGER.log(Level.INFO, "List Size: {0}", nodes.size());
-        nodes.forEach(node -> {
-            final var pictureInfo = (PictureInfo) node.getUserObject();
-            consolidatedCount++;
-            LOGGER.info("node: " + pictureInfo.toString());
-            if (needToMovePicture(pictureInfo, targetDirectory)) {
-                if (movePicture(pictureInfo, targetDirectory)) {
-                    movedCount++;
-                    LOGGER.info(String.format("Successfully Moved Highres file of node %s", pictureInfo));
-                    publish(String.format("Consolidated node: %s", node) );
-                } else {
-                    LOGGER.severe( String.format( "Could not move highres picture of node %s. Aborting.", node) );
-                    errorCount++;
-                }
-            } else {
-                publish( String.format( "No need to move node: %s", node) );
-            }
-        } );
+        final var pictures = nodes.stream()
+                .map(node -> (PictureInfo) node.getUserObject())
+                .toList();
+        consolidatedCount = pictures.size();
+
+        pictures.stream()
+                .filter(pictureInfo -> !needToMovePicture(pictureInfo, targetDirectory))
+                .forEach(pictureInfo -> publish(String.format("No need to move node: %s", pictureInfo)));
+
+        final var consolidator = PictureConsolidator.plan(groupNode.getPictureCollection(), pictures, targetDirectory);
+        final var result = consolidator.execute(move -> publish(String.format("Consolidated file: %s", move.source())));
+        movedCount = result.moved();
+        errorCount = result.failed().size();
+        result.failed().forEach(file -> LOGGER.severe(String.format("Could not move highres picture %s", file)));
     }
 
     /**
@@ -183,7 +177,8 @@ public class ConsolidateGroupWorker extends SwingWorker<String, String> {
 
     /**
      * This method moves a PictureInfo's file to the target directory if it
-     * exists and can be moved necessary.
+     * exists and can be moved necessary. The other pictures of the collection
+     * which use the same file are pointed at the new file too.
      *
      * @param pictureInfo the PictureInfo pointing to the highres file to move
      * @param targetDirectory the target directory
@@ -193,52 +188,9 @@ public class ConsolidateGroupWorker extends SwingWorker<String, String> {
         Objects.requireNonNull(pictureInfo);
         Objects.requireNonNull(targetDirectory);
 
-        final var pictureFile = pictureInfo.getImageFile();
-
-        if (!isInTargetDirectory(targetDirectory, pictureFile)) {
-
-            // make sure that we get a new filename. Some cameras might keep reusing the name DSC_01234.jpg
-            // over and over again which would overwrite pictures in the worst case.
-            final var newFile = Tools.inventFilename(targetDirectory, pictureInfo.getImageFile().getName());
-            try {
-                moveFile(pictureFile, newFile);
-            } catch (final IOException ex) {
-                LOGGER.log(Level.SEVERE, "Failed to move file {0} to {1}.\nException: {2}", new Object[]{pictureFile, newFile, ex.getLocalizedMessage()});
-                return false;
-            }
-            pictureInfo.setImageLocation(newFile);
-            correctReferences(pictureFile, newFile);
-        }
-        return true;
-    }
-
-    private static boolean isInTargetDirectory(@NotNull File targetDirectory, File pictureFile) {
-        final var parentDirectory = pictureFile.getParentFile();
-        return ((parentDirectory != null) && (parentDirectory.equals(targetDirectory)));
-    }
-
-    /**
-     * Searches for any references in the current collection to the source file
-     * and updates them to the target file.
-     *
-     * @param oldReference The file that was moved
-     * @param newReference The new location of the source file
-     */
-    private static void correctReferences(final File oldReference, final File newReference) {
-        //  search for other picture nodes in the tree using this image file
-        var count = 0;
-        final var enumeration = Settings.getPictureCollection().getRootNode().preorderEnumeration();
-        while ( enumeration.hasMoreElements()) {
-            final var node = (SortableDefaultMutableTreeNode) enumeration.nextElement();
-            final var nodeObject = node.getUserObject();
-            if (nodeObject instanceof PictureInfo pictureInfo) {
-                final var imageFile = pictureInfo.getImageFile();
-                if (imageFile != null && imageFile.equals(oldReference)) {
-                    pictureInfo.setImageLocation(newReference);
-                    count++;
-                }
-            }
-        }
-        LOGGER.log(Level.INFO, "{0} other Picture Nodes were pointing at the same picture and were corrected", count );
+        final var result = PictureConsolidator.plan(Settings.getPictureCollection(), List.of(pictureInfo), targetDirectory)
+                .execute(_ -> {
+                });
+        return result.failed().isEmpty();
     }
 }
@@ -1,6 +1,7 @@
 package org.jpo.gui;
 
 import com.google.common.eventbus.Subscribe;
+import org.jpo.datamodel.HashingService;
 import org.jpo.datamodel.PictureInfo;
 import org.jpo.datamodel.SortableDefaultMutableTreeNode;
 import org.jpo.eventbus.FileSaveRequest;
@@ -8,13 +9,17 @@ import org.jpo.eventbus.JpoEventBus;
 import org.jpo.eventbus.StartNewCollectionHandler;
 
 import javax.swing.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /*
- Copyright (C) 2023-2024 Richard Eigenmann, Zurich, Switzerland
+ Copyright (C) 2023-2026 Richard Eigenmann, Zurich, Switzerland
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -30,12 +35,27 @@ import java.util.logging.Logger;
  */
 
 /**
- * Looks for missing SHA256 code and corrects them.
+ * Looks for missing SHA256 code and corrects them. The files are hashed on the pool threads of the
+ * {@link HashingService} and the hashes are published so that the pictures are updated on the EDT.
  */
-public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
+public class CorrectSha256SwingWorker extends SwingWorker<Integer, CorrectSha256SwingWorker.HashedFile> {
+
+    /**
+     * A file and the SHA-256 the hashing service calculated for it
+     *
+     * @param file   the file
+     * @param sha256 its SHA-256
+     */
+    protected record HashedFile(File file, String sha256) {
+    }
 
     private final SortableDefaultMutableTreeNode startNode;
 
+    /**
+     * The pictures without a SHA-256 by their file. Filled before the hashing starts and only read after that.
+     */
+    private final Map<File, List<PictureInfo>> picturesByFile = new HashMap<>();
+
 
     final PrivateFileSaveAsHandler privateFileSaveAsHandler = new PrivateFileSaveAsHandler();
     final PrivateStartNewCollectionHandler privateStartNewCollectionHandler = new PrivateStartNewCollectionHandler();
@@ -43,6 +63,13 @@ public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
 
     private final JProgressBar progressBar = new JProgressBar();
 
+    private final JLabel statusLabel = new JLabel("Creating hash codes...");
+
+    /**
+     * What the hashing service did; shown when the worker is done
+     */
+    private HashingService.HashingStatistics statistics;
+
 
     final JFrame frame = new JFrame();
 
@@ -52,7 +79,7 @@ public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
         final var jPanel = new JPanel();
         jPanel.setLayout( new BoxLayout( jPanel, BoxLayout.PAGE_AXIS ) );
 
-        jPanel.add(new JLabel("Creating hash codes..."));
+        jPanel.add(statusLabel);
 
 
         var picsToProcess = startNode.getChildPictureNodesDFS().filter(
@@ -60,7 +87,7 @@ public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
                     final var pictureInfo = (PictureInfo) node.getUserObject();
                     return pictureInfo.getSha256().equals("");
                 }).count();
-        publish(String.format("%d PictureInfo objects have missing sha256 file hashes%n", picsToProcess));
+        LOGGER.log(Level.INFO, "{0} PictureInfo objects have missing sha256 file hashes", picsToProcess);
 
         progressBar.setMinimum( 0 );
         progressBar.setMaximum( (int) picsToProcess );
@@ -86,34 +113,34 @@ public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
 
     @Override
     protected Integer doInBackground() {
-        try {
-            startNode
-                .getChildPictureNodesDFS()
-                .filter( node -> {
-                    final var pictureInfo = (PictureInfo) node.getUserObject();
-                    return pictureInfo.getSha256().equals("");
-                })
-                .forEach(node -> {
-                    final var pictureInfo = (PictureInfo) node.getUserObject();
-                    pictureInfo.setSha256();
-                    publish(pictureInfo.getImageLocation());
-                    if (stopTheJob.get()) {
-                        throw new BreakException();
-                    }
-                });
-        } catch (BreakException e) {
-            // OK, we need to stop here
-        }
-
-        return null;
+        startNode
+            .getChildPictureNodesDFS()
+            .map(node -> (PictureInfo) node.getUserObject())
+            .filter(pictureInfo -> pictureInfo.getSha256().equals("") && pictureInfo.getImageFile() != null)
+            .forEach(pictureInfo -> picturesByFile.computeIfAbsent(pictureInfo.getImageFile(), _ -> new ArrayList<>()).add(pictureInfo));
+
+        // the pool threads only hand the hashes over; the pictures are changed on the EDT in process
+        statistics = HashingService.hashFiles(picturesByFile.keySet(),
+                (file, sha256) -> publish(new HashedFile(file, sha256)), stopTheJob::get);
+        return statistics.files();
     }
 
+    /**
+     * Sets the SHA-256 of the pictures on the EDT so that the change events and index updates happen there
+     *
+     * @param chunks the files which were hashed since the last call
+     */
     @Override
-    protected void process(final List<String> chunks) {
-        chunks.forEach(e -> LOGGER.log(Level.INFO, e));
-        SwingUtilities.invokeLater(
-                () -> progressBar.setValue(progressBar.getValue() + chunks.size())
-        );
+    protected void process(final List<HashedFile> chunks) {
+        var updated = 0;
+        for (final var hashedFile : chunks) {
+            for (final var pictureInfo : picturesByFile.get(hashedFile.file())) {
+                pictureInfo.setSha256(hashedFile.sha256());
+                LOGGER.log(Level.INFO, pictureInfo.getImageLocation());
+                updated++;
+            }
+        }
+        progressBar.setValue(progressBar.getValue() + updated);
     }
 
     /**
@@ -122,6 +149,10 @@ public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
     @Override
     protected void done() {
         progressBar.setValue(progressBar.getMaximum());
+        if (statistics != null) {
+            statusLabel.setText(statistics.toString());
+            frame.pack();
+        }
         JpoEventBus.getInstance().unregister(privateFileSaveAsHandler);
         JpoEventBus.getInstance().unregister(privateStartNewCollectionHandler);
 
@@ -145,7 +176,4 @@ public class CorrectSha256SwingWorker extends SwingWorker<Integer, String> {
         }
     }
 
-    private static class BreakException extends RuntimeException {
-    }
-
 }
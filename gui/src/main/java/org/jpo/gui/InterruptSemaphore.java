@@ -1,7 +1,7 @@
 package org.jpo.gui;
 
 /*
- Copyright (C) 2007-2025 Richard Eigenmann.
+ Copyright (C) 2007-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -23,7 +23,7 @@ package org.jpo.gui;
  */
 public class InterruptSemaphore {
 
-    private boolean shouldInterrupt;  // default is false
+    private volatile boolean shouldInterrupt;  // default is false
 
     /**
      * use this method to find out if the thread should be interrupted.
@@ -88,9 +88,15 @@ public class NodeStatisticsController {
 
                 if (Settings.isDebugMode()) {
                     nodeStatisticsBean.setFreeMemory(Tools.freeMemory());
-                    nodeStatisticsBean.setQueueCount(JpoResources.getResource("queCountJLabel") + ThumbnailCreationQueue.size());
+                    final var thumbnailStatistics = ThumbnailCreationQueue.getStatistics();
+                    nodeStatisticsBean.setQueueCount(JpoResources.getResource("queCountJLabel") + thumbnailStatistics.queueDepth());
                     nodeStatisticsBean.setSelectedCount(String.format("Selected: %d", Settings.getPictureCollection().getSelection().size()));
-                    nodeStatisticsBean.setThumbnailCreationFactoryCount(String.format("ThumbnailCreationFactoryThreads: %d", ThumbnailCreationExecutor.getInstance().getLiveDaemonsCount()));
+                    nodeStatisticsBean.setThumbnailCreationFactoryCount(String.format("ThumbnailCreationFactoryThreads: %d, in flight: %d, wait: %d ms (max %d ms), creation: %d ms",
+                            ThumbnailCreationExecutor.getInstance().getLiveDaemonsCount(),
+                            thumbnailStatistics.inFlight(),
+                            thumbnailStatistics.averageWaitMillis(),
+                            thumbnailStatistics.maxWaitMillis(),
+                            thumbnailStatistics.averageCreationMillis()));
                 }
                 return "done";
             }
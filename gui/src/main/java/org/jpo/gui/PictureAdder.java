@@ -1,18 +1,17 @@
 package org.jpo.gui;
 
-import org.jpo.datamodel.GroupInfo;
-import org.jpo.datamodel.SortableDefaultMutableTreeNode;
+import org.jpo.datamodel.IngestPipeline;
 import org.jpo.datamodel.Tools;
 import org.jpo.eventbus.PictureAdderRequest;
 
 import javax.swing.*;
-import java.io.File;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /*
-Copyright (C) 2009-2025 Richard Eigenmann.
+Copyright (C) 2009-2026 Richard Eigenmann.
 This program is free software; you can redistribute it and/or
 modify it under the terms of the GNU General Public License
 as published by the Free Software Foundation; either version 2
@@ -46,7 +45,6 @@ public class PictureAdder
         progGui = new ProgressGui(Tools.countFiles(request.chosenFiles()),
                 JpoResources.getResource("PictureAdderProgressDialogTitle"),
                 JpoResources.getResource("picturesAdded"));
-        request.receivingNode().getPictureCollection().setSendModelUpdates(false);
     }
 
     /**
@@ -62,81 +60,18 @@ public class PictureAdder
 
     /**
      * Adds the indicated files to the current node if they are valid pictures. If the newOnly
-     * Flag is on then the collection is checked to see if the picture is already present. It
-     * also opens a progress Gui to provide feedback to the user.
+     * Flag is on then the collection is checked to see if the picture is already present. The
+     * {@link IngestPipeline} walks the directories, hashes the files and reads their Exif tags
+     * in parallel and adds the pictures in the order of the directory listings.
      *
-     * @return A string
+     * @return the number of pictures added
      */
     @Override
     public Integer doInBackground() {
-        for (final var addFile : request.chosenFiles()) {
-            if (progGui.getInterruptSemaphore().getShouldInterrupt()) {
-                break;
-            }
-            LOGGER.log(Level.INFO, "Requested file: {0}", addFile);
-            if (!addFile.isDirectory()) {
-                addPicture(request.receivingNode(), addFile);
-            } else {
-                // the file is a directory
-                if (Tools.hasPictures(addFile)) {
-                    addDirectory(request.receivingNode(), addFile);
-                } else {
-                    LOGGER.log(Level.FINE, "No pictures in directory: {0}", addFile);
-                }
-            }
-
-        }
-        return 1;
-    }
-
-
-    /**
-     * method that is invoked recursively on each directory encountered. It adds
-     * a new group to the tree and then adds all the pictures found therein to that
-     * group. The ImageIO.getImageReaders method is queried to see whether a reader
-     * exists for the image that is attempted to be loaded.
-     *
-     * @param parentNode the node to which to add
-     * @param dir        the directory to add
-     */
-    private void addDirectory(final SortableDefaultMutableTreeNode parentNode, final File dir) {
-        LOGGER.log(Level.INFO, "Adding Directory {0} to node {1}", new Object[]{dir, parentNode});
-        final SortableDefaultMutableTreeNode directoryNode;
-        if (request.retainDirectories()) {
-            directoryNode = new SortableDefaultMutableTreeNode(new GroupInfo(dir.getName()));
-            parentNode.add(directoryNode);
-            parentNode.getPictureCollection().setUnsavedUpdates();
-        } else {
-            directoryNode = parentNode;
-        }
-
-        final File[] fileArray = dir.listFiles();
-        if (fileArray != null) {
-            for (int i = 0; (i < fileArray.length) && (!progGui.getInterruptSemaphore().getShouldInterrupt()); i++) {
-                if (fileArray[i].isDirectory() && request.recurseDirectories() && Tools.hasPictures(fileArray[i])) {
-                    addDirectory(directoryNode, fileArray[i]);
-                } else {
-                    addPicture(directoryNode, fileArray[i]);
-                }
-            }
-        }
-        removeEmptyDirectoryNode(directoryNode);
-    }
-
-    private void addPicture(final SortableDefaultMutableTreeNode groupNode, final File file) {
-        LOGGER.log(Level.INFO, "Adding Picture {0} to node {1}", new Object[]{file, groupNode});
-        if (groupNode.addSinglePicture(file, request.newOnly(), request.selectedCategories())) {
-            publish(1);
-        } else {
-            publish(-1);
-        }
-    }
-
-    private void removeEmptyDirectoryNode(final SortableDefaultMutableTreeNode directoryNode) {
-        // it can happen that we end up adding no pictures and could be returning a new empty group
-        if (request.retainDirectories() && (directoryNode.getChildCount() == 0)) {
-            directoryNode.removeFromParent();
-        }
+        final var options = new IngestPipeline.Options(request.newOnly(), request.recurseDirectories(),
+                request.retainDirectories(), request.selectedCategories());
+        return new IngestPipeline(request.receivingNode(), options, null, progGui.getInterruptSemaphore()::getShouldInterrupt)
+                .run(Arrays.asList(request.chosenFiles()), (_, added) -> publish(added ? 1 : -1));
     }
 
 
@@ -158,12 +93,10 @@ public class PictureAdder
 
 
     /**
-     * Sends a model notification about the change and updates the cancel button to an OK button
+     * Updates the cancel button to an OK button. The pipeline has told the tree model about the new nodes.
      */
     @Override
     protected void done() {
-        Settings.getPictureCollection().setSendModelUpdates(true);
-        Settings.getPictureCollection().sendNodeStructureChanged(request.receivingNode());
         progGui.switchToDoneMode();
     }
 
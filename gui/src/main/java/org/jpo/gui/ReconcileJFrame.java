@@ -19,7 +19,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /*
- Copyright (C) 2002-2025 Richard Eigenmann.
+ Copyright (C) 2002-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -267,6 +267,11 @@ public class ReconcileJFrame extends JFrame {
 
         @Override
         protected String doInBackground() {
+            if (startNode.isRoot() && startNode.getPictureCollection() != null) {
+                // the collection keeps an index of its files so we don't have to collect them
+                reconcileDir( reconcileDir );
+                return ( "" );
+            }
             //Build HashSet of all the URIs know to the collection
             final Enumeration<TreeNode> e = startNode.preorderEnumeration();
             while ( e.hasMoreElements()) {
@@ -299,14 +304,20 @@ public class ReconcileJFrame extends JFrame {
                         reconcileDir( fileArray[i] );
                     }
                 } else {
-                    final URI testFile = fileArray[i].toURI();
-                    if (!collectionUris.contains(testFile)) {
+                    if (!isKnown(fileArray[i])) {
                         publish(JpoResources.getResource("ReconcileNotFound") + fileArray[i].toString() + "\n");
                     }
                 }
             }
         }
 
+        private boolean isKnown(final File file) {
+            if (startNode.isRoot() && startNode.getPictureCollection() != null) {
+                return startNode.getPictureCollection().isInCollection(file);
+            }
+            return collectionUris.contains(file.toURI());
+        }
+
         @Override
         protected void process(final List<String> chunks) {
             chunks.forEach(outputTextArea::append);
@@ -69,15 +69,6 @@ public class Settings {
      * the minimum Dimension for the Navigator Panel
      */
     public static final Dimension JPO_NAVIGATOR_JTABBEDPANE_MINIMUM_SIZE = new Dimension(LEFT_PANEL_MINIMUM_WIDTH, 450);
-    /**
-     * The polling interval in milliseconds for the ThumbnailCreationThreads to
-     * check Whether there is something new to render.
-     */
-    public static final int THUMBNAIL_CREATION_THREAD_POLLING_TIME = 200;
-    /**
-     * The number of thumbnail creation threads to spawn.
-     */
-    public static final int NUMBER_OF_THUMBNAIL_CREATION_THREADS = 5;
     /**
      * number of recent files shown in the file menu
      */
@@ -260,7 +251,6 @@ public class Settings {
      * constant
      */
     private static final String GOOGLE_PASSWORD = "googlePassword";
-    public static final int DEFAULT_THUMBNAIL_CREATION_THREADS = 6;
     /**
      * The most recently used directory for Add Pictures command
      */
@@ -1797,6 +1787,8 @@ public class Settings {
         defaultHtmlSshTargetDir = prefs.get("defaultHtmlSshTargetDir", defaultHtmlSshTargetDir);
         defaultHtmlSshKeyFile = prefs.get("defaultHtmlSshKeyFile", defaultHtmlSshKeyFile);
         CacheSettings.setThumbnailFastScale(prefs.getBoolean("thumbnailFastScale", CacheSettings.isThumbnailFastScale()));
+        CacheSettings.setBinaryCollection(prefs.getBoolean("binaryCollection", CacheSettings.isBinaryCollection()));
+        CacheSettings.setChangeJournal(prefs.getBoolean("changeJournal", CacheSettings.isChangeJournal()));
         pictureViewerFastScale = prefs.getBoolean("pictureViewerFastScale", pictureViewerFastScale);
         showThumbOnFileChooser = prefs.getBoolean("showThumbOnFileChooser", showThumbOnFileChooser);
         var emailSenders = prefs.getInt("emailSenders", 0);
@@ -1971,6 +1963,8 @@ public class Settings {
         prefs.put("defaultHtmlSshKeyFile", defaultHtmlSshKeyFile);
 
         prefs.putBoolean("thumbnailFastScale", CacheSettings.isThumbnailFastScale());
+        prefs.putBoolean("binaryCollection", CacheSettings.isBinaryCollection());
+        prefs.putBoolean("changeJournal", CacheSettings.isChangeJournal());
         prefs.putBoolean("pictureViewerFastScale", pictureViewerFastScale);
         prefs.putBoolean("showThumbOnFileChooser", showThumbOnFileChooser);
         n = 0;
@@ -2343,12 +2337,13 @@ public class Settings {
     }
 
     /**
-     * Returns the number of threads JPO should spawn to create thumbnails concurrently
+     * Returns the number of threads JPO should spawn to create thumbnails concurrently.
+     * This is one less than the number of cores so that the GUI stays responsive.
      *
      * @return The number of threads to spawn
      */
     public static int getDefaultThumbnailCreationThreads() {
-        return DEFAULT_THUMBNAIL_CREATION_THREADS;
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
     }
 
 
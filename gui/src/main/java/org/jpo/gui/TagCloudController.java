@@ -14,7 +14,7 @@ import javax.swing.*;
 import java.util.*;
 
 /*
- Copyright (C) 2009-2024 Richard Eigenmann.
+ Copyright (C) 2009-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -99,156 +99,6 @@ public class TagCloudController implements TagClickListener {
         JpoEventBus.getInstance().post(new ShowQueryRequest(textQuery));
     }
 
-    private static final Set<String> strikeWordsSet = new HashSet<>(Arrays.asList(
-            "als",
-            "Am",
-            "am",
-            "an",
-            "An",
-            "and",
-            "at",
-            "auf",
-            "Auf",
-            "Aufstieg",
-            "aus",
-            "bei",
-            "Bei",
-            "Beim",
-            "beim",
-            "Blick",
-            "by",
-            "das",
-            "Das",
-            "de",
-            "del",
-            "dem",
-            "den",
-            "der",
-            "Der",
-            "des",
-            "Die",
-            "die",
-            "DSC",
-            "dsc",
-            "DSCN",
-            "durch",
-            "Ein",
-            "ein",
-            "eine",
-            "einem",
-            "einen",
-            "einer",
-            "eines",
-            "El",
-            "en",
-            "fuer",
-            "für",
-            "gesehen",
-            "hat",
-            "hinter",
-            "ich",
-            "II",
-            "Il",
-            "im",
-            "Im",
-            "Image",
-            "img",
-            "IMG",
-            "in",
-            "In",
-            "in",
-            "ist",
-            "je",
-            "La",
-            "man",
-            "meine",
-            "MG",
-            "mir",
-            "Mit",
-            "mit",
-            "nach",
-            "neben",
-            "Neuer",
-            "nicht",
-            "noch",
-            "Nähe",
-            "nähert",
-            "ob",
-            "of",
-            "of",
-            "on",
-            "Richtung",
-            "san",
-            "SDC",
-            "sein",
-            "sich",
-            "The",
-            "the",
-            "to",
-            "ueber",
-            "um",
-            "und",
-            "uns",
-            "unter",
-            "Unterwegs",
-            "unterwegs",
-            "van",
-            "vom",
-            "von",
-            "vor",
-            "warum",
-            "was",
-            "wer",
-            "wie",
-            "wie",
-            "wir",
-            "wird",
-            "with",
-            "without",
-            "wurde",
-            "während",
-            "zu",
-            "zum",
-            "zur",
-            "zwischen",
-            "über"
-    ) );
-
-    private static final String[] multiWordTerms = {
-        "Aprés Ski",
-        "Cape Town",
-        "Crans Montana",
-        "Den Haag",
-        "Empire State",
-        "Goldman Sachs",
-        "Groot Marico",
-        "Halfmoon Bay",
-        "Hoch Ybrig",
-        "Lions Head",
-        "Marigot Bay",
-        "Nags Head",
-        "New York",
-        "New Zealand",
-        "Persischer Golf",
-        "Petit Bateau",
-        "Quadra Island",
-        "Red Sea",
-        "Rotes Meer",
-        "Saudi Arabien",
-        "Seleger Moor",
-        "South Africa",
-        "South Georgia",
-        "St Gallen",
-        "St. Petersinsel",
-        "Tel Aviv",
-        "Toten Meer",
-        "Totes Meer",
-        "Vic Falls",
-        "Victoria Falls",
-        "Washington State"
-    };
-
-
     private static class NodeWordMapper {
 
         private final List<WeightedWordInterface> weightedWordList = new ArrayList<>();
@@ -274,59 +124,37 @@ public class TagCloudController implements TagClickListener {
         }
 
         /**
-         * Zips through the nodes and builds the word to node set map.
+         * Counts the words of the pictures under the node. The root node of the collection uses the counts which
+         * the collection keeps up to date.
          */
         private void buildList() {
-            final var nodes = rootNode.breadthFirstEnumeration();
-            while ( nodes.hasMoreElements() ) {
-                if (((SortableDefaultMutableTreeNode) nodes.nextElement()).getUserObject() instanceof PictureInfo pi) {
-                    splitAndAdd(wordCountMap, pi.getDescription());
-                }
+            final var pictureCollection = rootNode.getPictureCollection();
+            if (pictureCollection == null) {
+                return;
+            }
+            if (rootNode == pictureCollection.getRootNode()) {
+                addWords(pictureCollection.getTagCloudWords(Settings.getTagCloudWords()));
+                return;
             }
-            wordCountMap.keySet().forEach(key -> weightedWordList.add(new WeightedWord(key, wordCountMap.get(key))));
+            final var pictureNodes = rootNode.getChildPictureNodes(true);
+            if (rootNode.getUserObject() instanceof PictureInfo) {
+                pictureNodes.add(rootNode);
+            }
+            addWords(pictureCollection.getTagCloudWords(pictureNodes, Settings.getTagCloudWords()));
         }
 
         private void buildListQuery(final Query query) {
+            final var pictureNodes = new ArrayList<SortableDefaultMutableTreeNode>(query.getNumberOfResults());
             for (var i = 0; i < query.getNumberOfResults(); i++) {
-                if (query.getIndex(i).getUserObject() instanceof PictureInfo pictureInfo) {
-                    splitAndAdd(wordCountMap, pictureInfo.getDescription());
-                }
-            }
-            wordCountMap.keySet().forEach(key -> weightedWordList.add(new WeightedWord(key, wordCountMap.get(key))));
-        }
-
-        /**
-         * split the string and add the node to the map
-         *
-         * @param description The description of split
-         */
-        private static void splitAndAdd(final Map<String, Integer> wordCountMap, final String description) {
-            final var fixAprostropheS = description.replace("\'s", "");
-            final var noPunctuation = fixAprostropheS.replaceAll("[\\.:!,\\'\\\";\\?\\(\\)\\[\\]#\\$\\*\\+<>\\/&=]", "");
-            var noNumbers = noPunctuation.replaceAll("\\d", "");
-
-            for (final var multiWordTerm : multiWordTerms) {
-                if (noNumbers.contains(multiWordTerm)) {
-                    noNumbers = noNumbers.replace(multiWordTerm, "");
-                    addWord(wordCountMap, multiWordTerm);
-                }
-            }
-
-            for (final var s : noNumbers.split("[\\s_\\-]+")) {
-                if (!strikeWordsSet.contains(s)) {
-                    addWord(wordCountMap, s);
+                if (query.getIndex(i).getUserObject() instanceof PictureInfo) {
+                    pictureNodes.add(query.getIndex(i));
                 }
             }
+            addWords(query.getPictureCollection().getTagCloudWords(pictureNodes, Settings.getTagCloudWords()));
         }
 
-        private final Map<String, Integer> wordCountMap = new HashMap<>();
-
-        private static void addWord(final Map<String, Integer> wordCountMap, final String word) {
-            if (wordCountMap.containsKey(word)) {
-                wordCountMap.put(word, wordCountMap.get(word) + 1);
-            } else {
-                wordCountMap.put(word, 1);
-            }
+        private void addWords(final List<Map.Entry<String, Integer>> wordCounts) {
+            wordCounts.forEach(wordCount -> weightedWordList.add(new WeightedWord(wordCount.getKey(), wordCount.getValue())));
         }
 
     }
@@ -27,13 +27,12 @@ import java.util.logging.Logger;
  */
 
 /**
- * Instantiated objects of this class sit on their thread, polling the
- * ThumbnailCreationQueue for new thumbnail creation requests. If a new
- * request is found it is pulled off the queue and the daemon goes to work
- * creating the thumbnail image. Using notification the GUI can then
- * learn about a created Thumbnail and can redraw the picture.
- * {@link ThumbnailCreationQueue} for new {@link ThumbnailQueueRequest} and
- * process them.
+ * Instantiated objects of this class sit on their thread, waiting on the
+ * {@link ThumbnailCreationQueue} for new {@link ThumbnailQueueRequest}s. When a
+ * request arrives the daemon goes to work creating the thumbnail image. Using
+ * notification the GUI can then learn about a created Thumbnail and can redraw
+ * the picture. If the request is canceled while the image is being decoded, the
+ * decode is aborted.
  */
 public class ThumbnailCreationDaemon implements Runnable {
 
@@ -85,46 +84,38 @@ public class ThumbnailCreationDaemon implements Runnable {
     /**
      * Flag to indicate that the thread should die.
      */
-    private boolean endThread;  // default is false
+    private volatile boolean endThread;  // default is false
 
     /**
-     * The polling interval in milliseconds
-     */
-    protected final int pollingInterval;
-
-    /**
-     * Constructor that creates the thread. It creates the thread with a
-     * Thread.MIN_PRIORITY priority to ensure good overall response.
-     *
-     * @param pollingInterval The polling interval in milliseconds
-     */
-    public ThumbnailCreationDaemon(final int pollingInterval) {
-        this.pollingInterval = pollingInterval;
-    }
-
-    /**
-     * The run method for the thread that keeps checking whether there are any
+     * The run method for the thread that waits for
      * {@link ThumbnailQueueRequest} objects on the queue to be rendered.
+     * An exception while processing one request doesn't end the thread.
      */
     @Override
     public void run() {
         while ( !endThread ) {
-            final var request = ThumbnailCreationQueue.QUEUE.poll();
-            if ( request == null ) {
-                try {
-                    Thread.sleep(pollingInterval);
-                } catch (final InterruptedException _) {
-                    // Restore interrupted state
-                    Thread.currentThread().interrupt();
-                }
-            } else {
-                processQueueRequest( request );
+            final ThumbnailQueueRequest request;
+            try {
+                request = ThumbnailCreationQueue.take();
+            } catch (final InterruptedException _) {
+                // Restore interrupted state
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final var start = System.nanoTime();
+            try {
+                DecodeCancellation.runCancellable(request::isCanceled, () -> processQueueRequest(request));
+            } catch (final RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Failed to create the thumbnail for {0}: {1}", new Object[]{request.getNode(), e.getMessage()});
+            } finally {
+                ThumbnailCreationQueue.requestProcessed(request, System.nanoTime() - start);
             }
         }
     }
 
     /**
-     * A requester can ask for the thread to be shut down.
+     * A requester can ask for the thread to be shut down. The thread ends
+     * after the current request or when it is interrupted while waiting.
      */
     public void endThread() {
         endThread = true;
@@ -172,16 +163,17 @@ public class ThumbnailCreationDaemon implements Runnable {
 
     private static void processPictureInfoRequest(final ThumbnailQueueRequest request, final PictureInfo pictureInfo) {
         final File imageFile = pictureInfo.getImageFile();
-        if (! imageFile.exists() || ! imageFile.canRead() ) {
-            request.setIcon(BROKEN_THUMBNAIL_PICTURE);
-        } else if (MimeTypes.isAMovie(imageFile)) {
+        // a file which doesn't exist or can't be read has no reader and gets the broken icon
+        final var fileType = FileTypeProbe.probe(imageFile);
+        if (fileType.mediaKind() == FileTypeProbe.MediaKind.MOVIE) {
             request.setIcon(MOVIE_ICON);
-        } else if (MimeTypes.isADocument(imageFile)) {
+        } else if (fileType.mediaKind() == FileTypeProbe.MediaKind.DOCUMENT) {
             request.setIcon(DOCUMENT_ICON);
-        } else if (!JpoImageIO.jvmHasReader(imageFile)) {
+        } else if (!fileType.hasImageReader()) {
             request.setIcon(BROKEN_THUMBNAIL_PICTURE);
         } else {
-            final var imageBytes = JpoCache.getThumbnailImageBytes(imageFile,
+            final var imageBytes = JpoCache.getThumbnailImageBytes(pictureInfo.getSha256(),
+                    imageFile,
                     pictureInfo.getRotation(),
                     request.getSize());
             if (imageBytes == null) {
@@ -1,7 +1,7 @@
 package org.jpo.gui;
 
 /*
- Copyright (C) 2023-2025 Richard Eigenmann.
+ Copyright (C) 2023-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -18,19 +18,27 @@ package org.jpo.gui;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A singleton to create, track and monitor the ThumbnailCreationDaemon thread
- * objects.
+ * objects. The daemons block on the {@link ThumbnailCreationQueue} and survive
+ * failing requests, so they don't need to be watched and respawned.
  */
 public class ThumbnailCreationExecutor {
 
+    /**
+     * Defines a logger for this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ThumbnailCreationExecutor.class.getName());
+
     private static ThumbnailCreationExecutor thumbnailCreationExecutor;
 
     private ThumbnailCreationExecutor() {
     }
 
-    public static ThumbnailCreationExecutor getInstance() {
+    public static synchronized ThumbnailCreationExecutor getInstance() {
 
         // create object if it's not already created
         if (thumbnailCreationExecutor == null) {
@@ -46,15 +54,27 @@ public class ThumbnailCreationExecutor {
      */
     private final Collection<Thread> startedDaemonThreads = new ArrayList<>();
 
-    public void spawnThumbnailCreationDaemon() {
-        final var newDaemon = new ThumbnailCreationDaemon(Settings.THUMBNAIL_CREATION_THREAD_POLLING_TIME);
-        final var thread = new Thread(newDaemon, "ThumbnailCreationDaemon");
+    /**
+     * Spawns daemons until {@link Settings#getDefaultThumbnailCreationThreads()} of them are alive.
+     */
+    public synchronized void start() {
+        final var missingDaemons = Settings.getDefaultThumbnailCreationThreads() - getLiveDaemonsCount();
+        LOGGER.log(Level.INFO, "Starting {0} thumbnail creation daemons", missingDaemons);
+        for (var i = missingDaemons; i > 0; i--) {
+            spawnThumbnailCreationDaemon();
+        }
+    }
+
+    public synchronized void spawnThumbnailCreationDaemon() {
+        final var newDaemon = new ThumbnailCreationDaemon();
+        final var thread = new Thread(newDaemon, "ThumbnailCreationDaemon-" + (startedDaemonThreads.size() + 1));
         startedDaemonThreads.add(thread);
         thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setDaemon(true);
         thread.start();
     }
 
-    public int getLiveDaemonsCount() {
+    public synchronized int getLiveDaemonsCount() {
         return (int) startedDaemonThreads.stream().filter(Thread::isAlive).count();
     }
 
@@ -2,13 +2,18 @@ package org.jpo.gui;
 
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
 /*
- Copyright (C) 2003-2025 Richard Eigenmann.
+ Copyright (C) 2003-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -24,7 +29,12 @@ import java.util.logging.Logger;
  */
 /**
  * Queue that holds requests to create Thumbnails from Images.
- *
+ * <p>
+ * The pending requests are indexed by their {@link ThumbnailQueueRequestCallbackHandler} so that finding, replacing
+ * and removing a request doesn't scan the queue. The priority queue itself holds immutable entries which are
+ * ordered by priority and then by the order in which they were queued. Raising the priority of a request queues a
+ * new entry and leaves the old one behind; entries which no longer match a pending request are skipped when they
+ * come up. The {@link ThumbnailCreationDaemon} threads block on {@link #take()} so there is no polling.
  */
 public class ThumbnailCreationQueue {
 
@@ -36,37 +46,170 @@ public class ThumbnailCreationQueue {
     private static final Logger LOGGER = Logger.getLogger(ThumbnailCreationQueue.class.getName());
 
     /**
-     * Implemented using a PriorityBlockingQueue
+     * A position on the queue. Requests with the same priority are served in the order they were queued.
+     *
+     * @param request     the request
+     * @param priority    the priority of the request when it was queued
+     * @param sequence    the order in which the entries were queued
+     * @param queuedNanos when the entry was queued
+     */
+    private record QueueEntry(ThumbnailQueueRequest request, QUEUE_PRIORITY priority, long sequence, long queuedNanos)
+            implements Comparable<QueueEntry> {
+        @Override
+        public int compareTo(final QueueEntry other) {
+            final var byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * The entries in the order they are to be processed. May contain stale entries.
      */
-    protected static final PriorityBlockingQueue<ThumbnailQueueRequest> QUEUE = new PriorityBlockingQueue<>();
+    private static final PriorityBlockingQueue<QueueEntry> QUEUE = new PriorityBlockingQueue<>();
 
     /**
-     * This method creates a {@link ThumbnailQueueRequest} and sticks it on the
-     * {@link ThumbnailCreationQueue} if Thumbnail is not already on the queue.
-     * Otherwise, the queue priority of the existing request is increased if the
-     * request comes in with a higher priority. If the new request forces a
-     * rebuild of the image this is also updated in the request.
+     * The requests waiting to be processed by their callback handler. Guarded by itself.
+     */
+    private static final Map<ThumbnailQueueRequestCallbackHandler, ThumbnailQueueRequest> PENDING = new HashMap<>();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+    private static final AtomicLong CLAIMED = new AtomicLong();
+    private static final AtomicLong COMPLETED = new AtomicLong();
+    private static final AtomicLong CANCELED = new AtomicLong();
+    private static final AtomicLong TOTAL_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong TOTAL_CREATION_NANOS = new AtomicLong();
+
+    /**
+     * This method sticks the {@link ThumbnailQueueRequest} on the queue if
+     * there isn't already a request for the same callback handler.
+     * If the existing request is for the same node and size its
+     * priority is increased if the new request comes in with a higher
+     * priority. Otherwise, the existing request is canceled and replaced.
      *
      * @param newThumbnailQueueRequest the request to put on the queue
-     * @return true if the request was added to the queue, false if the request
-     * already existed.
+     * @return the request which is now on the queue. This is the existing request
+     * if it was reused.
      */
     public static ThumbnailQueueRequest requestThumbnailCreation(final ThumbnailQueueRequest newThumbnailQueueRequest) {
+        synchronized (PENDING) {
+            final var requestFoundOnQueue = PENDING.get(newThumbnailQueueRequest.callbackHandler);
+            if (requestFoundOnQueue == null) {
+                enqueue(newThumbnailQueueRequest);
+                return newThumbnailQueueRequest;
+            } else if ((requestFoundOnQueue.getNode() != newThumbnailQueueRequest.node)
+                    || (!requestFoundOnQueue.getSize().equals(newThumbnailQueueRequest.size))) {
+                requestFoundOnQueue.cancel();
+                countCancellation(requestFoundOnQueue);
+                enqueue(newThumbnailQueueRequest);
+                return newThumbnailQueueRequest;
+            } else {
+                final var oldPriority = requestFoundOnQueue.priority;
+                requestFoundOnQueue.increasePriorityTo(newThumbnailQueueRequest.priority);
+                if (requestFoundOnQueue.priority != oldPriority) {
+                    QUEUE.add(new QueueEntry(requestFoundOnQueue, requestFoundOnQueue.priority, SEQUENCE.incrementAndGet(), System.nanoTime()));
+                }
+                return requestFoundOnQueue;
+            }
+        }
+    }
+
+    private static void enqueue(final ThumbnailQueueRequest request) {
+        PENDING.put(request.callbackHandler, request);
+        SUBMITTED.incrementAndGet();
+        QUEUE.add(new QueueEntry(request, request.priority, SEQUENCE.incrementAndGet(), System.nanoTime()));
+    }
+
+    /**
+     * Returns the next request to process, waiting until there is one.
+     *
+     * @return the request with the highest priority which has waited longest
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public static ThumbnailQueueRequest take() throws InterruptedException {
+        while (true) {
+            final var request = claim(QUEUE.take());
+            if (request != null) {
+                return request;
+            }
+        }
+    }
+
+    /**
+     * Returns the next request to process or null if there is none.
+     *
+     * @return the request with the highest priority which has waited longest or null
+     */
+    public static ThumbnailQueueRequest poll() {
+        QueueEntry entry;
+        while ((entry = QUEUE.poll()) != null) {
+            final var request = claim(entry);
+            if (request != null) {
+                return request;
+            }
+        }
+        return null;
+    }
 
-        final var requestFoundOnQueue = findThumbnailQueueRequest(newThumbnailQueueRequest.callbackHandler);
-        if (requestFoundOnQueue == null) {
-            QUEUE.add(newThumbnailQueueRequest);
-            return newThumbnailQueueRequest;
-        } else if ((requestFoundOnQueue.getThumbnailQueueRequestCallbackHandler() != newThumbnailQueueRequest.callbackHandler)
-                || (requestFoundOnQueue.getNode() != newThumbnailQueueRequest.node)
-                || (requestFoundOnQueue.getSize() != newThumbnailQueueRequest.size)) {
-            requestFoundOnQueue.cancel();
-            removeFromQueue(requestFoundOnQueue);
-            QUEUE.add(newThumbnailQueueRequest);
-            return newThumbnailQueueRequest;
+    /**
+     * Takes the request of the entry off the pending requests if the entry is still current. A pending request
+     * which was canceled without being removed from the queue is removed now.
+     *
+     * @param entry the entry taken off the queue
+     * @return the request or null if the entry was stale
+     */
+    private static ThumbnailQueueRequest claim(final QueueEntry entry) {
+        synchronized (PENDING) {
+            final var request = entry.request();
+            if (PENDING.get(request.callbackHandler) != request) {
+                return null;
+            }
+            if (request.isCanceled()) {
+                PENDING.remove(request.callbackHandler);
+                countCancellation(request);
+                return null;
+            }
+            if (request.priority != entry.priority()) {
+                return null;
+            }
+            PENDING.remove(request.callbackHandler);
+        }
+        final var waitNanos = System.nanoTime() - entry.queuedNanos();
+        CLAIMED.incrementAndGet();
+        TOTAL_WAIT_NANOS.addAndGet(waitNanos);
+        MAX_WAIT_NANOS.accumulateAndGet(waitNanos, Math::max);
+        IN_FLIGHT.incrementAndGet();
+        return entry.request();
+    }
+
+    /**
+     * Records that a request which was handed out by {@link #take()} has been processed.
+     *
+     * @param request       the request
+     * @param creationNanos how long it took to create the thumbnail
+     */
+    public static void requestProcessed(final ThumbnailQueueRequest request, final long creationNanos) {
+        IN_FLIGHT.decrementAndGet();
+        if (request.isCanceled()) {
+            countCancellation(request);
         } else {
-            requestFoundOnQueue.increasePriorityTo(newThumbnailQueueRequest.priority);
-            return requestFoundOnQueue;
+            COMPLETED.incrementAndGet();
+            TOTAL_CREATION_NANOS.addAndGet(creationNanos);
+        }
+    }
+
+    /**
+     * Counts the cancellation of the request unless it was counted already. A request can be canceled on more
+     * than one of these paths, for instance removed from the queue by its controller after a daemon skipped it.
+     *
+     * @param request the canceled request
+     */
+    private static void countCancellation(final ThumbnailQueueRequest request) {
+        if (request.markCancellationCounted()) {
+            CANCELED.incrementAndGet();
         }
     }
 
@@ -75,7 +218,10 @@ public class ThumbnailCreationQueue {
      */
     @TestOnly
     public static void clear() {
-        QUEUE.clear();
+        synchronized (PENDING) {
+            PENDING.clear();
+            QUEUE.clear();
+        }
     }
 
     /**
@@ -84,18 +230,26 @@ public class ThumbnailCreationQueue {
      * @return The number of requests on the queue.
      */
     public static int size() {
-        return QUEUE.size();
+        synchronized (PENDING) {
+            return PENDING.size();
+        }
     }
 
     /**
      * removes the request for a specific ThumbnailController from the queue
-     * if it was on the queue in the first place.
+     * if it was on the queue in the first place. Its entry is skipped when it
+     * comes up on the queue.
      *
      * @param requestToRemove The request to remove
      */
     public static void removeFromQueue(final ThumbnailQueueRequest requestToRemove) {
-        var success = QUEUE.remove(requestToRemove);
-        if (!success) {
+        final boolean success;
+        synchronized (PENDING) {
+            success = PENDING.remove(requestToRemove.callbackHandler, requestToRemove);
+        }
+        if (success) {
+            countCancellation(requestToRemove);
+        } else {
             LOGGER.log(Level.FINE, "Could not remove request from queue: {0} (Which may be OK)", requestToRemove);
         }
     }
@@ -111,11 +265,27 @@ public class ThumbnailCreationQueue {
     @TestOnly
     protected static ThumbnailQueueRequest findThumbnailQueueRequest(
             final ThumbnailQueueRequestCallbackHandler callbackHandler ) {
-        for (final var thumbnailQueueRequest : QUEUE) {
-            if ((thumbnailQueueRequest.getThumbnailQueueRequestCallbackHandler().equals(callbackHandler))) {
-                return thumbnailQueueRequest;
-            }
+        synchronized (PENDING) {
+            return PENDING.get(callbackHandler);
         }
-        return null;
+    }
+
+    /**
+     * Returns a snapshot of the queue statistics
+     *
+     * @return the statistics
+     */
+    public static ThumbnailCreationStatistics getStatistics() {
+        final var completed = COMPLETED.get();
+        final var claimed = CLAIMED.get();
+        return new ThumbnailCreationStatistics(
+                size(),
+                IN_FLIGHT.get(),
+                SUBMITTED.get(),
+                completed,
+                CANCELED.get(),
+                claimed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(TOTAL_WAIT_NANOS.get() / claimed),
+                TimeUnit.NANOSECONDS.toMillis(MAX_WAIT_NANOS.get()),
+                completed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(TOTAL_CREATION_NANOS.get() / completed));
     }
 }
@@ -0,0 +1,45 @@
+package org.jpo.gui;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+/**
+ * A snapshot of the work of the {@link ThumbnailCreationQueue}
+ *
+ * @param queueDepth            the number of requests waiting
+ * @param inFlight              the number of requests being processed
+ * @param submitted             the number of requests queued since the start
+ * @param completed             the number of thumbnails delivered
+ * @param canceled              the number of requests which were canceled or replaced
+ * @param averageWaitMillis     the average time a request waited on the queue
+ * @param maxWaitMillis         the longest time a request waited on the queue
+ * @param averageCreationMillis the average time it took to create a thumbnail
+ */
+public record ThumbnailCreationStatistics(int queueDepth,
+                                          int inFlight,
+                                          long submitted,
+                                          long completed,
+                                          long canceled,
+                                          long averageWaitMillis,
+                                          long maxWaitMillis,
+                                          long averageCreationMillis) {
+
+    @Override
+    public String toString() {
+        return String.format("Queue: %d waiting, %d in flight; %d submitted, %d completed, %d canceled; wait avg %d ms max %d ms; creation avg %d ms",
+                queueDepth, inFlight, submitted, completed, canceled, averageWaitMillis, maxWaitMillis, averageCreationMillis);
+    }
+}
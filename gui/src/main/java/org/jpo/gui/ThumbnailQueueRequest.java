@@ -4,9 +4,10 @@ import org.jpo.datamodel.SortableDefaultMutableTreeNode;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
- Copyright (C) 2002-2025 Richard Eigenmann.
+ Copyright (C) 2002-2026 Richard Eigenmann.
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -213,6 +214,20 @@ public class ThumbnailQueueRequest implements Comparable<ThumbnailQueueRequest>
         }
     }
 
+    /**
+     * Set once the {@link ThumbnailCreationQueue} has counted the cancellation of this request
+     */
+    private final AtomicBoolean cancellationCounted = new AtomicBoolean(false);
+
+    /**
+     * Marks the cancellation of this request as counted
+     *
+     * @return true the first time, false if it was counted before
+     */
+    boolean markCancellationCounted() {
+        return cancellationCounted.compareAndSet(false, true);
+    }
+
 
 
 }
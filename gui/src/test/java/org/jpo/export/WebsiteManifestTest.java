@@ -0,0 +1,164 @@
+package org.jpo.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class WebsiteManifestTest {
+
+    private static File writeFile(final Path directory, final String name) throws IOException {
+        final var file = directory.resolve(name).toFile();
+        Files.writeString(file.toPath(), name);
+        return file;
+    }
+
+    @Test
+    void testNothingIsUpToDateWithoutManifest(@TempDir Path tempDir) throws IOException {
+        final var file = writeFile(tempDir, "jpo_00001_l.jpg");
+        final var manifest = WebsiteManifest.load(tempDir.toFile());
+        assertFalse(manifest.isUpToDate(file, WebsiteManifest.fingerprint("abc", 0)));
+        manifest.record(file, WebsiteManifest.fingerprint("abc", 0), new Dimension(300, 200));
+        assertTrue(manifest.isChanged(file));
+    }
+
+    @Test
+    void testRoundTrip(@TempDir Path tempDir) throws IOException {
+        final var file = writeFile(tempDir, "jpo_00001_l.jpg");
+        final var fingerprint = WebsiteManifest.fingerprint("abc", 90.0, new Dimension(300, 200));
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        firstRun.record(file, fingerprint, new Dimension(300, 200));
+        firstRun.save(true);
+
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        final var entry = secondRun.getUpToDateEntry(file, fingerprint);
+        assertNotNull(entry);
+        assertEquals(new Dimension(300, 200), entry.getDimension());
+        assertFalse(secondRun.isUpToDate(file, WebsiteManifest.fingerprint("abc", 0.0, new Dimension(300, 200))));
+        secondRun.record(file, fingerprint, entry.getDimension());
+        assertFalse(secondRun.isChanged(file));
+
+        Files.delete(file.toPath());
+        assertFalse(secondRun.isUpToDate(file, fingerprint));
+    }
+
+    @Test
+    void testUnknownIsNeverUpToDate(@TempDir Path tempDir) throws IOException {
+        final var file = writeFile(tempDir, "index.htm");
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        firstRun.record(file, WebsiteManifest.UNKNOWN, null);
+        firstRun.save(true);
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        assertFalse(secondRun.isUpToDate(file, WebsiteManifest.UNKNOWN));
+    }
+
+    @Test
+    void testDeleteOrphans(@TempDir Path tempDir) throws IOException {
+        final var kept = writeFile(tempDir, "jpo_00001_l.jpg");
+        final var orphan = writeFile(tempDir, "jpo_00002_l.jpg");
+        final var unrelated = writeFile(tempDir, "notes.txt");
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        firstRun.record(kept, "a", null);
+        firstRun.record(orphan, "b", null);
+        firstRun.save(true);
+
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        secondRun.record(kept, "a", null);
+        assertEquals(List.of(orphan.getName()), secondRun.deleteOrphans());
+        assertTrue(kept.exists());
+        assertFalse(orphan.exists());
+        assertTrue(unrelated.exists());
+    }
+
+    @Test
+    void testInterruptedRunKeepsPreviousEntries(@TempDir Path tempDir) throws IOException {
+        final var first = writeFile(tempDir, "jpo_00001_l.jpg");
+        final var second = writeFile(tempDir, "jpo_00002_l.jpg");
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        firstRun.record(first, "a", null);
+        firstRun.record(second, "b", null);
+        firstRun.save(true);
+
+        final var interruptedRun = WebsiteManifest.load(tempDir.toFile());
+        interruptedRun.record(first, "c", null);
+        interruptedRun.save(false);
+
+        final var thirdRun = WebsiteManifest.load(tempDir.toFile());
+        assertTrue(thirdRun.isUpToDate(first, "c"));
+        assertTrue(thirdRun.isUpToDate(second, "b"));
+    }
+
+    @Test
+    void testOnlyConfirmedUploadsAreRemembered(@TempDir Path tempDir) throws IOException {
+        final var uploaded = writeFile(tempDir, "jpo_00001_l.jpg");
+        final var failed = writeFile(tempDir, "jpo_00002_l.jpg");
+        final var destination = "ssh://user@server:22/www";
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        firstRun.record(uploaded, "a", null);
+        firstRun.record(failed, "b", null);
+        assertFalse(firstRun.isUploaded(uploaded, destination));
+        firstRun.recordUpload(uploaded, destination);
+        firstRun.save(true);
+
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        secondRun.record(uploaded, "a", null);
+        secondRun.record(failed, "b", null);
+        assertFalse(secondRun.isChanged(failed));
+        assertTrue(secondRun.isUploaded(uploaded, destination));
+        assertFalse(secondRun.isUploaded(failed, destination));
+        assertFalse(secondRun.isUploaded(uploaded, "ftp://user@other:21/www"));
+
+        secondRun.record(uploaded, "c", null);
+        assertFalse(secondRun.isUploaded(uploaded, destination));
+    }
+
+    @Test
+    void testKeptOrphanIsDeletedAgain(@TempDir Path tempDir) throws IOException {
+        final var kept = writeFile(tempDir, "jpo_00001_l.jpg");
+        final var orphan = writeFile(tempDir, "jpo_00002_l.jpg");
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        firstRun.record(kept, "a", null);
+        firstRun.record(orphan, "b", null);
+        firstRun.save(true);
+
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        secondRun.record(kept, "a", null);
+        assertEquals(List.of(orphan.getName()), secondRun.deleteOrphans());
+        secondRun.keepOrphan(orphan.getName());
+        secondRun.save(true);
+
+        final var thirdRun = WebsiteManifest.load(tempDir.toFile());
+        thirdRun.record(kept, "a", null);
+        assertEquals(List.of(orphan.getName()), thirdRun.deleteOrphans());
+    }
+
+    @Test
+    void testFingerprintContents(@TempDir Path tempDir) throws IOException {
+        final var file = writeFile(tempDir, "jpo.css");
+        assertEquals(64, WebsiteManifest.fingerprintContents(file).length());
+        assertEquals(WebsiteManifest.UNKNOWN, WebsiteManifest.fingerprintContents(tempDir.resolve("missing.css").toFile()));
+    }
+}
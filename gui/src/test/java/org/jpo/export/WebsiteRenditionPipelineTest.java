@@ -0,0 +1,149 @@
+package org.jpo.export;
+
+import org.jpo.datamodel.PictureInfo;
+import org.jpo.datamodel.SortableDefaultMutableTreeNode;
+import org.jpo.datamodel.Tools;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ Copyright (C) 2026 Richard Eigenmann.
+ This program is free software; you can redistribute it and/or
+ modify it under the terms of the GNU General Public License
+ as published by the Free Software Foundation; either version 2
+ of the License, or any later version. This program is distributed
+ in the hope that it will be useful, but WITHOUT ANY WARRANTY.
+ Without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details. You should have received a copy of the GNU General Public License
+ along with this program; if not, write to the Free Software
+ Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ The license is in gpl.txt.
+ See http://www.gnu.org/copyleft/gpl.html for the details.
+ */
+
+class WebsiteRenditionPipelineTest {
+
+    private static List<SortableDefaultMutableTreeNode> createPictureNodes(final int count) throws IOException {
+        final var nodes = new ArrayList<SortableDefaultMutableTreeNode>();
+        for (var i = 0; i < count; i++) {
+            final var imageFile = Tools.copyResourceToTempFile("/exif-test-samsung-s4.jpg");
+            nodes.add(new SortableDefaultMutableTreeNode(new PictureInfo(imageFile, "Picture " + i)));
+        }
+        return nodes;
+    }
+
+    private static WebsiteRenditionPipeline.Targets targets(final File directory, final SortableDefaultMutableTreeNode node) {
+        final var name = ((PictureInfo) node.getUserObject()).getDescription().replace(' ', '_');
+        return new WebsiteRenditionPipeline.Targets(new File(directory, name + "_l.jpg"),
+                new File(directory, name + "_m.jpg"),
+                new File(directory, name + "_h.jpg"));
+    }
+
+    @Test
+    void testRenditions(@TempDir Path tempDir) throws IOException, ExecutionException, InterruptedException {
+        final var request = new GenerateWebsiteRequestDefaultOptions();
+        request.setThumbnailWidth(300);
+        request.setThumbnailHeight(200);
+        request.setMidresWidth(700);
+        request.setMidresHeight(600);
+        request.setExportHighres(true);
+        final var nodes = createPictureNodes(5);
+        try (final var pipeline = new WebsiteRenditionPipeline(request, WebsiteManifest.load(tempDir.toFile()), nodes,
+                node -> targets(tempDir.toFile(), node), () -> false, 2)) {
+            for (final var node : nodes) {
+                final var renditions = pipeline.take(node);
+                final var files = targets(tempDir.toFile(), node);
+                assertEquals(List.of(files.lowres(), files.midres(), files.highres()), renditions.files());
+                assertThat(renditions.lowresDimension().width).isLessThanOrEqualTo(300);
+                assertThat(renditions.lowresDimension().height).isLessThanOrEqualTo(200);
+                assertThat(renditions.midresDimension().width).isLessThanOrEqualTo(700);
+                assertThat(renditions.midresDimension().height).isLessThanOrEqualTo(600);
+                final var lowres = ImageIO.read(files.lowres());
+                assertEquals(renditions.lowresDimension().width, lowres.getWidth());
+                assertEquals(renditions.lowresDimension().height, lowres.getHeight());
+                final var midres = ImageIO.read(files.midres());
+                assertEquals(renditions.midresDimension().width, midres.getWidth());
+                assertEquals(renditions.midresDimension().height, midres.getHeight());
+                assertEquals(((PictureInfo) node.getUserObject()).getImageFile().length(), files.highres().length());
+            }
+        }
+    }
+
+    @Test
+    void testUpToDateFilesAreNotWritten(@TempDir Path tempDir) throws IOException, ExecutionException, InterruptedException {
+        final var request = new GenerateWebsiteRequestDefaultOptions();
+        final var nodes = createPictureNodes(2);
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        final var firstRenditions = new ArrayList<WebsiteRenditionPipeline.Renditions>();
+        try (final var pipeline = new WebsiteRenditionPipeline(request, firstRun, nodes,
+                node -> targets(tempDir.toFile(), node), () -> false, 2)) {
+            for (final var node : nodes) {
+                firstRenditions.add(pipeline.take(node));
+            }
+        }
+        firstRun.save(true);
+        final var lowresFile = targets(tempDir.toFile(), nodes.getFirst()).lowres();
+        assertTrue(lowresFile.setLastModified(1_000_000L));
+
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        try (final var pipeline = new WebsiteRenditionPipeline(request, secondRun, nodes,
+                node -> targets(tempDir.toFile(), node), () -> false, 2)) {
+            for (var i = 0; i < nodes.size(); i++) {
+                final var renditions = pipeline.take(nodes.get(i));
+                assertEquals(firstRenditions.get(i).lowresDimension(), renditions.lowresDimension());
+                assertEquals(firstRenditions.get(i).midresDimension(), renditions.midresDimension());
+            }
+        }
+        assertEquals(1_000_000L, lowresFile.lastModified());
+        assertFalse(secondRun.isChanged(lowresFile));
+    }
+
+    @Test
+    void testStoredSha256IsUsed(@TempDir Path tempDir) throws IOException, ExecutionException, InterruptedException {
+        final var request = new GenerateWebsiteRequestDefaultOptions();
+        final var nodes = createPictureNodes(1);
+        final var pictureInfo = (PictureInfo) nodes.getFirst().getUserObject();
+        pictureInfo.setSha256("A".repeat(64));
+        final var firstRun = WebsiteManifest.load(tempDir.toFile());
+        try (final var pipeline = new WebsiteRenditionPipeline(request, firstRun, nodes,
+                node -> targets(tempDir.toFile(), node), () -> false, 2)) {
+            pipeline.take(nodes.getFirst());
+        }
+        firstRun.save(true);
+
+        // without the original the pipeline could neither hash nor render it
+        Files.delete(pictureInfo.getImageFile().toPath());
+        final var secondRun = WebsiteManifest.load(tempDir.toFile());
+        try (final var pipeline = new WebsiteRenditionPipeline(request, secondRun, nodes,
+                node -> targets(tempDir.toFile(), node), () -> false, 2)) {
+            pipeline.take(nodes.getFirst());
+        }
+        assertFalse(secondRun.isChanged(targets(tempDir.toFile(), nodes.getFirst()).midres()));
+    }
+
+    @Test
+    void testInterrupted(@TempDir Path tempDir) throws IOException {
+        final var request = new GenerateWebsiteRequestDefaultOptions();
+        final var nodes = createPictureNodes(2);
+        try (final var pipeline = new WebsiteRenditionPipeline(request, WebsiteManifest.load(tempDir.toFile()), nodes,
+                node -> targets(tempDir.toFile(), node), () -> true, 2)) {
+            for (final var node : nodes) {
+                assertThrows(CancellationException.class, () -> pipeline.take(node));
+            }
+        }
+    }
+}
@@ -37,7 +37,7 @@ class ThumbnailCreationDaemonTest {
         assumeFalse(GraphicsEnvironment.isHeadless());
         try {
             SwingUtilities.invokeAndWait(() -> {
-                final var tcf = new ThumbnailCreationDaemon(500);
+                final var tcf = new ThumbnailCreationDaemon();
                 assertNotNull(tcf);
                 tcf.endThread();
             });
@@ -10,7 +10,7 @@ import java.util.Objects;
 import static org.junit.jupiter.api.Assertions.*;
 
 /*
- Copyright (C) 2025 Richard Eigenmann, Zurich, Switzerland
+ Copyright (C) 2025-2026 Richard Eigenmann, Zurich, Switzerland
  This program is free software; you can redistribute it and/or
  modify it under the terms of the GNU General Public License
  as published by the Free Software Foundation; either version 2
@@ -91,8 +91,8 @@ class ThumbnailCreationQueueTest {
         ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(mtqrch1, node1, QUEUE_PRIORITY.LOW_PRIORITY, new Dimension(350, 350)));
         ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(mtqrch2, node2, QUEUE_PRIORITY.MEDIUM_PRIORITY, new Dimension(350, 350)));
         assertEquals(2, ThumbnailCreationQueue.size());
-        ThumbnailQueueRequest pollResult1 = ThumbnailCreationQueue.QUEUE.poll();
-        ThumbnailQueueRequest pollResult2 = ThumbnailCreationQueue.QUEUE.poll();
+        ThumbnailQueueRequest pollResult1 = ThumbnailCreationQueue.poll();
+        ThumbnailQueueRequest pollResult2 = ThumbnailCreationQueue.poll();
         // The higher priority request should come first
         assertEquals(mtqrch2, Objects.requireNonNull(pollResult1).getThumbnailQueueRequestCallbackHandler());
         // The lower priority request should come second
@@ -160,6 +160,116 @@ class ThumbnailCreationQueueTest {
         ThumbnailCreationQueue.clear();
     }
 
+    /**
+     * Tests that requests with the same priority come back in the order they were queued
+     */
+    @Test
+    void pollFifoWithinPriorityTest() {
+        assertEquals(0, ThumbnailCreationQueue.size());
+        final var handlers = new ArrayList<MyThumbnailQueueRequestCallbackHandler>();
+        for (var i = 0; i < 5; i++) {
+            final var handler = new MyThumbnailQueueRequestCallbackHandler();
+            handlers.add(handler);
+            ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(handler, new SortableDefaultMutableTreeNode(), QUEUE_PRIORITY.MEDIUM_PRIORITY, new Dimension(350, 350)));
+        }
+        for (final var handler : handlers) {
+            assertEquals(handler, Objects.requireNonNull(ThumbnailCreationQueue.poll()).getThumbnailQueueRequestCallbackHandler());
+        }
+        assertNull(ThumbnailCreationQueue.poll());
+        ThumbnailCreationQueue.clear();
+    }
+
+    /**
+     * Tests that raising the priority of a queued request moves it ahead and
+     * that it is only handed out once.
+     */
+    @Test
+    void pollAfterPriorityIncreaseTest() {
+        assertEquals(0, ThumbnailCreationQueue.size());
+        final var mtqrch1 = new MyThumbnailQueueRequestCallbackHandler();
+        final var mtqrch2 = new MyThumbnailQueueRequestCallbackHandler();
+        final var node1 = new SortableDefaultMutableTreeNode();
+        final var node2 = new SortableDefaultMutableTreeNode();
+        ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(mtqrch1, node1, QUEUE_PRIORITY.MEDIUM_PRIORITY, new Dimension(350, 350)));
+        ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(mtqrch2, node2, QUEUE_PRIORITY.LOW_PRIORITY, new Dimension(350, 350)));
+        ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(mtqrch2, node2, QUEUE_PRIORITY.HIGH_PRIORITY, new Dimension(350, 350)));
+        assertEquals(2, ThumbnailCreationQueue.size());
+        assertEquals(mtqrch2, Objects.requireNonNull(ThumbnailCreationQueue.poll()).getThumbnailQueueRequestCallbackHandler());
+        assertEquals(mtqrch1, Objects.requireNonNull(ThumbnailCreationQueue.poll()).getThumbnailQueueRequestCallbackHandler());
+        assertNull(ThumbnailCreationQueue.poll());
+        ThumbnailCreationQueue.clear();
+    }
+
+    /**
+     * Tests that a removed request is not handed out
+     */
+    @Test
+    void pollSkipsRemovedRequestTest() {
+        assertEquals(0, ThumbnailCreationQueue.size());
+        final var myThumbnailQueueRequestCallbackHandler = new MyThumbnailQueueRequestCallbackHandler();
+        final var request = ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(myThumbnailQueueRequestCallbackHandler, new SortableDefaultMutableTreeNode(), QUEUE_PRIORITY.HIGH_PRIORITY, new Dimension(350, 350)));
+        request.cancel();
+        ThumbnailCreationQueue.removeFromQueue(request);
+        assertEquals(0, ThumbnailCreationQueue.size());
+        assertNull(ThumbnailCreationQueue.poll());
+        ThumbnailCreationQueue.clear();
+    }
+
+    @Test
+    void statisticsTest() {
+        assertEquals(0, ThumbnailCreationQueue.size());
+        final var before = ThumbnailCreationQueue.getStatistics();
+        final var myThumbnailQueueRequestCallbackHandler = new MyThumbnailQueueRequestCallbackHandler();
+        ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(myThumbnailQueueRequestCallbackHandler, new SortableDefaultMutableTreeNode(), QUEUE_PRIORITY.HIGH_PRIORITY, new Dimension(350, 350)));
+        assertEquals(1, ThumbnailCreationQueue.getStatistics().queueDepth());
+        final var request = ThumbnailCreationQueue.poll();
+        assertNotNull(request);
+        assertEquals(before.inFlight() + 1, ThumbnailCreationQueue.getStatistics().inFlight());
+        ThumbnailCreationQueue.requestProcessed(request, 1_000_000);
+        final var after = ThumbnailCreationQueue.getStatistics();
+        assertEquals(0, after.queueDepth());
+        assertEquals(before.inFlight(), after.inFlight());
+        assertEquals(before.submitted() + 1, after.submitted());
+        assertEquals(before.completed() + 1, after.completed());
+        ThumbnailCreationQueue.clear();
+    }
+
+    /**
+     * Each canceled request must be counted once, whichever paths it takes off the queue
+     */
+    @Test
+    void statisticsCountEachCancellationOnceTest() {
+        assertEquals(0, ThumbnailCreationQueue.size());
+        final var before = ThumbnailCreationQueue.getStatistics();
+
+        // canceled and removed by its controller
+        final var removed = ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(new MyThumbnailQueueRequestCallbackHandler(), new SortableDefaultMutableTreeNode(), QUEUE_PRIORITY.HIGH_PRIORITY, new Dimension(350, 350)));
+        removed.cancel();
+        ThumbnailCreationQueue.removeFromQueue(removed);
+        ThumbnailCreationQueue.removeFromQueue(removed);
+
+        // replaced by a request for another size
+        final var replacingHandler = new MyThumbnailQueueRequestCallbackHandler();
+        final var node = new SortableDefaultMutableTreeNode();
+        final var replaced = ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(replacingHandler, node, QUEUE_PRIORITY.HIGH_PRIORITY, new Dimension(350, 350)));
+        ThumbnailCreationQueue.requestThumbnailCreation(new ThumbnailQueueRequest(replacingHandler, node, QUEUE_PRIORITY.HIGH_PRIORITY, new Dimension(400, 350)));
+        ThumbnailCreationQueue.removeFromQueue(replaced);
+
+        // canceled while a daemon was working on it
+        final var inFlight = ThumbnailCreationQueue.poll();
+        assertNotNull(inFlight);
+        inFlight.cancel();
+        ThumbnailCreationQueue.removeFromQueue(inFlight);
+        ThumbnailCreationQueue.requestProcessed(inFlight, 1_000_000);
+
+        final var after = ThumbnailCreationQueue.getStatistics();
+        assertEquals(before.submitted() + 3, after.submitted());
+        assertEquals(before.canceled() + 3, after.canceled());
+        assertEquals(before.completed(), after.completed());
+        assertEquals(0, after.queueDepth());
+        ThumbnailCreationQueue.clear();
+    }
+
     private static class MyThumbnailQueueRequestCallbackHandler implements ThumbnailQueueRequestCallbackHandler {
 
         private final ArrayList<ThumbnailQueueRequest> receivedNotifiactions = new ArrayList<>();